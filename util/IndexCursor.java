@@ -0,0 +1,433 @@
+package babs.mindforge.util;
+
+import java.util.Objects;
+
+/**
+ * IndexCursor class is a reusable, mutable position in a multi-dimensional array that keeps the flat offset of its
+ * position up to date as it moves. Unlike {@link Index}, which allocates and validates a new int array for every
+ * position, an IndexCursor is created once per traversal and then moved in place, so turning N-dimensional
+ * coordinates into a flat offset does not allocate. The flat offset is found from the stride of each dimension, so an
+ * IndexCursor works for row-major, column-major and strided layouts alike. {@link #increment()} steps through the
+ * positions in row-major order with carry, updating the flat offset by adding or subtracting strides instead of
+ * recomputing it. IndexCursor converts to and from Index for use at API boundaries. Like an Iterator, IndexCursor is
+ * intended to be used by a single thread and is not thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see Index
+ * @since JDK-21
+ */
+public class IndexCursor {
+	
+	/**
+	 * Key class is an opaque token that an owner passes to an IndexCursor it creates, so it can later recognize that
+	 * IndexCursor with {@link IndexCursor#hasKey(Key)}. An IndexCursor never hands out its Key, so an owner that keeps
+	 * its Key private is the only one that can create IndexCursors with it.
+	 * 
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @since JDK-21
+	 */
+	public static final class Key {
+		
+		/**
+		 * Constructor that creates a new Key that is only equal to itself.
+		 * @since JDK-21
+		 */
+		public Key() {}
+	
+	}
+	
+	/**
+	 * The size of each dimension.
+	 */
+	private final int[] shape;
+	/**
+	 * The distance between the flat offsets of consecutive positions in each dimension.
+	 */
+	private final int[] strides;
+	/**
+	 * The flat offset of the first position.
+	 */
+	private final int base;
+	/**
+	 * The index value of each dimension at the current position.
+	 */
+	private final int[] value;
+	/**
+	 * The flat offset of the current position.
+	 */
+	private int offset;
+	/**
+	 * The Key of the owner that created the IndexCursor, or null.
+	 */
+	private final Key key;
+	
+	/**
+	 * Constructor that creates an IndexCursor at the first position of a row-major array with the specified shape.
+	 * @param shape The size of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the array would have more than
+	 * {@link Index#MAX} elements.
+	 * @throws NullPointerException Thrown if shape is null.
+	 * @since JDK-21
+	 */
+	public IndexCursor(int ...shape)
+			throws IllegalArgumentException, NullPointerException {
+		this(shape, rowMajorStrides(shape), 0);
+	}
+	
+	/**
+	 * Constructor that creates an IndexCursor at the first position of a row-major array with the shape given by the
+	 * specified Index.
+	 * @param shape The Index holding the size of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the array would have more than
+	 * {@link Index#MAX} elements.
+	 * @throws NullPointerException Thrown if shape is null.
+	 * @since JDK-21
+	 */
+	public IndexCursor(Index shape)
+			throws IllegalArgumentException, NullPointerException {
+		this(Objects.requireNonNull(shape).value());
+	}
+	
+	/**
+	 * Constructor that creates an IndexCursor at the first position of an array with the specified shape, strides
+	 * and flat offset of its first position.
+	 * @param shape The size of each dimension.
+	 * @param strides The stride of each dimension.
+	 * @param offset The flat offset of the first position.
+	 * @throws IllegalArgumentException Thrown if shape and strides have different lengths or if a dimension is
+	 * negative.
+	 * @throws NullPointerException Thrown if shape or strides is null.
+	 * @since JDK-21
+	 */
+	public IndexCursor(int[] shape, int[] strides, int offset)
+			throws IllegalArgumentException, NullPointerException {
+		this(shape, strides, offset, null);
+	}
+	
+	/**
+	 * Constructor that creates an IndexCursor at the first position of an array with the specified shape, strides
+	 * and flat offset of its first position, tagged with the specified Key. An owner that keeps its Key private can
+	 * then recognize the IndexCursor by {@link #hasKey(Key)} and trust that its layout is the owner's own.
+	 * @param shape The size of each dimension.
+	 * @param strides The stride of each dimension.
+	 * @param offset The flat offset of the first position.
+	 * @param key The Key of the owner, or null.
+	 * @throws IllegalArgumentException Thrown if shape and strides have different lengths or if a dimension is
+	 * negative.
+	 * @throws NullPointerException Thrown if shape or strides is null.
+	 * @since JDK-21
+	 */
+	public IndexCursor(int[] shape, int[] strides, int offset, Key key)
+			throws IllegalArgumentException, NullPointerException {
+		if (shape == null || strides == null)
+			throw new NullPointerException("Cannot create an IndexCursor with a null shape or strides.");
+		if (shape.length != strides.length)
+			throw new IllegalArgumentException("Cannot create an IndexCursor without a stride for each dimension.");
+		
+		for (int i = 0; i < shape.length; ++i) {
+			if (shape[i] < 0)
+				throw new IllegalArgumentException("Cannot create an IndexCursor with a negative dimension.");
+		}
+		
+		this.shape = shape.clone();
+		this.strides = strides.clone();
+		base = offset;
+		value = new int[shape.length];
+		this.offset = offset;
+		this.key = key;
+	}
+	
+	/**
+	 * Returns the index value of the specified dimension at the current position.
+	 * @param dim The dimension.
+	 * @return The index value of dim.
+	 * @throws IndexOutOfBoundsException Thrown if dim is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int get(int dim)
+			throws IndexOutOfBoundsException {
+		return value[dim];
+	}
+	
+	/**
+	 * Returns true if this IndexCursor was created with the specified Key.
+	 * @param key The Key to check.
+	 * @return True if key is the non-null Key of this, otherwise false.
+	 * @since JDK-21
+	 */
+	public boolean hasKey(Key key) {
+		return key != null && this.key == key;
+	}
+	
+	/**
+	 * Moves this IndexCursor to the next position in row-major order, carrying into the previous dimension whenever
+	 * a dimension wraps around. After the last position, this IndexCursor wraps around to the first position and
+	 * false is returned, so a non-empty array can be traversed with
+	 * <code>do { ... } while (cursor.increment());</code>.
+	 * @return True if this moved to a new position, or false if it wrapped around to the first position.
+	 * @since JDK-21
+	 */
+	public boolean increment() {
+		for (int d = value.length - 1; d >= 0; --d) {
+			if (++value[d] < shape[d]) {
+				offset += strides[d];
+				return true;
+			}
+			
+			offset -= (value[d] - 1) * strides[d];
+			value[d] = 0;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns the flat offset of the current position of this IndexCursor.
+	 * @return The flat offset of this.
+	 * @since JDK-21
+	 */
+	public int offset() {
+		return offset;
+	}
+	
+	/**
+	 * Returns the flat offset of the specified position of a one-dimensional array, without moving this IndexCursor.
+	 * @param i0 The index value of dimension 0.
+	 * @return The flat offset of the position.
+	 * @throws IndexOutOfBoundsException Thrown if this IndexCursor does not have 1 dimension or if i0 is
+	 * out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int offsetOf(int i0)
+			throws IndexOutOfBoundsException {
+		checkRank(1);
+		return base + Objects.checkIndex(i0, shape[0]) * strides[0];
+	}
+	
+	/**
+	 * Returns the flat offset of the specified position of a two-dimensional array, without moving this IndexCursor.
+	 * @param i0 The index value of dimension 0.
+	 * @param i1 The index value of dimension 1.
+	 * @return The flat offset of the position.
+	 * @throws IndexOutOfBoundsException Thrown if this IndexCursor does not have 2 dimensions or if an index value
+	 * is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int offsetOf(int i0, int i1)
+			throws IndexOutOfBoundsException {
+		checkRank(2);
+		return base + Objects.checkIndex(i0, shape[0]) * strides[0] + Objects.checkIndex(i1, shape[1]) * strides[1];
+	}
+	
+	/**
+	 * Returns the flat offset of the specified position of a three-dimensional array, without moving this
+	 * IndexCursor.
+	 * @param i0 The index value of dimension 0.
+	 * @param i1 The index value of dimension 1.
+	 * @param i2 The index value of dimension 2.
+	 * @return The flat offset of the position.
+	 * @throws IndexOutOfBoundsException Thrown if this IndexCursor does not have 3 dimensions or if an index value
+	 * is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int offsetOf(int i0, int i1, int i2)
+			throws IndexOutOfBoundsException {
+		checkRank(3);
+		return base + Objects.checkIndex(i0, shape[0]) * strides[0] + Objects.checkIndex(i1, shape[1]) * strides[1]
+				+ Objects.checkIndex(i2, shape[2]) * strides[2];
+	}
+	
+	/**
+	 * Returns the flat offset of the position at the specified Index, without moving this IndexCursor.
+	 * @param index The Index of the position.
+	 * @return The flat offset of the position.
+	 * @throws IndexOutOfBoundsException Thrown if index does not have one value per dimension, or if a value is
+	 * out-of-bounds.
+	 * @throws NullPointerException Thrown if index is null.
+	 * @since JDK-21
+	 */
+	public int offsetOf(Index index)
+			throws IndexOutOfBoundsException, NullPointerException {
+		if (index == null)
+			throw new NullPointerException("Cannot find the offset of a null Index.");
+		
+		int[] v = index.value();
+		checkRank(v.length);
+		
+		int ret = base;
+		
+		for (int i = 0; i < v.length; ++i)
+			ret += Objects.checkIndex(v[i], shape[i]) * strides[i];
+		
+		return ret;
+	}
+	
+	/**
+	 * Returns the number of dimensions of this IndexCursor.
+	 * @return The rank of this.
+	 * @since JDK-21
+	 */
+	public int rank() {
+		return shape.length;
+	}
+	
+	/**
+	 * Moves this IndexCursor back to its first position.
+	 * @since JDK-21
+	 */
+	public void reset() {
+		for (int i = 0; i < value.length; ++i)
+			value[i] = 0;
+		
+		offset = base;
+	}
+	
+	/**
+	 * Sets the index value of the specified dimension, leaving the other dimensions unchanged.
+	 * @param dim The dimension.
+	 * @param index The new index value of dim.
+	 * @throws IndexOutOfBoundsException Thrown if dim or index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void set(int dim, int index)
+			throws IndexOutOfBoundsException {
+		Objects.checkIndex(index, shape[dim]);
+		
+		offset += (index - value[dim]) * strides[dim];
+		value[dim] = index;
+	}
+	
+	/**
+	 * Moves this IndexCursor to the position at the specified Index.
+	 * @param index The Index of the position.
+	 * @throws IndexOutOfBoundsException Thrown if index does not have one value per dimension, or if a value is
+	 * out-of-bounds.
+	 * @throws NullPointerException Thrown if index is null.
+	 * @since JDK-21
+	 */
+	public void set(Index index)
+			throws IndexOutOfBoundsException, NullPointerException {
+		if (index == null)
+			throw new NullPointerException("Cannot set an IndexCursor to a null Index.");
+		
+		set(index.value());
+	}
+	
+	/**
+	 * Moves this IndexCursor to the position with the specified index values. The array is not kept, so it can be
+	 * reused by the caller.
+	 * @param values The index value of each dimension.
+	 * @throws IndexOutOfBoundsException Thrown if values does not have one value per dimension, or if a value is
+	 * out-of-bounds.
+	 * @throws NullPointerException Thrown if values is null.
+	 * @since JDK-21
+	 */
+	public void set(int[] values)
+			throws IndexOutOfBoundsException, NullPointerException {
+		if (values == null)
+			throw new NullPointerException("Cannot set an IndexCursor to null index values.");
+		
+		checkRank(values.length);
+		
+		int off = base;
+		
+		for (int i = 0; i < values.length; ++i)
+			off += Objects.checkIndex(values[i], shape[i]) * strides[i];
+		
+		System.arraycopy(values, 0, value, 0, values.length);
+		offset = off;
+	}
+	
+	/**
+	 * Returns the size of the specified dimension.
+	 * @param dim The dimension.
+	 * @return The size of dim.
+	 * @throws IndexOutOfBoundsException Thrown if dim is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int shape(int dim)
+			throws IndexOutOfBoundsException {
+		return shape[dim];
+	}
+	
+	/**
+	 * Returns the stride of the specified dimension.
+	 * @param dim The dimension.
+	 * @return The stride of dim.
+	 * @throws IndexOutOfBoundsException Thrown if dim is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int stride(int dim)
+			throws IndexOutOfBoundsException {
+		return strides[dim];
+	}
+	
+	/**
+	 * Returns the current position of this IndexCursor as a new Index.
+	 * @return An Index of the current position of this.
+	 * @since JDK-21
+	 */
+	public Index toIndex() {
+		return new Index(value.clone());
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder();
+		
+		for (int i = 0; i < value.length; ++i) {
+			if (i > 0)
+				ret.append(' ');
+			
+			ret.append(value[i]);
+		}
+		
+		return ret.append(" @ ").append(offset).toString();
+	}
+	
+	/**
+	 * Checks that this IndexCursor has the specified number of dimensions.
+	 * @param rank The expected number of dimensions.
+	 * @throws IndexOutOfBoundsException Thrown if this does not have rank dimensions.
+	 * @since JDK-21
+	 */
+	private void checkRank(int rank)
+			throws IndexOutOfBoundsException {
+		if (rank != shape.length)
+			throw new IndexOutOfBoundsException("Index rank does not match IndexCursor rank.");
+	}
+	
+	/**
+	 * Returns the row-major strides of an array with the specified shape.
+	 * @param shape The size of each dimension.
+	 * @return The stride of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the array would have more than
+	 * {@link Index#MAX} elements.
+	 * @throws NullPointerException Thrown if shape is null.
+	 * @since JDK-21
+	 */
+	private static int[] rowMajorStrides(int[] shape)
+			throws IllegalArgumentException, NullPointerException {
+		if (shape == null)
+			throw new NullPointerException("Cannot create an IndexCursor with a null shape.");
+		
+		int[] ret = new int[shape.length];
+		long n = 1;
+		
+		for (int i = shape.length - 1; i >= 0; --i) {
+			if (shape[i] < 0)
+				throw new IllegalArgumentException("Cannot create an IndexCursor with a negative dimension.");
+			
+			ret[i] = (int)n;
+			n *= shape[i];
+			
+			if (n > Index.MAX)
+				throw new IllegalArgumentException("Cannot create an IndexCursor with more than Index.MAX elements.");
+		}
+		
+		return ret;
+	}
+
+}
@@ -0,0 +1,487 @@
+package babs.mindforge.util.primitivearray;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+import babs.mindforge.util.ArrayInto;
+
+/**
+ * AtomicDoubleArray class is a wrapper for a primitive double array whose elements are read and written atomically,
+ * one element at a time, through a {@link VarHandle}. Unlike {@link DoubleArray}, no array-wide lock is involved, so
+ * threads that update different elements never block each other, and updates to the same element use a single
+ * compare-and-set instead of a lock. Each element supports volatile, opaque and acquire/release access, as well as
+ * atomic compare-and-set, get-and-add and accumulate operations. VarHandles have no atomic add for double elements, so
+ * adding is done with a compare-and-set loop, and compare-and-set compares the raw bits of the values, so NaN values
+ * can be compared and 0.0 and -0.0 are different. Operations that read more than one element, such as
+ * {@link #toArray()}, read each element atomically but are not a snapshot of the whole array. AtomicDoubleArray
+ * implements PrimitiveArray and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see DoubleArray
+ * @see PrimitiveArray
+ * @since JDK-21
+ */
+public class AtomicDoubleArray implements PrimitiveArray {
+	
+	/**
+	 * The VarHandle used to access the elements of a double array.
+	 */
+	private static final VarHandle AA = MethodHandles.arrayElementVarHandle(double[].class);
+	
+	/**
+	 * The double array backing the AtomicDoubleArray.
+	 */
+	private final double[] arr;
+	
+	/**
+	 * Constructor that creates an AtomicDoubleArray with the specified size with all elements set to 0.
+	 * @param size The size of this AtomicDoubleArray.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @since JDK-21
+	 */
+	public AtomicDoubleArray(int size)
+			throws NegativeArraySizeException {
+		if (size < 0)
+			throw new NegativeArraySizeException("Cannot create an AtomicDoubleArray with a negative size.");
+		
+		arr = new double[size];
+	}
+	
+	/**
+	 * Constructor that creates an AtomicDoubleArray containing a copy of the specified double array.
+	 * @param array The double array to copy.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public AtomicDoubleArray(double[] array)
+			throws NullPointerException {
+		if (array == null)
+			throw new NullPointerException("Cannot create an AtomicDoubleArray from a null double array.");
+		
+		arr = array.clone();
+	}
+	
+	/**
+	 * Atomically applies the specified function to the element at the specified index and the specified value,
+	 * and sets the element to the result. The function may be applied more than once if other threads update the
+	 * element at the same time, so it must be side-effect-free.
+	 * @param index The index of the element to update.
+	 * @param x The value to combine with the element.
+	 * @param function The function that combines the element and x.
+	 * @return The updated value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws NullPointerException Thrown if function is null.
+	 * @since JDK-21
+	 */
+	public double accumulateAndGet(int index, double x, DoubleBinaryOperator function)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (function == null)
+			throw new NullPointerException("Cannot accumulate an AtomicDoubleArray element with a null function.");
+		
+		double prev = (double)AA.getVolatile(arr, index);
+		
+		while (true) {
+			double next = function.applyAsDouble(prev, x);
+			double witness = (double)AA.compareAndExchange(arr, index, prev, next);
+			
+			if (Double.doubleToRawLongBits(witness) == Double.doubleToRawLongBits(prev))
+				return next;
+			
+			prev = witness;
+		}
+	}
+	
+	/**
+	 * Atomically adds the specified value to the element at the specified index.
+	 * @param index The index of the element to add to.
+	 * @param delta The value to add.
+	 * @return The updated value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public double addAndGet(int index, double delta)
+			throws ArrayIndexOutOfBoundsException {
+		return accumulateAndGet(index, delta, Double::sum);
+	}
+	
+	/**
+	 * Atomically sets the element at the specified index to the specified update value if it is equal to the
+	 * specified expected value, and returns the value the element had, which is equal to expect if the update
+	 * happened.
+	 * @param index The index of the element to update.
+	 * @param expect The expected value.
+	 * @param update The new value.
+	 * @return The value of the element before the operation.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public double compareAndExchange(int index, double expect, double update)
+			throws ArrayIndexOutOfBoundsException {
+		return (double)AA.compareAndExchange(arr, index, expect, update);
+	}
+	
+	/**
+	 * Atomically sets the element at the specified index to the specified update value if it is equal to the
+	 * specified expected value.
+	 * @param index The index of the element to update.
+	 * @param expect The expected value.
+	 * @param update The new value.
+	 * @return True if the element was updated, or false if it was not equal to expect.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public boolean compareAndSet(int index, double expect, double update)
+			throws ArrayIndexOutOfBoundsException {
+		return AA.compareAndSet(arr, index, expect, update);
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) != -1;
+	}
+	
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		if (c == null)
+			return false;
+		
+		Iterator<?> it = c.iterator();
+		
+		while (it.hasNext()) {
+			if (!contains(it.next()))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public Double get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getDouble(index);
+	}
+	
+	/**
+	 * Returns the value of the element at the specified index, with acquire ordering, so that writes made before a
+	 * matching {@link #setRelease(int, double)} are visible after it.
+	 * @param index The index of the element to read.
+	 * @return The value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public double getAcquire(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return (double)AA.getAcquire(arr, index);
+	}
+	
+	/**
+	 * Atomically applies the specified function to the element at the specified index and the specified value,
+	 * and sets the element to the result. The function may be applied more than once if other threads update the
+	 * element at the same time, so it must be side-effect-free.
+	 * @param index The index of the element to update.
+	 * @param x The value to combine with the element.
+	 * @param function The function that combines the element and x.
+	 * @return The previous value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws NullPointerException Thrown if function is null.
+	 * @since JDK-21
+	 */
+	public double getAndAccumulate(int index, double x, DoubleBinaryOperator function)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (function == null)
+			throw new NullPointerException("Cannot accumulate an AtomicDoubleArray element with a null function.");
+		
+		double prev = (double)AA.getVolatile(arr, index);
+		
+		while (true) {
+			double witness = (double)AA.compareAndExchange(arr, index, prev, function.applyAsDouble(prev, x));
+			
+			if (Double.doubleToRawLongBits(witness) == Double.doubleToRawLongBits(prev))
+				return prev;
+			
+			prev = witness;
+		}
+	}
+	
+	/**
+	 * Atomically adds the specified value to the element at the specified index.
+	 * @param index The index of the element to add to.
+	 * @param delta The value to add.
+	 * @return The previous value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public double getAndAdd(int index, double delta)
+			throws ArrayIndexOutOfBoundsException {
+		return getAndAccumulate(index, delta, Double::sum);
+	}
+	
+	/**
+	 * Atomically sets the element at the specified index to the specified value.
+	 * @param index The index of the element to set.
+	 * @param value The new value.
+	 * @return The previous value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public double getAndSet(int index, double value)
+			throws ArrayIndexOutOfBoundsException {
+		return (double)AA.getAndSet(arr, index, value);
+	}
+	
+	/**
+	 * Atomically applies the specified function to the element at the specified index and sets the element to the
+	 * result. The function may be applied more than once if other threads update the element at the same time, so it
+	 * must be side-effect-free.
+	 * @param index The index of the element to update.
+	 * @param function The function that computes the new value from the element.
+	 * @return The previous value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws NullPointerException Thrown if function is null.
+	 * @since JDK-21
+	 */
+	public double getAndUpdate(int index, DoubleUnaryOperator function)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (function == null)
+			throw new NullPointerException("Cannot update an AtomicDoubleArray element with a null function.");
+		
+		double prev = (double)AA.getVolatile(arr, index);
+		
+		while (true) {
+			double witness = (double)AA.compareAndExchange(arr, index, prev, function.applyAsDouble(prev));
+			
+			if (Double.doubleToRawLongBits(witness) == Double.doubleToRawLongBits(prev))
+				return prev;
+			
+			prev = witness;
+		}
+	}
+	
+	/**
+	 * Returns the value of the element at the specified index, with volatile ordering.
+	 * @param index The index of the element to read.
+	 * @return The value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public double getDouble(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return (double)AA.getVolatile(arr, index);
+	}
+	
+	/**
+	 * Returns the value of the element at the specified index, with opaque ordering. The read is atomic and never
+	 * reordered with other accesses to the same element, but gives no ordering guarantees for other variables.
+	 * @param index The index of the element to read.
+	 * @return The value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public double getOpaque(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return (double)AA.getOpaque(arr, index);
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (!(o instanceof Double))
+			return -1;
+		
+		double value = (Double)o;
+		
+		for (int i = 0; i < arr.length; ++i) {
+			if ((double)AA.getVolatile(arr, i) == value)
+				return i;
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public Iterator<?> iterator() {
+		return ArrayInto.collection(toArray()).iterator();
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (!(o instanceof Double))
+			return -1;
+		
+		double value = (Double)o;
+		
+		for (int i = arr.length - 1; i >= 0; --i) {
+			if ((double)AA.getVolatile(arr, i) == value)
+				return i;
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set AtomicDoubleArray value to a null value.");
+		
+		if (!(o instanceof Double))
+			throw new IllegalArgumentException("Cannot set AtomicDoubleArray value to a non-Double object.");
+		
+		setDouble(index, (Double)o);
+	}
+	
+	/**
+	 * Sets the element at the specified index to the specified value, with volatile ordering.
+	 * @param index The index of the element to set.
+	 * @param value The new value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setDouble(int index, double value)
+			throws ArrayIndexOutOfBoundsException {
+		AA.setVolatile(arr, index, value);
+	}
+	
+	/**
+	 * Sets the element at the specified index to the specified value, with opaque ordering. The write is atomic
+	 * and is eventually seen by other threads, but gives no ordering guarantees for other variables.
+	 * @param index The index of the element to set.
+	 * @param value The new value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setOpaque(int index, double value)
+			throws ArrayIndexOutOfBoundsException {
+		AA.setOpaque(arr, index, value);
+	}
+	
+	/**
+	 * Sets the element at the specified index to the specified value, with release ordering, so that writes made
+	 * before it are visible to a thread that reads the value with {@link #getAcquire(int)}.
+	 * @param index The index of the element to set.
+	 * @param value The new value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setRelease(int index, double value)
+			throws ArrayIndexOutOfBoundsException {
+		AA.setRelease(arr, index, value);
+	}
+	
+	@Override
+	public int size() {
+		return arr.length;
+	}
+	
+	@Override
+	public AtomicDoubleArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > arr.length || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		return new AtomicDoubleArray(Arrays.copyOfRange(toArray(), start, end));
+	}
+	
+	/**
+	 * Returns the elements of this AtomicDoubleArray as a new double array. Each element is read atomically, but other
+	 * threads may update elements while they are being read.
+	 * @return A double array containing the elements of this.
+	 * @since JDK-21
+	 */
+	public double[] toArray() {
+		double[] ret = new double[arr.length];
+		
+		for (int i = 0; i < arr.length; ++i)
+			ret[i] = (double)AA.getVolatile(arr, i);
+		
+		return ret;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T[] toArray(T[] a) {
+		double[] values = toArray();
+		Double[] copy = new Double[values.length];
+		
+		for (int i = 0; i < values.length; ++i)
+			copy[i] = values[i];
+		
+		if (a.length >= copy.length) {
+			for (int i = 0; i < copy.length; ++i)
+				a[i] = (T)copy[i];
+			
+			return a;
+		}
+		
+		T[] ret = (T[])copy;
+		
+		return ret;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder();
+		
+		for (int i = 0; i < arr.length; ++i) {
+			if (i > 0)
+				ret.append(' ');
+			
+			ret.append((double)AA.getVolatile(arr, i));
+		}
+		
+		return ret.toString();
+	}
+	
+	/**
+	 * Atomically applies the specified function to the element at the specified index and sets the element to the
+	 * result. The function may be applied more than once if other threads update the element at the same time, so it
+	 * must be side-effect-free.
+	 * @param index The index of the element to update.
+	 * @param function The function that computes the new value from the element.
+	 * @return The updated value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws NullPointerException Thrown if function is null.
+	 * @since JDK-21
+	 */
+	public double updateAndGet(int index, DoubleUnaryOperator function)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (function == null)
+			throw new NullPointerException("Cannot update an AtomicDoubleArray element with a null function.");
+		
+		double prev = (double)AA.getVolatile(arr, index);
+		
+		while (true) {
+			double next = function.applyAsDouble(prev);
+			double witness = (double)AA.compareAndExchange(arr, index, prev, next);
+			
+			if (Double.doubleToRawLongBits(witness) == Double.doubleToRawLongBits(prev))
+				return next;
+			
+			prev = witness;
+		}
+	}
+	
+	/**
+	 * Possibly atomically sets the element at the specified index to the specified update value if it is equal to the
+	 * specified expected value. Unlike {@link #compareAndSet(int, double, double)}, this may fail spuriously, which
+	 * makes it cheaper on some platforms when it is retried in a loop.
+	 * @param index The index of the element to update.
+	 * @param expect The expected value.
+	 * @param update The new value.
+	 * @return True if the element was updated.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public boolean weakCompareAndSet(int index, double expect, double update)
+			throws ArrayIndexOutOfBoundsException {
+		return AA.weakCompareAndSet(arr, index, expect, update);
+	}
+
+}
@@ -0,0 +1,509 @@
+package babs.mindforge.util.primitivearray;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+import babs.mindforge.util.ArrayInto;
+
+/**
+ * AtomicIntegerArray class is a wrapper for a primitive int array whose elements are read and written atomically, one
+ * element at a time, through a {@link VarHandle}. Unlike {@link IntegerArray}, no array-wide lock is involved, so
+ * threads that update different elements never block each other, and updates to the same element use a single
+ * compare-and-set instead of a lock. Each element supports volatile, opaque and acquire/release access, as well as
+ * atomic compare-and-set, get-and-add and accumulate operations. Operations that read more than one element, such as
+ * {@link #toArray()}, read each element atomically but are not a snapshot of the whole array. AtomicIntegerArray
+ * implements PrimitiveArray and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see IntegerArray
+ * @see PrimitiveArray
+ * @since JDK-21
+ */
+public class AtomicIntegerArray implements PrimitiveArray {
+	
+	/**
+	 * The VarHandle used to access the elements of an int array.
+	 */
+	private static final VarHandle AA = MethodHandles.arrayElementVarHandle(int[].class);
+	
+	/**
+	 * The int array backing the AtomicIntegerArray.
+	 */
+	private final int[] arr;
+	
+	/**
+	 * Constructor that creates an AtomicIntegerArray with the specified size with all elements set to 0.
+	 * @param size The size of this AtomicIntegerArray.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @since JDK-21
+	 */
+	public AtomicIntegerArray(int size)
+			throws NegativeArraySizeException {
+		if (size < 0)
+			throw new NegativeArraySizeException("Cannot create an AtomicIntegerArray with a negative size.");
+		
+		arr = new int[size];
+	}
+	
+	/**
+	 * Constructor that creates an AtomicIntegerArray containing a copy of the specified int array.
+	 * @param array The int array to copy.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public AtomicIntegerArray(int[] array)
+			throws NullPointerException {
+		if (array == null)
+			throw new NullPointerException("Cannot create an AtomicIntegerArray from a null int array.");
+		
+		arr = array.clone();
+	}
+	
+	/**
+	 * Atomically applies the specified function to the element at the specified index and the specified value,
+	 * and sets the element to the result. The function may be applied more than once if other threads update the
+	 * element at the same time, so it must be side-effect-free.
+	 * @param index The index of the element to update.
+	 * @param x The value to combine with the element.
+	 * @param function The function that combines the element and x.
+	 * @return The updated value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws NullPointerException Thrown if function is null.
+	 * @since JDK-21
+	 */
+	public int accumulateAndGet(int index, int x, IntBinaryOperator function)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (function == null)
+			throw new NullPointerException("Cannot accumulate an AtomicIntegerArray element with a null function.");
+		
+		int prev = (int)AA.getVolatile(arr, index);
+		
+		while (true) {
+			int next = function.applyAsInt(prev, x);
+			int witness = (int)AA.compareAndExchange(arr, index, prev, next);
+			
+			if (witness == prev)
+				return next;
+			
+			prev = witness;
+		}
+	}
+	
+	/**
+	 * Atomically adds the specified value to the element at the specified index.
+	 * @param index The index of the element to add to.
+	 * @param delta The value to add.
+	 * @return The updated value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int addAndGet(int index, int delta)
+			throws ArrayIndexOutOfBoundsException {
+		return (int)AA.getAndAdd(arr, index, delta) + delta;
+	}
+	
+	/**
+	 * Atomically sets the element at the specified index to the specified update value if it is equal to the
+	 * specified expected value, and returns the value the element had, which is equal to expect if the update
+	 * happened.
+	 * @param index The index of the element to update.
+	 * @param expect The expected value.
+	 * @param update The new value.
+	 * @return The value of the element before the operation.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int compareAndExchange(int index, int expect, int update)
+			throws ArrayIndexOutOfBoundsException {
+		return (int)AA.compareAndExchange(arr, index, expect, update);
+	}
+	
+	/**
+	 * Atomically sets the element at the specified index to the specified update value if it is equal to the
+	 * specified expected value.
+	 * @param index The index of the element to update.
+	 * @param expect The expected value.
+	 * @param update The new value.
+	 * @return True if the element was updated, or false if it was not equal to expect.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public boolean compareAndSet(int index, int expect, int update)
+			throws ArrayIndexOutOfBoundsException {
+		return AA.compareAndSet(arr, index, expect, update);
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) != -1;
+	}
+	
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		if (c == null)
+			return false;
+		
+		Iterator<?> it = c.iterator();
+		
+		while (it.hasNext()) {
+			if (!contains(it.next()))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Atomically subtracts 1 from the element at the specified index.
+	 * @param index The index of the element to decrement.
+	 * @return The updated value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int decrementAndGet(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return addAndGet(index, -1);
+	}
+	
+	@Override
+	public Integer get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getInt(index);
+	}
+	
+	/**
+	 * Returns the value of the element at the specified index, with acquire ordering, so that writes made before a
+	 * matching {@link #setRelease(int, int)} are visible after it.
+	 * @param index The index of the element to read.
+	 * @return The value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int getAcquire(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return (int)AA.getAcquire(arr, index);
+	}
+	
+	/**
+	 * Atomically applies the specified function to the element at the specified index and the specified value,
+	 * and sets the element to the result. The function may be applied more than once if other threads update the
+	 * element at the same time, so it must be side-effect-free.
+	 * @param index The index of the element to update.
+	 * @param x The value to combine with the element.
+	 * @param function The function that combines the element and x.
+	 * @return The previous value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws NullPointerException Thrown if function is null.
+	 * @since JDK-21
+	 */
+	public int getAndAccumulate(int index, int x, IntBinaryOperator function)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (function == null)
+			throw new NullPointerException("Cannot accumulate an AtomicIntegerArray element with a null function.");
+		
+		int prev = (int)AA.getVolatile(arr, index);
+		
+		while (true) {
+			int witness = (int)AA.compareAndExchange(arr, index, prev, function.applyAsInt(prev, x));
+			
+			if (witness == prev)
+				return prev;
+			
+			prev = witness;
+		}
+	}
+	
+	/**
+	 * Atomically adds the specified value to the element at the specified index.
+	 * @param index The index of the element to add to.
+	 * @param delta The value to add.
+	 * @return The previous value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int getAndAdd(int index, int delta)
+			throws ArrayIndexOutOfBoundsException {
+		return (int)AA.getAndAdd(arr, index, delta);
+	}
+	
+	/**
+	 * Atomically sets the element at the specified index to the specified value.
+	 * @param index The index of the element to set.
+	 * @param value The new value.
+	 * @return The previous value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int getAndSet(int index, int value)
+			throws ArrayIndexOutOfBoundsException {
+		return (int)AA.getAndSet(arr, index, value);
+	}
+	
+	/**
+	 * Atomically applies the specified function to the element at the specified index and sets the element to the
+	 * result. The function may be applied more than once if other threads update the element at the same time, so it
+	 * must be side-effect-free.
+	 * @param index The index of the element to update.
+	 * @param function The function that computes the new value from the element.
+	 * @return The previous value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws NullPointerException Thrown if function is null.
+	 * @since JDK-21
+	 */
+	public int getAndUpdate(int index, IntUnaryOperator function)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (function == null)
+			throw new NullPointerException("Cannot update an AtomicIntegerArray element with a null function.");
+		
+		int prev = (int)AA.getVolatile(arr, index);
+		
+		while (true) {
+			int witness = (int)AA.compareAndExchange(arr, index, prev, function.applyAsInt(prev));
+			
+			if (witness == prev)
+				return prev;
+			
+			prev = witness;
+		}
+	}
+	
+	/**
+	 * Returns the value of the element at the specified index, with volatile ordering.
+	 * @param index The index of the element to read.
+	 * @return The value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int getInt(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return (int)AA.getVolatile(arr, index);
+	}
+	
+	/**
+	 * Returns the value of the element at the specified index, with opaque ordering. The read is atomic and never
+	 * reordered with other accesses to the same element, but gives no ordering guarantees for other variables.
+	 * @param index The index of the element to read.
+	 * @return The value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int getOpaque(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return (int)AA.getOpaque(arr, index);
+	}
+	
+	/**
+	 * Atomically adds 1 to the element at the specified index.
+	 * @param index The index of the element to increment.
+	 * @return The updated value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int incrementAndGet(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return addAndGet(index, 1);
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (!(o instanceof Integer))
+			return -1;
+		
+		int value = (Integer)o;
+		
+		for (int i = 0; i < arr.length; ++i) {
+			if ((int)AA.getVolatile(arr, i) == value)
+				return i;
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public Iterator<?> iterator() {
+		return ArrayInto.collection(toArray()).iterator();
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (!(o instanceof Integer))
+			return -1;
+		
+		int value = (Integer)o;
+		
+		for (int i = arr.length - 1; i >= 0; --i) {
+			if ((int)AA.getVolatile(arr, i) == value)
+				return i;
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set AtomicIntegerArray value to a null value.");
+		
+		if (!(o instanceof Integer))
+			throw new IllegalArgumentException("Cannot set AtomicIntegerArray value to a non-Integer object.");
+		
+		setInt(index, (Integer)o);
+	}
+	
+	/**
+	 * Sets the element at the specified index to the specified value, with volatile ordering.
+	 * @param index The index of the element to set.
+	 * @param value The new value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setInt(int index, int value)
+			throws ArrayIndexOutOfBoundsException {
+		AA.setVolatile(arr, index, value);
+	}
+	
+	/**
+	 * Sets the element at the specified index to the specified value, with opaque ordering. The write is atomic
+	 * and is eventually seen by other threads, but gives no ordering guarantees for other variables.
+	 * @param index The index of the element to set.
+	 * @param value The new value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setOpaque(int index, int value)
+			throws ArrayIndexOutOfBoundsException {
+		AA.setOpaque(arr, index, value);
+	}
+	
+	/**
+	 * Sets the element at the specified index to the specified value, with release ordering, so that writes made
+	 * before it are visible to a thread that reads the value with {@link #getAcquire(int)}.
+	 * @param index The index of the element to set.
+	 * @param value The new value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setRelease(int index, int value)
+			throws ArrayIndexOutOfBoundsException {
+		AA.setRelease(arr, index, value);
+	}
+	
+	@Override
+	public int size() {
+		return arr.length;
+	}
+	
+	@Override
+	public AtomicIntegerArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > arr.length || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		return new AtomicIntegerArray(Arrays.copyOfRange(toArray(), start, end));
+	}
+	
+	/**
+	 * Returns the elements of this AtomicIntegerArray as a new int array. Each element is read atomically, but other
+	 * threads may update elements while they are being read.
+	 * @return An int array containing the elements of this.
+	 * @since JDK-21
+	 */
+	public int[] toArray() {
+		int[] ret = new int[arr.length];
+		
+		for (int i = 0; i < arr.length; ++i)
+			ret[i] = (int)AA.getVolatile(arr, i);
+		
+		return ret;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T[] toArray(T[] a) {
+		int[] values = toArray();
+		Integer[] copy = new Integer[values.length];
+		
+		for (int i = 0; i < values.length; ++i)
+			copy[i] = values[i];
+		
+		if (a.length >= copy.length) {
+			for (int i = 0; i < copy.length; ++i)
+				a[i] = (T)copy[i];
+			
+			return a;
+		}
+		
+		T[] ret = (T[])copy;
+		
+		return ret;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder();
+		
+		for (int i = 0; i < arr.length; ++i) {
+			if (i > 0)
+				ret.append(' ');
+			
+			ret.append((int)AA.getVolatile(arr, i));
+		}
+		
+		return ret.toString();
+	}
+	
+	/**
+	 * Atomically applies the specified function to the element at the specified index and sets the element to the
+	 * result. The function may be applied more than once if other threads update the element at the same time, so it
+	 * must be side-effect-free.
+	 * @param index The index of the element to update.
+	 * @param function The function that computes the new value from the element.
+	 * @return The updated value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws NullPointerException Thrown if function is null.
+	 * @since JDK-21
+	 */
+	public int updateAndGet(int index, IntUnaryOperator function)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (function == null)
+			throw new NullPointerException("Cannot update an AtomicIntegerArray element with a null function.");
+		
+		int prev = (int)AA.getVolatile(arr, index);
+		
+		while (true) {
+			int next = function.applyAsInt(prev);
+			int witness = (int)AA.compareAndExchange(arr, index, prev, next);
+			
+			if (witness == prev)
+				return next;
+			
+			prev = witness;
+		}
+	}
+	
+	/**
+	 * Possibly atomically sets the element at the specified index to the specified update value if it is equal to
+	 * the specified expected value. Unlike {@link #compareAndSet(int, int, int)}, this may fail spuriously, which
+	 * makes it cheaper on some platforms when it is retried in a loop.
+	 * @param index The index of the element to update.
+	 * @param expect The expected value.
+	 * @param update The new value.
+	 * @return True if the element was updated.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public boolean weakCompareAndSet(int index, int expect, int update)
+			throws ArrayIndexOutOfBoundsException {
+		return AA.weakCompareAndSet(arr, index, expect, update);
+	}
+
+}
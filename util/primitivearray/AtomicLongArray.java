@@ -0,0 +1,509 @@
+package babs.mindforge.util.primitivearray;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+
+import babs.mindforge.util.ArrayInto;
+
+/**
+ * AtomicLongArray class is a wrapper for a primitive long array whose elements are read and written atomically, one
+ * element at a time, through a {@link VarHandle}. Unlike {@link LongArray}, no array-wide lock is involved, so threads
+ * that update different elements never block each other, and updates to the same element use a single
+ * compare-and-set instead of a lock. Each element supports volatile, opaque and acquire/release access, as well as
+ * atomic compare-and-set, get-and-add and accumulate operations. Operations that read more than one element, such as
+ * {@link #toArray()}, read each element atomically but are not a snapshot of the whole array. AtomicLongArray
+ * implements PrimitiveArray and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see LongArray
+ * @see PrimitiveArray
+ * @since JDK-21
+ */
+public class AtomicLongArray implements PrimitiveArray {
+	
+	/**
+	 * The VarHandle used to access the elements of a long array.
+	 */
+	private static final VarHandle AA = MethodHandles.arrayElementVarHandle(long[].class);
+	
+	/**
+	 * The long array backing the AtomicLongArray.
+	 */
+	private final long[] arr;
+	
+	/**
+	 * Constructor that creates an AtomicLongArray with the specified size with all elements set to 0.
+	 * @param size The size of this AtomicLongArray.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @since JDK-21
+	 */
+	public AtomicLongArray(int size)
+			throws NegativeArraySizeException {
+		if (size < 0)
+			throw new NegativeArraySizeException("Cannot create an AtomicLongArray with a negative size.");
+		
+		arr = new long[size];
+	}
+	
+	/**
+	 * Constructor that creates an AtomicLongArray containing a copy of the specified long array.
+	 * @param array The long array to copy.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public AtomicLongArray(long[] array)
+			throws NullPointerException {
+		if (array == null)
+			throw new NullPointerException("Cannot create an AtomicLongArray from a null long array.");
+		
+		arr = array.clone();
+	}
+	
+	/**
+	 * Atomically applies the specified function to the element at the specified index and the specified value,
+	 * and sets the element to the result. The function may be applied more than once if other threads update the
+	 * element at the same time, so it must be side-effect-free.
+	 * @param index The index of the element to update.
+	 * @param x The value to combine with the element.
+	 * @param function The function that combines the element and x.
+	 * @return The updated value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws NullPointerException Thrown if function is null.
+	 * @since JDK-21
+	 */
+	public long accumulateAndGet(int index, long x, LongBinaryOperator function)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (function == null)
+			throw new NullPointerException("Cannot accumulate an AtomicLongArray element with a null function.");
+		
+		long prev = (long)AA.getVolatile(arr, index);
+		
+		while (true) {
+			long next = function.applyAsLong(prev, x);
+			long witness = (long)AA.compareAndExchange(arr, index, prev, next);
+			
+			if (witness == prev)
+				return next;
+			
+			prev = witness;
+		}
+	}
+	
+	/**
+	 * Atomically adds the specified value to the element at the specified index.
+	 * @param index The index of the element to add to.
+	 * @param delta The value to add.
+	 * @return The updated value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public long addAndGet(int index, long delta)
+			throws ArrayIndexOutOfBoundsException {
+		return (long)AA.getAndAdd(arr, index, delta) + delta;
+	}
+	
+	/**
+	 * Atomically sets the element at the specified index to the specified update value if it is equal to the
+	 * specified expected value, and returns the value the element had, which is equal to expect if the update
+	 * happened.
+	 * @param index The index of the element to update.
+	 * @param expect The expected value.
+	 * @param update The new value.
+	 * @return The value of the element before the operation.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public long compareAndExchange(int index, long expect, long update)
+			throws ArrayIndexOutOfBoundsException {
+		return (long)AA.compareAndExchange(arr, index, expect, update);
+	}
+	
+	/**
+	 * Atomically sets the element at the specified index to the specified update value if it is equal to the
+	 * specified expected value.
+	 * @param index The index of the element to update.
+	 * @param expect The expected value.
+	 * @param update The new value.
+	 * @return True if the element was updated, or false if it was not equal to expect.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public boolean compareAndSet(int index, long expect, long update)
+			throws ArrayIndexOutOfBoundsException {
+		return AA.compareAndSet(arr, index, expect, update);
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) != -1;
+	}
+	
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		if (c == null)
+			return false;
+		
+		Iterator<?> it = c.iterator();
+		
+		while (it.hasNext()) {
+			if (!contains(it.next()))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Atomically subtracts 1 from the element at the specified index.
+	 * @param index The index of the element to decrement.
+	 * @return The updated value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public long decrementAndGet(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return addAndGet(index, -1L);
+	}
+	
+	@Override
+	public Long get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getLong(index);
+	}
+	
+	/**
+	 * Returns the value of the element at the specified index, with acquire ordering, so that writes made before a
+	 * matching {@link #setRelease(int, long)} are visible after it.
+	 * @param index The index of the element to read.
+	 * @return The value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public long getAcquire(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return (long)AA.getAcquire(arr, index);
+	}
+	
+	/**
+	 * Atomically applies the specified function to the element at the specified index and the specified value,
+	 * and sets the element to the result. The function may be applied more than once if other threads update the
+	 * element at the same time, so it must be side-effect-free.
+	 * @param index The index of the element to update.
+	 * @param x The value to combine with the element.
+	 * @param function The function that combines the element and x.
+	 * @return The previous value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws NullPointerException Thrown if function is null.
+	 * @since JDK-21
+	 */
+	public long getAndAccumulate(int index, long x, LongBinaryOperator function)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (function == null)
+			throw new NullPointerException("Cannot accumulate an AtomicLongArray element with a null function.");
+		
+		long prev = (long)AA.getVolatile(arr, index);
+		
+		while (true) {
+			long witness = (long)AA.compareAndExchange(arr, index, prev, function.applyAsLong(prev, x));
+			
+			if (witness == prev)
+				return prev;
+			
+			prev = witness;
+		}
+	}
+	
+	/**
+	 * Atomically adds the specified value to the element at the specified index.
+	 * @param index The index of the element to add to.
+	 * @param delta The value to add.
+	 * @return The previous value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public long getAndAdd(int index, long delta)
+			throws ArrayIndexOutOfBoundsException {
+		return (long)AA.getAndAdd(arr, index, delta);
+	}
+	
+	/**
+	 * Atomically sets the element at the specified index to the specified value.
+	 * @param index The index of the element to set.
+	 * @param value The new value.
+	 * @return The previous value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public long getAndSet(int index, long value)
+			throws ArrayIndexOutOfBoundsException {
+		return (long)AA.getAndSet(arr, index, value);
+	}
+	
+	/**
+	 * Atomically applies the specified function to the element at the specified index and sets the element to the
+	 * result. The function may be applied more than once if other threads update the element at the same time, so it
+	 * must be side-effect-free.
+	 * @param index The index of the element to update.
+	 * @param function The function that computes the new value from the element.
+	 * @return The previous value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws NullPointerException Thrown if function is null.
+	 * @since JDK-21
+	 */
+	public long getAndUpdate(int index, LongUnaryOperator function)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (function == null)
+			throw new NullPointerException("Cannot update an AtomicLongArray element with a null function.");
+		
+		long prev = (long)AA.getVolatile(arr, index);
+		
+		while (true) {
+			long witness = (long)AA.compareAndExchange(arr, index, prev, function.applyAsLong(prev));
+			
+			if (witness == prev)
+				return prev;
+			
+			prev = witness;
+		}
+	}
+	
+	/**
+	 * Returns the value of the element at the specified index, with volatile ordering.
+	 * @param index The index of the element to read.
+	 * @return The value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public long getLong(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return (long)AA.getVolatile(arr, index);
+	}
+	
+	/**
+	 * Returns the value of the element at the specified index, with opaque ordering. The read is atomic and never
+	 * reordered with other accesses to the same element, but gives no ordering guarantees for other variables.
+	 * @param index The index of the element to read.
+	 * @return The value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public long getOpaque(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return (long)AA.getOpaque(arr, index);
+	}
+	
+	/**
+	 * Atomically adds 1 to the element at the specified index.
+	 * @param index The index of the element to increment.
+	 * @return The updated value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public long incrementAndGet(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return addAndGet(index, 1L);
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (!(o instanceof Long))
+			return -1;
+		
+		long value = (Long)o;
+		
+		for (int i = 0; i < arr.length; ++i) {
+			if ((long)AA.getVolatile(arr, i) == value)
+				return i;
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public Iterator<?> iterator() {
+		return ArrayInto.collection(toArray()).iterator();
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (!(o instanceof Long))
+			return -1;
+		
+		long value = (Long)o;
+		
+		for (int i = arr.length - 1; i >= 0; --i) {
+			if ((long)AA.getVolatile(arr, i) == value)
+				return i;
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set AtomicLongArray value to a null value.");
+		
+		if (!(o instanceof Long))
+			throw new IllegalArgumentException("Cannot set AtomicLongArray value to a non-Long object.");
+		
+		setLong(index, (Long)o);
+	}
+	
+	/**
+	 * Sets the element at the specified index to the specified value, with volatile ordering.
+	 * @param index The index of the element to set.
+	 * @param value The new value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setLong(int index, long value)
+			throws ArrayIndexOutOfBoundsException {
+		AA.setVolatile(arr, index, value);
+	}
+	
+	/**
+	 * Sets the element at the specified index to the specified value, with opaque ordering. The write is atomic
+	 * and is eventually seen by other threads, but gives no ordering guarantees for other variables.
+	 * @param index The index of the element to set.
+	 * @param value The new value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setOpaque(int index, long value)
+			throws ArrayIndexOutOfBoundsException {
+		AA.setOpaque(arr, index, value);
+	}
+	
+	/**
+	 * Sets the element at the specified index to the specified value, with release ordering, so that writes made
+	 * before it are visible to a thread that reads the value with {@link #getAcquire(int)}.
+	 * @param index The index of the element to set.
+	 * @param value The new value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setRelease(int index, long value)
+			throws ArrayIndexOutOfBoundsException {
+		AA.setRelease(arr, index, value);
+	}
+	
+	@Override
+	public int size() {
+		return arr.length;
+	}
+	
+	@Override
+	public AtomicLongArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > arr.length || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		return new AtomicLongArray(Arrays.copyOfRange(toArray(), start, end));
+	}
+	
+	/**
+	 * Returns the elements of this AtomicLongArray as a new long array. Each element is read atomically, but other
+	 * threads may update elements while they are being read.
+	 * @return A long array containing the elements of this.
+	 * @since JDK-21
+	 */
+	public long[] toArray() {
+		long[] ret = new long[arr.length];
+		
+		for (int i = 0; i < arr.length; ++i)
+			ret[i] = (long)AA.getVolatile(arr, i);
+		
+		return ret;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T[] toArray(T[] a) {
+		long[] values = toArray();
+		Long[] copy = new Long[values.length];
+		
+		for (int i = 0; i < values.length; ++i)
+			copy[i] = values[i];
+		
+		if (a.length >= copy.length) {
+			for (int i = 0; i < copy.length; ++i)
+				a[i] = (T)copy[i];
+			
+			return a;
+		}
+		
+		T[] ret = (T[])copy;
+		
+		return ret;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder();
+		
+		for (int i = 0; i < arr.length; ++i) {
+			if (i > 0)
+				ret.append(' ');
+			
+			ret.append((long)AA.getVolatile(arr, i));
+		}
+		
+		return ret.toString();
+	}
+	
+	/**
+	 * Atomically applies the specified function to the element at the specified index and sets the element to the
+	 * result. The function may be applied more than once if other threads update the element at the same time, so it
+	 * must be side-effect-free.
+	 * @param index The index of the element to update.
+	 * @param function The function that computes the new value from the element.
+	 * @return The updated value.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws NullPointerException Thrown if function is null.
+	 * @since JDK-21
+	 */
+	public long updateAndGet(int index, LongUnaryOperator function)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (function == null)
+			throw new NullPointerException("Cannot update an AtomicLongArray element with a null function.");
+		
+		long prev = (long)AA.getVolatile(arr, index);
+		
+		while (true) {
+			long next = function.applyAsLong(prev);
+			long witness = (long)AA.compareAndExchange(arr, index, prev, next);
+			
+			if (witness == prev)
+				return next;
+			
+			prev = witness;
+		}
+	}
+	
+	/**
+	 * Possibly atomically sets the element at the specified index to the specified update value if it is equal to
+	 * the specified expected value. Unlike {@link #compareAndSet(int, long, long)}, this may fail spuriously, which
+	 * makes it cheaper on some platforms when it is retried in a loop.
+	 * @param index The index of the element to update.
+	 * @param expect The expected value.
+	 * @param update The new value.
+	 * @return True if the element was updated.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public boolean weakCompareAndSet(int index, long expect, long update)
+			throws ArrayIndexOutOfBoundsException {
+		return AA.weakCompareAndSet(arr, index, expect, update);
+	}
+
+}
@@ -0,0 +1,76 @@
+package babs.mindforge.util.primitivearray;
+
+/**
+ * BigArray interface is used to represent a class wrapper for a primitive array type that is indexed by long values,
+ * so that it can hold more elements than a single Java array. BigArrays are backed by a series of fixed-size chunks,
+ * each a primitive array whose size is a power of 2, so the chunk and offset of an element are found with a shift
+ * and a mask.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see PrimitiveArray
+ * @since JDK-21
+ */
+public interface BigArray {
+	
+	/**
+	 * The default base 2 logarithm of the number of elements in a BigArray chunk.
+	 */
+	public static final int DEF_CHUNK_SHIFT = 24;
+	/**
+	 * The maximum base 2 logarithm of the number of elements in a BigArray chunk.
+	 */
+	public static final int MAX_CHUNK_SHIFT = 30;
+	
+	/**
+	 * Returns the base 2 logarithm of the number of elements in each chunk of this BigArray.
+	 * @return The chunk shift of this.
+	 * @since JDK-21
+	 */
+	public int chunkShift();
+	
+	/**
+	 * Returns true if this BigArray contains the specified Object.
+	 * @param o The Object to find.
+	 * @return True if this contains o, otherwise false.
+	 * @since JDK-21
+	 */
+	public boolean contains(Object o);
+	
+	/**
+	 * Returns the Object at the specified index.
+	 * @param index The index of the Object to return.
+	 * @return The Object at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public Object get(long index) throws ArrayIndexOutOfBoundsException;
+	
+	/**
+	 * Returns the index of the specified Object, or -1 if the Object is not in this BigArray.
+	 * @param o The Object to find.
+	 * @return The index of o, or -1 if o is not in this.
+	 * @since JDK-21
+	 */
+	public long indexOf(Object o);
+	
+	/**
+	 * Sets the Object at the specified index to the specified Object.
+	 * @param index The index to set.
+	 * @param o The Object to set at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws IllegalArgumentException Thrown if o is not an instance of this BigArray's type.
+	 * @throws NullPointerException Thrown if o is null.
+	 * @since JDK-21
+	 */
+	public void set(long index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException;
+	
+	/**
+	 * Returns the size of this BigArray.
+	 * @return The size of this.
+	 * @since JDK-21
+	 */
+	public long size();
+
+}
@@ -0,0 +1,528 @@
+package babs.mindforge.util.primitivearray;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import java.util.function.IntConsumer;
+
+/**
+ * BigIntegerArray class is a long-indexed wrapper for a sequence of int values that can be larger than a single Java
+ * array. The values are stored in a series of int array chunks whose size is a power of 2, by default
+ * 2<sup>{@value BigArray#DEF_CHUNK_SHIFT}</sup> elements. The last chunk is only as large as it needs to be. Bulk
+ * copies, fills and iteration work a chunk at a time, so they cost no more than the equivalent operations on a single
+ * array. BigIntegerArray implements BigArray and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see BigArray
+ * @see IntegerArray
+ * @since JDK-21
+ */
+public class BigIntegerArray implements BigArray {
+	
+	/**
+	 * The lock that copies between two BigIntegerArrays with equal identity hash codes take first.
+	 */
+	private static final Lock TIE_LOCK = new ReentrantLock();
+	
+	/**
+	 * A read/write lock used to ensure thread-safety.
+	 */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	/**
+	 * The read lock from the read/write lock.
+	 */
+	private final Lock readLock = lock.readLock();
+	/**
+	 * The write lock from the read/write lock.
+	 */
+	private final Lock writeLock = lock.writeLock();
+	
+	/**
+	 * The int array chunks backing the BigIntegerArray.
+	 */
+	private final int[][] chunks;
+	/**
+	 * The base 2 logarithm of the chunk size.
+	 */
+	private final int shift;
+	/**
+	 * The mask used to find the offset of an element within its chunk.
+	 */
+	private final long mask;
+	/**
+	 * The number of elements in the BigIntegerArray.
+	 */
+	private final long size;
+	
+	/**
+	 * Constructor that creates a BigIntegerArray with the specified size and the default chunk size, with all elements
+	 * set to 0.
+	 * @param size The size of this BigIntegerArray.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @since JDK-21
+	 */
+	public BigIntegerArray(long size)
+			throws NegativeArraySizeException {
+		this(size, DEF_CHUNK_SHIFT);
+	}
+	
+	/**
+	 * Constructor that creates a BigIntegerArray with the specified size and chunks of 2<sup>chunkShift</sup>
+	 * elements, with all elements set to 0.
+	 * @param size The size of this BigIntegerArray.
+	 * @param chunkShift The base 2 logarithm of the chunk size.
+	 * @throws IllegalArgumentException Thrown if chunkShift is not within [0, {@link BigArray#MAX_CHUNK_SHIFT}] or if
+	 * size needs too many chunks.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @since JDK-21
+	 */
+	public BigIntegerArray(long size, int chunkShift)
+			throws IllegalArgumentException, NegativeArraySizeException {
+		if (size < 0)
+			throw new NegativeArraySizeException("Cannot create a BigIntegerArray with a negative size.");
+		if (chunkShift < 0 || chunkShift > MAX_CHUNK_SHIFT)
+			throw new IllegalArgumentException("Cannot create a BigIntegerArray with an invalid chunk shift.");
+		
+		long count = (size + (1L << chunkShift) - 1) >>> chunkShift;
+		
+		if (count > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Cannot create a BigIntegerArray with that many chunks.");
+		
+		this.size = size;
+		shift = chunkShift;
+		mask = (1L << chunkShift) - 1;
+		chunks = new int[(int)count][];
+		
+		for (int i = 0; i < chunks.length; ++i)
+			chunks[i] = new int[(int)Math.min(1L << chunkShift, size - ((long)i << chunkShift))];
+	}
+	
+	/**
+	 * Checks that the range [index, index + length) is within the bounds of this BigIntegerArray.
+	 * @param index The first index of the range.
+	 * @param length The length of the range.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if the range is out-of-bounds.
+	 * @since JDK-21
+	 */
+	private void checkRange(long index, long length)
+			throws ArrayIndexOutOfBoundsException {
+		if (index < 0 || length < 0 || index > size - length)
+			throw new ArrayIndexOutOfBoundsException("Cannot access values due to range out-of-bounds.");
+	}
+	
+	@Override
+	public int chunkShift() {
+		return shift;
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) != -1;
+	}
+	
+	/**
+	 * Copies the specified number of values from the specified int array into this BigIntegerArray.
+	 * @param src The int array to copy from.
+	 * @param srcPos The index in src to start copying from.
+	 * @param destPos The index in this BigIntegerArray to start copying to.
+	 * @param length The number of values to copy.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if either range is out-of-bounds.
+	 * @throws NullPointerException Thrown if src is null.
+	 * @since JDK-21
+	 */
+	public void copyFrom(int[] src, int srcPos, long destPos, int length)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (src == null)
+			throw new NullPointerException("Cannot copy into a BigIntegerArray from a null int array.");
+		if (srcPos < 0 || length < 0 || srcPos > src.length - length)
+			throw new ArrayIndexOutOfBoundsException("Cannot copy values due to range out-of-bounds.");
+		
+		checkRange(destPos, length);
+		
+		writeLock.lock();
+		
+		try {
+			while (length > 0) {
+				int[] chunk = chunks[(int)(destPos >>> shift)];
+				int offset = (int)(destPos & mask);
+				int n = Math.min(length, chunk.length - offset);
+				
+				System.arraycopy(src, srcPos, chunk, offset, n);
+				srcPos += n;
+				destPos += n;
+				length -= n;
+			}
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Copies the specified number of values from this BigIntegerArray into the specified int array.
+	 * @param srcPos The index in this BigIntegerArray to start copying from.
+	 * @param dest The int array to copy to.
+	 * @param destPos The index in dest to start copying to.
+	 * @param length The number of values to copy.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if either range is out-of-bounds.
+	 * @throws NullPointerException Thrown if dest is null.
+	 * @since JDK-21
+	 */
+	public void copyTo(long srcPos, int[] dest, int destPos, int length)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (dest == null)
+			throw new NullPointerException("Cannot copy from a BigIntegerArray into a null int array.");
+		if (destPos < 0 || length < 0 || destPos > dest.length - length)
+			throw new ArrayIndexOutOfBoundsException("Cannot copy values due to range out-of-bounds.");
+		
+		checkRange(srcPos, length);
+		
+		readLock.lock();
+		
+		try {
+			while (length > 0) {
+				int[] chunk = chunks[(int)(srcPos >>> shift)];
+				int offset = (int)(srcPos & mask);
+				int n = Math.min(length, chunk.length - offset);
+				
+				System.arraycopy(chunk, offset, dest, destPos, n);
+				srcPos += n;
+				destPos += n;
+				length -= n;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Copies the specified number of values from this BigIntegerArray into the specified BigIntegerArray, which may be
+	 * this BigIntegerArray. Overlapping ranges are copied as if through a temporary copy, like
+	 * {@link System#arraycopy(Object, int, Object, int, int)}. The two BigIntegerArrays do not need the same chunk
+	 * size.
+	 * @param srcPos The index in this BigIntegerArray to start copying from.
+	 * @param dest The BigIntegerArray to copy to.
+	 * @param destPos The index in dest to start copying to.
+	 * @param length The number of values to copy.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if either range is out-of-bounds.
+	 * @throws NullPointerException Thrown if dest is null.
+	 * @since JDK-21
+	 */
+	public void copyTo(long srcPos, BigIntegerArray dest, long destPos, long length)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (dest == null)
+			throw new NullPointerException("Cannot copy from a BigIntegerArray into a null BigIntegerArray.");
+		
+		checkRange(srcPos, length);
+		dest.checkRange(destPos, length);
+		
+		if (dest == this) {
+			writeLock.lock();
+			
+			try {
+				copy(this, srcPos, this, destPos, length);
+			}
+			finally {
+				writeLock.unlock();
+			}
+			
+			return;
+		}
+		
+		// Lock in a consistent order so that opposing copies between the same two BigIntegerArrays cannot deadlock.
+		// BigIntegerArrays with equal identity hash codes have no order, so they take TIE_LOCK first.
+		int thisHash = System.identityHashCode(this);
+		int destHash = System.identityHashCode(dest);
+		boolean srcFirst = thisHash <= destHash;
+		boolean tie = thisHash == destHash;
+		Lock first = srcFirst ? readLock : dest.writeLock;
+		Lock second = srcFirst ? dest.writeLock : readLock;
+		
+		if (tie)
+			TIE_LOCK.lock();
+		
+		try {
+			first.lock();
+			
+			try {
+				second.lock();
+				
+				try {
+					copy(this, srcPos, dest, destPos, length);
+				}
+				finally {
+					second.unlock();
+				}
+			}
+			finally {
+				first.unlock();
+			}
+		}
+		finally {
+			if (tie)
+				TIE_LOCK.unlock();
+		}
+	}
+	
+	/**
+	 * Copies values between two BigIntegerArrays a chunk segment at a time. The caller must hold the needed locks.
+	 * @param src The BigIntegerArray to copy from.
+	 * @param srcPos The index in src to start copying from.
+	 * @param dest The BigIntegerArray to copy to.
+	 * @param destPos The index in dest to start copying to.
+	 * @param length The number of values to copy.
+	 * @since JDK-21
+	 */
+	private static void copy(BigIntegerArray src, long srcPos, BigIntegerArray dest, long destPos, long length) {
+		if (src == dest && srcPos < destPos && destPos < srcPos + length) {
+			// Copy backwards so that overlapping values are read before they are overwritten.
+			long s = srcPos + length - 1;
+			long d = destPos + length - 1;
+			
+			while (length > 0) {
+				int sOffset = (int)(s & src.mask);
+				int dOffset = (int)(d & dest.mask);
+				int n = (int)Math.min(length, Math.min(sOffset, dOffset) + 1);
+				
+				System.arraycopy(src.chunks[(int)(s >>> src.shift)], sOffset - n + 1,
+						dest.chunks[(int)(d >>> dest.shift)], dOffset - n + 1, n);
+				s -= n;
+				d -= n;
+				length -= n;
+			}
+			
+			return;
+		}
+		
+		while (length > 0) {
+			int[] sChunk = src.chunks[(int)(srcPos >>> src.shift)];
+			int[] dChunk = dest.chunks[(int)(destPos >>> dest.shift)];
+			int sOffset = (int)(srcPos & src.mask);
+			int dOffset = (int)(destPos & dest.mask);
+			int n = (int)Math.min(length, Math.min(sChunk.length - sOffset, dChunk.length - dOffset));
+			
+			System.arraycopy(sChunk, sOffset, dChunk, dOffset, n);
+			srcPos += n;
+			destPos += n;
+			length -= n;
+		}
+	}
+	
+	/**
+	 * Sets every element of this BigIntegerArray to the specified value.
+	 * @param value The value to set.
+	 * @since JDK-21
+	 */
+	public void fill(int value) {
+		fill(0, size, value);
+	}
+	
+	/**
+	 * Sets every element in the range [from, to) of this BigIntegerArray to the specified value.
+	 * @param from The index to start at (inclusive).
+	 * @param to The index to stop at (exclusive).
+	 * @param value The value to set.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if the range is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void fill(long from, long to, int value)
+			throws ArrayIndexOutOfBoundsException {
+		checkRange(from, to - from);
+		
+		writeLock.lock();
+		
+		try {
+			while (from < to) {
+				int[] chunk = chunks[(int)(from >>> shift)];
+				int offset = (int)(from & mask);
+				int n = (int)Math.min(to - from, chunk.length - offset);
+				
+				Arrays.fill(chunk, offset, offset + n, value);
+				from += n;
+			}
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Performs the specified action on every element of this BigIntegerArray in order. The action is performed a chunk
+	 * at a time while holding the read lock, so it must not modify this BigIntegerArray.
+	 * @param action The action to perform.
+	 * @throws NullPointerException Thrown if action is null.
+	 * @since JDK-21
+	 */
+	public void forEach(IntConsumer action)
+			throws NullPointerException {
+		if (action == null)
+			throw new NullPointerException("Cannot perform a null action on a BigIntegerArray.");
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < chunks.length; ++i) {
+				int[] chunk = chunks[i];
+				
+				for (int j = 0; j < chunk.length; ++j)
+					action.accept(chunk[j]);
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public Integer get(long index)
+			throws ArrayIndexOutOfBoundsException {
+		return getInt(index);
+	}
+	
+	/**
+	 * Returns the int value at the specified index without boxing.
+	 * @param index The index of the value to return.
+	 * @return The int value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int getInt(long index)
+			throws ArrayIndexOutOfBoundsException {
+		if (index < 0 || index >= size)
+			throw new ArrayIndexOutOfBoundsException("Cannot get value due to index out-of-bounds.");
+		
+		readLock.lock();
+		
+		try {
+			return chunks[(int)(index >>> shift)][(int)(index & mask)];
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public long indexOf(Object o) {
+		if (o == null || !(o instanceof Integer))
+			return -1;
+		
+		int v = ((Integer)o).intValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < chunks.length; ++i) {
+				int[] chunk = chunks[i];
+				
+				for (int j = 0; j < chunk.length; ++j) {
+					if (chunk[j] == v)
+						return ((long)i << shift) + j;
+				}
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Returns an Iterator over the int values of this BigIntegerArray. The Iterator reads each value from this
+	 * BigIntegerArray as it is returned, rather than copying it.
+	 * @return An Iterator for this.
+	 * @since JDK-21
+	 */
+	public PrimitiveIterator.OfInt iterator() {
+		return new PrimitiveIterator.OfInt() {
+			
+			private long index = 0;
+			
+			@Override
+			public boolean hasNext() {
+				return index < size;
+			}
+			
+			@Override
+			public int nextInt() {
+				if (index >= size)
+					throw new NoSuchElementException();
+				
+				return getInt(index++);
+			}
+		
+		};
+	}
+	
+	@Override
+	public void set(long index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set BigIntegerArray value to a null value.");
+		
+		if (!(o instanceof Integer))
+			throw new IllegalArgumentException("Cannot set BigIntegerArray value to a non-Integer object.");
+		
+		setInt(index, (Integer)o);
+	}
+	
+	/**
+	 * Sets the int value at the specified index without boxing.
+	 * @param index The index to set.
+	 * @param value The int value to set at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setInt(long index, int value)
+			throws ArrayIndexOutOfBoundsException {
+		if (index < 0 || index >= size)
+			throw new ArrayIndexOutOfBoundsException("Cannot set value due to index out-of-bounds.");
+		
+		writeLock.lock();
+		
+		try {
+			chunks[(int)(index >>> shift)][(int)(index & mask)] = value;
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public long size() {
+		return size;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < chunks.length; ++i) {
+				int[] chunk = chunks[i];
+				
+				for (int j = 0; j < chunk.length; ++j) {
+					if (i > 0 || j > 0)
+						ret.append(' ');
+					
+					ret.append(chunk[j]);
+				}
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret.toString();
+	}
+
+}
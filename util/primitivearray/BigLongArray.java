@@ -0,0 +1,527 @@
+package babs.mindforge.util.primitivearray;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import java.util.function.LongConsumer;
+
+/**
+ * BigLongArray class is a long-indexed wrapper for a sequence of long values that can be larger than a single Java
+ * array. The values are stored in a series of long array chunks whose size is a power of 2, by default
+ * 2<sup>{@value BigArray#DEF_CHUNK_SHIFT}</sup> elements. The last chunk is only as large as it needs to be. Bulk
+ * copies, fills and iteration work a chunk at a time, so they cost no more than the equivalent operations on a single
+ * array. BigLongArray implements BigArray and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see BigArray
+ * @see LongArray
+ * @since JDK-21
+ */
+public class BigLongArray implements BigArray {
+	
+	/**
+	 * The lock that copies between two BigLongArrays with equal identity hash codes take first.
+	 */
+	private static final Lock TIE_LOCK = new ReentrantLock();
+	
+	/**
+	 * A read/write lock used to ensure thread-safety.
+	 */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	/**
+	 * The read lock from the read/write lock.
+	 */
+	private final Lock readLock = lock.readLock();
+	/**
+	 * The write lock from the read/write lock.
+	 */
+	private final Lock writeLock = lock.writeLock();
+	
+	/**
+	 * The long array chunks backing the BigLongArray.
+	 */
+	private final long[][] chunks;
+	/**
+	 * The base 2 logarithm of the chunk size.
+	 */
+	private final int shift;
+	/**
+	 * The mask used to find the offset of an element within its chunk.
+	 */
+	private final long mask;
+	/**
+	 * The number of elements in the BigLongArray.
+	 */
+	private final long size;
+	
+	/**
+	 * Constructor that creates a BigLongArray with the specified size and the default chunk size, with all elements
+	 * set to 0.
+	 * @param size The size of this BigLongArray.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @since JDK-21
+	 */
+	public BigLongArray(long size)
+			throws NegativeArraySizeException {
+		this(size, DEF_CHUNK_SHIFT);
+	}
+	
+	/**
+	 * Constructor that creates a BigLongArray with the specified size and chunks of 2<sup>chunkShift</sup> elements,
+	 * with all elements set to 0.
+	 * @param size The size of this BigLongArray.
+	 * @param chunkShift The base 2 logarithm of the chunk size.
+	 * @throws IllegalArgumentException Thrown if chunkShift is not within [0, {@link BigArray#MAX_CHUNK_SHIFT}] or if
+	 * size needs too many chunks.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @since JDK-21
+	 */
+	public BigLongArray(long size, int chunkShift)
+			throws IllegalArgumentException, NegativeArraySizeException {
+		if (size < 0)
+			throw new NegativeArraySizeException("Cannot create a BigLongArray with a negative size.");
+		if (chunkShift < 0 || chunkShift > MAX_CHUNK_SHIFT)
+			throw new IllegalArgumentException("Cannot create a BigLongArray with an invalid chunk shift.");
+		
+		long count = (size + (1L << chunkShift) - 1) >>> chunkShift;
+		
+		if (count > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Cannot create a BigLongArray with that many chunks.");
+		
+		this.size = size;
+		shift = chunkShift;
+		mask = (1L << chunkShift) - 1;
+		chunks = new long[(int)count][];
+		
+		for (int i = 0; i < chunks.length; ++i)
+			chunks[i] = new long[(int)Math.min(1L << chunkShift, size - ((long)i << chunkShift))];
+	}
+	
+	/**
+	 * Checks that the range [index, index + length) is within the bounds of this BigLongArray.
+	 * @param index The first index of the range.
+	 * @param length The length of the range.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if the range is out-of-bounds.
+	 * @since JDK-21
+	 */
+	private void checkRange(long index, long length)
+			throws ArrayIndexOutOfBoundsException {
+		if (index < 0 || length < 0 || index > size - length)
+			throw new ArrayIndexOutOfBoundsException("Cannot access values due to range out-of-bounds.");
+	}
+	
+	@Override
+	public int chunkShift() {
+		return shift;
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) != -1;
+	}
+	
+	/**
+	 * Copies the specified number of values from the specified long array into this BigLongArray.
+	 * @param src The long array to copy from.
+	 * @param srcPos The index in src to start copying from.
+	 * @param destPos The index in this BigLongArray to start copying to.
+	 * @param length The number of values to copy.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if either range is out-of-bounds.
+	 * @throws NullPointerException Thrown if src is null.
+	 * @since JDK-21
+	 */
+	public void copyFrom(long[] src, int srcPos, long destPos, int length)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (src == null)
+			throw new NullPointerException("Cannot copy into a BigLongArray from a null long array.");
+		if (srcPos < 0 || length < 0 || srcPos > src.length - length)
+			throw new ArrayIndexOutOfBoundsException("Cannot copy values due to range out-of-bounds.");
+		
+		checkRange(destPos, length);
+		
+		writeLock.lock();
+		
+		try {
+			while (length > 0) {
+				long[] chunk = chunks[(int)(destPos >>> shift)];
+				int offset = (int)(destPos & mask);
+				int n = Math.min(length, chunk.length - offset);
+				
+				System.arraycopy(src, srcPos, chunk, offset, n);
+				srcPos += n;
+				destPos += n;
+				length -= n;
+			}
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Copies the specified number of values from this BigLongArray into the specified long array.
+	 * @param srcPos The index in this BigLongArray to start copying from.
+	 * @param dest The long array to copy to.
+	 * @param destPos The index in dest to start copying to.
+	 * @param length The number of values to copy.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if either range is out-of-bounds.
+	 * @throws NullPointerException Thrown if dest is null.
+	 * @since JDK-21
+	 */
+	public void copyTo(long srcPos, long[] dest, int destPos, int length)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (dest == null)
+			throw new NullPointerException("Cannot copy from a BigLongArray into a null long array.");
+		if (destPos < 0 || length < 0 || destPos > dest.length - length)
+			throw new ArrayIndexOutOfBoundsException("Cannot copy values due to range out-of-bounds.");
+		
+		checkRange(srcPos, length);
+		
+		readLock.lock();
+		
+		try {
+			while (length > 0) {
+				long[] chunk = chunks[(int)(srcPos >>> shift)];
+				int offset = (int)(srcPos & mask);
+				int n = Math.min(length, chunk.length - offset);
+				
+				System.arraycopy(chunk, offset, dest, destPos, n);
+				srcPos += n;
+				destPos += n;
+				length -= n;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Copies the specified number of values from this BigLongArray into the specified BigLongArray, which may be
+	 * this BigLongArray. Overlapping ranges are copied as if through a temporary copy, like
+	 * {@link System#arraycopy(Object, int, Object, int, int)}. The two BigLongArrays do not need the same chunk size.
+	 * @param srcPos The index in this BigLongArray to start copying from.
+	 * @param dest The BigLongArray to copy to.
+	 * @param destPos The index in dest to start copying to.
+	 * @param length The number of values to copy.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if either range is out-of-bounds.
+	 * @throws NullPointerException Thrown if dest is null.
+	 * @since JDK-21
+	 */
+	public void copyTo(long srcPos, BigLongArray dest, long destPos, long length)
+			throws ArrayIndexOutOfBoundsException, NullPointerException {
+		if (dest == null)
+			throw new NullPointerException("Cannot copy from a BigLongArray into a null BigLongArray.");
+		
+		checkRange(srcPos, length);
+		dest.checkRange(destPos, length);
+		
+		if (dest == this) {
+			writeLock.lock();
+			
+			try {
+				copy(this, srcPos, this, destPos, length);
+			}
+			finally {
+				writeLock.unlock();
+			}
+			
+			return;
+		}
+		
+		// Lock in a consistent order so that opposing copies between the same two BigLongArrays cannot deadlock.
+		// BigLongArrays with equal identity hash codes have no order, so they take TIE_LOCK first.
+		int thisHash = System.identityHashCode(this);
+		int destHash = System.identityHashCode(dest);
+		boolean srcFirst = thisHash <= destHash;
+		boolean tie = thisHash == destHash;
+		Lock first = srcFirst ? readLock : dest.writeLock;
+		Lock second = srcFirst ? dest.writeLock : readLock;
+		
+		if (tie)
+			TIE_LOCK.lock();
+		
+		try {
+			first.lock();
+			
+			try {
+				second.lock();
+				
+				try {
+					copy(this, srcPos, dest, destPos, length);
+				}
+				finally {
+					second.unlock();
+				}
+			}
+			finally {
+				first.unlock();
+			}
+		}
+		finally {
+			if (tie)
+				TIE_LOCK.unlock();
+		}
+	}
+	
+	/**
+	 * Copies values between two BigLongArrays a chunk segment at a time. The caller must hold the needed locks.
+	 * @param src The BigLongArray to copy from.
+	 * @param srcPos The index in src to start copying from.
+	 * @param dest The BigLongArray to copy to.
+	 * @param destPos The index in dest to start copying to.
+	 * @param length The number of values to copy.
+	 * @since JDK-21
+	 */
+	private static void copy(BigLongArray src, long srcPos, BigLongArray dest, long destPos, long length) {
+		if (src == dest && srcPos < destPos && destPos < srcPos + length) {
+			// Copy backwards so that overlapping values are read before they are overwritten.
+			long s = srcPos + length - 1;
+			long d = destPos + length - 1;
+			
+			while (length > 0) {
+				int sOffset = (int)(s & src.mask);
+				int dOffset = (int)(d & dest.mask);
+				int n = (int)Math.min(length, Math.min(sOffset, dOffset) + 1);
+				
+				System.arraycopy(src.chunks[(int)(s >>> src.shift)], sOffset - n + 1,
+						dest.chunks[(int)(d >>> dest.shift)], dOffset - n + 1, n);
+				s -= n;
+				d -= n;
+				length -= n;
+			}
+			
+			return;
+		}
+		
+		while (length > 0) {
+			long[] sChunk = src.chunks[(int)(srcPos >>> src.shift)];
+			long[] dChunk = dest.chunks[(int)(destPos >>> dest.shift)];
+			int sOffset = (int)(srcPos & src.mask);
+			int dOffset = (int)(destPos & dest.mask);
+			int n = (int)Math.min(length, Math.min(sChunk.length - sOffset, dChunk.length - dOffset));
+			
+			System.arraycopy(sChunk, sOffset, dChunk, dOffset, n);
+			srcPos += n;
+			destPos += n;
+			length -= n;
+		}
+	}
+	
+	/**
+	 * Sets every element of this BigLongArray to the specified value.
+	 * @param value The value to set.
+	 * @since JDK-21
+	 */
+	public void fill(long value) {
+		fill(0, size, value);
+	}
+	
+	/**
+	 * Sets every element in the range [from, to) of this BigLongArray to the specified value.
+	 * @param from The index to start at (inclusive).
+	 * @param to The index to stop at (exclusive).
+	 * @param value The value to set.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if the range is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void fill(long from, long to, long value)
+			throws ArrayIndexOutOfBoundsException {
+		checkRange(from, to - from);
+		
+		writeLock.lock();
+		
+		try {
+			while (from < to) {
+				long[] chunk = chunks[(int)(from >>> shift)];
+				int offset = (int)(from & mask);
+				int n = (int)Math.min(to - from, chunk.length - offset);
+				
+				Arrays.fill(chunk, offset, offset + n, value);
+				from += n;
+			}
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Performs the specified action on every element of this BigLongArray in order. The action is performed a chunk
+	 * at a time while holding the read lock, so it must not modify this BigLongArray.
+	 * @param action The action to perform.
+	 * @throws NullPointerException Thrown if action is null.
+	 * @since JDK-21
+	 */
+	public void forEach(LongConsumer action)
+			throws NullPointerException {
+		if (action == null)
+			throw new NullPointerException("Cannot perform a null action on a BigLongArray.");
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < chunks.length; ++i) {
+				long[] chunk = chunks[i];
+				
+				for (int j = 0; j < chunk.length; ++j)
+					action.accept(chunk[j]);
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public Long get(long index)
+			throws ArrayIndexOutOfBoundsException {
+		return getLong(index);
+	}
+	
+	/**
+	 * Returns the long value at the specified index without boxing.
+	 * @param index The index of the value to return.
+	 * @return The long value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public long getLong(long index)
+			throws ArrayIndexOutOfBoundsException {
+		if (index < 0 || index >= size)
+			throw new ArrayIndexOutOfBoundsException("Cannot get value due to index out-of-bounds.");
+		
+		readLock.lock();
+		
+		try {
+			return chunks[(int)(index >>> shift)][(int)(index & mask)];
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public long indexOf(Object o) {
+		if (o == null || !(o instanceof Long))
+			return -1;
+		
+		long v = ((Long)o).longValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < chunks.length; ++i) {
+				long[] chunk = chunks[i];
+				
+				for (int j = 0; j < chunk.length; ++j) {
+					if (chunk[j] == v)
+						return ((long)i << shift) + j;
+				}
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Returns an Iterator over the long values of this BigLongArray. The Iterator reads each value from this
+	 * BigLongArray as it is returned, rather than copying it.
+	 * @return An Iterator for this.
+	 * @since JDK-21
+	 */
+	public PrimitiveIterator.OfLong iterator() {
+		return new PrimitiveIterator.OfLong() {
+			
+			private long index = 0;
+			
+			@Override
+			public boolean hasNext() {
+				return index < size;
+			}
+			
+			@Override
+			public long nextLong() {
+				if (index >= size)
+					throw new NoSuchElementException();
+				
+				return getLong(index++);
+			}
+		
+		};
+	}
+	
+	@Override
+	public void set(long index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set BigLongArray value to a null value.");
+		
+		if (!(o instanceof Long))
+			throw new IllegalArgumentException("Cannot set BigLongArray value to a non-Long object.");
+		
+		setLong(index, (Long)o);
+	}
+	
+	/**
+	 * Sets the long value at the specified index without boxing.
+	 * @param index The index to set.
+	 * @param value The long value to set at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setLong(long index, long value)
+			throws ArrayIndexOutOfBoundsException {
+		if (index < 0 || index >= size)
+			throw new ArrayIndexOutOfBoundsException("Cannot set value due to index out-of-bounds.");
+		
+		writeLock.lock();
+		
+		try {
+			chunks[(int)(index >>> shift)][(int)(index & mask)] = value;
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public long size() {
+		return size;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < chunks.length; ++i) {
+				long[] chunk = chunks[i];
+				
+				for (int j = 0; j < chunk.length; ++j) {
+					if (i > 0 || j > 0)
+						ret.append(' ');
+					
+					ret.append(chunk[j]);
+				}
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret.toString();
+	}
+
+}
@@ -1,11 +1,15 @@
 package babs.mindforge.util.primitivearray;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import java.util.function.ToIntBiFunction;
+
 import babs.mindforge.util.ArrayInto;
 
 /**
@@ -17,7 +21,12 @@ import babs.mindforge.util.ArrayInto;
  * @see PrimitiveArray
  * @since JDK-21
  */
-public class BooleanArray implements PrimitiveArray {
+public class BooleanArray implements PrimitiveArray, Comparable<BooleanArray> {
+	
+	/**
+	 * The lock that comparisons between two BooleanArrays with equal identity hash codes take first.
+	 */
+	private static final Lock TIE_LOCK = new ReentrantLock();
 	
 	/**
 	 * A read/write lock used to ensure thread-safety.
@@ -80,6 +89,26 @@ public class BooleanArray implements PrimitiveArray {
 		return ret;
 	}
 
+	/**
+	 * Compares this BooleanArray with the specified BooleanArray lexicographically, comparing elements with false
+	 * ordered before true. If one is a prefix of the other, the shorter one is less.
+	 * @param other The BooleanArray to compare with.
+	 * @return A negative integer, zero, or a positive integer if this is less than, equal to, or greater than other.
+	 * @throws NullPointerException Thrown if other is null.
+	 * @since JDK-21
+	 */
+	@Override
+	public int compareTo(BooleanArray other)
+			throws NullPointerException {
+		if (other == null)
+			throw new NullPointerException("Cannot compare a BooleanArray with a null BooleanArray.");
+		
+		if (other == this)
+			return 0;
+		
+		return compare(other, Arrays::compare);
+	}
+	
 	@Override
 	public boolean contains(Object o) {
 		if (o == null)
@@ -115,29 +144,30 @@ public class BooleanArray implements PrimitiveArray {
 		return true;
 	}
 	
+	/**
+	 * Returns the CRC-32C checksum of the values of this BooleanArray, with each value as one byte of 0 or 1.
+	 * @return The CRC-32C of this.
+	 * @see PrimitiveArrays#crc32c(boolean[])
+	 * @since JDK-21
+	 */
+	public long crc32c() {
+		readLock.lock();
+		
+		try {
+			return PrimitiveArrays.crc32c(arr);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
 	@Override
 	public boolean equals(Object o) {
-		if (o == null)
-			return false;
-		
-		if (o instanceof BooleanArray) {
-			if (((BooleanArray)o).size() != this.size())
-				return false;
-			
-			readLock.lock();
-			
-			try {
-				for (int i = 0; i < arr.length; ++i) {
-					if (!(((BooleanArray)o).arr[i] == arr[i]))
-						return false;
-				}
-			}
-			finally {
-				readLock.lock();
-			}
-			
+		if (o == this)
 			return true;
-		}
+		
+		if (o instanceof BooleanArray)
+			return mismatch((BooleanArray)o) == -1;
 		
 		return false;
 	}
@@ -175,12 +205,31 @@ public class BooleanArray implements PrimitiveArray {
 		}
 	}
 	
+	/**
+	 * Returns the 64-bit XXH64 hash of the values of this BooleanArray, with each value as one byte of 0 or 1. Equal
+	 * BooleanArrays always have equal hashes, so the hash can be used as a key to deduplicate BooleanArrays by
+	 * content.
+	 * @return The 64-bit hash of this.
+	 * @see PrimitiveArrays#hash64(boolean[])
+	 * @since JDK-21
+	 */
+	public long hash64() {
+		readLock.lock();
+		
+		try {
+			return PrimitiveArrays.hash64(arr);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
 	@Override
 	public int hashCode() {
 		readLock.lock();
 		
 		try {
-			return arr.hashCode();
+			return Arrays.hashCode(arr);
 		}
 		finally {
 			readLock.unlock();
@@ -232,6 +281,25 @@ public class BooleanArray implements PrimitiveArray {
 		return -1;
 	}
 	
+	/**
+	 * Returns the index of the first element that differs between this BooleanArray and the specified BooleanArray, or
+	 * -1 if they are equal. If one is a prefix of the other, the length of the shorter one is returned.
+	 * @param other The BooleanArray to compare with.
+	 * @return The index of the first mismatch, or -1 if there is none.
+	 * @throws NullPointerException Thrown if other is null.
+	 * @since JDK-21
+	 */
+	public int mismatch(BooleanArray other)
+			throws NullPointerException {
+		if (other == null)
+			throw new NullPointerException("Cannot compare a BooleanArray with a null BooleanArray.");
+		
+		if (other == this)
+			return -1;
+		
+		return compare(other, Arrays::mismatch);
+	}
+	
 	@Override
 	public void set(int index, Object o) 
 			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
@@ -355,5 +423,49 @@ public class BooleanArray implements PrimitiveArray {
 		
 		return ret;
 	}
+	
+	/**
+	 * Applies the specified comparison to the elements of this BooleanArray and the specified BooleanArray with both
+	 * read locks held.
+	 * @param other The BooleanArray to compare with.
+	 * @param comparison The comparison to apply to the two arrays.
+	 * @return The result of the comparison.
+	 * @since JDK-21
+	 */
+	private int compare(BooleanArray other, ToIntBiFunction<boolean[], boolean[]> comparison) {
+		// Lock in a consistent order so that opposing comparisons between the same two BooleanArrays cannot deadlock.
+		// BooleanArrays with equal identity hash codes have no order, so they take TIE_LOCK first.
+		int thisHash = System.identityHashCode(this);
+		int otherHash = System.identityHashCode(other);
+		boolean thisFirst = thisHash <= otherHash;
+		boolean tie = thisHash == otherHash;
+		Lock first = thisFirst ? readLock : other.readLock;
+		Lock second = thisFirst ? other.readLock : readLock;
+		
+		if (tie)
+			TIE_LOCK.lock();
+		
+		try {
+			first.lock();
+			
+			try {
+				second.lock();
+				
+				try {
+					return comparison.applyAsInt(arr, other.arr);
+				}
+				finally {
+					second.unlock();
+				}
+			}
+			finally {
+				first.unlock();
+			}
+		}
+		finally {
+			if (tie)
+				TIE_LOCK.unlock();
+		}
+	}
 
 }
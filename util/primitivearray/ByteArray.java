@@ -1,11 +1,21 @@
 package babs.mindforge.util.primitivearray;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import java.util.function.ToIntBiFunction;
+
 import babs.mindforge.util.ArrayInto;
 
 /**
@@ -17,7 +27,37 @@ import babs.mindforge.util.ArrayInto;
  * @see PrimitiveArray
  * @since JDK-21
  */
-public class ByteArray implements PrimitiveArray {
+public class ByteArray implements PrimitiveArray, Comparable<ByteArray> {
+	
+	/**
+	 * VarHandle used to write a big-endian char value into a byte array.
+	 */
+	private static final VarHandle CHAR = MethodHandles.byteArrayViewVarHandle(char[].class, ByteOrder.BIG_ENDIAN);
+	/**
+	 * VarHandle used to write a big-endian double value into a byte array.
+	 */
+	private static final VarHandle DOUBLE = MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.BIG_ENDIAN);
+	/**
+	 * VarHandle used to write a big-endian float value into a byte array.
+	 */
+	private static final VarHandle FLOAT = MethodHandles.byteArrayViewVarHandle(float[].class, ByteOrder.BIG_ENDIAN);
+	/**
+	 * VarHandle used to write a big-endian int value into a byte array.
+	 */
+	private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	/**
+	 * VarHandle used to write a big-endian long value into a byte array.
+	 */
+	private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	/**
+	 * VarHandle used to write a big-endian short value into a byte array.
+	 */
+	private static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+	
+	/**
+	 * The lock that comparisons between two ByteArrays with equal identity hash codes take first.
+	 */
+	private static final Lock TIE_LOCK = new ReentrantLock();
 	
 	/**
 	 * A read/write lock used to ensure thread-safety.
@@ -63,6 +103,135 @@ public class ByteArray implements PrimitiveArray {
 		arr = array;
 	}
 	
+	/**
+	 * Returns a view of this ByteArray as big-endian double values. See {@link #asDoubleView(ByteOrder)}.
+	 * @return A DoubleView of this.
+	 * @since JDK-21
+	 */
+	public DoubleView asDoubleView() {
+		return asDoubleView(ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Returns a view of this ByteArray as double values in the specified byte order. The view reads and writes through
+	 * to the bytes backing this ByteArray without copying them and shares this ByteArray's lock.
+	 * @param order The byte order of the double values.
+	 * @return A DoubleView of this.
+	 * @throws NullPointerException Thrown if order is null.
+	 * @since JDK-21
+	 */
+	public DoubleView asDoubleView(ByteOrder order) 
+			throws NullPointerException {
+		return new DoubleView(arr, lock, order);
+	}
+	
+	/**
+	 * Returns a view of this ByteArray as big-endian float values. See {@link #asFloatView(ByteOrder)}.
+	 * @return A FloatView of this.
+	 * @since JDK-21
+	 */
+	public FloatView asFloatView() {
+		return asFloatView(ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Returns a view of this ByteArray as float values in the specified byte order. The view reads and writes through 
+	 * to the bytes backing this ByteArray without copying them and shares this ByteArray's lock.
+	 * @param order The byte order of the float values.
+	 * @return A FloatView of this.
+	 * @throws NullPointerException Thrown if order is null.
+	 * @since JDK-21
+	 */
+	public FloatView asFloatView(ByteOrder order) 
+			throws NullPointerException {
+		return new FloatView(arr, lock, order);
+	}
+	
+	/**
+	 * Returns a view of this ByteArray as big-endian int values. See {@link #asIntView(ByteOrder)}.
+	 * @return A IntegerView of this.
+	 * @since JDK-21
+	 */
+	public IntegerView asIntView() {
+		return asIntView(ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Returns a view of this ByteArray as int values in the specified byte order. The view reads and writes through 
+	 * to the bytes backing this ByteArray without copying them and shares this ByteArray's lock.
+	 * @param order The byte order of the int values.
+	 * @return A IntegerView of this.
+	 * @throws NullPointerException Thrown if order is null.
+	 * @since JDK-21
+	 */
+	public IntegerView asIntView(ByteOrder order) 
+			throws NullPointerException {
+		return new IntegerView(arr, lock, order);
+	}
+	
+	/**
+	 * Returns a view of this ByteArray as big-endian long values. See {@link #asLongView(ByteOrder)}.
+	 * @return A LongView of this.
+	 * @since JDK-21
+	 */
+	public LongView asLongView() {
+		return asLongView(ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Returns a view of this ByteArray as long values in the specified byte order. The view reads and writes through 
+	 * to the bytes backing this ByteArray without copying them and shares this ByteArray's lock.
+	 * @param order The byte order of the long values.
+	 * @return A LongView of this.
+	 * @throws NullPointerException Thrown if order is null.
+	 * @since JDK-21
+	 */
+	public LongView asLongView(ByteOrder order) 
+			throws NullPointerException {
+		return new LongView(arr, lock, order);
+	}
+	
+	/**
+	 * Returns a view of this ByteArray as big-endian short values. See {@link #asShortView(ByteOrder)}.
+	 * @return A ShortView of this.
+	 * @since JDK-21
+	 */
+	public ShortView asShortView() {
+		return asShortView(ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Returns a view of this ByteArray as short values in the specified byte order. The view reads and writes through 
+	 * to the bytes backing this ByteArray without copying them and shares this ByteArray's lock.
+	 * @param order The byte order of the short values.
+	 * @return A ShortView of this.
+	 * @throws NullPointerException Thrown if order is null.
+	 * @since JDK-21
+	 */
+	public ShortView asShortView(ByteOrder order) 
+			throws NullPointerException {
+		return new ShortView(arr, lock, order);
+	}
+	
+	/**
+	 * Searches this ByteArray for the specified value using the binary search algorithm. This ByteArray must be
+	 * sorted, such as by {@link #sort()}, or the result is undefined.
+	 * @param value The value to find.
+	 * @return The index of value, if it is contained in this, otherwise (-(insertion point) - 1).
+	 * @see Arrays#binarySearch(byte[], byte)
+	 * @since JDK-21
+	 */
+	public int binarySearch(byte value) {
+		readLock.lock();
+		
+		try {
+			return Arrays.binarySearch(arr, value);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
 	@Override
 	public Object clone() {
 		ByteArray ret = new ByteArray(arr.length);
@@ -80,6 +249,26 @@ public class ByteArray implements PrimitiveArray {
 		return ret;
 	}
 
+	/**
+	 * Compares this ByteArray with the specified ByteArray lexicographically, comparing elements as signed values. If
+	 * one is a prefix of the other, the shorter one is less.
+	 * @param other The ByteArray to compare with.
+	 * @return A negative integer, zero, or a positive integer if this is less than, equal to, or greater than other.
+	 * @throws NullPointerException Thrown if other is null.
+	 * @since JDK-21
+	 */
+	@Override
+	public int compareTo(ByteArray other)
+			throws NullPointerException {
+		if (other == null)
+			throw new NullPointerException("Cannot compare a ByteArray with a null ByteArray.");
+		
+		if (other == this)
+			return 0;
+		
+		return compare(other, Arrays::compare);
+	}
+	
 	@Override
 	public boolean contains(Object o) {
 		if (o == null)
@@ -115,29 +304,30 @@ public class ByteArray implements PrimitiveArray {
 		return true;
 	}
 	
+	/**
+	 * Returns the CRC-32C checksum of the bytes of this ByteArray.
+	 * @return The CRC-32C of this.
+	 * @see PrimitiveArrays#crc32c(byte[])
+	 * @since JDK-21
+	 */
+	public long crc32c() {
+		readLock.lock();
+		
+		try {
+			return PrimitiveArrays.crc32c(arr);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
 	@Override
 	public boolean equals(Object o) {
-		if (o == null)
-			return false;
-		
-		if (o instanceof ByteArray) {
-			if (((ByteArray)o).size() != this.size())
-				return false;
-			
-			readLock.lock();
-			
-			try {
-				for (int i = 0; i < arr.length; ++i) {
-					if (!(((ByteArray)o).arr[i] == arr[i]))
-						return false;
-				}
-			}
-			finally {
-				readLock.lock();
-			}
-			
+		if (o == this)
 			return true;
-		}
+		
+		if (o instanceof ByteArray)
+			return mismatch((ByteArray)o) == -1;
 		
 		return false;
 	}
@@ -194,28 +384,23 @@ public class ByteArray implements PrimitiveArray {
 			throws NullPointerException {
 		if (array == null)
 			throw new NullPointerException("Cannot convert a null byte array into a ByteArray.");
-		ByteArray ret = new ByteArray(array.length);
-		for (int i = 0; i < array.length; ++i)
-			ret.arr[i] = array[i];
-		return ret;
+		return new ByteArray(array.clone());
 	}
 	
 	/**
-	 * Converts a char value into a ByteArray.
+	 * Converts a char value into a big-endian ByteArray.
 	 * @param value The char value to convert.
 	 * @return A ByteArray containing the char value.
 	 * @since JDK-21
 	 */
 	public static ByteArray from(char value) {
 		ByteArray ret = new ByteArray(Character.BYTES);
-		char mask = 0x00FF;
-		for (int i = 0; i < Character.BYTES; ++i)
-			ret.arr[i] = (byte)((value >> (Byte.SIZE * (Character.BYTES - 1 - i))) & mask);
+		CHAR.set(ret.arr, 0, value);
 		return ret;
 	}
 	
 	/**
-	 * Converts a char array into a ByteArray.
+	 * Converts a char array into a ByteArray of big-endian values.
 	 * @param array The char array to convert.
 	 * @return A ByteArray containing the char array.
 	 * @throws NullPointerException Thrown if array is null.
@@ -223,36 +408,43 @@ public class ByteArray implements PrimitiveArray {
 	 */
 	public static ByteArray from(char[] array) 
 			throws NullPointerException {
+		return from(array, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Converts a char array into a ByteArray, writing each value in the specified byte order. The values are 
+	 * encoded in bulk straight into the byte array backing the returned ByteArray.
+	 * @param array The char array to convert.
+	 * @param order The byte order to write the values in.
+	 * @return A ByteArray containing the char array.
+	 * @throws NullPointerException Thrown if array or order is null.
+	 * @since JDK-21
+	 */
+	public static ByteArray from(char[] array, ByteOrder order) 
+			throws NullPointerException {
 		if (array == null)
 			throw new NullPointerException("Cannot convert a null char array into a ByteArray.");
+		if (order == null)
+			throw new NullPointerException("Cannot convert a char array into a ByteArray with a null byte order.");
 		ByteArray ret = new ByteArray(array.length * Character.BYTES);
-		char mask = 0x00FF;
-		for (int i = 0; i < array.length; ++i) {
-			for (int j = 0; j < Character.BYTES; ++j) {
-				ret.arr[j + (i * Character.BYTES)] = 
-						(byte)((array[i] >> (Byte.SIZE * (Character.BYTES - 1 - j))) & mask);
-			}
-		}
+		ByteBuffer.wrap(ret.arr).order(order).asCharBuffer().put(array);
 		return ret;
 	}
 	
 	/**
-	 * Converts a double value into a ByteArray.
+	 * Converts a double value into a big-endian ByteArray.
 	 * @param value The double value to convert.
 	 * @return A ByteArray containing the double value.
 	 * @since JDK-21
 	 */
 	public static ByteArray from(double value) {
 		ByteArray ret = new ByteArray(Double.BYTES);
-		long v = Double.doubleToRawLongBits(value);
-		long mask = 0x00000000000000FF;
-		for (int i = 0; i < Double.BYTES; ++i)
-			ret.arr[i] = (byte)((v >> (Byte.SIZE * (Double.BYTES - 1 - i))) & mask);
+		DOUBLE.set(ret.arr, 0, value);
 		return ret;
 	}
 	
 	/**
-	 * Converts a double array into a ByteArray.
+	 * Converts a double array into a ByteArray of big-endian values.
 	 * @param array The double array to convert.
 	 * @return A ByteArray containing the double array.
 	 * @throws NullPointerException Thrown if array is null.
@@ -260,35 +452,43 @@ public class ByteArray implements PrimitiveArray {
 	 */
 	public static ByteArray from(double[] array) 
 			throws NullPointerException {
+		return from(array, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Converts a double array into a ByteArray, writing each value in the specified byte order. The values are 
+	 * encoded in bulk straight into the byte array backing the returned ByteArray.
+	 * @param array The double array to convert.
+	 * @param order The byte order to write the values in.
+	 * @return A ByteArray containing the double array.
+	 * @throws NullPointerException Thrown if array or order is null.
+	 * @since JDK-21
+	 */
+	public static ByteArray from(double[] array, ByteOrder order) 
+			throws NullPointerException {
 		if (array == null)
 			throw new NullPointerException("Cannot convert a null double array into a ByteArray.");
+		if (order == null)
+			throw new NullPointerException("Cannot convert a double array into a ByteArray with a null byte order.");
 		ByteArray ret = new ByteArray(array.length * Double.BYTES);
-		long mask = 0x00000000000000FF;
-		for (int i = 0; i < array.length; ++i) {
-			long v = Double.doubleToRawLongBits(array[i]);
-			for (int j = 0; j < Double.BYTES; ++j)
-				ret.arr[j + (i * Double.BYTES)] = (byte)((v >> (Byte.SIZE * (Double.BYTES - 1 - j))) & mask);
-		}
+		ByteBuffer.wrap(ret.arr).order(order).asDoubleBuffer().put(array);
 		return ret;
 	}
 	
 	/**
-	 * Converts a float value into a ByteArray.
+	 * Converts a float value into a big-endian ByteArray.
 	 * @param value The float value to convert.
 	 * @return A ByteArray containing the float value.
 	 * @since JDK-21
 	 */
 	public static ByteArray from(float value) {
 		ByteArray ret = new ByteArray(Float.BYTES);
-		int v = Float.floatToRawIntBits(value);
-		int mask = 0x000000FF;
-		for (int i = 0; i < Float.BYTES; ++i)
-			ret.arr[i] = (byte)((v >> (Byte.SIZE * (Float.BYTES - 1 - i))) & mask);
+		FLOAT.set(ret.arr, 0, value);
 		return ret;
 	}
 	
 	/**
-	 * Converts a float array into a ByteArray.
+	 * Converts a float array into a ByteArray of big-endian values.
 	 * @param array The float array to convert.
 	 * @return A ByteArray containing the float array.
 	 * @throws NullPointerException Thrown if array is null.
@@ -296,34 +496,43 @@ public class ByteArray implements PrimitiveArray {
 	 */
 	public static ByteArray from(float[] array) 
 			throws NullPointerException {
+		return from(array, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Converts a float array into a ByteArray, writing each value in the specified byte order. The values are 
+	 * encoded in bulk straight into the byte array backing the returned ByteArray.
+	 * @param array The float array to convert.
+	 * @param order The byte order to write the values in.
+	 * @return A ByteArray containing the float array.
+	 * @throws NullPointerException Thrown if array or order is null.
+	 * @since JDK-21
+	 */
+	public static ByteArray from(float[] array, ByteOrder order) 
+			throws NullPointerException {
 		if (array == null)
 			throw new NullPointerException("Cannot convert a null float array into a ByteArray.");
+		if (order == null)
+			throw new NullPointerException("Cannot convert a float array into a ByteArray with a null byte order.");
 		ByteArray ret = new ByteArray(array.length * Float.BYTES);
-		int mask = 0x000000FF;
-		for (int i = 0; i < array.length; ++i) {
-			int v = Float.floatToRawIntBits(array[i]);
-			for (int j = 0; j < Float.BYTES; ++j)
-				ret.arr[j + (i * Float.BYTES)] = (byte)((v >> (Byte.SIZE * (Float.BYTES - 1 - j))) & mask);
-		}
+		ByteBuffer.wrap(ret.arr).order(order).asFloatBuffer().put(array);
 		return ret;
 	}
 	
 	/**
-	 * Converts an int value into a ByteArray.
+	 * Converts an int value into a big-endian ByteArray.
 	 * @param value The int value to convert.
 	 * @return A ByteArray containing the int value.
 	 * @since JDK-21
 	 */
 	public static ByteArray from(int value) {
 		ByteArray ret = new ByteArray(Integer.BYTES);
-		int mask = 0x000000FF;
-		for (int i = 0; i < Integer.BYTES; ++i)
-			ret.arr[i] = (byte)((value >> (Byte.SIZE * (Integer.BYTES - 1 - i))) & mask);
+		INT.set(ret.arr, 0, value);
 		return ret;
 	}
 	
 	/**
-	 * Converts an int array into a ByteArray.
+	 * Converts an int array into a ByteArray of big-endian values.
 	 * @param array The int array to convert.
 	 * @return A ByteArray containing the int array.
 	 * @throws NullPointerException Thrown if array is null.
@@ -331,33 +540,43 @@ public class ByteArray implements PrimitiveArray {
 	 */
 	public static ByteArray from(int[] array) 
 			throws NullPointerException {
+		return from(array, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Converts an int array into a ByteArray, writing each value in the specified byte order. The values are 
+	 * encoded in bulk straight into the byte array backing the returned ByteArray.
+	 * @param array The int array to convert.
+	 * @param order The byte order to write the values in.
+	 * @return A ByteArray containing the int array.
+	 * @throws NullPointerException Thrown if array or order is null.
+	 * @since JDK-21
+	 */
+	public static ByteArray from(int[] array, ByteOrder order) 
+			throws NullPointerException {
 		if (array == null)
 			throw new NullPointerException("Cannot convert a null int array into a ByteArray.");
+		if (order == null)
+			throw new NullPointerException("Cannot convert an int array into a ByteArray with a null byte order.");
 		ByteArray ret = new ByteArray(array.length * Integer.BYTES);
-		int mask = 0x000000FF;
-		for (int i = 0; i < array.length; ++i) {
-			for (int j = 0; j < Integer.BYTES; ++j)
-				ret.arr[j + (i * Integer.BYTES)] = (byte)((array[i] >> (Byte.SIZE * (Integer.BYTES - 1 - j))) & mask);
-		}
+		ByteBuffer.wrap(ret.arr).order(order).asIntBuffer().put(array);
 		return ret;
 	}
 	
 	/**
-	 * Converts a long value into a ByteArray.
+	 * Converts a long value into a big-endian ByteArray.
 	 * @param value The long value to convert.
 	 * @return A ByteArray containing the long value.
 	 * @since JDK-21
 	 */
 	public static ByteArray from(long value) {
 		ByteArray ret = new ByteArray(Long.BYTES);
-		long mask = 0x00000000000000FF;
-		for (int i = 0; i < Long.BYTES; ++i)
-			ret.arr[i] = (byte)((value >> (Byte.SIZE * (Long.BYTES - 1 - i))) & mask);
+		LONG.set(ret.arr, 0, value);
 		return ret;
 	}
 	
 	/**
-	 * Converts a long array into a ByteArray.
+	 * Converts a long array into a ByteArray of big-endian values.
 	 * @param array The long array to convert.
 	 * @return A ByteArray containing the long array.
 	 * @throws NullPointerException Thrown if array is null.
@@ -365,33 +584,43 @@ public class ByteArray implements PrimitiveArray {
 	 */
 	public static ByteArray from(long[] array) 
 			throws NullPointerException {
+		return from(array, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Converts a long array into a ByteArray, writing each value in the specified byte order. The values are 
+	 * encoded in bulk straight into the byte array backing the returned ByteArray.
+	 * @param array The long array to convert.
+	 * @param order The byte order to write the values in.
+	 * @return A ByteArray containing the long array.
+	 * @throws NullPointerException Thrown if array or order is null.
+	 * @since JDK-21
+	 */
+	public static ByteArray from(long[] array, ByteOrder order) 
+			throws NullPointerException {
 		if (array == null)
 			throw new NullPointerException("Cannot convert a null long array into a ByteArray.");
+		if (order == null)
+			throw new NullPointerException("Cannot convert a long array into a ByteArray with a null byte order.");
 		ByteArray ret = new ByteArray(array.length * Long.BYTES);
-		long mask = 0x00000000000000FF;
-		for (int i = 0; i < array.length; ++i) {
-			for (int j = 0; j < Long.BYTES; ++j)
-				ret.arr[j + (i * Long.BYTES)] = (byte)((array[i] >> (Byte.SIZE * (Long.BYTES - 1 - j))) & mask);
-		}
+		ByteBuffer.wrap(ret.arr).order(order).asLongBuffer().put(array);
 		return ret;
 	}
 	
 	/**
-	 * Converts a short value into a ByteArray.
+	 * Converts a short value into a big-endian ByteArray.
 	 * @param value The short value to convert.
 	 * @return A ByteArray containing the short value.
 	 * @since JDK-21
 	 */
 	public static ByteArray from(short value) {
 		ByteArray ret = new ByteArray(Short.BYTES);
-		short mask = 0x00FF;
-		for (int i = 0; i < Short.BYTES; ++i)
-			ret.arr[i] = (byte)((value >> (Byte.SIZE * (Short.BYTES - 1 - i))) & mask);
+		SHORT.set(ret.arr, 0, value);
 		return ret;
 	}
 	
 	/**
-	 * Converts a short array into a ByteArray.
+	 * Converts a short array into a ByteArray of big-endian values.
 	 * @param array The short array to convert.
 	 * @return A ByteArray containing the short array.
 	 * @throws NullPointerException Thrown if array is null.
@@ -399,14 +628,26 @@ public class ByteArray implements PrimitiveArray {
 	 */
 	public static ByteArray from(short[] array) 
 			throws NullPointerException {
+		return from(array, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Converts a short array into a ByteArray, writing each value in the specified byte order. The values are 
+	 * encoded in bulk straight into the byte array backing the returned ByteArray.
+	 * @param array The short array to convert.
+	 * @param order The byte order to write the values in.
+	 * @return A ByteArray containing the short array.
+	 * @throws NullPointerException Thrown if array or order is null.
+	 * @since JDK-21
+	 */
+	public static ByteArray from(short[] array, ByteOrder order) 
+			throws NullPointerException {
 		if (array == null)
 			throw new NullPointerException("Cannot convert a null short array into a ByteArray.");
+		if (order == null)
+			throw new NullPointerException("Cannot convert a short array into a ByteArray with a null byte order.");
 		ByteArray ret = new ByteArray(array.length * Short.BYTES);
-		short mask = 0x00FF;
-		for (int i = 0; i < array.length; ++i) {
-			for (int j = 0; j < Short.BYTES; ++j)
-				ret.arr[j + (i * Short.BYTES)] = (byte)((array[i] >> (Byte.SIZE * (Short.BYTES - 1 - j))) & mask);
-		}
+		ByteBuffer.wrap(ret.arr).order(order).asShortBuffer().put(array);
 		return ret;
 	}
 	
@@ -441,12 +682,30 @@ public class ByteArray implements PrimitiveArray {
 		}
 	}
 	
+	/**
+	 * Returns the 64-bit XXH64 hash of the bytes of this ByteArray. Equal ByteArrays always have equal hashes, so the
+	 * hash can be used as a key to deduplicate ByteArrays by content.
+	 * @return The 64-bit hash of this.
+	 * @see PrimitiveArrays#hash64(byte[])
+	 * @since JDK-21
+	 */
+	public long hash64() {
+		readLock.lock();
+		
+		try {
+			return PrimitiveArrays.hash64(arr);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
 	@Override
 	public int hashCode() {
 		readLock.lock();
 		
 		try {
-			return arr.hashCode();
+			return Arrays.hashCode(arr);
 		}
 		finally {
 			readLock.unlock();
@@ -498,6 +757,46 @@ public class ByteArray implements PrimitiveArray {
 		return -1;
 	}
 	
+	/**
+	 * Returns the index of the first element that differs between this ByteArray and the specified ByteArray, or -1 if
+	 * they are equal. If one is a prefix of the other, the length of the shorter one is returned.
+	 * @param other The ByteArray to compare with.
+	 * @return The index of the first mismatch, or -1 if there is none.
+	 * @throws NullPointerException Thrown if other is null.
+	 * @since JDK-21
+	 */
+	public int mismatch(ByteArray other)
+			throws NullPointerException {
+		if (other == null)
+			throw new NullPointerException("Cannot compare a ByteArray with a null ByteArray.");
+		
+		if (other == this)
+			return -1;
+		
+		return compare(other, Arrays::mismatch);
+	}
+	
+	/**
+	 * Sorts this ByteArray in place into ascending numerical order. If this ByteArray has at least 
+	 * {@link PrimitiveArrays#parallelThreshold()} elements, it is sorted with a parallel sort-merge on the common 
+	 * fork-join pool, otherwise it is sorted on the calling thread.
+	 * @see Arrays#parallelSort(byte[])
+	 * @since JDK-21
+	 */
+	public void parallelSort() {
+		writeLock.lock();
+		
+		try {
+			if (arr.length < PrimitiveArrays.parallelThreshold())
+				Arrays.sort(arr);
+			else
+				Arrays.parallelSort(arr);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
 	@Override
 	public void set(int index, Object o) 
 			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
@@ -532,6 +831,22 @@ public class ByteArray implements PrimitiveArray {
 		}
 	}
 	
+	/**
+	 * Sorts this ByteArray in place into ascending numerical order on the calling thread.
+	 * @see Arrays#sort(byte[])
+	 * @since JDK-21
+	 */
+	public void sort() {
+		writeLock.lock();
+		
+		try {
+			Arrays.sort(arr);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
 	@Override
 	public ByteArray subArray(int start, int end) 
 			throws IllegalArgumentException {
@@ -621,5 +936,49 @@ public class ByteArray implements PrimitiveArray {
 		
 		return ret;
 	}
+	
+	/**
+	 * Applies the specified comparison to the elements of this ByteArray and the specified ByteArray with both read
+	 * locks held.
+	 * @param other The ByteArray to compare with.
+	 * @param comparison The comparison to apply to the two arrays.
+	 * @return The result of the comparison.
+	 * @since JDK-21
+	 */
+	private int compare(ByteArray other, ToIntBiFunction<byte[], byte[]> comparison) {
+		// Lock in a consistent order so that opposing comparisons between the same two ByteArrays cannot deadlock.
+		// ByteArrays with equal identity hash codes have no order, so they take TIE_LOCK first.
+		int thisHash = System.identityHashCode(this);
+		int otherHash = System.identityHashCode(other);
+		boolean thisFirst = thisHash <= otherHash;
+		boolean tie = thisHash == otherHash;
+		Lock first = thisFirst ? readLock : other.readLock;
+		Lock second = thisFirst ? other.readLock : readLock;
+		
+		if (tie)
+			TIE_LOCK.lock();
+		
+		try {
+			first.lock();
+			
+			try {
+				second.lock();
+				
+				try {
+					return comparison.applyAsInt(arr, other.arr);
+				}
+				finally {
+					second.unlock();
+				}
+			}
+			finally {
+				first.unlock();
+			}
+		}
+		finally {
+			if (tie)
+				TIE_LOCK.unlock();
+		}
+	}
 
 }
@@ -0,0 +1,252 @@
+package babs.mindforge.util.primitivearray;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import babs.mindforge.util.Index;
+
+/**
+ * ByteArrayBuilder class accumulates an unknown number of byte values into a growable byte array, without boxing, and
+ * then builds a {@link ByteArray} from them. The backing array grows by half of its capacity whenever it is full, so
+ * appending is amortized constant time. {@link #build()} hands the backing array over to the ByteArray without copying
+ * if the number of values appended is equal to its capacity, or builds it from a trimmed copy otherwise, and either
+ * way resets this ByteArrayBuilder to an empty state. Like StringBuilder, ByteArrayBuilder is intended to be used by a
+ * single thread and is not thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see ByteArray
+ * @since JDK-21
+ */
+public class ByteArrayBuilder {
+	
+	/**
+	 * The default initial capacity of a ByteArrayBuilder.
+	 */
+	public static final int DEF_CAPACITY = 16;
+	
+	/**
+	 * The byte array backing the ByteArrayBuilder.
+	 */
+	private byte[] arr;
+	/**
+	 * The number of values appended to the ByteArrayBuilder.
+	 */
+	private int size;
+	
+	/**
+	 * Default constructor that creates an empty ByteArrayBuilder with the default initial capacity.
+	 * @since JDK-21
+	 */
+	public ByteArrayBuilder() {
+		this(DEF_CAPACITY);
+	}
+	
+	/**
+	 * Constructor that creates an empty ByteArrayBuilder with the specified initial capacity. If the final number
+	 * of values is known in advance, using it as the initial capacity lets {@link #build()} avoid copying.
+	 * @param capacity The initial capacity.
+	 * @throws NegativeArraySizeException Thrown if capacity is negative.
+	 * @since JDK-21
+	 */
+	public ByteArrayBuilder(int capacity)
+			throws NegativeArraySizeException {
+		if (capacity < 0)
+			throw new NegativeArraySizeException("Cannot create a ByteArrayBuilder with a negative capacity.");
+		
+		arr = new byte[capacity];
+		size = 0;
+	}
+	
+	/**
+	 * Appends the specified byte value.
+	 * @param value The value to append.
+	 * @return This ByteArrayBuilder.
+	 * @throws OutOfMemoryError Thrown if the backing array cannot grow any larger.
+	 * @since JDK-21
+	 */
+	public ByteArrayBuilder append(byte value) {
+		if (size == arr.length)
+			grow(size + 1);
+		
+		arr[size++] = value;
+		return this;
+	}
+	
+	/**
+	 * Appends all the values in the specified byte array.
+	 * @param array The values to append.
+	 * @return This ByteArrayBuilder.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @throws OutOfMemoryError Thrown if the backing array cannot grow any larger.
+	 * @since JDK-21
+	 */
+	public ByteArrayBuilder appendAll(byte[] array)
+			throws NullPointerException {
+		if (array == null)
+			throw new NullPointerException("Cannot append a null byte array.");
+		
+		return appendAll(array, 0, array.length);
+	}
+	
+	/**
+	 * Appends the specified range of values in the specified byte array.
+	 * @param array The values to append.
+	 * @param offset The index of the first value to append.
+	 * @param length The number of values to append.
+	 * @return This ByteArrayBuilder.
+	 * @throws IndexOutOfBoundsException Thrown if offset and length are out-of-bounds of array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @throws OutOfMemoryError Thrown if the backing array cannot grow any larger.
+	 * @since JDK-21
+	 */
+	public ByteArrayBuilder appendAll(byte[] array, int offset, int length)
+			throws IndexOutOfBoundsException, NullPointerException {
+		if (array == null)
+			throw new NullPointerException("Cannot append a null byte array.");
+		
+		Objects.checkFromIndexSize(offset, length, array.length);
+		
+		if (length > arr.length - size)
+			grow(size + length);
+		
+		System.arraycopy(array, offset, arr, size, length);
+		size += length;
+		return this;
+	}
+	
+	/**
+	 * Appends all the values in the specified ByteArray.
+	 * @param array The values to append.
+	 * @return This ByteArrayBuilder.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @throws OutOfMemoryError Thrown if the backing array cannot grow any larger.
+	 * @since JDK-21
+	 */
+	public ByteArrayBuilder appendAll(ByteArray array)
+			throws NullPointerException {
+		if (array == null)
+			throw new NullPointerException("Cannot append a null ByteArray.");
+		
+		return appendAll(array.toArray());
+	}
+	
+	/**
+	 * Builds a ByteArray containing the values appended to this ByteArrayBuilder and resets this ByteArrayBuilder to
+	 * an empty state. If the backing array is exactly full, it is handed over to the ByteArray without copying and
+	 * replaced by an empty array. Otherwise, the ByteArray is built from a trimmed copy and the backing array is kept
+	 * for reuse.
+	 * @return A ByteArray containing the appended values.
+	 * @since JDK-21
+	 */
+	public ByteArray build() {
+		ByteArray ret;
+		
+		if (size == arr.length) {
+			ret = new ByteArray(arr);
+			arr = new byte[0];
+		}
+		else {
+			ret = new ByteArray(Arrays.copyOf(arr, size));
+		}
+		
+		size = 0;
+		return ret;
+	}
+	
+	/**
+	 * Returns the capacity of the array backing this ByteArrayBuilder.
+	 * @return The capacity of this.
+	 * @since JDK-21
+	 */
+	public int capacity() {
+		return arr.length;
+	}
+	
+	/**
+	 * Removes all the values appended to this ByteArrayBuilder, keeping its capacity.
+	 * @since JDK-21
+	 */
+	public void clear() {
+		size = 0;
+	}
+	
+	/**
+	 * Grows the backing array, if needed, so that it can hold at least the specified number of values.
+	 * @param capacity The minimum capacity.
+	 * @throws OutOfMemoryError Thrown if capacity exceeds {@link Index#MAX}.
+	 * @since JDK-21
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity > arr.length)
+			grow(capacity);
+	}
+	
+	/**
+	 * Returns the value at the specified index.
+	 * @param index The index of the value to return.
+	 * @return The value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public byte get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		if (index < 0 || index >= size)
+			throw new ArrayIndexOutOfBoundsException("Cannot get value due to index out-of-bounds.");
+		
+		return arr[index];
+	}
+	
+	/**
+	 * Grows the backing array by half of its capacity, or to the specified minimum capacity if that is larger.
+	 * @param minCapacity The minimum capacity needed.
+	 * @throws OutOfMemoryError Thrown if minCapacity is negative or exceeds {@link Index#MAX}.
+	 * @since JDK-21
+	 */
+	private void grow(int minCapacity) {
+		if (minCapacity < 0 || minCapacity > Index.MAX)
+			throw new OutOfMemoryError("Cannot grow a ByteArrayBuilder beyond the maximum array size.");
+		
+		int capacity = arr.length + Math.max(arr.length >> 1, DEF_CAPACITY);
+		
+		if (capacity < 0 || capacity > Index.MAX)
+			capacity = Index.MAX;
+		if (capacity < minCapacity)
+			capacity = minCapacity;
+		
+		arr = Arrays.copyOf(arr, capacity);
+	}
+	
+	/**
+	 * Returns the number of values appended to this ByteArrayBuilder.
+	 * @return The size of this.
+	 * @since JDK-21
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Returns a copy of the values appended to this ByteArrayBuilder.
+	 * @return A byte array containing the values of this.
+	 * @since JDK-21
+	 */
+	public byte[] toArray() {
+		return Arrays.copyOf(arr, size);
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder();
+		
+		for (int i = 0; i < size; ++i) {
+			if (i > 0)
+				ret.append(' ');
+			
+			ret.append(arr[i]);
+		}
+		
+		return ret.toString();
+	}
+
+}
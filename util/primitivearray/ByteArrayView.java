@@ -0,0 +1,195 @@
+package babs.mindforge.util.primitivearray;
+
+import java.nio.ByteOrder;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ByteArrayView class is the base class for PrimitiveArrays that reinterpret the bytes of a {@link ByteArray} as
+ * another primitive type without copying them. A ByteArrayView reads and writes through to the byte array backing
+ * its ByteArray in the byte order it was created with, and shares that ByteArray's read/write lock, so changes made
+ * through either are immediately visible through the other. If the ByteArray's size is not evenly divisible by the
+ * element size, the trailing bytes are not part of the view. ByteArrayViews are created through the as*View methods
+ * of ByteArray. ByteArrayView implements PrimitiveArray and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see ByteArray
+ * @see PrimitiveArray
+ * @since JDK-21
+ */
+public abstract class ByteArrayView implements PrimitiveArray {
+	
+	/**
+	 * The read lock shared with the viewed ByteArray.
+	 */
+	protected final Lock readLock;
+	/**
+	 * The write lock shared with the viewed ByteArray.
+	 */
+	protected final Lock writeLock;
+	
+	/**
+	 * The byte array backing the viewed ByteArray.
+	 */
+	protected final byte[] arr;
+	/**
+	 * True if elements are read and written in big-endian byte order.
+	 */
+	protected final boolean bigEndian;
+	/**
+	 * The number of elements in the ByteArrayView.
+	 */
+	protected final int size;
+	
+	/**
+	 * Constructor that creates a ByteArrayView over the specified byte array.
+	 * @param arr The byte array backing the viewed ByteArray.
+	 * @param lock The read/write lock of the viewed ByteArray.
+	 * @param elementBytes The size in bytes of a single element.
+	 * @param order The byte order of the elements.
+	 * @throws NullPointerException Thrown if order is null.
+	 * @since JDK-21
+	 */
+	ByteArrayView(byte[] arr, ReentrantReadWriteLock lock, int elementBytes, ByteOrder order)
+			throws NullPointerException {
+		if (order == null)
+			throw new NullPointerException("Cannot create a ByteArrayView with a null byte order.");
+		
+		this.arr = arr;
+		readLock = lock.readLock();
+		writeLock = lock.writeLock();
+		bigEndian = order == ByteOrder.BIG_ENDIAN;
+		size = arr.length / elementBytes;
+	}
+	
+	/**
+	 * Checks that the specified index is within the bounds of this ByteArrayView.
+	 * @param index The index to check.
+	 * @param message The exception message.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	protected void checkIndex(int index, String message)
+			throws ArrayIndexOutOfBoundsException {
+		if (index < 0 || index >= size)
+			throw new ArrayIndexOutOfBoundsException(message);
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) != -1;
+	}
+	
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		if (c == null)
+			return false;
+		
+		Iterator<?> it = c.iterator();
+		
+		while (it.hasNext()) {
+			if (!contains(it.next()))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Returns an Iterator for this ByteArrayView. The Iterator reads each element from the viewed ByteArray as it is
+	 * returned, rather than copying it.
+	 * @return An Iterator for this.
+	 * @since JDK-21
+	 */
+	@Override
+	public Iterator<?> iterator() {
+		return new Iterator<Object>() {
+			
+			private int index = 0;
+			
+			@Override
+			public boolean hasNext() {
+				return index < size;
+			}
+			
+			@Override
+			public Object next() {
+				if (index >= size)
+					throw new NoSuchElementException();
+				
+				return get(index++);
+			}
+		
+		};
+	}
+	
+	/**
+	 * Returns the byte order used to read and write the elements of this ByteArrayView.
+	 * @return The byte order of this.
+	 * @since JDK-21
+	 */
+	public ByteOrder order() {
+		return bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T[] toArray(T[] a) {
+		Object[] copy = new Object[size];
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < size; ++i)
+				copy[i] = get(i);
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		if (a.length >= copy.length) {
+			for (int i = 0; i < copy.length; ++i)
+				a[i] = (T)copy[i];
+			
+			return a;
+		}
+		
+		T[] ret = (T[])Arrays.copyOf(copy, copy.length, a.getClass());
+		
+		return ret;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < size; ++i) {
+				if (i > 0)
+					ret.append(' ');
+				
+				ret.append(get(i));
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret.toString();
+	}
+
+}
@@ -0,0 +1,73 @@
+package babs.mindforge.util.primitivearray;
+
+/**
+ * CompressedArray interface is used to represent a read-only PrimitiveArray of integral values that is stored
+ * compressed, for large arrays that are kept resident and read far more often than they are written. The values are
+ * encoded in blocks of {@link #BLOCK_SIZE} values, and each block records where it starts and the first or smallest
+ * value in it, so a single value can be found by decoding only its block, and sorted arrays can skip whole blocks when
+ * searching.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see PrimitiveArray
+ * @since JDK-21
+ */
+public interface CompressedArray extends PrimitiveArray {
+	
+	/**
+	 * The number of values in each block of a CompressedArray.
+	 */
+	public static final int BLOCK_SIZE = 128;
+	
+	/**
+	 * Encoding enum represents how the values of each block of a CompressedArray are encoded.
+	 *
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @since JDK-21
+	 */
+	public enum Encoding {
+		
+		/**
+		 * Each value is stored as its difference from the smallest value in its block, bit-packed with just enough
+		 * bits for the largest difference. Any value can be decoded in constant time.
+		 */
+		FRAME_OF_REFERENCE,
+		/**
+		 * Each value is stored as its difference from the previous value, bit-packed with just enough bits for the
+		 * largest difference in its block. The values must be sorted in ascending order. This is the most compact
+		 * encoding for sorted values that are close together, such as ID lists.
+		 */
+		DELTA,
+		/**
+		 * Each value is stored as its zig-zag encoded difference from the previous value, in a variable number of
+		 * bytes with 7 bits per byte. This works for values in any order and adapts to uneven differences within a
+		 * block.
+		 */
+		VARINT
+	
+	}
+	
+	/**
+	 * Returns the number of bytes used by the encoded values of this CompressedArray, including the per-block headers.
+	 * @return The compressed size of this in bytes.
+	 * @since JDK-21
+	 */
+	public long compressedBytes();
+	
+	/**
+	 * Returns the encoding used by this CompressedArray.
+	 * @return The encoding of this.
+	 * @since JDK-21
+	 */
+	public Encoding encoding();
+	
+	/**
+	 * Returns true if the values of this CompressedArray are sorted in ascending order, which allows searches to skip
+	 * whole blocks.
+	 * @return True if this is sorted, otherwise false.
+	 * @since JDK-21
+	 */
+	public boolean isSorted();
+
+}
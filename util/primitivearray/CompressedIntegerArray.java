@@ -0,0 +1,828 @@
+package babs.mindforge.util.primitivearray;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+
+import babs.mindforge.util.Index;
+
+/**
+ * CompressedIntegerArray class is a read-only CompressedArray of int values. The values are encoded once, when the
+ * CompressedIntegerArray is created, in blocks of {@link CompressedArray#BLOCK_SIZE} values using frame-of-reference
+ * bit-packing, delta bit-packing or varints. {@link #getInt(int)} only decodes the block holding the value,
+ * {@link #decode(int, int[], int, int)} decodes a range of values into a caller buffer a block at a time, and a
+ * {@link Cursor} decodes sequentially and can {@link Cursor#advance(int) advance} to a target value by skipping whole
+ * blocks, which makes intersecting sorted ID lists fast. A CompressedIntegerArray cannot be changed once created, so
+ * it is thread-safe without locking.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see CompressedArray
+ * @see IntegerArray
+ * @since JDK-21
+ */
+public class CompressedIntegerArray implements CompressedArray {
+	
+	/**
+	 * The base 2 logarithm of the block size.
+	 */
+	private static final int BLOCK_SHIFT = 7;
+	/**
+	 * The mask that gives the position of a value within its block.
+	 */
+	private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+	
+	/**
+	 * The encoding of the values.
+	 */
+	private final Encoding encoding;
+	/**
+	 * The number of values.
+	 */
+	private final int size;
+	/**
+	 * True if the values are sorted in ascending order.
+	 */
+	private final boolean sorted;
+	/**
+	 * The smallest value of each block for frame-of-reference encoding, otherwise the first value of each block.
+	 */
+	private final int[] base;
+	/**
+	 * The word offset of each block for bit-packed encodings, otherwise the byte offset of each block.
+	 */
+	private final int[] offset;
+	/**
+	 * The number of bits per packed value of each block for bit-packed encodings.
+	 */
+	private final byte[] bits;
+	/**
+	 * The packed values for bit-packed encodings.
+	 */
+	private final long[] words;
+	/**
+	 * The varint bytes for varint encoding.
+	 */
+	private final byte[] bytes;
+	
+	/**
+	 * Constructor that creates a CompressedIntegerArray from already encoded values.
+	 * @param encoding The encoding of the values.
+	 * @param size The number of values.
+	 * @param sorted True if the values are sorted in ascending order.
+	 * @param base The base value of each block.
+	 * @param offset The offset of each block.
+	 * @param bits The number of bits per packed value of each block.
+	 * @param words The packed values.
+	 * @param bytes The varint bytes.
+	 * @since JDK-21
+	 */
+	private CompressedIntegerArray(Encoding encoding, int size, boolean sorted, int[] base, int[] offset, byte[] bits,
+			long[] words, byte[] bytes) {
+		this.encoding = encoding;
+		this.size = size;
+		this.sorted = sorted;
+		this.base = base;
+		this.offset = offset;
+		this.bits = bits;
+		this.words = words;
+		this.bytes = bytes;
+	}
+	
+	@Override
+	public long compressedBytes() {
+		return (long)words.length * Long.BYTES + bytes.length + (long)base.length * Integer.BYTES
+				+ (long)offset.length * Integer.BYTES + bits.length;
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) != Index.INVALID;
+	}
+	
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		if (c == null)
+			return false;
+		
+		Iterator<?> it = c.iterator();
+		
+		while (it.hasNext()) {
+			if (!contains(it.next()))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Returns a new Cursor positioned before the first value of this CompressedIntegerArray.
+	 * @return A Cursor over this.
+	 * @since JDK-21
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+	
+	/**
+	 * Decodes the specified range of values of this CompressedIntegerArray into the specified int array, a block at
+	 * a time.
+	 * @param start The index of the first value to decode.
+	 * @param dest The int array to decode into.
+	 * @param destPos The index in dest to start writing at.
+	 * @param length The number of values to decode.
+	 * @throws IndexOutOfBoundsException Thrown if the range is out-of-bounds of this or of dest.
+	 * @throws NullPointerException Thrown if dest is null.
+	 * @since JDK-21
+	 */
+	public void decode(int start, int[] dest, int destPos, int length)
+			throws IndexOutOfBoundsException, NullPointerException {
+		if (dest == null)
+			throw new NullPointerException("Cannot decode a CompressedIntegerArray into a null int array.");
+		
+		Objects.checkFromIndexSize(start, length, size);
+		Objects.checkFromIndexSize(destPos, length, dest.length);
+		
+		int[] buffer = null;
+		
+		while (length > 0) {
+			int b = start >>> BLOCK_SHIFT;
+			int from = start & BLOCK_MASK;
+			int n = Math.min(blockSize(b) - from, length);
+			
+			if (from == 0 && n == blockSize(b)) {
+				decodeBlock(b, dest, destPos);
+			}
+			else {
+				if (buffer == null)
+					buffer = new int[BLOCK_SIZE];
+				
+				decodeBlock(b, buffer, 0);
+				System.arraycopy(buffer, from, dest, destPos, n);
+			}
+			
+			start += n;
+			destPos += n;
+			length -= n;
+		}
+	}
+	
+	/**
+	 * Creates a CompressedIntegerArray containing the values of the specified int array, encoded with the specified
+	 * encoding.
+	 * @param values The values to encode.
+	 * @param encoding The encoding to use.
+	 * @return A CompressedIntegerArray containing values.
+	 * @throws IllegalArgumentException Thrown if encoding is {@link CompressedArray.Encoding#DELTA} and values is not
+	 * sorted in ascending order.
+	 * @throws NullPointerException Thrown if values or encoding is null.
+	 * @since JDK-21
+	 */
+	public static CompressedIntegerArray encode(int[] values, Encoding encoding)
+			throws IllegalArgumentException, NullPointerException {
+		if (values == null)
+			throw new NullPointerException("Cannot encode a null int array.");
+		if (encoding == null)
+			throw new NullPointerException("Cannot encode an int array with a null encoding.");
+		
+		boolean sorted = true;
+		
+		for (int i = 1; i < values.length && sorted; ++i)
+			sorted = values[i - 1] <= values[i];
+		
+		if (encoding == Encoding.DELTA && !sorted)
+			throw new IllegalArgumentException("Cannot delta encode an int array that is not sorted.");
+		
+		int blocks = (values.length + BLOCK_MASK) >>> BLOCK_SHIFT;
+		int[] base = new int[blocks];
+		int[] offset = new int[blocks];
+		byte[] bits = new byte[blocks];
+		
+		if (encoding == Encoding.VARINT) {
+			ByteArrayBuilder out = new ByteArrayBuilder(values.length);
+			
+			for (int b = 0; b < blocks; ++b) {
+				int start = b << BLOCK_SHIFT;
+				int end = Math.min(start + BLOCK_SIZE, values.length);
+				int prev = values[start];
+				
+				base[b] = prev;
+				offset[b] = out.size();
+				
+				for (int i = start; i < end; ++i) {
+					int d = values[i] - prev;
+					int z = (d << 1) ^ (d >> 31);
+					
+					while ((z & ~0x7F) != 0) {
+						out.append((byte)((z & 0x7F) | 0x80));
+						z >>>= 7;
+					}
+					
+					out.append((byte)z);
+					prev = values[i];
+				}
+			}
+			
+			return new CompressedIntegerArray(encoding, values.length, sorted, base, offset, bits, new long[0],
+					out.toArray());
+		}
+		
+		// Find the base and bit width of each block, then pack each block starting at a word boundary.
+		int total = 0;
+		
+		for (int b = 0; b < blocks; ++b) {
+			int start = b << BLOCK_SHIFT;
+			int end = Math.min(start + BLOCK_SIZE, values.length);
+			long max = 0;
+			
+			if (encoding == Encoding.DELTA) {
+				base[b] = values[start];
+				
+				for (int i = start + 1; i < end; ++i)
+					max = Math.max(max, (long)values[i] - values[i - 1]);
+			}
+			else {
+				int min = values[start];
+				int hi = values[start];
+				
+				for (int i = start + 1; i < end; ++i) {
+					min = Math.min(min, values[i]);
+					hi = Math.max(hi, values[i]);
+				}
+				
+				base[b] = min;
+				max = (long)hi - min;
+			}
+			
+			bits[b] = (byte)(Long.SIZE - Long.numberOfLeadingZeros(max));
+			offset[b] = total;
+			total += (int)(((long)(end - start) * bits[b] + Long.SIZE - 1) >>> 6);
+		}
+		
+		long[] words = new long[total];
+		
+		for (int b = 0; b < blocks; ++b) {
+			int start = b << BLOCK_SHIFT;
+			int end = Math.min(start + BLOCK_SIZE, values.length);
+			long pos = (long)offset[b] << 6;
+			
+			if (bits[b] == 0)
+				continue;
+			
+			for (int i = start; i < end; ++i, pos += bits[b]) {
+				long v = (encoding == Encoding.DELTA)
+						? ((i == start) ? 0 : (long)values[i] - values[i - 1])
+						: (long)values[i] - base[b];
+				
+				pack(words, pos, v, bits[b]);
+			}
+		}
+		
+		return new CompressedIntegerArray(encoding, values.length, sorted, base, offset, bits, words, new byte[0]);
+	}
+	
+	/**
+	 * Creates a CompressedIntegerArray containing the values of the specified IntegerArray, encoded with the
+	 * specified encoding.
+	 * @param array The IntegerArray to encode.
+	 * @param encoding The encoding to use.
+	 * @return A CompressedIntegerArray containing the values of array.
+	 * @throws IllegalArgumentException Thrown if encoding is {@link CompressedArray.Encoding#DELTA} and array is not
+	 * sorted in ascending order.
+	 * @throws NullPointerException Thrown if array or encoding is null.
+	 * @since JDK-21
+	 */
+	public static CompressedIntegerArray encode(IntegerArray array, Encoding encoding)
+			throws IllegalArgumentException, NullPointerException {
+		if (array == null)
+			throw new NullPointerException("Cannot encode a null IntegerArray.");
+		
+		return encode(array.toArray(), encoding);
+	}
+	
+	@Override
+	public Encoding encoding() {
+		return encoding;
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (o == this)
+			return true;
+		
+		if (o instanceof CompressedIntegerArray) {
+			CompressedIntegerArray other = (CompressedIntegerArray)o;
+			
+			if (other.size != size)
+				return false;
+			
+			int[] a = new int[BLOCK_SIZE];
+			int[] b = new int[BLOCK_SIZE];
+			
+			for (int i = 0; i < base.length; ++i) {
+				int n = decodeBlock(i, a, 0);
+				other.decodeBlock(i, b, 0);
+				
+				if (!Arrays.equals(a, 0, n, b, 0, n))
+					return false;
+			}
+			
+			return true;
+		}
+		
+		return false;
+	}
+	
+	@Override
+	public Integer get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getInt(index);
+	}
+	
+	/**
+	 * Returns the int value at the specified index, decoding at most the block that holds it.
+	 * @param index The index of the value to return.
+	 * @return The value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int getInt(int index)
+			throws ArrayIndexOutOfBoundsException {
+		if (index < 0 || index >= size)
+			throw new ArrayIndexOutOfBoundsException("Cannot get value due to index out-of-bounds.");
+		
+		int b = index >>> BLOCK_SHIFT;
+		int j = index & BLOCK_MASK;
+		
+		switch (encoding) {
+			case FRAME_OF_REFERENCE: {
+				if (bits[b] == 0)
+					return base[b];
+				
+				return base[b] + (int)unpack(words, ((long)offset[b] << 6) + (long)j * bits[b], bits[b]);
+			}
+			case DELTA: {
+				int ret = base[b];
+				
+				if (bits[b] != 0) {
+					long pos = (long)offset[b] << 6;
+					
+					for (int i = 1; i <= j; ++i)
+						ret += (int)unpack(words, pos + (long)i * bits[b], bits[b]);
+				}
+				
+				return ret;
+			}
+			default: {
+				int p = offset[b];
+				int ret = base[b];
+				
+				for (int i = 0; i <= j; ++i) {
+					int z = 0;
+					int shift = 0;
+					byte by;
+					
+					do {
+						by = bytes[p++];
+						z |= (by & 0x7F) << shift;
+						shift += 7;
+					} while (by < 0);
+					
+					ret += (z >>> 1) ^ -(z & 1);
+				}
+				
+				return ret;
+			}
+		}
+	}
+	
+	@Override
+	public int hashCode() {
+		int ret = 1;
+		int[] buffer = new int[BLOCK_SIZE];
+		
+		for (int b = 0; b < base.length; ++b) {
+			int n = decodeBlock(b, buffer, 0);
+			
+			for (int i = 0; i < n; ++i)
+				ret = 31 * ret + buffer[i];
+		}
+		
+		return ret;
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (!(o instanceof Integer))
+			return Index.INVALID;
+		
+		int value = (Integer)o;
+		
+		if (sorted) {
+			Cursor c = cursor();
+			int i = c.advance(value);
+			
+			return (i != Index.INVALID && c.nextInt() == value) ? i : Index.INVALID;
+		}
+		
+		int[] buffer = new int[BLOCK_SIZE];
+		
+		for (int b = 0; b < base.length; ++b) {
+			int n = decodeBlock(b, buffer, 0);
+			
+			for (int i = 0; i < n; ++i) {
+				if (buffer[i] == value)
+					return (b << BLOCK_SHIFT) + i;
+			}
+		}
+		
+		return Index.INVALID;
+	}
+	
+	/**
+	 * Returns the values that are in both this CompressedIntegerArray and the specified CompressedIntegerArray, in
+	 * ascending order. Both must be sorted. The Cursors of the two arrays leapfrog each other with
+	 * {@link Cursor#advance(int)}, so blocks that cannot hold a common value are never decoded.
+	 * @param other The CompressedIntegerArray to intersect with.
+	 * @return An IntegerArray containing the common values.
+	 * @throws IllegalStateException Thrown if this or other is not sorted.
+	 * @throws NullPointerException Thrown if other is null.
+	 * @since JDK-21
+	 */
+	public IntegerArray intersect(CompressedIntegerArray other)
+			throws IllegalStateException, NullPointerException {
+		if (other == null)
+			throw new NullPointerException("Cannot intersect with a null CompressedIntegerArray.");
+		if (!sorted || !other.sorted)
+			throw new IllegalStateException("Cannot intersect CompressedIntegerArrays that are not sorted.");
+		
+		IntegerArrayBuilder ret = new IntegerArrayBuilder();
+		Cursor a = cursor();
+		Cursor b = other.cursor();
+		
+		if (!a.hasNext())
+			return ret.build();
+		
+		int x = a.nextInt();
+		
+		while (b.advance(x) != Index.INVALID) {
+			int y = b.nextInt();
+			
+			// When b overshoots x, advance a to y, which b has already consumed.
+			if (y != x) {
+				if (a.advance(y) == Index.INVALID)
+					break;
+				
+				x = a.nextInt();
+				
+				if (x != y)
+					continue;
+			}
+			
+			ret.append(x);
+			
+			if (!a.hasNext())
+				break;
+			
+			x = a.nextInt();
+		}
+		
+		return ret.build();
+	}
+	
+	@Override
+	public boolean isSorted() {
+		return sorted;
+	}
+	
+	@Override
+	public Cursor iterator() {
+		return cursor();
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (!(o instanceof Integer))
+			return Index.INVALID;
+		
+		int value = (Integer)o;
+		int[] buffer = new int[BLOCK_SIZE];
+		
+		for (int b = base.length - 1; b >= 0; --b) {
+			int n = decodeBlock(b, buffer, 0);
+			
+			for (int i = n - 1; i >= 0; --i) {
+				if (buffer[i] == value)
+					return (b << BLOCK_SHIFT) + i;
+			}
+		}
+		
+		return Index.INVALID;
+	}
+	
+	/**
+	 * CompressedIntegerArray values cannot be set, so this always throws an UnsupportedOperationException.
+	 * @param index The index to set.
+	 * @param o The Object to set at index.
+	 * @throws UnsupportedOperationException Thrown always, since a CompressedIntegerArray is read-only.
+	 * @since JDK-21
+	 */
+	@Override
+	public void set(int index, Object o)
+			throws UnsupportedOperationException {
+		throw new UnsupportedOperationException("Cannot set a value of a read-only CompressedIntegerArray.");
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	@Override
+	public CompressedIntegerArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > size || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		int[] values = new int[end - start];
+		decode(start, values, 0, values.length);
+		return encode(values, encoding);
+	}
+	
+	/**
+	 * Returns the values of this CompressedIntegerArray decoded into a new int array.
+	 * @return An int array containing the values of this.
+	 * @since JDK-21
+	 */
+	public int[] toArray() {
+		int[] ret = new int[size];
+		decode(0, ret, 0, size);
+		return ret;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T[] toArray(T[] a) {
+		int[] arr = toArray();
+		Integer[] copy = new Integer[arr.length];
+		
+		for (int i = 0; i < arr.length; ++i)
+			copy[i] = arr[i];
+		
+		if (a.length >= copy.length) {
+			for (int i = 0; i < copy.length; ++i)
+				a[i] = (T)copy[i];
+			
+			return a;
+		}
+		
+		T[] ret = (T[])copy;
+		
+		return ret;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder();
+		Cursor c = cursor();
+		
+		while (c.hasNext()) {
+			if (ret.length() > 0)
+				ret.append(' ');
+			
+			ret.append(c.nextInt());
+		}
+		
+		return ret.toString();
+	}
+	
+	/**
+	 * Returns the number of values in the specified block.
+	 * @param b The block.
+	 * @return The number of values in b.
+	 * @since JDK-21
+	 */
+	private int blockSize(int b) {
+		return Math.min(BLOCK_SIZE, size - (b << BLOCK_SHIFT));
+	}
+	
+	/**
+	 * Decodes all the values of the specified block into the specified int array.
+	 * @param b The block to decode.
+	 * @param dest The int array to decode into, which must have room for the block.
+	 * @param destPos The index in dest to start writing at.
+	 * @return The number of values decoded.
+	 * @since JDK-21
+	 */
+	private int decodeBlock(int b, int[] dest, int destPos) {
+		int n = blockSize(b);
+		int w = bits[b];
+		
+		switch (encoding) {
+			case FRAME_OF_REFERENCE: {
+				long pos = (long)offset[b] << 6;
+				
+				for (int i = 0; i < n; ++i, pos += w)
+					dest[destPos + i] = (w == 0) ? base[b] : base[b] + (int)unpack(words, pos, w);
+				
+				break;
+			}
+			case DELTA: {
+				long pos = (long)offset[b] << 6;
+				int prev = base[b];
+				
+				for (int i = 0; i < n; ++i, pos += w) {
+					if (w != 0)
+						prev += (int)unpack(words, pos, w);
+					
+					dest[destPos + i] = prev;
+				}
+				
+				break;
+			}
+			default: {
+				int p = offset[b];
+				int prev = base[b];
+				
+				for (int i = 0; i < n; ++i) {
+					int z = 0;
+					int shift = 0;
+					byte by;
+					
+					do {
+						by = bytes[p++];
+						z |= (by & 0x7F) << shift;
+						shift += 7;
+					} while (by < 0);
+					
+					prev += (z >>> 1) ^ -(z & 1);
+					dest[destPos + i] = prev;
+				}
+			}
+		}
+		
+		return n;
+	}
+	
+	/**
+	 * Writes the low bits of the specified value into the specified packed words at the specified bit position. The
+	 * bits being written must be 0.
+	 * @param words The packed words.
+	 * @param pos The bit position to write at.
+	 * @param value The value to write.
+	 * @param bits The number of bits to write.
+	 * @since JDK-21
+	 */
+	private static void pack(long[] words, long pos, long value, int bits) {
+		int w = (int)(pos >>> 6);
+		int shift = (int)(pos & 63);
+		
+		words[w] |= value << shift;
+		
+		if (shift + bits > Long.SIZE)
+			words[w + 1] |= value >>> (Long.SIZE - shift);
+	}
+	
+	/**
+	 * Reads the specified number of bits from the specified packed words at the specified bit position.
+	 * @param words The packed words.
+	 * @param pos The bit position to read from.
+	 * @param bits The number of bits to read, from 1 to 64.
+	 * @return The bits read, as an unsigned value.
+	 * @since JDK-21
+	 */
+	private static long unpack(long[] words, long pos, int bits) {
+		int w = (int)(pos >>> 6);
+		int shift = (int)(pos & 63);
+		long ret = words[w] >>> shift;
+		
+		if (shift + bits > Long.SIZE)
+			ret |= words[w + 1] << (Long.SIZE - shift);
+		
+		return (bits == Long.SIZE) ? ret : ret & ((1L << bits) - 1);
+	}
+	
+	/**
+	 * Cursor class decodes the values of a CompressedIntegerArray in order, a block at a time, into a reusable buffer.
+	 * For a sorted CompressedIntegerArray, {@link #advance(int)} moves the Cursor forward to the first value that is
+	 * at least a target value, skipping whole blocks by their first values without decoding them. Like an Iterator, a
+	 * Cursor is intended to be used by a single thread.
+	
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @since JDK-21
+	 */
+	public class Cursor implements PrimitiveIterator.OfInt {
+		
+		/**
+		 * The decoded values of the current block.
+		 */
+		private final int[] buffer = new int[BLOCK_SIZE];
+		/**
+		 * The block held by the buffer, or -1 if none.
+		 */
+		private int block = -1;
+		/**
+		 * The index of the next value.
+		 */
+		private int index = 0;
+		
+		/**
+		 * Constructor that creates a Cursor positioned before the first value.
+		 * @since JDK-21
+		 */
+		private Cursor() {}
+		
+		/**
+		 * Moves this Cursor forward to the first value, at or after its current position, that is greater than or
+		 * equal to the specified target, so that the next call to {@link #nextInt()} returns that value. Blocks whose
+		 * values are all less than target are skipped without being decoded. The Cursor never moves backward.
+		 * @param target The value to advance to.
+		 * @return The index of the first value not less than target, or {@link Index#INVALID} if there is none, in
+		 * which case this Cursor is exhausted.
+		 * @throws IllegalStateException Thrown if the CompressedIntegerArray is not sorted.
+		 * @since JDK-21
+		 */
+		public int advance(int target)
+				throws IllegalStateException {
+			if (!sorted)
+				throw new IllegalStateException("Cannot advance a Cursor over a CompressedIntegerArray that is not "
+						+ "sorted.");
+			
+			if (index >= size)
+				return Index.INVALID;
+			
+			// Jump to the last block that starts below target, since the answer is in it or starts the block after.
+			int b = index >>> BLOCK_SHIFT;
+			int lo = b + 1;
+			int hi = base.length - 1;
+			
+			while (lo <= hi) {
+				int mid = (lo + hi) >>> 1;
+				
+				if (base[mid] < target)
+					lo = mid + 1;
+				else
+					hi = mid - 1;
+			}
+			
+			if (hi > b) {
+				b = hi;
+				index = b << BLOCK_SHIFT;
+			}
+			
+			load(b);
+			
+			int end = (b << BLOCK_SHIFT) + blockSize(b);
+			
+			while (index < end) {
+				if (buffer[index & BLOCK_MASK] >= target)
+					return index;
+				
+				++index;
+			}
+			
+			return (index < size) ? index : Index.INVALID;
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return index < size;
+		}
+		
+		/**
+		 * Returns the index of the value the next call to {@link #nextInt()} returns.
+		 * @return The position of this Cursor.
+		 * @since JDK-21
+		 */
+		public int index() {
+			return index;
+		}
+		
+		@Override
+		public int nextInt() {
+			if (index >= size)
+				throw new NoSuchElementException();
+			
+			load(index >>> BLOCK_SHIFT);
+			return buffer[index++ & BLOCK_MASK];
+		}
+		
+		/**
+		 * Decodes the specified block into the buffer, unless it is already there.
+		 * @param b The block to load.
+		 * @since JDK-21
+		 */
+		private void load(int b) {
+			if (block != b) {
+				decodeBlock(b, buffer, 0);
+				block = b;
+			}
+		}
+	
+	}
+
+}
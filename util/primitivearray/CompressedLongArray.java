@@ -0,0 +1,830 @@
+package babs.mindforge.util.primitivearray;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+
+import babs.mindforge.util.Index;
+
+/**
+ * CompressedLongArray class is a read-only CompressedArray of long values. The values are encoded once, when the
+ * CompressedLongArray is created, in blocks of {@link CompressedArray#BLOCK_SIZE} values using frame-of-reference
+ * bit-packing, delta bit-packing or varints. {@link #getLong(int)} only decodes the block holding the value,
+ * {@link #decode(int, long[], int, int)} decodes a range of values into a caller buffer a block at a time, and a
+ * {@link Cursor} decodes sequentially and can {@link Cursor#advance(long) advance} to a target value by skipping whole
+ * blocks, which makes intersecting sorted ID lists fast. A CompressedLongArray cannot be changed once created, so it
+ * is thread-safe without locking.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see CompressedArray
+ * @see LongArray
+ * @since JDK-21
+ */
+public class CompressedLongArray implements CompressedArray {
+	
+	/**
+	 * The base 2 logarithm of the block size.
+	 */
+	private static final int BLOCK_SHIFT = 7;
+	/**
+	 * The mask that gives the position of a value within its block.
+	 */
+	private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+	
+	/**
+	 * The encoding of the values.
+	 */
+	private final Encoding encoding;
+	/**
+	 * The number of values.
+	 */
+	private final int size;
+	/**
+	 * True if the values are sorted in ascending order.
+	 */
+	private final boolean sorted;
+	/**
+	 * The smallest value of each block for frame-of-reference encoding, otherwise the first value of each block.
+	 */
+	private final long[] base;
+	/**
+	 * The word offset of each block for bit-packed encodings, otherwise the byte offset of each block.
+	 */
+	private final int[] offset;
+	/**
+	 * The number of bits per packed value of each block for bit-packed encodings.
+	 */
+	private final byte[] bits;
+	/**
+	 * The packed values for bit-packed encodings.
+	 */
+	private final long[] words;
+	/**
+	 * The varint bytes for varint encoding.
+	 */
+	private final byte[] bytes;
+	
+	/**
+	 * Constructor that creates a CompressedLongArray from already encoded values.
+	 * @param encoding The encoding of the values.
+	 * @param size The number of values.
+	 * @param sorted True if the values are sorted in ascending order.
+	 * @param base The base value of each block.
+	 * @param offset The offset of each block.
+	 * @param bits The number of bits per packed value of each block.
+	 * @param words The packed values.
+	 * @param bytes The varint bytes.
+	 * @since JDK-21
+	 */
+	private CompressedLongArray(Encoding encoding, int size, boolean sorted, long[] base, int[] offset, byte[] bits,
+			long[] words, byte[] bytes) {
+		this.encoding = encoding;
+		this.size = size;
+		this.sorted = sorted;
+		this.base = base;
+		this.offset = offset;
+		this.bits = bits;
+		this.words = words;
+		this.bytes = bytes;
+	}
+	
+	@Override
+	public long compressedBytes() {
+		return (long)words.length * Long.BYTES + bytes.length + (long)base.length * Long.BYTES
+				+ (long)offset.length * Integer.BYTES + bits.length;
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) != Index.INVALID;
+	}
+	
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		if (c == null)
+			return false;
+		
+		Iterator<?> it = c.iterator();
+		
+		while (it.hasNext()) {
+			if (!contains(it.next()))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Returns a new Cursor positioned before the first value of this CompressedLongArray.
+	 * @return A Cursor over this.
+	 * @since JDK-21
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+	
+	/**
+	 * Decodes the specified range of values of this CompressedLongArray into the specified long array, a block at
+	 * a time.
+	 * @param start The index of the first value to decode.
+	 * @param dest The long array to decode into.
+	 * @param destPos The index in dest to start writing at.
+	 * @param length The number of values to decode.
+	 * @throws IndexOutOfBoundsException Thrown if the range is out-of-bounds of this or of dest.
+	 * @throws NullPointerException Thrown if dest is null.
+	 * @since JDK-21
+	 */
+	public void decode(int start, long[] dest, int destPos, int length)
+			throws IndexOutOfBoundsException, NullPointerException {
+		if (dest == null)
+			throw new NullPointerException("Cannot decode a CompressedLongArray into a null long array.");
+		
+		Objects.checkFromIndexSize(start, length, size);
+		Objects.checkFromIndexSize(destPos, length, dest.length);
+		
+		long[] buffer = null;
+		
+		while (length > 0) {
+			int b = start >>> BLOCK_SHIFT;
+			int from = start & BLOCK_MASK;
+			int n = Math.min(blockSize(b) - from, length);
+			
+			if (from == 0 && n == blockSize(b)) {
+				decodeBlock(b, dest, destPos);
+			}
+			else {
+				if (buffer == null)
+					buffer = new long[BLOCK_SIZE];
+				
+				decodeBlock(b, buffer, 0);
+				System.arraycopy(buffer, from, dest, destPos, n);
+			}
+			
+			start += n;
+			destPos += n;
+			length -= n;
+		}
+	}
+	
+	/**
+	 * Creates a CompressedLongArray containing the values of the specified long array, encoded with the specified
+	 * encoding.
+	 * @param values The values to encode.
+	 * @param encoding The encoding to use.
+	 * @return A CompressedLongArray containing values.
+	 * @throws IllegalArgumentException Thrown if encoding is {@link CompressedArray.Encoding#DELTA} and values is not
+	 * sorted in ascending order.
+	 * @throws NullPointerException Thrown if values or encoding is null.
+	 * @since JDK-21
+	 */
+	public static CompressedLongArray encode(long[] values, Encoding encoding)
+			throws IllegalArgumentException, NullPointerException {
+		if (values == null)
+			throw new NullPointerException("Cannot encode a null long array.");
+		if (encoding == null)
+			throw new NullPointerException("Cannot encode an long array with a null encoding.");
+		
+		boolean sorted = true;
+		
+		for (int i = 1; i < values.length && sorted; ++i)
+			sorted = values[i - 1] <= values[i];
+		
+		if (encoding == Encoding.DELTA && !sorted)
+			throw new IllegalArgumentException("Cannot delta encode an long array that is not sorted.");
+		
+		int blocks = (values.length + BLOCK_MASK) >>> BLOCK_SHIFT;
+		long[] base = new long[blocks];
+		int[] offset = new int[blocks];
+		byte[] bits = new byte[blocks];
+		
+		if (encoding == Encoding.VARINT) {
+			ByteArrayBuilder out = new ByteArrayBuilder(values.length);
+			
+			for (int b = 0; b < blocks; ++b) {
+				int start = b << BLOCK_SHIFT;
+				int end = Math.min(start + BLOCK_SIZE, values.length);
+				long prev = values[start];
+				
+				base[b] = prev;
+				offset[b] = out.size();
+				
+				for (int i = start; i < end; ++i) {
+					long d = values[i] - prev;
+					long z = (d << 1) ^ (d >> 63);
+					
+					while ((z & ~0x7FL) != 0) {
+						out.append((byte)((z & 0x7F) | 0x80));
+						z >>>= 7;
+					}
+					
+					out.append((byte)z);
+					prev = values[i];
+				}
+			}
+			
+			return new CompressedLongArray(encoding, values.length, sorted, base, offset, bits, new long[0],
+					out.toArray());
+		}
+		
+		// Find the base and bit width of each block, then pack each block starting at a word boundary.
+		int total = 0;
+		
+		for (int b = 0; b < blocks; ++b) {
+			int start = b << BLOCK_SHIFT;
+			int end = Math.min(start + BLOCK_SIZE, values.length);
+			long max = 0;
+			
+			if (encoding == Encoding.DELTA) {
+				base[b] = values[start];
+				
+				// The differences can exceed Long.MAX_VALUE, so combine them unsigned. The bit width of their bitwise
+				// or is the bit width of the largest.
+				for (int i = start + 1; i < end; ++i)
+					max |= values[i] - values[i - 1];
+			}
+			else {
+				long min = values[start];
+				long hi = values[start];
+				
+				for (int i = start + 1; i < end; ++i) {
+					min = Math.min(min, values[i]);
+					hi = Math.max(hi, values[i]);
+				}
+				
+				base[b] = min;
+				max = hi - min;
+			}
+			
+			bits[b] = (byte)(Long.SIZE - Long.numberOfLeadingZeros(max));
+			offset[b] = total;
+			total += (int)(((long)(end - start) * bits[b] + Long.SIZE - 1) >>> 6);
+		}
+		
+		long[] words = new long[total];
+		
+		for (int b = 0; b < blocks; ++b) {
+			int start = b << BLOCK_SHIFT;
+			int end = Math.min(start + BLOCK_SIZE, values.length);
+			long pos = (long)offset[b] << 6;
+			
+			if (bits[b] == 0)
+				continue;
+			
+			for (int i = start; i < end; ++i, pos += bits[b]) {
+				long v = (encoding == Encoding.DELTA)
+						? ((i == start) ? 0 : values[i] - values[i - 1])
+						: values[i] - base[b];
+				
+				pack(words, pos, v, bits[b]);
+			}
+		}
+		
+		return new CompressedLongArray(encoding, values.length, sorted, base, offset, bits, words, new byte[0]);
+	}
+	
+	/**
+	 * Creates a CompressedLongArray containing the values of the specified LongArray, encoded with the
+	 * specified encoding.
+	 * @param array The LongArray to encode.
+	 * @param encoding The encoding to use.
+	 * @return A CompressedLongArray containing the values of array.
+	 * @throws IllegalArgumentException Thrown if encoding is {@link CompressedArray.Encoding#DELTA} and array is not
+	 * sorted in ascending order.
+	 * @throws NullPointerException Thrown if array or encoding is null.
+	 * @since JDK-21
+	 */
+	public static CompressedLongArray encode(LongArray array, Encoding encoding)
+			throws IllegalArgumentException, NullPointerException {
+		if (array == null)
+			throw new NullPointerException("Cannot encode a null LongArray.");
+		
+		return encode(array.toArray(), encoding);
+	}
+	
+	@Override
+	public Encoding encoding() {
+		return encoding;
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (o == this)
+			return true;
+		
+		if (o instanceof CompressedLongArray) {
+			CompressedLongArray other = (CompressedLongArray)o;
+			
+			if (other.size != size)
+				return false;
+			
+			long[] a = new long[BLOCK_SIZE];
+			long[] b = new long[BLOCK_SIZE];
+			
+			for (int i = 0; i < base.length; ++i) {
+				int n = decodeBlock(i, a, 0);
+				other.decodeBlock(i, b, 0);
+				
+				if (!Arrays.equals(a, 0, n, b, 0, n))
+					return false;
+			}
+			
+			return true;
+		}
+		
+		return false;
+	}
+	
+	@Override
+	public Long get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getLong(index);
+	}
+	
+	/**
+	 * Returns the long value at the specified index, decoding at most the block that holds it.
+	 * @param index The index of the value to return.
+	 * @return The value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public long getLong(int index)
+			throws ArrayIndexOutOfBoundsException {
+		if (index < 0 || index >= size)
+			throw new ArrayIndexOutOfBoundsException("Cannot get value due to index out-of-bounds.");
+		
+		int b = index >>> BLOCK_SHIFT;
+		int j = index & BLOCK_MASK;
+		
+		switch (encoding) {
+			case FRAME_OF_REFERENCE: {
+				if (bits[b] == 0)
+					return base[b];
+				
+				return base[b] + unpack(words, ((long)offset[b] << 6) + (long)j * bits[b], bits[b]);
+			}
+			case DELTA: {
+				long ret = base[b];
+				
+				if (bits[b] != 0) {
+					long pos = (long)offset[b] << 6;
+					
+					for (int i = 1; i <= j; ++i)
+						ret += unpack(words, pos + (long)i * bits[b], bits[b]);
+				}
+				
+				return ret;
+			}
+			default: {
+				int p = offset[b];
+				long ret = base[b];
+				
+				for (int i = 0; i <= j; ++i) {
+					long z = 0;
+					int shift = 0;
+					byte by;
+					
+					do {
+						by = bytes[p++];
+						z |= (long)(by & 0x7F) << shift;
+						shift += 7;
+					} while (by < 0);
+					
+					ret += (z >>> 1) ^ -(z & 1);
+				}
+				
+				return ret;
+			}
+		}
+	}
+	
+	@Override
+	public int hashCode() {
+		int ret = 1;
+		long[] buffer = new long[BLOCK_SIZE];
+		
+		for (int b = 0; b < base.length; ++b) {
+			int n = decodeBlock(b, buffer, 0);
+			
+			for (int i = 0; i < n; ++i)
+				ret = 31 * ret + Long.hashCode(buffer[i]);
+		}
+		
+		return ret;
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (!(o instanceof Long))
+			return Index.INVALID;
+		
+		long value = (Long)o;
+		
+		if (sorted) {
+			Cursor c = cursor();
+			int i = c.advance(value);
+			
+			return (i != Index.INVALID && c.nextLong() == value) ? i : Index.INVALID;
+		}
+		
+		long[] buffer = new long[BLOCK_SIZE];
+		
+		for (int b = 0; b < base.length; ++b) {
+			int n = decodeBlock(b, buffer, 0);
+			
+			for (int i = 0; i < n; ++i) {
+				if (buffer[i] == value)
+					return (b << BLOCK_SHIFT) + i;
+			}
+		}
+		
+		return Index.INVALID;
+	}
+	
+	/**
+	 * Returns the values that are in both this CompressedLongArray and the specified CompressedLongArray, in
+	 * ascending order. Both must be sorted. The Cursors of the two arrays leapfrog each other with
+	 * {@link Cursor#advance(long)}, so blocks that cannot hold a common value are never decoded.
+	 * @param other The CompressedLongArray to intersect with.
+	 * @return An LongArray containing the common values.
+	 * @throws IllegalStateException Thrown if this or other is not sorted.
+	 * @throws NullPointerException Thrown if other is null.
+	 * @since JDK-21
+	 */
+	public LongArray intersect(CompressedLongArray other)
+			throws IllegalStateException, NullPointerException {
+		if (other == null)
+			throw new NullPointerException("Cannot intersect with a null CompressedLongArray.");
+		if (!sorted || !other.sorted)
+			throw new IllegalStateException("Cannot intersect CompressedLongArrays that are not sorted.");
+		
+		LongArrayBuilder ret = new LongArrayBuilder();
+		Cursor a = cursor();
+		Cursor b = other.cursor();
+		
+		if (!a.hasNext())
+			return ret.build();
+		
+		long x = a.nextLong();
+		
+		while (b.advance(x) != Index.INVALID) {
+			long y = b.nextLong();
+			
+			// When b overshoots x, advance a to y, which b has already consumed.
+			if (y != x) {
+				if (a.advance(y) == Index.INVALID)
+					break;
+				
+				x = a.nextLong();
+				
+				if (x != y)
+					continue;
+			}
+			
+			ret.append(x);
+			
+			if (!a.hasNext())
+				break;
+			
+			x = a.nextLong();
+		}
+		
+		return ret.build();
+	}
+	
+	@Override
+	public boolean isSorted() {
+		return sorted;
+	}
+	
+	@Override
+	public Cursor iterator() {
+		return cursor();
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (!(o instanceof Long))
+			return Index.INVALID;
+		
+		long value = (Long)o;
+		long[] buffer = new long[BLOCK_SIZE];
+		
+		for (int b = base.length - 1; b >= 0; --b) {
+			int n = decodeBlock(b, buffer, 0);
+			
+			for (int i = n - 1; i >= 0; --i) {
+				if (buffer[i] == value)
+					return (b << BLOCK_SHIFT) + i;
+			}
+		}
+		
+		return Index.INVALID;
+	}
+	
+	/**
+	 * CompressedLongArray values cannot be set, so this always throws an UnsupportedOperationException.
+	 * @param index The index to set.
+	 * @param o The Object to set at index.
+	 * @throws UnsupportedOperationException Thrown always, since a CompressedLongArray is read-only.
+	 * @since JDK-21
+	 */
+	@Override
+	public void set(int index, Object o)
+			throws UnsupportedOperationException {
+		throw new UnsupportedOperationException("Cannot set a value of a read-only CompressedLongArray.");
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	@Override
+	public CompressedLongArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > size || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		long[] values = new long[end - start];
+		decode(start, values, 0, values.length);
+		return encode(values, encoding);
+	}
+	
+	/**
+	 * Returns the values of this CompressedLongArray decoded into a new long array.
+	 * @return An long array containing the values of this.
+	 * @since JDK-21
+	 */
+	public long[] toArray() {
+		long[] ret = new long[size];
+		decode(0, ret, 0, size);
+		return ret;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T[] toArray(T[] a) {
+		long[] arr = toArray();
+		Long[] copy = new Long[arr.length];
+		
+		for (int i = 0; i < arr.length; ++i)
+			copy[i] = arr[i];
+		
+		if (a.length >= copy.length) {
+			for (int i = 0; i < copy.length; ++i)
+				a[i] = (T)copy[i];
+			
+			return a;
+		}
+		
+		T[] ret = (T[])copy;
+		
+		return ret;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder();
+		Cursor c = cursor();
+		
+		while (c.hasNext()) {
+			if (ret.length() > 0)
+				ret.append(' ');
+			
+			ret.append(c.nextLong());
+		}
+		
+		return ret.toString();
+	}
+	
+	/**
+	 * Returns the number of values in the specified block.
+	 * @param b The block.
+	 * @return The number of values in b.
+	 * @since JDK-21
+	 */
+	private int blockSize(int b) {
+		return Math.min(BLOCK_SIZE, size - (b << BLOCK_SHIFT));
+	}
+	
+	/**
+	 * Decodes all the values of the specified block into the specified long array.
+	 * @param b The block to decode.
+	 * @param dest The long array to decode into, which must have room for the block.
+	 * @param destPos The index in dest to start writing at.
+	 * @return The number of values decoded.
+	 * @since JDK-21
+	 */
+	private int decodeBlock(int b, long[] dest, int destPos) {
+		int n = blockSize(b);
+		int w = bits[b];
+		
+		switch (encoding) {
+			case FRAME_OF_REFERENCE: {
+				long pos = (long)offset[b] << 6;
+				
+				for (int i = 0; i < n; ++i, pos += w)
+					dest[destPos + i] = (w == 0) ? base[b] : base[b] + unpack(words, pos, w);
+				
+				break;
+			}
+			case DELTA: {
+				long pos = (long)offset[b] << 6;
+				long prev = base[b];
+				
+				for (int i = 0; i < n; ++i, pos += w) {
+					if (w != 0)
+						prev += unpack(words, pos, w);
+					
+					dest[destPos + i] = prev;
+				}
+				
+				break;
+			}
+			default: {
+				int p = offset[b];
+				long prev = base[b];
+				
+				for (int i = 0; i < n; ++i) {
+					long z = 0;
+					int shift = 0;
+					byte by;
+					
+					do {
+						by = bytes[p++];
+						z |= (long)(by & 0x7F) << shift;
+						shift += 7;
+					} while (by < 0);
+					
+					prev += (z >>> 1) ^ -(z & 1);
+					dest[destPos + i] = prev;
+				}
+			}
+		}
+		
+		return n;
+	}
+	
+	/**
+	 * Writes the low bits of the specified value into the specified packed words at the specified bit position. The
+	 * bits being written must be 0.
+	 * @param words The packed words.
+	 * @param pos The bit position to write at.
+	 * @param value The value to write.
+	 * @param bits The number of bits to write.
+	 * @since JDK-21
+	 */
+	private static void pack(long[] words, long pos, long value, int bits) {
+		int w = (int)(pos >>> 6);
+		int shift = (int)(pos & 63);
+		
+		words[w] |= value << shift;
+		
+		if (shift + bits > Long.SIZE)
+			words[w + 1] |= value >>> (Long.SIZE - shift);
+	}
+	
+	/**
+	 * Reads the specified number of bits from the specified packed words at the specified bit position.
+	 * @param words The packed words.
+	 * @param pos The bit position to read from.
+	 * @param bits The number of bits to read, from 1 to 64.
+	 * @return The bits read, as an unsigned value.
+	 * @since JDK-21
+	 */
+	private static long unpack(long[] words, long pos, int bits) {
+		int w = (int)(pos >>> 6);
+		int shift = (int)(pos & 63);
+		long ret = words[w] >>> shift;
+		
+		if (shift + bits > Long.SIZE)
+			ret |= words[w + 1] << (Long.SIZE - shift);
+		
+		return (bits == Long.SIZE) ? ret : ret & ((1L << bits) - 1);
+	}
+	
+	/**
+	 * Cursor class decodes the values of a CompressedLongArray in order, a block at a time, into a reusable buffer.
+	 * For a sorted CompressedLongArray, {@link #advance(long)} moves the Cursor forward to the first value that is
+	 * at least a target value, skipping whole blocks by their first values without decoding them. Like an Iterator, a
+	 * Cursor is intended to be used by a single thread.
+	
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @since JDK-21
+	 */
+	public class Cursor implements PrimitiveIterator.OfLong {
+		
+		/**
+		 * The decoded values of the current block.
+		 */
+		private final long[] buffer = new long[BLOCK_SIZE];
+		/**
+		 * The block held by the buffer, or -1 if none.
+		 */
+		private int block = -1;
+		/**
+		 * The index of the next value.
+		 */
+		private int index = 0;
+		
+		/**
+		 * Constructor that creates a Cursor positioned before the first value.
+		 * @since JDK-21
+		 */
+		private Cursor() {}
+		
+		/**
+		 * Moves this Cursor forward to the first value, at or after its current position, that is greater than or
+		 * equal to the specified target, so that the next call to {@link #nextLong()} returns that value. Blocks whose
+		 * values are all less than target are skipped without being decoded. The Cursor never moves backward.
+		 * @param target The value to advance to.
+		 * @return The index of the first value not less than target, or {@link Index#INVALID} if there is none, in
+		 * which case this Cursor is exhausted.
+		 * @throws IllegalStateException Thrown if the CompressedLongArray is not sorted.
+		 * @since JDK-21
+		 */
+		public int advance(long target)
+				throws IllegalStateException {
+			if (!sorted)
+				throw new IllegalStateException("Cannot advance a Cursor over a CompressedLongArray that is not "
+						+ "sorted.");
+			
+			if (index >= size)
+				return Index.INVALID;
+			
+			// Jump to the last block that starts below target, since the answer is in it or starts the block after.
+			int b = index >>> BLOCK_SHIFT;
+			int lo = b + 1;
+			int hi = base.length - 1;
+			
+			while (lo <= hi) {
+				int mid = (lo + hi) >>> 1;
+				
+				if (base[mid] < target)
+					lo = mid + 1;
+				else
+					hi = mid - 1;
+			}
+			
+			if (hi > b) {
+				b = hi;
+				index = b << BLOCK_SHIFT;
+			}
+			
+			load(b);
+			
+			int end = (b << BLOCK_SHIFT) + blockSize(b);
+			
+			while (index < end) {
+				if (buffer[index & BLOCK_MASK] >= target)
+					return index;
+				
+				++index;
+			}
+			
+			return (index < size) ? index : Index.INVALID;
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return index < size;
+		}
+		
+		/**
+		 * Returns the index of the value the next call to {@link #nextLong()} returns.
+		 * @return The position of this Cursor.
+		 * @since JDK-21
+		 */
+		public int index() {
+			return index;
+		}
+		
+		@Override
+		public long nextLong() {
+			if (index >= size)
+				throw new NoSuchElementException();
+			
+			load(index >>> BLOCK_SHIFT);
+			return buffer[index++ & BLOCK_MASK];
+		}
+		
+		/**
+		 * Decodes the specified block into the buffer, unless it is already there.
+		 * @param b The block to load.
+		 * @since JDK-21
+		 */
+		private void load(int b) {
+			if (block != b) {
+				decodeBlock(b, buffer, 0);
+				block = b;
+			}
+		}
+	
+	}
+
+}
@@ -1,11 +1,20 @@
 package babs.mindforge.util.primitivearray;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.ToIntBiFunction;
+
 import babs.mindforge.util.ArrayInto;
 
 /**
@@ -17,25 +26,30 @@ import babs.mindforge.util.ArrayInto;
  * @see PrimitiveArray
  * @since JDK-21
  */
-public class DoubleArray implements PrimitiveArray {
+public class DoubleArray implements PrimitiveArray, Comparable<DoubleArray> {
+	
+	/**
+	 * The lock that comparisons between two DoubleArrays with equal identity hash codes take first.
+	 */
+	private static final Lock TIE_LOCK = new ReentrantLock();
 	
 	/**
 	 * A read/write lock used to ensure thread-safety.
 	 */
-	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 	/**
 	 * The read lock from the read/write lock.
 	 */
-	private final Lock readLock = lock.readLock();
+	final Lock readLock = lock.readLock();
 	/**
 	 * The write lock from the read/write lock.
 	 */
-	private final Lock writeLock = lock.writeLock();
+	final Lock writeLock = lock.writeLock();
 	
 	/**
 	 * The double array backing the DoubleArray.
 	 */
-	private double[] arr;
+	double[] arr;
 	
 	/**
 	 * Constructor that creates a DoubleArray with the specified size will all elements set to 0.
@@ -63,6 +77,25 @@ public class DoubleArray implements PrimitiveArray {
 		arr = array;
 	}
 	
+	/**
+	 * Searches this DoubleArray for the specified value using the binary search algorithm. This DoubleArray must be
+	 * sorted, such as by {@link #sort()}, or the result is undefined.
+	 * @param value The value to find.
+	 * @return The index of value, if it is contained in this, otherwise (-(insertion point) - 1).
+	 * @see Arrays#binarySearch(double[], double)
+	 * @since JDK-21
+	 */
+	public int binarySearch(double value) {
+		readLock.lock();
+		
+		try {
+			return Arrays.binarySearch(arr, value);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
 	@Override
 	public Object clone() {
 		DoubleArray ret = new DoubleArray(arr.length);
@@ -80,6 +113,26 @@ public class DoubleArray implements PrimitiveArray {
 		return ret;
 	}
 
+	/**
+	 * Compares this DoubleArray with the specified DoubleArray lexicographically, comparing elements in the order of
+	 * {@link Double#compare(double, double)}. If one is a prefix of the other, the shorter one is less.
+	 * @param other The DoubleArray to compare with.
+	 * @return A negative integer, zero, or a positive integer if this is less than, equal to, or greater than other.
+	 * @throws NullPointerException Thrown if other is null.
+	 * @since JDK-21
+	 */
+	@Override
+	public int compareTo(DoubleArray other)
+			throws NullPointerException {
+		if (other == null)
+			throw new NullPointerException("Cannot compare a DoubleArray with a null DoubleArray.");
+		
+		if (other == this)
+			return 0;
+		
+		return compare(other, Arrays::compare);
+	}
+	
 	@Override
 	public boolean contains(Object o) {
 		if (o == null)
@@ -115,35 +168,36 @@ public class DoubleArray implements PrimitiveArray {
 		return true;
 	}
 	
+	/**
+	 * Returns the CRC-32C checksum of the little-endian bytes of this DoubleArray.
+	 * @return The CRC-32C of this.
+	 * @see PrimitiveArrays#crc32c(double[])
+	 * @since JDK-21
+	 */
+	public long crc32c() {
+		readLock.lock();
+		
+		try {
+			return PrimitiveArrays.crc32c(arr);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
 	@Override
 	public boolean equals(Object o) {
-		if (o == null)
-			return false;
-		
-		if (o instanceof DoubleArray) {
-			if (((DoubleArray)o).size() != this.size())
-				return false;
-			
-			readLock.lock();
-			
-			try {
-				for (int i = 0; i < arr.length; ++i) {
-					if (!(((DoubleArray)o).arr[i] == arr[i]))
-						return false;
-				}
-			}
-			finally {
-				readLock.lock();
-			}
-			
+		if (o == this)
 			return true;
-		}
+		
+		if (o instanceof DoubleArray)
+			return mismatch((DoubleArray)o) == -1;
 		
 		return false;
 	}
 	
 	/**
-	 * Converts a byte array into a DoubleArray.
+	 * Converts a byte array of big-endian values into a DoubleArray.
 	 * @param array The byte array to convert.
 	 * @return A DoubleArray containing the byte array.
 	 * @throws IllegalArgumentException Thrown if array's length is not evenly divisible by {@link Double#BYTES}.
@@ -152,18 +206,30 @@ public class DoubleArray implements PrimitiveArray {
 	 */
 	public static DoubleArray from(byte[] array) 
 			throws NullPointerException {
+		return from(array, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Converts a byte array into a DoubleArray, reading each value in the specified byte order. The values are 
+	 * decoded in bulk straight into the double array backing the returned DoubleArray.
+	 * @param array The byte array to convert.
+	 * @param order The byte order of the values in the byte array.
+	 * @return A DoubleArray containing the byte array.
+	 * @throws IllegalArgumentException Thrown if array's length is not evenly divisible by {@link Double#BYTES}.
+	 * @throws NullPointerException Thrown if array or order is null.
+	 * @since JDK-21
+	 */
+	public static DoubleArray from(byte[] array, ByteOrder order) 
+			throws IllegalArgumentException, NullPointerException {
 		if (array == null)
 			throw new NullPointerException("Cannot convert a null byte array into a DoubleArray.");
+		if (order == null)
+			throw new NullPointerException("Cannot convert a byte array into a DoubleArray with a null byte order.");
 		if (array.length % Double.BYTES != 0)
 			throw new IllegalArgumentException("Byte array size is incompatible with double size.");
-		DoubleArray ret = new DoubleArray(array.length / Double.BYTES);
-		for (int i = 0; i < array.length / Double.BYTES; ++i) {
-			long v = 0;
-			for (int j = 0; j < Double.BYTES; ++j)
-				v |= (long)array[j + (i * Double.BYTES)] << (Byte.SIZE * (Double.BYTES - 1 - j));
-			ret.set(i, Double.longBitsToDouble(v));
-		}
-		return ret;
+		double[] values = new double[array.length / Double.BYTES];
+		ByteBuffer.wrap(array).order(order).asDoubleBuffer().get(values);
+		return new DoubleArray(values);
 	}
 	
 	@Override
@@ -182,12 +248,30 @@ public class DoubleArray implements PrimitiveArray {
 		}
 	}
 	
+	/**
+	 * Returns the 64-bit XXH64 hash of the little-endian bytes of this DoubleArray. Equal DoubleArrays always have
+	 * equal hashes, so the hash can be used as a key to deduplicate DoubleArrays by content.
+	 * @return The 64-bit hash of this.
+	 * @see PrimitiveArrays#hash64(double[])
+	 * @since JDK-21
+	 */
+	public long hash64() {
+		readLock.lock();
+		
+		try {
+			return PrimitiveArrays.hash64(arr);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
 	@Override
 	public int hashCode() {
 		readLock.lock();
 		
 		try {
-			return arr.hashCode();
+			return Arrays.hashCode(arr);
 		}
 		finally {
 			readLock.unlock();
@@ -239,6 +323,104 @@ public class DoubleArray implements PrimitiveArray {
 		return -1;
 	}
 	
+	/**
+	 * Returns the index of the first element that differs between this DoubleArray and the specified DoubleArray, or
+	 * -1 if they are equal. If one is a prefix of the other, the length of the shorter one is returned.
+	 * @param other The DoubleArray to compare with.
+	 * @return The index of the first mismatch, or -1 if there is none.
+	 * @throws NullPointerException Thrown if other is null.
+	 * @since JDK-21
+	 */
+	public int mismatch(DoubleArray other)
+			throws NullPointerException {
+		if (other == null)
+			throw new NullPointerException("Cannot compare a DoubleArray with a null DoubleArray.");
+		
+		if (other == this)
+			return -1;
+		
+		return compare(other, Arrays::mismatch);
+	}
+	
+	/**
+	 * Cumulates the elements of this DoubleArray in place using the specified operation, so that each element becomes
+	 * the result of combining it with all the elements before it. If this DoubleArray has at least
+	 * {@link PrimitiveArrays#parallelThreshold()} elements, the elements are cumulated in parallel. The operation must
+	 * be associative and side-effect-free, and must not access this DoubleArray.
+	 * @param op The operation used to combine two elements.
+	 * @throws NullPointerException Thrown if op is null.
+	 * @see Arrays#parallelPrefix(double[], DoubleBinaryOperator)
+	 * @since JDK-21
+	 */
+	public void parallelPrefix(DoubleBinaryOperator op) 
+			throws NullPointerException {
+		if (op == null)
+			throw new NullPointerException("Cannot cumulate a DoubleArray with a null operation.");
+		
+		writeLock.lock();
+		
+		try {
+			if (arr.length < PrimitiveArrays.parallelThreshold()) {
+				for (int i = 1; i < arr.length; ++i)
+					arr[i] = op.applyAsDouble(arr[i - 1], arr[i]);
+			}
+			else {
+				Arrays.parallelPrefix(arr, op);
+			}
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Sets every element of this DoubleArray to the value computed by the specified generator function for that
+	 * element's index. If this DoubleArray has at least {@link PrimitiveArrays#parallelThreshold()} elements, the
+	 * elements are computed in parallel. The generator must be side-effect-free and must not access this DoubleArray.
+	 * @param generator The function that computes the value of each element from its index.
+	 * @throws NullPointerException Thrown if generator is null.
+	 * @see Arrays#parallelSetAll(double[], IntToDoubleFunction)
+	 * @since JDK-21
+	 */
+	public void parallelSetAll(IntToDoubleFunction generator) 
+			throws NullPointerException {
+		if (generator == null)
+			throw new NullPointerException("Cannot set all elements of a DoubleArray with a null generator.");
+		
+		writeLock.lock();
+		
+		try {
+			if (arr.length < PrimitiveArrays.parallelThreshold())
+				Arrays.setAll(arr, generator);
+			else
+				Arrays.parallelSetAll(arr, generator);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Sorts this DoubleArray in place into ascending numerical order. If this DoubleArray has at least 
+	 * {@link PrimitiveArrays#parallelThreshold()} elements, it is sorted with a parallel sort-merge on the common 
+	 * fork-join pool, otherwise it is sorted on the calling thread.
+	 * @see Arrays#parallelSort(double[])
+	 * @since JDK-21
+	 */
+	public void parallelSort() {
+		writeLock.lock();
+		
+		try {
+			if (arr.length < PrimitiveArrays.parallelThreshold())
+				Arrays.sort(arr);
+			else
+				Arrays.parallelSort(arr);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
 	@Override
 	public void set(int index, Object o) 
 			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
@@ -273,6 +455,22 @@ public class DoubleArray implements PrimitiveArray {
 		}
 	}
 	
+	/**
+	 * Sorts this DoubleArray in place into ascending numerical order on the calling thread.
+	 * @see Arrays#sort(double[])
+	 * @since JDK-21
+	 */
+	public void sort() {
+		writeLock.lock();
+		
+		try {
+			Arrays.sort(arr);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
 	@Override
 	public DoubleArray subArray(int start, int end) 
 			throws IllegalArgumentException {
@@ -362,5 +560,49 @@ public class DoubleArray implements PrimitiveArray {
 		
 		return ret;
 	}
+	
+	/**
+	 * Applies the specified comparison to the elements of this DoubleArray and the specified DoubleArray with both
+	 * read locks held.
+	 * @param other The DoubleArray to compare with.
+	 * @param comparison The comparison to apply to the two arrays.
+	 * @return The result of the comparison.
+	 * @since JDK-21
+	 */
+	private int compare(DoubleArray other, ToIntBiFunction<double[], double[]> comparison) {
+		// Lock in a consistent order so that opposing comparisons between the same two DoubleArrays cannot deadlock.
+		// DoubleArrays with equal identity hash codes have no order, so they take TIE_LOCK first.
+		int thisHash = System.identityHashCode(this);
+		int otherHash = System.identityHashCode(other);
+		boolean thisFirst = thisHash <= otherHash;
+		boolean tie = thisHash == otherHash;
+		Lock first = thisFirst ? readLock : other.readLock;
+		Lock second = thisFirst ? other.readLock : readLock;
+		
+		if (tie)
+			TIE_LOCK.lock();
+		
+		try {
+			first.lock();
+			
+			try {
+				second.lock();
+				
+				try {
+					return comparison.applyAsInt(arr, other.arr);
+				}
+				finally {
+					second.unlock();
+				}
+			}
+			finally {
+				first.unlock();
+			}
+		}
+		finally {
+			if (tie)
+				TIE_LOCK.unlock();
+		}
+	}
 
 }
@@ -0,0 +1,377 @@
+package babs.mindforge.util.primitivearray;
+
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleUnaryOperator;
+
+import babs.mindforge.util.Index;
+import babs.mindforge.util.IndexCursor;
+
+/**
+ * DoubleTensor class is an N-dimensional dense array of double values, stored in a flat {@link DoubleArray} and
+ * addressed by {@link Index}. Slices and transpositions of a DoubleTensor are views that share its DoubleArray, so
+ * writes through a view are seen by every other view of the same data. All access goes through the lock of the
+ * DoubleArray, so DoubleTensor is thread-safe, and bulk operations hold the lock once for the whole operation instead
+ * of once per element.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see DoubleArray
+ * @see Tensor
+ * @since JDK-21
+ */
+public class DoubleTensor extends Tensor {
+	
+	/**
+	 * The flat DoubleArray backing the DoubleTensor.
+	 */
+	private final DoubleArray data;
+	
+	/**
+	 * Constructor that creates a row-major DoubleTensor with the specified shape and all elements set to 0.
+	 * @param shape The size of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the DoubleTensor would have more than
+	 * {@link Index#MAX} elements.
+	 * @throws NullPointerException Thrown if shape is null.
+	 * @since JDK-21
+	 */
+	public DoubleTensor(int ...shape)
+			throws IllegalArgumentException, NullPointerException {
+		this(Order.ROW_MAJOR, shape);
+	}
+	
+	/**
+	 * Constructor that creates a DoubleTensor with the specified shape and layout order, and all elements set to 0.
+	 * @param order The layout order.
+	 * @param shape The size of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the DoubleTensor would have more than
+	 * {@link Index#MAX} elements.
+	 * @throws NullPointerException Thrown if order or shape is null.
+	 * @since JDK-21
+	 */
+	public DoubleTensor(Order order, int ...shape)
+			throws IllegalArgumentException, NullPointerException {
+		super(order, shape);
+		data = new DoubleArray(size);
+	}
+	
+	/**
+	 * Constructor that creates a DoubleTensor with the specified shape and layout order over the specified
+	 * DoubleArray, without copying it.
+	 * @param data The flat DoubleArray to use.
+	 * @param order The layout order.
+	 * @param shape The size of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the size of the shape is not equal to
+	 * the size of data.
+	 * @throws NullPointerException Thrown if data, order or shape is null.
+	 * @since JDK-21
+	 */
+	public DoubleTensor(DoubleArray data, Order order, int ...shape)
+			throws IllegalArgumentException, NullPointerException {
+		super(order, shape);
+		
+		if (data == null)
+			throw new NullPointerException("Cannot create a DoubleTensor from a null DoubleArray.");
+		if (data.size() != size)
+			throw new IllegalArgumentException("Cannot create a DoubleTensor whose shape does not match its data.");
+		
+		this.data = data;
+	}
+	
+	/**
+	 * Constructor that creates a DoubleTensor view of the specified DoubleArray with the specified geometry.
+	 * @param data The flat DoubleArray to share.
+	 * @param shape The size of each dimension.
+	 * @param strides The stride of each dimension.
+	 * @param offset The flat index of the first element.
+	 * @since JDK-21
+	 */
+	private DoubleTensor(DoubleArray data, int[] shape, int[] strides, int offset) {
+		super(shape, strides, offset);
+		this.data = data;
+	}
+	
+	/**
+	 * Applies the specified operator to every element of this DoubleTensor, replacing each element with the result.
+	 * @param operator The operator to apply.
+	 * @throws NullPointerException Thrown if operator is null.
+	 * @since JDK-21
+	 */
+	public void apply(DoubleUnaryOperator operator)
+			throws NullPointerException {
+		if (operator == null)
+			throw new NullPointerException("Cannot apply a null operator to a DoubleTensor.");
+		
+		data.writeLock.lock();
+		
+		try {
+			double[] arr = data.arr;
+			
+			runs((o, s, l) -> {
+				for (int i = 0, j = o; i < l; ++i, j += s)
+					arr[j] = operator.applyAsDouble(arr[j]);
+			});
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns a new row-major DoubleTensor with the same shape and elements as this DoubleTensor, that does not share
+	 * its DoubleArray.
+	 * @return A contiguous copy of this.
+	 * @since JDK-21
+	 */
+	public DoubleTensor copy() {
+		return new DoubleTensor(new DoubleArray(toArray()), Order.ROW_MAJOR, shape);
+	}
+	
+	/**
+	 * Returns the flat DoubleArray backing this DoubleTensor, which is shared with all of its views.
+	 * @return The DoubleArray of this.
+	 * @since JDK-21
+	 */
+	public DoubleArray data() {
+		return data;
+	}
+	
+	/**
+	 * Sets every element of this DoubleTensor to the specified value.
+	 * @param value The value to set.
+	 * @since JDK-21
+	 */
+	public void fill(double value) {
+		data.writeLock.lock();
+		
+		try {
+			double[] arr = data.arr;
+			
+			runs((o, s, l) -> {
+				for (int i = 0, j = o; i < l; ++i, j += s)
+					arr[j] = value;
+			});
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Performs the specified action on every element of this DoubleTensor, in row-major order.
+	 * @param action The action to perform.
+	 * @throws NullPointerException Thrown if action is null.
+	 * @since JDK-21
+	 */
+	public void forEach(DoubleConsumer action)
+			throws NullPointerException {
+		if (action == null)
+			throw new NullPointerException("Cannot perform a null action on a DoubleTensor.");
+		
+		data.readLock.lock();
+		
+		try {
+			double[] arr = data.arr;
+			
+			runs((o, s, l) -> {
+				for (int i = 0, j = o; i < l; ++i, j += s)
+					action.accept(arr[j]);
+			});
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Visits the elements of this DoubleTensor as runs of its flat DoubleArray, in row-major order, while holding
+	 * the read lock of the DoubleArray. This lets a caller write its own inner
+	 * loop over the flat indices of {@link #data()}.
+	 * @param action The RunConsumer that receives each run.
+	 * @throws NullPointerException Thrown if action is null.
+	 * @since JDK-21
+	 */
+	public void forEachRun(RunConsumer action)
+			throws NullPointerException {
+		if (action == null)
+			throw new NullPointerException("Cannot perform a null action on a DoubleTensor.");
+		
+		data.readLock.lock();
+		
+		try {
+			runs(action);
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the double value at the current position of the specified IndexCursor.
+	 * @param cursor The IndexCursor at the value to return.
+	 * @return The value at cursor.
+	 * @throws IndexOutOfBoundsException Thrown if cursor does not have one dimension per dimension of this
+	 * DoubleTensor, or if an index value is out-of-bounds.
+	 * @throws NullPointerException Thrown if cursor is null.
+	 * @see #cursor()
+	 * @since JDK-21
+	 */
+	public double get(IndexCursor cursor)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(cursor);
+
+		data.readLock.lock();
+
+		try {
+			return data.arr[i];
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the double value at the specified Index.
+	 * @param index The Index of the value to return.
+	 * @return The value at index.
+	 * @throws IndexOutOfBoundsException Thrown if index does not have one value per dimension, or if a value is
+	 * out-of-bounds.
+	 * @throws NullPointerException Thrown if index is null.
+	 * @since JDK-21
+	 */
+	public double get(Index index)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(index);
+		
+		data.readLock.lock();
+		
+		try {
+			return data.arr[i];
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+	
+	@Override
+	public DoubleTensor permute(int ...axes)
+			throws IllegalArgumentException, NullPointerException {
+		return (DoubleTensor)super.permute(axes);
+	}
+	
+	@Override
+	public DoubleTensor select(int dim, int index)
+			throws IllegalArgumentException {
+		return (DoubleTensor)super.select(dim, index);
+	}
+	
+	/**
+	 * Sets the double value at the current position of the specified IndexCursor.
+	 * @param cursor The IndexCursor at the value to set.
+	 * @param value The value to set.
+	 * @throws IndexOutOfBoundsException Thrown if cursor does not have one dimension per dimension of this
+	 * DoubleTensor, or if an index value is out-of-bounds.
+	 * @throws NullPointerException Thrown if cursor is null.
+	 * @see #cursor()
+	 * @since JDK-21
+	 */
+	public void set(IndexCursor cursor, double value)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(cursor);
+
+		data.writeLock.lock();
+
+		try {
+			data.arr[i] = value;
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Sets the double value at the specified Index.
+	 * @param index The Index of the value to set.
+	 * @param value The value to set.
+	 * @throws IndexOutOfBoundsException Thrown if index does not have one value per dimension, or if a value is
+	 * out-of-bounds.
+	 * @throws NullPointerException Thrown if index is null.
+	 * @since JDK-21
+	 */
+	public void set(Index index, double value)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(index);
+		
+		data.writeLock.lock();
+		
+		try {
+			data.arr[i] = value;
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public DoubleTensor slice(int dim, int start, int end)
+			throws IllegalArgumentException {
+		return (DoubleTensor)super.slice(dim, start, end);
+	}
+	
+	/**
+	 * Returns the elements of this DoubleTensor as a new double array, in row-major order.
+	 * @return A double array containing the elements of this.
+	 * @since JDK-21
+	 */
+	public double[] toArray() {
+		double[] ret = new double[size];
+		
+		data.readLock.lock();
+		
+		try {
+			double[] arr = data.arr;
+			int[] n = new int[1];
+			
+			runs((o, s, l) -> {
+				if (s == 1)
+					System.arraycopy(arr, o, ret, n[0], l);
+				else
+					for (int i = 0, j = o; i < l; ++i, j += s)
+						ret[n[0] + i] = arr[j];
+				
+				n[0] += l;
+			});
+		}
+		finally {
+			data.readLock.unlock();
+		}
+		
+		return ret;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder(super.toString());
+		
+		for (double value : toArray())
+			ret.append(' ').append(value);
+		
+		return ret.toString();
+	}
+	
+	@Override
+	public DoubleTensor transpose() {
+		return (DoubleTensor)super.transpose();
+	}
+	
+	@Override
+	public DoubleTensor transpose(int dim1, int dim2)
+			throws IllegalArgumentException {
+		return (DoubleTensor)super.transpose(dim1, dim2);
+	}
+	
+	@Override
+	protected DoubleTensor view(int[] shape, int[] strides, int offset) {
+		return new DoubleTensor(data, shape, strides, offset);
+	}
+
+}
@@ -0,0 +1,202 @@
+package babs.mindforge.util.primitivearray;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * DoubleView class is a zero-copy view of the bytes of a {@link ByteArray} as double values. DoubleViews are created
+ * through {@link ByteArray#asDoubleView(ByteOrder)}. DoubleView extends ByteArrayView and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see ByteArrayView
+ * @see DoubleArray
+ * @since JDK-21
+ */
+public class DoubleView extends ByteArrayView {
+	
+	/**
+	 * VarHandle used to access big-endian double values in a byte array.
+	 */
+	private static final VarHandle BIG = MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.BIG_ENDIAN);
+	/**
+	 * VarHandle used to access little-endian double values in a byte array.
+	 */
+	private static final VarHandle LITTLE =
+			MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.LITTLE_ENDIAN);
+	
+	/**
+	 * Constructor that creates a DoubleView over the specified byte array.
+	 * @param arr The byte array backing the viewed ByteArray.
+	 * @param lock The read/write lock of the viewed ByteArray.
+	 * @param order The byte order of the double values.
+	 * @since JDK-21
+	 */
+	DoubleView(byte[] arr, ReentrantReadWriteLock lock, ByteOrder order) {
+		super(arr, lock, Double.BYTES, order);
+	}
+	
+	@Override
+	public Double get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getDouble(index);
+	}
+	
+	/**
+	 * Returns the double value at the specified index without boxing.
+	 * @param index The index of the value to return.
+	 * @return The double value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public double getDouble(int index)
+			throws ArrayIndexOutOfBoundsException {
+		checkIndex(index, "Cannot get value due to index out-of-bounds.");
+		
+		readLock.lock();
+		
+		try {
+			return read(index);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (o == null || !(o instanceof Double))
+			return -1;
+		
+		double v = ((Double)o).doubleValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < size; ++i) {
+				if (read(i) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (o == null || !(o instanceof Double))
+			return -1;
+		
+		double v = ((Double)o).doubleValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = size - 1; i >= 0; --i) {
+				if (read(i) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Reads the double value at the specified index. The caller must hold the read or write lock.
+	 * @param index The index of the value to read.
+	 * @return The double value at index.
+	 * @since JDK-21
+	 */
+	private double read(int index) {
+		return bigEndian ? (double)BIG.get(arr, index * Double.BYTES) : (double)LITTLE.get(arr, index * Double.BYTES);
+	}
+	
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set DoubleView value to a null value.");
+		
+		if (!(o instanceof Double))
+			throw new IllegalArgumentException("Cannot set DoubleView value to a non-Double object.");
+		
+		setDouble(index, (Double)o);
+	}
+	
+	/**
+	 * Sets the double value at the specified index without boxing.
+	 * @param index The index to set.
+	 * @param value The double value to set at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setDouble(int index, double value)
+			throws ArrayIndexOutOfBoundsException {
+		checkIndex(index, "Cannot set value due to index out-of-bounds.");
+		
+		writeLock.lock();
+		
+		try {
+			if (bigEndian)
+				BIG.set(arr, index * Double.BYTES, value);
+			else
+				LITTLE.set(arr, index * Double.BYTES, value);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public DoubleArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > size || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		double[] ret = new double[end - start];
+		
+		readLock.lock();
+		
+		try {
+			ByteBuffer.wrap(arr, start * Double.BYTES, ret.length * Double.BYTES).order(order()).asDoubleBuffer()
+					.get(ret);
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return new DoubleArray(ret);
+	}
+	
+	/**
+	 * Returns a copy of the double values in this DoubleView.
+	 * @return A double array containing the values of this.
+	 * @since JDK-21
+	 */
+	public double[] toArray() {
+		double[] ret = new double[size];
+		
+		readLock.lock();
+		
+		try {
+			ByteBuffer.wrap(arr, 0, size * Double.BYTES).order(order()).asDoubleBuffer().get(ret);
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret;
+	}
+
+}
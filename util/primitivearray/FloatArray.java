@@ -1,11 +1,18 @@
 package babs.mindforge.util.primitivearray;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import java.util.function.ToIntBiFunction;
+
 import babs.mindforge.util.ArrayInto;
 
 /**
@@ -17,25 +24,30 @@ import babs.mindforge.util.ArrayInto;
  * @see PrimitiveArray
  * @since JDK-21
  */
-public class FloatArray implements PrimitiveArray {
+public class FloatArray implements PrimitiveArray, Comparable<FloatArray> {
+	
+	/**
+	 * The lock that comparisons between two FloatArrays with equal identity hash codes take first.
+	 */
+	private static final Lock TIE_LOCK = new ReentrantLock();
 	
 	/**
 	 * A read/write lock used to ensure thread-safety.
 	 */
-	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 	/**
 	 * The read lock from the read/write lock.
 	 */
-	private final Lock readLock = lock.readLock();
+	final Lock readLock = lock.readLock();
 	/**
 	 * The write lock from the read/write lock.
 	 */
-	private final Lock writeLock = lock.writeLock();
+	final Lock writeLock = lock.writeLock();
 	
 	/**
 	 * The float array backing the FloatArray.
 	 */
-	private float[] arr;
+	float[] arr;
 	
 	/**
 	 * Constructor that creates a FloatArray with the specified size will all elements set to 0.
@@ -63,6 +75,25 @@ public class FloatArray implements PrimitiveArray {
 		arr = array;
 	}
 	
+	/**
+	 * Searches this FloatArray for the specified value using the binary search algorithm. This FloatArray must be
+	 * sorted, such as by {@link #sort()}, or the result is undefined.
+	 * @param value The value to find.
+	 * @return The index of value, if it is contained in this, otherwise (-(insertion point) - 1).
+	 * @see Arrays#binarySearch(float[], float)
+	 * @since JDK-21
+	 */
+	public int binarySearch(float value) {
+		readLock.lock();
+		
+		try {
+			return Arrays.binarySearch(arr, value);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
 	@Override
 	public Object clone() {
 		FloatArray ret = new FloatArray(arr.length);
@@ -80,6 +111,26 @@ public class FloatArray implements PrimitiveArray {
 		return ret;
 	}
 
+	/**
+	 * Compares this FloatArray with the specified FloatArray lexicographically, comparing elements in the order of
+	 * {@link Float#compare(float, float)}. If one is a prefix of the other, the shorter one is less.
+	 * @param other The FloatArray to compare with.
+	 * @return A negative integer, zero, or a positive integer if this is less than, equal to, or greater than other.
+	 * @throws NullPointerException Thrown if other is null.
+	 * @since JDK-21
+	 */
+	@Override
+	public int compareTo(FloatArray other)
+			throws NullPointerException {
+		if (other == null)
+			throw new NullPointerException("Cannot compare a FloatArray with a null FloatArray.");
+		
+		if (other == this)
+			return 0;
+		
+		return compare(other, Arrays::compare);
+	}
+	
 	@Override
 	public boolean contains(Object o) {
 		if (o == null)
@@ -115,35 +166,36 @@ public class FloatArray implements PrimitiveArray {
 		return true;
 	}
 	
+	/**
+	 * Returns the CRC-32C checksum of the little-endian bytes of this FloatArray.
+	 * @return The CRC-32C of this.
+	 * @see PrimitiveArrays#crc32c(float[])
+	 * @since JDK-21
+	 */
+	public long crc32c() {
+		readLock.lock();
+		
+		try {
+			return PrimitiveArrays.crc32c(arr);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
 	@Override
 	public boolean equals(Object o) {
-		if (o == null)
-			return false;
-		
-		if (o instanceof FloatArray) {
-			if (((FloatArray)o).size() != this.size())
-				return false;
-			
-			readLock.lock();
-			
-			try {
-				for (int i = 0; i < arr.length; ++i) {
-					if (!(((FloatArray)o).arr[i] == arr[i]))
-						return false;
-				}
-			}
-			finally {
-				readLock.lock();
-			}
-			
+		if (o == this)
 			return true;
-		}
+		
+		if (o instanceof FloatArray)
+			return mismatch((FloatArray)o) == -1;
 		
 		return false;
 	}
 	
 	/**
-	 * Converts a byte array into a FloatArray.
+	 * Converts a byte array of big-endian values into a FloatArray.
 	 * @param array The byte array to convert.
 	 * @return A FloatArray containing the byte array.
 	 * @throws IllegalArgumentException Thrown if array's length is not evenly divisible by {@link Float#BYTES}.
@@ -152,18 +204,30 @@ public class FloatArray implements PrimitiveArray {
 	 */
 	public static FloatArray from(byte[] array) 
 			throws NullPointerException {
+		return from(array, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Converts a byte array into a FloatArray, reading each value in the specified byte order. The values are 
+	 * decoded in bulk straight into the float array backing the returned FloatArray.
+	 * @param array The byte array to convert.
+	 * @param order The byte order of the values in the byte array.
+	 * @return A FloatArray containing the byte array.
+	 * @throws IllegalArgumentException Thrown if array's length is not evenly divisible by {@link Float#BYTES}.
+	 * @throws NullPointerException Thrown if array or order is null.
+	 * @since JDK-21
+	 */
+	public static FloatArray from(byte[] array, ByteOrder order) 
+			throws IllegalArgumentException, NullPointerException {
 		if (array == null)
 			throw new NullPointerException("Cannot convert a null byte array into a FloatArray.");
+		if (order == null)
+			throw new NullPointerException("Cannot convert a byte array into a FloatArray with a null byte order.");
 		if (array.length % Float.BYTES != 0)
 			throw new IllegalArgumentException("Byte array size is incompatible with float size.");
-		FloatArray ret = new FloatArray(array.length / Float.BYTES);
-		for (int i = 0; i < array.length / Float.BYTES; ++i) {
-			int v = 0;
-			for (int j = 0; j < Float.BYTES; ++j)
-				v |= (array[j + (i * Float.BYTES)] << (Byte.SIZE * (Float.BYTES - 1 - j)));
-			ret.set(i, Float.intBitsToFloat(v));
-		}
-		return ret;
+		float[] values = new float[array.length / Float.BYTES];
+		ByteBuffer.wrap(array).order(order).asFloatBuffer().get(values);
+		return new FloatArray(values);
 	}
 	
 	@Override
@@ -182,12 +246,30 @@ public class FloatArray implements PrimitiveArray {
 		}
 	}
 	
+	/**
+	 * Returns the 64-bit XXH64 hash of the little-endian bytes of this FloatArray. Equal FloatArrays always have equal
+	 * hashes, so the hash can be used as a key to deduplicate FloatArrays by content.
+	 * @return The 64-bit hash of this.
+	 * @see PrimitiveArrays#hash64(float[])
+	 * @since JDK-21
+	 */
+	public long hash64() {
+		readLock.lock();
+		
+		try {
+			return PrimitiveArrays.hash64(arr);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
 	@Override
 	public int hashCode() {
 		readLock.lock();
 		
 		try {
-			return arr.hashCode();
+			return Arrays.hashCode(arr);
 		}
 		finally {
 			readLock.unlock();
@@ -239,6 +321,46 @@ public class FloatArray implements PrimitiveArray {
 		return -1;
 	}
 	
+	/**
+	 * Returns the index of the first element that differs between this FloatArray and the specified FloatArray, or -1
+	 * if they are equal. If one is a prefix of the other, the length of the shorter one is returned.
+	 * @param other The FloatArray to compare with.
+	 * @return The index of the first mismatch, or -1 if there is none.
+	 * @throws NullPointerException Thrown if other is null.
+	 * @since JDK-21
+	 */
+	public int mismatch(FloatArray other)
+			throws NullPointerException {
+		if (other == null)
+			throw new NullPointerException("Cannot compare a FloatArray with a null FloatArray.");
+		
+		if (other == this)
+			return -1;
+		
+		return compare(other, Arrays::mismatch);
+	}
+	
+	/**
+	 * Sorts this FloatArray in place into ascending numerical order. If this FloatArray has at least 
+	 * {@link PrimitiveArrays#parallelThreshold()} elements, it is sorted with a parallel sort-merge on the common 
+	 * fork-join pool, otherwise it is sorted on the calling thread.
+	 * @see Arrays#parallelSort(float[])
+	 * @since JDK-21
+	 */
+	public void parallelSort() {
+		writeLock.lock();
+		
+		try {
+			if (arr.length < PrimitiveArrays.parallelThreshold())
+				Arrays.sort(arr);
+			else
+				Arrays.parallelSort(arr);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
 	@Override
 	public void set(int index, Object o) 
 			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
@@ -273,6 +395,22 @@ public class FloatArray implements PrimitiveArray {
 		}
 	}
 	
+	/**
+	 * Sorts this FloatArray in place into ascending numerical order on the calling thread.
+	 * @see Arrays#sort(float[])
+	 * @since JDK-21
+	 */
+	public void sort() {
+		writeLock.lock();
+		
+		try {
+			Arrays.sort(arr);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
 	@Override
 	public FloatArray subArray(int start, int end) 
 			throws IllegalArgumentException {
@@ -362,5 +500,49 @@ public class FloatArray implements PrimitiveArray {
 		
 		return ret;
 	}
+	
+	/**
+	 * Applies the specified comparison to the elements of this FloatArray and the specified FloatArray with both read
+	 * locks held.
+	 * @param other The FloatArray to compare with.
+	 * @param comparison The comparison to apply to the two arrays.
+	 * @return The result of the comparison.
+	 * @since JDK-21
+	 */
+	private int compare(FloatArray other, ToIntBiFunction<float[], float[]> comparison) {
+		// Lock in a consistent order so that opposing comparisons between the same two FloatArrays cannot deadlock.
+		// FloatArrays with equal identity hash codes have no order, so they take TIE_LOCK first.
+		int thisHash = System.identityHashCode(this);
+		int otherHash = System.identityHashCode(other);
+		boolean thisFirst = thisHash <= otherHash;
+		boolean tie = thisHash == otherHash;
+		Lock first = thisFirst ? readLock : other.readLock;
+		Lock second = thisFirst ? other.readLock : readLock;
+		
+		if (tie)
+			TIE_LOCK.lock();
+		
+		try {
+			first.lock();
+			
+			try {
+				second.lock();
+				
+				try {
+					return comparison.applyAsInt(arr, other.arr);
+				}
+				finally {
+					second.unlock();
+				}
+			}
+			finally {
+				first.unlock();
+			}
+		}
+		finally {
+			if (tie)
+				TIE_LOCK.unlock();
+		}
+	}
 
 }
@@ -0,0 +1,377 @@
+package babs.mindforge.util.primitivearray;
+
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleUnaryOperator;
+
+import babs.mindforge.util.Index;
+import babs.mindforge.util.IndexCursor;
+
+/**
+ * FloatTensor class is an N-dimensional dense array of float values, stored in a flat {@link FloatArray} and
+ * addressed by {@link Index}. Slices and transpositions of a FloatTensor are views that share its FloatArray, so
+ * writes through a view are seen by every other view of the same data. All access goes through the lock of the
+ * FloatArray, so FloatTensor is thread-safe, and bulk operations hold the lock once for the whole operation instead
+ * of once per element.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see FloatArray
+ * @see Tensor
+ * @since JDK-21
+ */
+public class FloatTensor extends Tensor {
+	
+	/**
+	 * The flat FloatArray backing the FloatTensor.
+	 */
+	private final FloatArray data;
+	
+	/**
+	 * Constructor that creates a row-major FloatTensor with the specified shape and all elements set to 0.
+	 * @param shape The size of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the FloatTensor would have more than
+	 * {@link Index#MAX} elements.
+	 * @throws NullPointerException Thrown if shape is null.
+	 * @since JDK-21
+	 */
+	public FloatTensor(int ...shape)
+			throws IllegalArgumentException, NullPointerException {
+		this(Order.ROW_MAJOR, shape);
+	}
+	
+	/**
+	 * Constructor that creates a FloatTensor with the specified shape and layout order, and all elements set to 0.
+	 * @param order The layout order.
+	 * @param shape The size of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the FloatTensor would have more than
+	 * {@link Index#MAX} elements.
+	 * @throws NullPointerException Thrown if order or shape is null.
+	 * @since JDK-21
+	 */
+	public FloatTensor(Order order, int ...shape)
+			throws IllegalArgumentException, NullPointerException {
+		super(order, shape);
+		data = new FloatArray(size);
+	}
+	
+	/**
+	 * Constructor that creates a FloatTensor with the specified shape and layout order over the specified
+	 * FloatArray, without copying it.
+	 * @param data The flat FloatArray to use.
+	 * @param order The layout order.
+	 * @param shape The size of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the size of the shape is not equal to
+	 * the size of data.
+	 * @throws NullPointerException Thrown if data, order or shape is null.
+	 * @since JDK-21
+	 */
+	public FloatTensor(FloatArray data, Order order, int ...shape)
+			throws IllegalArgumentException, NullPointerException {
+		super(order, shape);
+		
+		if (data == null)
+			throw new NullPointerException("Cannot create a FloatTensor from a null FloatArray.");
+		if (data.size() != size)
+			throw new IllegalArgumentException("Cannot create a FloatTensor whose shape does not match its data.");
+		
+		this.data = data;
+	}
+	
+	/**
+	 * Constructor that creates a FloatTensor view of the specified FloatArray with the specified geometry.
+	 * @param data The flat FloatArray to share.
+	 * @param shape The size of each dimension.
+	 * @param strides The stride of each dimension.
+	 * @param offset The flat index of the first element.
+	 * @since JDK-21
+	 */
+	private FloatTensor(FloatArray data, int[] shape, int[] strides, int offset) {
+		super(shape, strides, offset);
+		this.data = data;
+	}
+	
+	/**
+	 * Applies the specified operator to every element of this FloatTensor, replacing each element with the result.
+	 * @param operator The operator to apply.
+	 * @throws NullPointerException Thrown if operator is null.
+	 * @since JDK-21
+	 */
+	public void apply(DoubleUnaryOperator operator)
+			throws NullPointerException {
+		if (operator == null)
+			throw new NullPointerException("Cannot apply a null operator to a FloatTensor.");
+		
+		data.writeLock.lock();
+		
+		try {
+			float[] arr = data.arr;
+			
+			runs((o, s, l) -> {
+				for (int i = 0, j = o; i < l; ++i, j += s)
+					arr[j] = (float)operator.applyAsDouble(arr[j]);
+			});
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns a new row-major FloatTensor with the same shape and elements as this FloatTensor, that does not share
+	 * its FloatArray.
+	 * @return A contiguous copy of this.
+	 * @since JDK-21
+	 */
+	public FloatTensor copy() {
+		return new FloatTensor(new FloatArray(toArray()), Order.ROW_MAJOR, shape);
+	}
+	
+	/**
+	 * Returns the flat FloatArray backing this FloatTensor, which is shared with all of its views.
+	 * @return The FloatArray of this.
+	 * @since JDK-21
+	 */
+	public FloatArray data() {
+		return data;
+	}
+	
+	/**
+	 * Sets every element of this FloatTensor to the specified value.
+	 * @param value The value to set.
+	 * @since JDK-21
+	 */
+	public void fill(float value) {
+		data.writeLock.lock();
+		
+		try {
+			float[] arr = data.arr;
+			
+			runs((o, s, l) -> {
+				for (int i = 0, j = o; i < l; ++i, j += s)
+					arr[j] = value;
+			});
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Performs the specified action on every element of this FloatTensor, in row-major order.
+	 * @param action The action to perform.
+	 * @throws NullPointerException Thrown if action is null.
+	 * @since JDK-21
+	 */
+	public void forEach(DoubleConsumer action)
+			throws NullPointerException {
+		if (action == null)
+			throw new NullPointerException("Cannot perform a null action on a FloatTensor.");
+		
+		data.readLock.lock();
+		
+		try {
+			float[] arr = data.arr;
+			
+			runs((o, s, l) -> {
+				for (int i = 0, j = o; i < l; ++i, j += s)
+					action.accept(arr[j]);
+			});
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Visits the elements of this FloatTensor as runs of its flat FloatArray, in row-major order, while holding
+	 * the read lock of the FloatArray. This lets a caller write its own inner
+	 * loop over the flat indices of {@link #data()}.
+	 * @param action The RunConsumer that receives each run.
+	 * @throws NullPointerException Thrown if action is null.
+	 * @since JDK-21
+	 */
+	public void forEachRun(RunConsumer action)
+			throws NullPointerException {
+		if (action == null)
+			throw new NullPointerException("Cannot perform a null action on a FloatTensor.");
+		
+		data.readLock.lock();
+		
+		try {
+			runs(action);
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the float value at the current position of the specified IndexCursor.
+	 * @param cursor The IndexCursor at the value to return.
+	 * @return The value at cursor.
+	 * @throws IndexOutOfBoundsException Thrown if cursor does not have one dimension per dimension of this
+	 * FloatTensor, or if an index value is out-of-bounds.
+	 * @throws NullPointerException Thrown if cursor is null.
+	 * @see #cursor()
+	 * @since JDK-21
+	 */
+	public float get(IndexCursor cursor)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(cursor);
+
+		data.readLock.lock();
+
+		try {
+			return data.arr[i];
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the float value at the specified Index.
+	 * @param index The Index of the value to return.
+	 * @return The value at index.
+	 * @throws IndexOutOfBoundsException Thrown if index does not have one value per dimension, or if a value is
+	 * out-of-bounds.
+	 * @throws NullPointerException Thrown if index is null.
+	 * @since JDK-21
+	 */
+	public float get(Index index)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(index);
+		
+		data.readLock.lock();
+		
+		try {
+			return data.arr[i];
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+	
+	@Override
+	public FloatTensor permute(int ...axes)
+			throws IllegalArgumentException, NullPointerException {
+		return (FloatTensor)super.permute(axes);
+	}
+	
+	@Override
+	public FloatTensor select(int dim, int index)
+			throws IllegalArgumentException {
+		return (FloatTensor)super.select(dim, index);
+	}
+	
+	/**
+	 * Sets the float value at the current position of the specified IndexCursor.
+	 * @param cursor The IndexCursor at the value to set.
+	 * @param value The value to set.
+	 * @throws IndexOutOfBoundsException Thrown if cursor does not have one dimension per dimension of this
+	 * FloatTensor, or if an index value is out-of-bounds.
+	 * @throws NullPointerException Thrown if cursor is null.
+	 * @see #cursor()
+	 * @since JDK-21
+	 */
+	public void set(IndexCursor cursor, float value)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(cursor);
+
+		data.writeLock.lock();
+
+		try {
+			data.arr[i] = value;
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Sets the float value at the specified Index.
+	 * @param index The Index of the value to set.
+	 * @param value The value to set.
+	 * @throws IndexOutOfBoundsException Thrown if index does not have one value per dimension, or if a value is
+	 * out-of-bounds.
+	 * @throws NullPointerException Thrown if index is null.
+	 * @since JDK-21
+	 */
+	public void set(Index index, float value)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(index);
+		
+		data.writeLock.lock();
+		
+		try {
+			data.arr[i] = value;
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public FloatTensor slice(int dim, int start, int end)
+			throws IllegalArgumentException {
+		return (FloatTensor)super.slice(dim, start, end);
+	}
+	
+	/**
+	 * Returns the elements of this FloatTensor as a new float array, in row-major order.
+	 * @return A float array containing the elements of this.
+	 * @since JDK-21
+	 */
+	public float[] toArray() {
+		float[] ret = new float[size];
+		
+		data.readLock.lock();
+		
+		try {
+			float[] arr = data.arr;
+			int[] n = new int[1];
+			
+			runs((o, s, l) -> {
+				if (s == 1)
+					System.arraycopy(arr, o, ret, n[0], l);
+				else
+					for (int i = 0, j = o; i < l; ++i, j += s)
+						ret[n[0] + i] = arr[j];
+				
+				n[0] += l;
+			});
+		}
+		finally {
+			data.readLock.unlock();
+		}
+		
+		return ret;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder(super.toString());
+		
+		for (float value : toArray())
+			ret.append(' ').append(value);
+		
+		return ret.toString();
+	}
+	
+	@Override
+	public FloatTensor transpose() {
+		return (FloatTensor)super.transpose();
+	}
+	
+	@Override
+	public FloatTensor transpose(int dim1, int dim2)
+			throws IllegalArgumentException {
+		return (FloatTensor)super.transpose(dim1, dim2);
+	}
+	
+	@Override
+	protected FloatTensor view(int[] shape, int[] strides, int offset) {
+		return new FloatTensor(data, shape, strides, offset);
+	}
+
+}
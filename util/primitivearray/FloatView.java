@@ -0,0 +1,202 @@
+package babs.mindforge.util.primitivearray;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * FloatView class is a zero-copy view of the bytes of a {@link ByteArray} as float values. FloatViews are created
+ * through {@link ByteArray#asFloatView(ByteOrder)}. FloatView extends ByteArrayView and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see ByteArrayView
+ * @see FloatArray
+ * @since JDK-21
+ */
+public class FloatView extends ByteArrayView {
+	
+	/**
+	 * VarHandle used to access big-endian float values in a byte array.
+	 */
+	private static final VarHandle BIG = MethodHandles.byteArrayViewVarHandle(float[].class, ByteOrder.BIG_ENDIAN);
+	/**
+	 * VarHandle used to access little-endian float values in a byte array.
+	 */
+	private static final VarHandle LITTLE =
+			MethodHandles.byteArrayViewVarHandle(float[].class, ByteOrder.LITTLE_ENDIAN);
+	
+	/**
+	 * Constructor that creates a FloatView over the specified byte array.
+	 * @param arr The byte array backing the viewed ByteArray.
+	 * @param lock The read/write lock of the viewed ByteArray.
+	 * @param order The byte order of the float values.
+	 * @since JDK-21
+	 */
+	FloatView(byte[] arr, ReentrantReadWriteLock lock, ByteOrder order) {
+		super(arr, lock, Float.BYTES, order);
+	}
+	
+	@Override
+	public Float get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getFloat(index);
+	}
+	
+	/**
+	 * Returns the float value at the specified index without boxing.
+	 * @param index The index of the value to return.
+	 * @return The float value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public float getFloat(int index)
+			throws ArrayIndexOutOfBoundsException {
+		checkIndex(index, "Cannot get value due to index out-of-bounds.");
+		
+		readLock.lock();
+		
+		try {
+			return read(index);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (o == null || !(o instanceof Float))
+			return -1;
+		
+		float v = ((Float)o).floatValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < size; ++i) {
+				if (read(i) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (o == null || !(o instanceof Float))
+			return -1;
+		
+		float v = ((Float)o).floatValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = size - 1; i >= 0; --i) {
+				if (read(i) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Reads the float value at the specified index. The caller must hold the read or write lock.
+	 * @param index The index of the value to read.
+	 * @return The float value at index.
+	 * @since JDK-21
+	 */
+	private float read(int index) {
+		return bigEndian ? (float)BIG.get(arr, index * Float.BYTES) : (float)LITTLE.get(arr, index * Float.BYTES);
+	}
+	
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set FloatView value to a null value.");
+		
+		if (!(o instanceof Float))
+			throw new IllegalArgumentException("Cannot set FloatView value to a non-Float object.");
+		
+		setFloat(index, (Float)o);
+	}
+	
+	/**
+	 * Sets the float value at the specified index without boxing.
+	 * @param index The index to set.
+	 * @param value The float value to set at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setFloat(int index, float value)
+			throws ArrayIndexOutOfBoundsException {
+		checkIndex(index, "Cannot set value due to index out-of-bounds.");
+		
+		writeLock.lock();
+		
+		try {
+			if (bigEndian)
+				BIG.set(arr, index * Float.BYTES, value);
+			else
+				LITTLE.set(arr, index * Float.BYTES, value);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public FloatArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > size || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		float[] ret = new float[end - start];
+		
+		readLock.lock();
+		
+		try {
+			ByteBuffer.wrap(arr, start * Float.BYTES, ret.length * Float.BYTES).order(order()).asFloatBuffer()
+					.get(ret);
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return new FloatArray(ret);
+	}
+	
+	/**
+	 * Returns a copy of the float values in this FloatView.
+	 * @return A float array containing the values of this.
+	 * @since JDK-21
+	 */
+	public float[] toArray() {
+		float[] ret = new float[size];
+		
+		readLock.lock();
+		
+		try {
+			ByteBuffer.wrap(arr, 0, size * Float.BYTES).order(order()).asFloatBuffer().get(ret);
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret;
+	}
+
+}
@@ -0,0 +1,712 @@
+package babs.mindforge.util.primitivearray;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import babs.mindforge.util.ArrayInto;
+
+/**
+ * HalfFloatArray class is a wrapper for a primitive short array that stores float values in 16 bits each, in either
+ * the IEEE 754 half-precision format or the bfloat16 format, which halves the memory of a {@link FloatArray} in
+ * exchange for precision. Values are rounded to the nearest 16-bit value when they are set and widened back to float
+ * when they are read. Bulk operations decode the values a block at a time into a float buffer, so their inner loops
+ * run over plain float arrays instead of decoding one value per step. HalfFloatArray implements PrimitiveArray and
+ * is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see FloatArray
+ * @see PrimitiveArray
+ * @since JDK-21
+ */
+public class HalfFloatArray implements PrimitiveArray {
+	
+	/**
+	 * Format enum represents the 16-bit floating-point format used by a HalfFloatArray.
+	
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @since JDK-21
+	 */
+	public enum Format {
+		
+		/**
+		 * The IEEE 754 binary16 format, with 5 exponent bits and 10 fraction bits. It holds about 3 decimal digits in
+		 * the range of roughly 6.0E-8 to 65504.
+		 */
+		HALF,
+		/**
+		 * The bfloat16 format, which is the upper 16 bits of a float, with 8 exponent bits and 7 fraction bits. It
+		 * holds about 2 decimal digits over the whole range of float, and widening it to float is a shift.
+		 */
+		BFLOAT16
+	
+	}
+	
+	/**
+	 * The number of values decoded at a time by bulk operations.
+	 */
+	private static final int BLOCK_SIZE = 512;
+	
+	/**
+	 * The lock that operations between two HalfFloatArrays with equal identity hash codes take first.
+	 */
+	private static final Lock TIE_LOCK = new ReentrantLock();
+	
+	/**
+	 * A read/write lock used to ensure thread-safety.
+	 */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	/**
+	 * The read lock from the read/write lock.
+	 */
+	private final Lock readLock = lock.readLock();
+	/**
+	 * The write lock from the read/write lock.
+	 */
+	private final Lock writeLock = lock.writeLock();
+	
+	/**
+	 * The format of the values.
+	 */
+	private final Format format;
+	/**
+	 * The short array backing the HalfFloatArray.
+	 */
+	private final short[] arr;
+	
+	/**
+	 * Constructor that creates a HalfFloatArray with the specified size and format with all elements set to 0.
+	 * @param size The size of this HalfFloatArray.
+	 * @param format The format to store values in.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @throws NullPointerException Thrown if format is null.
+	 * @since JDK-21
+	 */
+	public HalfFloatArray(int size, Format format)
+			throws NegativeArraySizeException, NullPointerException {
+		if (size < 0)
+			throw new NegativeArraySizeException("Cannot create a HalfFloatArray with a negative size.");
+		if (format == null)
+			throw new NullPointerException("Cannot create a HalfFloatArray with a null format.");
+		
+		this.format = format;
+		arr = new short[size];
+	}
+	
+	/**
+	 * Constructor that creates a HalfFloatArray with the specified format containing the values of the specified
+	 * float array, each rounded to the nearest value of the format.
+	 * @param array The float array to convert.
+	 * @param format The format to store values in.
+	 * @throws NullPointerException Thrown if array or format is null.
+	 * @since JDK-21
+	 */
+	public HalfFloatArray(float[] array, Format format)
+			throws NullPointerException {
+		if (array == null)
+			throw new NullPointerException("Cannot create a HalfFloatArray from a null float array.");
+		if (format == null)
+			throw new NullPointerException("Cannot create a HalfFloatArray with a null format.");
+		
+		this.format = format;
+		arr = new short[array.length];
+		
+		for (int i = 0; i < array.length; ++i)
+			arr[i] = encode(array[i], format);
+	}
+	
+	@Override
+	public Object clone() {
+		HalfFloatArray ret = new HalfFloatArray(arr.length, format);
+		
+		readLock.lock();
+		
+		try {
+			System.arraycopy(arr, 0, ret.arr, 0, arr.length);
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret;
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) != -1;
+	}
+	
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		if (c == null)
+			return false;
+		
+		Iterator<?> it = c.iterator();
+		
+		while (it.hasNext()) {
+			if (!contains(it.next()))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Decodes the specified range of values of this HalfFloatArray into the specified float array.
+	 * @param start The index of the first value to decode.
+	 * @param dest The float array to decode into.
+	 * @param destPos The index in dest to start writing at.
+	 * @param length The number of values to decode.
+	 * @throws IndexOutOfBoundsException Thrown if the range is out-of-bounds of this or of dest.
+	 * @throws NullPointerException Thrown if dest is null.
+	 * @since JDK-21
+	 */
+	public void decode(int start, float[] dest, int destPos, int length)
+			throws IndexOutOfBoundsException, NullPointerException {
+		if (dest == null)
+			throw new NullPointerException("Cannot decode a HalfFloatArray into a null float array.");
+		
+		Objects.checkFromIndexSize(start, length, arr.length);
+		Objects.checkFromIndexSize(destPos, length, dest.length);
+		
+		readLock.lock();
+		
+		try {
+			decode(arr, start, dest, destPos, length, format);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the dot product of this HalfFloatArray and the specified float array. The values of this HalfFloatArray
+	 * are decoded a block at a time, and the products are summed in four independent float sums, so each addition in
+	 * the inner loop does not wait on the one before it.
+	 * @param array The float array to multiply by.
+	 * @return The dot product.
+	 * @throws IllegalArgumentException Thrown if array is not the same size as this HalfFloatArray.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public float dot(float[] array)
+			throws IllegalArgumentException, NullPointerException {
+		if (array == null)
+			throw new NullPointerException("Cannot multiply by a null float array.");
+		if (array.length != arr.length)
+			throw new IllegalArgumentException("Cannot multiply by a float array of a different size.");
+		
+		float[] buffer = new float[Math.min(BLOCK_SIZE, arr.length)];
+		float ret = 0.0f;
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < arr.length; i += BLOCK_SIZE) {
+				int n = Math.min(BLOCK_SIZE, arr.length - i);
+				
+				decode(arr, i, buffer, 0, n, format);
+				ret += dot(buffer, 0, array, i, n);
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Returns the dot product of this HalfFloatArray and the specified FloatArray.
+	 * @param array The FloatArray to multiply by.
+	 * @return The dot product.
+	 * @throws IllegalArgumentException Thrown if array is not the same size as this HalfFloatArray.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @see #dot(float[])
+	 * @since JDK-21
+	 */
+	public float dot(FloatArray array)
+			throws IllegalArgumentException, NullPointerException {
+		if (array == null)
+			throw new NullPointerException("Cannot multiply by a null FloatArray.");
+		
+		array.readLock.lock();
+		
+		try {
+			return dot(array.arr);
+		}
+		finally {
+			array.readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the dot product of this HalfFloatArray and the specified HalfFloatArray, which may use a different
+	 * format. Both are decoded a block at a time.
+	 * @param other The HalfFloatArray to multiply by.
+	 * @return The dot product.
+	 * @throws IllegalArgumentException Thrown if other is not the same size as this HalfFloatArray.
+	 * @throws NullPointerException Thrown if other is null.
+	 * @since JDK-21
+	 */
+	public float dot(HalfFloatArray other)
+			throws IllegalArgumentException, NullPointerException {
+		if (other == null)
+			throw new NullPointerException("Cannot multiply by a null HalfFloatArray.");
+		if (other.arr.length != arr.length)
+			throw new IllegalArgumentException("Cannot multiply HalfFloatArrays of different sizes.");
+		
+		// Lock in a consistent order so that opposing operations between the same two HalfFloatArrays cannot deadlock.
+		// HalfFloatArrays with equal identity hash codes have no order, so they take TIE_LOCK first.
+		int thisHash = System.identityHashCode(this);
+		int otherHash = System.identityHashCode(other);
+		boolean thisFirst = thisHash <= otherHash;
+		boolean tie = thisHash == otherHash;
+		Lock first = thisFirst ? readLock : other.readLock;
+		Lock second = thisFirst ? other.readLock : readLock;
+		float[] a = new float[Math.min(BLOCK_SIZE, arr.length)];
+		float[] b = new float[a.length];
+		float ret = 0.0f;
+		
+		if (tie)
+			TIE_LOCK.lock();
+		
+		try {
+			first.lock();
+			
+			try {
+				second.lock();
+					
+				try {
+					for (int i = 0; i < arr.length; i += BLOCK_SIZE) {
+						int n = Math.min(BLOCK_SIZE, arr.length - i);
+						
+						decode(arr, i, a, 0, n, format);
+						decode(other.arr, i, b, 0, n, other.format);
+						ret += dot(a, 0, b, 0, n);
+					}
+				}
+				finally {
+					second.unlock();
+				}
+			}
+			finally {
+				first.unlock();
+			}
+		}
+		finally {
+			if (tie)
+				TIE_LOCK.unlock();
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Returns the CRC-32C checksum of the little-endian bytes of the 16-bit encoded values of this HalfFloatArray.
+	 * @return The CRC-32C of this.
+	 * @see PrimitiveArrays#crc32c(short[])
+	 * @since JDK-21
+	 */
+	public long crc32c() {
+		readLock.lock();
+		
+		try {
+			return PrimitiveArrays.crc32c(arr);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (o == this)
+			return true;
+		
+		if (o instanceof HalfFloatArray) {
+			HalfFloatArray other = (HalfFloatArray)o;
+			
+			if (other.format != format)
+				return false;
+			
+			short[] values = other.toShortArray();
+			
+			readLock.lock();
+			
+			try {
+				return Arrays.equals(arr, values);
+			}
+			finally {
+				readLock.unlock();
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns the format of the values of this HalfFloatArray.
+	 * @return The format of this.
+	 * @since JDK-21
+	 */
+	public Format format() {
+		return format;
+	}
+	
+	/**
+	 * Converts the specified FloatArray into a HalfFloatArray with the specified format.
+	 * @param array The FloatArray to convert.
+	 * @param format The format to store values in.
+	 * @return A HalfFloatArray containing the values of array, rounded to format.
+	 * @throws NullPointerException Thrown if array or format is null.
+	 * @since JDK-21
+	 */
+	public static HalfFloatArray from(FloatArray array, Format format)
+			throws NullPointerException {
+		if (array == null)
+			throw new NullPointerException("Cannot convert a null FloatArray into a HalfFloatArray.");
+		
+		array.readLock.lock();
+		
+		try {
+			return new HalfFloatArray(array.arr, format);
+		}
+		finally {
+			array.readLock.unlock();
+		}
+	}
+	
+	@Override
+	public Float get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getFloat(index);
+	}
+	
+	/**
+	 * Returns the value at the specified index, widened to float.
+	 * @param index The index of the value to return.
+	 * @return The value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public float getFloat(int index)
+			throws ArrayIndexOutOfBoundsException {
+		if (index < 0 || index >= arr.length)
+			throw new ArrayIndexOutOfBoundsException("Cannot get value due to index out-of-bounds.");
+		
+		readLock.lock();
+		
+		try {
+			return decode(arr[index], format);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the 64-bit XXH64 hash of the little-endian bytes of the 16-bit encoded values of this HalfFloatArray.
+	 * Equal HalfFloatArrays always have equal hashes, so the hash can be used as a key to deduplicate HalfFloatArrays
+	 * by content.
+	 * @return The 64-bit hash of this.
+	 * @see PrimitiveArrays#hash64(short[])
+	 * @since JDK-21
+	 */
+	public long hash64() {
+		readLock.lock();
+		
+		try {
+			return PrimitiveArrays.hash64(arr);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public int hashCode() {
+		readLock.lock();
+		
+		try {
+			return 31 * format.hashCode() + Arrays.hashCode(arr);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (!(o instanceof Float))
+			return -1;
+		
+		float value = (Float)o;
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < arr.length; ++i) {
+				if (decode(arr[i], format) == value)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public Iterator<?> iterator() {
+		return ArrayInto.collection(toArray()).iterator();
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (!(o instanceof Float))
+			return -1;
+		
+		float value = (Float)o;
+		
+		readLock.lock();
+		
+		try {
+			for (int i = arr.length - 1; i >= 0; --i) {
+				if (decode(arr[i], format) == value)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set HalfFloatArray value to a null value.");
+		
+		if (!(o instanceof Float))
+			throw new IllegalArgumentException("Cannot set HalfFloatArray value to a non-Float object.");
+		
+		setFloat(index, (Float)o);
+	}
+	
+	/**
+	 * Sets the value at the specified index, rounded to the nearest value of the format of this HalfFloatArray.
+	 * @param index The index to set.
+	 * @param value The value to set at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setFloat(int index, float value)
+			throws ArrayIndexOutOfBoundsException {
+		if (index < 0 || index >= arr.length)
+			throw new ArrayIndexOutOfBoundsException("Cannot set value due to index out-of-bounds.");
+		
+		short bits = encode(value, format);
+		
+		writeLock.lock();
+		
+		try {
+			arr[index] = bits;
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public int size() {
+		return arr.length;
+	}
+	
+	@Override
+	public HalfFloatArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > arr.length || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		HalfFloatArray ret = new HalfFloatArray(end - start, format);
+		
+		readLock.lock();
+		
+		try {
+			System.arraycopy(arr, start, ret.arr, 0, end - start);
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Returns the values of this HalfFloatArray widened to float, in a new float array.
+	 * @return A float array containing the values of this.
+	 * @since JDK-21
+	 */
+	public float[] toArray() {
+		float[] ret = new float[arr.length];
+		decode(0, ret, 0, arr.length);
+		return ret;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T[] toArray(T[] a) {
+		float[] values = toArray();
+		Float[] copy = new Float[values.length];
+		
+		for (int i = 0; i < values.length; ++i)
+			copy[i] = values[i];
+		
+		if (a.length >= copy.length) {
+			for (int i = 0; i < copy.length; ++i)
+				a[i] = (T)copy[i];
+			
+			return a;
+		}
+		
+		T[] ret = (T[])copy;
+		
+		return ret;
+	}
+	
+	/**
+	 * Returns a new FloatArray containing the values of this HalfFloatArray widened to float.
+	 * @return A FloatArray containing the values of this.
+	 * @since JDK-21
+	 */
+	public FloatArray toFloatArray() {
+		return new FloatArray(toArray());
+	}
+	
+	/**
+	 * Returns a copy of the 16-bit encoded values of this HalfFloatArray.
+	 * @return A short array containing the encoded values of this.
+	 * @since JDK-21
+	 */
+	public short[] toShortArray() {
+		readLock.lock();
+		
+		try {
+			return arr.clone();
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder();
+		float[] values = toArray();
+		
+		for (int i = 0; i < values.length; ++i) {
+			if (i > 0)
+				ret.append(' ');
+			
+			ret.append(values[i]);
+		}
+		
+		return ret.toString();
+	}
+	
+	/**
+	 * Widens the specified 16-bit value of the specified format to float.
+	 * @param bits The 16-bit value.
+	 * @param format The format of bits.
+	 * @return The float value of bits.
+	 * @since JDK-21
+	 */
+	private static float decode(short bits, Format format) {
+		if (format == Format.HALF)
+			return Float.float16ToFloat(bits);
+		
+		return Float.intBitsToFloat(bits << 16);
+	}
+	
+	/**
+	 * Widens a range of 16-bit values of the specified format into a float array. The caller must check the bounds.
+	 * @param src The 16-bit values.
+	 * @param srcPos The index in src to start reading at.
+	 * @param dest The float array to write to.
+	 * @param destPos The index in dest to start writing at.
+	 * @param length The number of values to widen.
+	 * @param format The format of the values.
+	 * @since JDK-21
+	 */
+	private static void decode(short[] src, int srcPos, float[] dest, int destPos, int length, Format format) {
+		if (format == Format.HALF) {
+			for (int i = 0; i < length; ++i)
+				dest[destPos + i] = Float.float16ToFloat(src[srcPos + i]);
+		}
+		else {
+			for (int i = 0; i < length; ++i)
+				dest[destPos + i] = Float.intBitsToFloat(src[srcPos + i] << 16);
+		}
+	}
+	
+	/**
+	 * Returns the dot product of ranges of two float arrays, summed in four independent float sums so the additions
+	 * can overlap instead of each waiting on a single sum.
+	 * @param a The first float array.
+	 * @param aPos The index in a to start at.
+	 * @param b The second float array.
+	 * @param bPos The index in b to start at.
+	 * @param length The number of products to sum.
+	 * @return The dot product of the ranges.
+	 * @since JDK-21
+	 */
+	private static float dot(float[] a, int aPos, float[] b, int bPos, int length) {
+		float s0 = 0.0f, s1 = 0.0f, s2 = 0.0f, s3 = 0.0f;
+		int i = 0;
+		
+		for (; i + 3 < length; i += 4) {
+			s0 += a[aPos + i] * b[bPos + i];
+			s1 += a[aPos + i + 1] * b[bPos + i + 1];
+			s2 += a[aPos + i + 2] * b[bPos + i + 2];
+			s3 += a[aPos + i + 3] * b[bPos + i + 3];
+		}
+		
+		for (; i < length; ++i)
+			s0 += a[aPos + i] * b[bPos + i];
+		
+		return (s0 + s1) + (s2 + s3);
+	}
+	
+	/**
+	 * Rounds the specified float to the nearest 16-bit value of the specified format. Values too large for the format
+	 * become infinity, and NaN stays NaN.
+	 * @param value The float value.
+	 * @param format The format to round to.
+	 * @return The 16-bit value nearest to value.
+	 * @since JDK-21
+	 */
+	private static short encode(float value, Format format) {
+		if (format == Format.HALF)
+			return Float.floatToFloat16(value);
+		
+		int bits = Float.floatToRawIntBits(value);
+		
+		// Keep NaN a NaN by setting a fraction bit that survives truncation. Otherwise round to nearest, ties to even.
+		if (Float.isNaN(value))
+			return (short)((bits >>> 16) | 0x0040);
+		
+		return (short)((bits + 0x7FFF + ((bits >>> 16) & 1)) >>> 16);
+	}
+
+}
@@ -0,0 +1,377 @@
+package babs.mindforge.util.primitivearray;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+
+import babs.mindforge.util.Index;
+import babs.mindforge.util.IndexCursor;
+
+/**
+ * IntegerTensor class is an N-dimensional dense array of int values, stored in a flat {@link IntegerArray} and
+ * addressed by {@link Index}. Slices and transpositions of an IntegerTensor are views that share its IntegerArray, so
+ * writes through a view are seen by every other view of the same data. All access goes through the lock of the
+ * IntegerArray, so IntegerTensor is thread-safe, and bulk operations hold the lock once for the whole operation
+ * instead of once per element.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see IntegerArray
+ * @see Tensor
+ * @since JDK-21
+ */
+public class IntegerTensor extends Tensor {
+	
+	/**
+	 * The flat IntegerArray backing the IntegerTensor.
+	 */
+	private final IntegerArray data;
+	
+	/**
+	 * Constructor that creates a row-major IntegerTensor with the specified shape and all elements set to 0.
+	 * @param shape The size of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the IntegerTensor would have more than
+	 * {@link Index#MAX} elements.
+	 * @throws NullPointerException Thrown if shape is null.
+	 * @since JDK-21
+	 */
+	public IntegerTensor(int ...shape)
+			throws IllegalArgumentException, NullPointerException {
+		this(Order.ROW_MAJOR, shape);
+	}
+	
+	/**
+	 * Constructor that creates an IntegerTensor with the specified shape and layout order, and all elements set to 0.
+	 * @param order The layout order.
+	 * @param shape The size of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the IntegerTensor would have more than
+	 * {@link Index#MAX} elements.
+	 * @throws NullPointerException Thrown if order or shape is null.
+	 * @since JDK-21
+	 */
+	public IntegerTensor(Order order, int ...shape)
+			throws IllegalArgumentException, NullPointerException {
+		super(order, shape);
+		data = new IntegerArray(size);
+	}
+	
+	/**
+	 * Constructor that creates an IntegerTensor with the specified shape and layout order over the specified
+	 * IntegerArray, without copying it.
+	 * @param data The flat IntegerArray to use.
+	 * @param order The layout order.
+	 * @param shape The size of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the size of the shape is not equal to
+	 * the size of data.
+	 * @throws NullPointerException Thrown if data, order or shape is null.
+	 * @since JDK-21
+	 */
+	public IntegerTensor(IntegerArray data, Order order, int ...shape)
+			throws IllegalArgumentException, NullPointerException {
+		super(order, shape);
+		
+		if (data == null)
+			throw new NullPointerException("Cannot create an IntegerTensor from a null IntegerArray.");
+		if (data.size() != size)
+			throw new IllegalArgumentException("Cannot create an IntegerTensor whose shape does not match its data.");
+		
+		this.data = data;
+	}
+	
+	/**
+	 * Constructor that creates an IntegerTensor view of the specified IntegerArray with the specified geometry.
+	 * @param data The flat IntegerArray to share.
+	 * @param shape The size of each dimension.
+	 * @param strides The stride of each dimension.
+	 * @param offset The flat index of the first element.
+	 * @since JDK-21
+	 */
+	private IntegerTensor(IntegerArray data, int[] shape, int[] strides, int offset) {
+		super(shape, strides, offset);
+		this.data = data;
+	}
+	
+	/**
+	 * Applies the specified operator to every element of this IntegerTensor, replacing each element with the result.
+	 * @param operator The operator to apply.
+	 * @throws NullPointerException Thrown if operator is null.
+	 * @since JDK-21
+	 */
+	public void apply(IntUnaryOperator operator)
+			throws NullPointerException {
+		if (operator == null)
+			throw new NullPointerException("Cannot apply a null operator to an IntegerTensor.");
+		
+		data.writeLock.lock();
+		
+		try {
+			int[] arr = data.arr;
+			
+			runs((o, s, l) -> {
+				for (int i = 0, j = o; i < l; ++i, j += s)
+					arr[j] = operator.applyAsInt(arr[j]);
+			});
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns a new row-major IntegerTensor with the same shape and elements as this IntegerTensor, that does not
+	 * share its IntegerArray.
+	 * @return A contiguous copy of this.
+	 * @since JDK-21
+	 */
+	public IntegerTensor copy() {
+		return new IntegerTensor(new IntegerArray(toArray()), Order.ROW_MAJOR, shape);
+	}
+	
+	/**
+	 * Returns the flat IntegerArray backing this IntegerTensor, which is shared with all of its views.
+	 * @return The IntegerArray of this.
+	 * @since JDK-21
+	 */
+	public IntegerArray data() {
+		return data;
+	}
+	
+	/**
+	 * Sets every element of this IntegerTensor to the specified value.
+	 * @param value The value to set.
+	 * @since JDK-21
+	 */
+	public void fill(int value) {
+		data.writeLock.lock();
+		
+		try {
+			int[] arr = data.arr;
+			
+			runs((o, s, l) -> {
+				for (int i = 0, j = o; i < l; ++i, j += s)
+					arr[j] = value;
+			});
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Performs the specified action on every element of this IntegerTensor, in row-major order.
+	 * @param action The action to perform.
+	 * @throws NullPointerException Thrown if action is null.
+	 * @since JDK-21
+	 */
+	public void forEach(IntConsumer action)
+			throws NullPointerException {
+		if (action == null)
+			throw new NullPointerException("Cannot perform a null action on an IntegerTensor.");
+		
+		data.readLock.lock();
+		
+		try {
+			int[] arr = data.arr;
+			
+			runs((o, s, l) -> {
+				for (int i = 0, j = o; i < l; ++i, j += s)
+					action.accept(arr[j]);
+			});
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Visits the elements of this IntegerTensor as runs of its flat IntegerArray, in row-major order, while holding
+	 * the read lock of the IntegerArray. This lets a caller write its own inner
+	 * loop over the flat indices of {@link #data()}.
+	 * @param action The RunConsumer that receives each run.
+	 * @throws NullPointerException Thrown if action is null.
+	 * @since JDK-21
+	 */
+	public void forEachRun(RunConsumer action)
+			throws NullPointerException {
+		if (action == null)
+			throw new NullPointerException("Cannot perform a null action on an IntegerTensor.");
+		
+		data.readLock.lock();
+		
+		try {
+			runs(action);
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the int value at the current position of the specified IndexCursor.
+	 * @param cursor The IndexCursor at the value to return.
+	 * @return The value at cursor.
+	 * @throws IndexOutOfBoundsException Thrown if cursor does not have one dimension per dimension of this
+	 * IntegerTensor, or if an index value is out-of-bounds.
+	 * @throws NullPointerException Thrown if cursor is null.
+	 * @see #cursor()
+	 * @since JDK-21
+	 */
+	public int get(IndexCursor cursor)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(cursor);
+
+		data.readLock.lock();
+
+		try {
+			return data.arr[i];
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the int value at the specified Index.
+	 * @param index The Index of the value to return.
+	 * @return The value at index.
+	 * @throws IndexOutOfBoundsException Thrown if index does not have one value per dimension, or if a value is
+	 * out-of-bounds.
+	 * @throws NullPointerException Thrown if index is null.
+	 * @since JDK-21
+	 */
+	public int get(Index index)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(index);
+		
+		data.readLock.lock();
+		
+		try {
+			return data.arr[i];
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+	
+	@Override
+	public IntegerTensor permute(int ...axes)
+			throws IllegalArgumentException, NullPointerException {
+		return (IntegerTensor)super.permute(axes);
+	}
+	
+	@Override
+	public IntegerTensor select(int dim, int index)
+			throws IllegalArgumentException {
+		return (IntegerTensor)super.select(dim, index);
+	}
+	
+	/**
+	 * Sets the int value at the current position of the specified IndexCursor.
+	 * @param cursor The IndexCursor at the value to set.
+	 * @param value The value to set.
+	 * @throws IndexOutOfBoundsException Thrown if cursor does not have one dimension per dimension of this
+	 * IntegerTensor, or if an index value is out-of-bounds.
+	 * @throws NullPointerException Thrown if cursor is null.
+	 * @see #cursor()
+	 * @since JDK-21
+	 */
+	public void set(IndexCursor cursor, int value)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(cursor);
+
+		data.writeLock.lock();
+
+		try {
+			data.arr[i] = value;
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Sets the int value at the specified Index.
+	 * @param index The Index of the value to set.
+	 * @param value The value to set.
+	 * @throws IndexOutOfBoundsException Thrown if index does not have one value per dimension, or if a value is
+	 * out-of-bounds.
+	 * @throws NullPointerException Thrown if index is null.
+	 * @since JDK-21
+	 */
+	public void set(Index index, int value)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(index);
+		
+		data.writeLock.lock();
+		
+		try {
+			data.arr[i] = value;
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public IntegerTensor slice(int dim, int start, int end)
+			throws IllegalArgumentException {
+		return (IntegerTensor)super.slice(dim, start, end);
+	}
+	
+	/**
+	 * Returns the elements of this IntegerTensor as a new int array, in row-major order.
+	 * @return A int array containing the elements of this.
+	 * @since JDK-21
+	 */
+	public int[] toArray() {
+		int[] ret = new int[size];
+		
+		data.readLock.lock();
+		
+		try {
+			int[] arr = data.arr;
+			int[] n = new int[1];
+			
+			runs((o, s, l) -> {
+				if (s == 1)
+					System.arraycopy(arr, o, ret, n[0], l);
+				else
+					for (int i = 0, j = o; i < l; ++i, j += s)
+						ret[n[0] + i] = arr[j];
+				
+				n[0] += l;
+			});
+		}
+		finally {
+			data.readLock.unlock();
+		}
+		
+		return ret;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder(super.toString());
+		
+		for (int value : toArray())
+			ret.append(' ').append(value);
+		
+		return ret.toString();
+	}
+	
+	@Override
+	public IntegerTensor transpose() {
+		return (IntegerTensor)super.transpose();
+	}
+	
+	@Override
+	public IntegerTensor transpose(int dim1, int dim2)
+			throws IllegalArgumentException {
+		return (IntegerTensor)super.transpose(dim1, dim2);
+	}
+	
+	@Override
+	protected IntegerTensor view(int[] shape, int[] strides, int offset) {
+		return new IntegerTensor(data, shape, strides, offset);
+	}
+
+}
@@ -0,0 +1,201 @@
+package babs.mindforge.util.primitivearray;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * IntegerView class is a zero-copy view of the bytes of a {@link ByteArray} as int values. IntegerViews are created
+ * through {@link ByteArray#asIntView(ByteOrder)}. IntegerView extends ByteArrayView and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see ByteArrayView
+ * @see IntegerArray
+ * @since JDK-21
+ */
+public class IntegerView extends ByteArrayView {
+	
+	/**
+	 * VarHandle used to access big-endian int values in a byte array.
+	 */
+	private static final VarHandle BIG = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	/**
+	 * VarHandle used to access little-endian int values in a byte array.
+	 */
+	private static final VarHandle LITTLE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+	
+	/**
+	 * Constructor that creates an IntegerView over the specified byte array.
+	 * @param arr The byte array backing the viewed ByteArray.
+	 * @param lock The read/write lock of the viewed ByteArray.
+	 * @param order The byte order of the int values.
+	 * @since JDK-21
+	 */
+	IntegerView(byte[] arr, ReentrantReadWriteLock lock, ByteOrder order) {
+		super(arr, lock, Integer.BYTES, order);
+	}
+	
+	@Override
+	public Integer get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getInt(index);
+	}
+	
+	/**
+	 * Returns the int value at the specified index without boxing.
+	 * @param index The index of the value to return.
+	 * @return The int value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int getInt(int index)
+			throws ArrayIndexOutOfBoundsException {
+		checkIndex(index, "Cannot get value due to index out-of-bounds.");
+		
+		readLock.lock();
+		
+		try {
+			return read(index);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (o == null || !(o instanceof Integer))
+			return -1;
+		
+		int v = ((Integer)o).intValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < size; ++i) {
+				if (read(i) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (o == null || !(o instanceof Integer))
+			return -1;
+		
+		int v = ((Integer)o).intValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = size - 1; i >= 0; --i) {
+				if (read(i) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Reads the int value at the specified index. The caller must hold the read or write lock.
+	 * @param index The index of the value to read.
+	 * @return The int value at index.
+	 * @since JDK-21
+	 */
+	private int read(int index) {
+		return bigEndian ? (int)BIG.get(arr, index * Integer.BYTES) : (int)LITTLE.get(arr, index * Integer.BYTES);
+	}
+	
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set IntegerView value to a null value.");
+		
+		if (!(o instanceof Integer))
+			throw new IllegalArgumentException("Cannot set IntegerView value to a non-Integer object.");
+		
+		setInt(index, (Integer)o);
+	}
+	
+	/**
+	 * Sets the int value at the specified index without boxing.
+	 * @param index The index to set.
+	 * @param value The int value to set at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setInt(int index, int value)
+			throws ArrayIndexOutOfBoundsException {
+		checkIndex(index, "Cannot set value due to index out-of-bounds.");
+		
+		writeLock.lock();
+		
+		try {
+			if (bigEndian)
+				BIG.set(arr, index * Integer.BYTES, value);
+			else
+				LITTLE.set(arr, index * Integer.BYTES, value);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public IntegerArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > size || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		int[] ret = new int[end - start];
+		
+		readLock.lock();
+		
+		try {
+			ByteBuffer.wrap(arr, start * Integer.BYTES, ret.length * Integer.BYTES).order(order()).asIntBuffer()
+					.get(ret);
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return new IntegerArray(ret);
+	}
+	
+	/**
+	 * Returns a copy of the int values in this IntegerView.
+	 * @return An int array containing the values of this.
+	 * @since JDK-21
+	 */
+	public int[] toArray() {
+		int[] ret = new int[size];
+		
+		readLock.lock();
+		
+		try {
+			ByteBuffer.wrap(arr, 0, size * Integer.BYTES).order(order()).asIntBuffer().get(ret);
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret;
+	}
+
+}
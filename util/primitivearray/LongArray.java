@@ -1,11 +1,20 @@
 package babs.mindforge.util.primitivearray;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import java.util.function.IntToLongFunction;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ToIntBiFunction;
+
 import babs.mindforge.util.ArrayInto;
 
 /**
@@ -17,25 +26,30 @@ import babs.mindforge.util.ArrayInto;
  * @see PrimitiveArray
  * @since JDK-21
  */
-public class LongArray implements PrimitiveArray {
+public class LongArray implements PrimitiveArray, Comparable<LongArray> {
+	
+	/**
+	 * The lock that comparisons between two LongArrays with equal identity hash codes take first.
+	 */
+	private static final Lock TIE_LOCK = new ReentrantLock();
 	
 	/**
 	 * A read/write lock used to ensure thread-safety.
 	 */
-	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 	/**
 	 * The read lock from the read/write lock.
 	 */
-	private final Lock readLock = lock.readLock();
+	final Lock readLock = lock.readLock();
 	/**
 	 * The write lock from the read/write lock.
 	 */
-	private final Lock writeLock = lock.writeLock();
+	final Lock writeLock = lock.writeLock();
 	
 	/**
 	 * The long array backing the LongArray.
 	 */
-	private long[] arr;
+	long[] arr;
 	
 	/**
 	 * Constructor that creates a LongArray with the specified size will all elements set to 0.
@@ -63,6 +77,25 @@ public class LongArray implements PrimitiveArray {
 		arr = array;
 	}
 	
+	/**
+	 * Searches this LongArray for the specified value using the binary search algorithm. This LongArray must be
+	 * sorted, such as by {@link #sort()}, or the result is undefined.
+	 * @param value The value to find.
+	 * @return The index of value, if it is contained in this, otherwise (-(insertion point) - 1).
+	 * @see Arrays#binarySearch(long[], long)
+	 * @since JDK-21
+	 */
+	public int binarySearch(long value) {
+		readLock.lock();
+		
+		try {
+			return Arrays.binarySearch(arr, value);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
 	@Override
 	public Object clone() {
 		LongArray ret = new LongArray(arr.length);
@@ -80,6 +113,26 @@ public class LongArray implements PrimitiveArray {
 		return ret;
 	}
 
+	/**
+	 * Compares this LongArray with the specified LongArray lexicographically, comparing elements as signed values. If
+	 * one is a prefix of the other, the shorter one is less.
+	 * @param other The LongArray to compare with.
+	 * @return A negative integer, zero, or a positive integer if this is less than, equal to, or greater than other.
+	 * @throws NullPointerException Thrown if other is null.
+	 * @since JDK-21
+	 */
+	@Override
+	public int compareTo(LongArray other)
+			throws NullPointerException {
+		if (other == null)
+			throw new NullPointerException("Cannot compare a LongArray with a null LongArray.");
+		
+		if (other == this)
+			return 0;
+		
+		return compare(other, Arrays::compare);
+	}
+	
 	@Override
 	public boolean contains(Object o) {
 		if (o == null)
@@ -115,35 +168,36 @@ public class LongArray implements PrimitiveArray {
 		return true;
 	}
 	
+	/**
+	 * Returns the CRC-32C checksum of the little-endian bytes of this LongArray.
+	 * @return The CRC-32C of this.
+	 * @see PrimitiveArrays#crc32c(long[])
+	 * @since JDK-21
+	 */
+	public long crc32c() {
+		readLock.lock();
+		
+		try {
+			return PrimitiveArrays.crc32c(arr);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
 	@Override
 	public boolean equals(Object o) {
-		if (o == null)
-			return false;
-		
-		if (o instanceof LongArray) {
-			if (((LongArray)o).size() != this.size())
-				return false;
-			
-			readLock.lock();
-			
-			try {
-				for (int i = 0; i < arr.length; ++i) {
-					if (!(((LongArray)o).arr[i] == arr[i]))
-						return false;
-				}
-			}
-			finally {
-				readLock.lock();
-			}
-			
+		if (o == this)
 			return true;
-		}
+		
+		if (o instanceof LongArray)
+			return mismatch((LongArray)o) == -1;
 		
 		return false;
 	}
 	
 	/**
-	 * Converts a byte array into a LongArray.
+	 * Converts a byte array of big-endian values into a LongArray.
 	 * @param array The byte array to convert.
 	 * @return A LongArray containing the byte array.
 	 * @throws IllegalArgumentException Thrown if array's length is not evenly divisible by {@link Long#BYTES}.
@@ -152,18 +206,30 @@ public class LongArray implements PrimitiveArray {
 	 */
 	public static LongArray from(byte[] array) 
 			throws NullPointerException {
+		return from(array, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Converts a byte array into a LongArray, reading each value in the specified byte order. The values are 
+	 * decoded in bulk straight into the long array backing the returned LongArray.
+	 * @param array The byte array to convert.
+	 * @param order The byte order of the values in the byte array.
+	 * @return A LongArray containing the byte array.
+	 * @throws IllegalArgumentException Thrown if array's length is not evenly divisible by {@link Long#BYTES}.
+	 * @throws NullPointerException Thrown if array or order is null.
+	 * @since JDK-21
+	 */
+	public static LongArray from(byte[] array, ByteOrder order) 
+			throws IllegalArgumentException, NullPointerException {
 		if (array == null)
 			throw new NullPointerException("Cannot convert a null byte array into a LongArray.");
+		if (order == null)
+			throw new NullPointerException("Cannot convert a byte array into a LongArray with a null byte order.");
 		if (array.length % Long.BYTES != 0)
 			throw new IllegalArgumentException("Byte array size is incompatible with long size.");
-		LongArray ret = new LongArray(array.length / Long.BYTES);
-		for (int i = 0; i < array.length / Long.BYTES; ++i) {
-			long v = 0;
-			for (int j = 0; j < Long.BYTES; ++j)
-				v |= (array[j + (i * Long.BYTES)] << (Byte.SIZE * (Long.BYTES - 1 - j)));
-			ret.set(i, v);
-		}
-		return ret;
+		long[] values = new long[array.length / Long.BYTES];
+		ByteBuffer.wrap(array).order(order).asLongBuffer().get(values);
+		return new LongArray(values);
 	}
 	
 	@Override
@@ -182,12 +248,30 @@ public class LongArray implements PrimitiveArray {
 		}
 	}
 	
+	/**
+	 * Returns the 64-bit XXH64 hash of the little-endian bytes of this LongArray. Equal LongArrays always have equal
+	 * hashes, so the hash can be used as a key to deduplicate LongArrays by content.
+	 * @return The 64-bit hash of this.
+	 * @see PrimitiveArrays#hash64(long[])
+	 * @since JDK-21
+	 */
+	public long hash64() {
+		readLock.lock();
+		
+		try {
+			return PrimitiveArrays.hash64(arr);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
 	@Override
 	public int hashCode() {
 		readLock.lock();
 		
 		try {
-			return arr.hashCode();
+			return Arrays.hashCode(arr);
 		}
 		finally {
 			readLock.unlock();
@@ -239,6 +323,104 @@ public class LongArray implements PrimitiveArray {
 		return -1;
 	}
 	
+	/**
+	 * Returns the index of the first element that differs between this LongArray and the specified LongArray, or -1 if
+	 * they are equal. If one is a prefix of the other, the length of the shorter one is returned.
+	 * @param other The LongArray to compare with.
+	 * @return The index of the first mismatch, or -1 if there is none.
+	 * @throws NullPointerException Thrown if other is null.
+	 * @since JDK-21
+	 */
+	public int mismatch(LongArray other)
+			throws NullPointerException {
+		if (other == null)
+			throw new NullPointerException("Cannot compare a LongArray with a null LongArray.");
+		
+		if (other == this)
+			return -1;
+		
+		return compare(other, Arrays::mismatch);
+	}
+	
+	/**
+	 * Cumulates the elements of this LongArray in place using the specified operation, so that each element becomes
+	 * the result of combining it with all the elements before it. If this LongArray has at least
+	 * {@link PrimitiveArrays#parallelThreshold()} elements, the elements are cumulated in parallel. The operation must
+	 * be associative and side-effect-free, and must not access this LongArray.
+	 * @param op The operation used to combine two elements.
+	 * @throws NullPointerException Thrown if op is null.
+	 * @see Arrays#parallelPrefix(long[], LongBinaryOperator)
+	 * @since JDK-21
+	 */
+	public void parallelPrefix(LongBinaryOperator op) 
+			throws NullPointerException {
+		if (op == null)
+			throw new NullPointerException("Cannot cumulate a LongArray with a null operation.");
+		
+		writeLock.lock();
+		
+		try {
+			if (arr.length < PrimitiveArrays.parallelThreshold()) {
+				for (int i = 1; i < arr.length; ++i)
+					arr[i] = op.applyAsLong(arr[i - 1], arr[i]);
+			}
+			else {
+				Arrays.parallelPrefix(arr, op);
+			}
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Sets every element of this LongArray to the value computed by the specified generator function for that
+	 * element's index. If this LongArray has at least {@link PrimitiveArrays#parallelThreshold()} elements, the
+	 * elements are computed in parallel. The generator must be side-effect-free and must not access this LongArray.
+	 * @param generator The function that computes the value of each element from its index.
+	 * @throws NullPointerException Thrown if generator is null.
+	 * @see Arrays#parallelSetAll(long[], IntToLongFunction)
+	 * @since JDK-21
+	 */
+	public void parallelSetAll(IntToLongFunction generator) 
+			throws NullPointerException {
+		if (generator == null)
+			throw new NullPointerException("Cannot set all elements of a LongArray with a null generator.");
+		
+		writeLock.lock();
+		
+		try {
+			if (arr.length < PrimitiveArrays.parallelThreshold())
+				Arrays.setAll(arr, generator);
+			else
+				Arrays.parallelSetAll(arr, generator);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Sorts this LongArray in place into ascending numerical order. If this LongArray has at least 
+	 * {@link PrimitiveArrays#parallelThreshold()} elements, it is sorted with a parallel sort-merge on the common 
+	 * fork-join pool, otherwise it is sorted on the calling thread.
+	 * @see Arrays#parallelSort(long[])
+	 * @since JDK-21
+	 */
+	public void parallelSort() {
+		writeLock.lock();
+		
+		try {
+			if (arr.length < PrimitiveArrays.parallelThreshold())
+				Arrays.sort(arr);
+			else
+				Arrays.parallelSort(arr);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
 	@Override
 	public void set(int index, Object o) 
 			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
@@ -273,6 +455,22 @@ public class LongArray implements PrimitiveArray {
 		}
 	}
 	
+	/**
+	 * Sorts this LongArray in place into ascending numerical order on the calling thread.
+	 * @see Arrays#sort(long[])
+	 * @since JDK-21
+	 */
+	public void sort() {
+		writeLock.lock();
+		
+		try {
+			Arrays.sort(arr);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
 	@Override
 	public LongArray subArray(int start, int end) 
 			throws IllegalArgumentException {
@@ -362,5 +560,49 @@ public class LongArray implements PrimitiveArray {
 		
 		return ret;
 	}
+	
+	/**
+	 * Applies the specified comparison to the elements of this LongArray and the specified LongArray with both read
+	 * locks held.
+	 * @param other The LongArray to compare with.
+	 * @param comparison The comparison to apply to the two arrays.
+	 * @return The result of the comparison.
+	 * @since JDK-21
+	 */
+	private int compare(LongArray other, ToIntBiFunction<long[], long[]> comparison) {
+		// Lock in a consistent order so that opposing comparisons between the same two LongArrays cannot deadlock.
+		// LongArrays with equal identity hash codes have no order, so they take TIE_LOCK first.
+		int thisHash = System.identityHashCode(this);
+		int otherHash = System.identityHashCode(other);
+		boolean thisFirst = thisHash <= otherHash;
+		boolean tie = thisHash == otherHash;
+		Lock first = thisFirst ? readLock : other.readLock;
+		Lock second = thisFirst ? other.readLock : readLock;
+		
+		if (tie)
+			TIE_LOCK.lock();
+		
+		try {
+			first.lock();
+			
+			try {
+				second.lock();
+				
+				try {
+					return comparison.applyAsInt(arr, other.arr);
+				}
+				finally {
+					second.unlock();
+				}
+			}
+			finally {
+				first.unlock();
+			}
+		}
+		finally {
+			if (tie)
+				TIE_LOCK.unlock();
+		}
+	}
 
 }
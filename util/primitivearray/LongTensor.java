@@ -0,0 +1,377 @@
+package babs.mindforge.util.primitivearray;
+
+import java.util.function.LongConsumer;
+import java.util.function.LongUnaryOperator;
+
+import babs.mindforge.util.Index;
+import babs.mindforge.util.IndexCursor;
+
+/**
+ * LongTensor class is an N-dimensional dense array of long values, stored in a flat {@link LongArray} and
+ * addressed by {@link Index}. Slices and transpositions of a LongTensor are views that share its LongArray, so
+ * writes through a view are seen by every other view of the same data. All access goes through the lock of the
+ * LongArray, so LongTensor is thread-safe, and bulk operations hold the lock once for the whole operation instead
+ * of once per element.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see LongArray
+ * @see Tensor
+ * @since JDK-21
+ */
+public class LongTensor extends Tensor {
+	
+	/**
+	 * The flat LongArray backing the LongTensor.
+	 */
+	private final LongArray data;
+	
+	/**
+	 * Constructor that creates a row-major LongTensor with the specified shape and all elements set to 0.
+	 * @param shape The size of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the LongTensor would have more than
+	 * {@link Index#MAX} elements.
+	 * @throws NullPointerException Thrown if shape is null.
+	 * @since JDK-21
+	 */
+	public LongTensor(int ...shape)
+			throws IllegalArgumentException, NullPointerException {
+		this(Order.ROW_MAJOR, shape);
+	}
+	
+	/**
+	 * Constructor that creates a LongTensor with the specified shape and layout order, and all elements set to 0.
+	 * @param order The layout order.
+	 * @param shape The size of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the LongTensor would have more than
+	 * {@link Index#MAX} elements.
+	 * @throws NullPointerException Thrown if order or shape is null.
+	 * @since JDK-21
+	 */
+	public LongTensor(Order order, int ...shape)
+			throws IllegalArgumentException, NullPointerException {
+		super(order, shape);
+		data = new LongArray(size);
+	}
+	
+	/**
+	 * Constructor that creates a LongTensor with the specified shape and layout order over the specified
+	 * LongArray, without copying it.
+	 * @param data The flat LongArray to use.
+	 * @param order The layout order.
+	 * @param shape The size of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the size of the shape is not equal to
+	 * the size of data.
+	 * @throws NullPointerException Thrown if data, order or shape is null.
+	 * @since JDK-21
+	 */
+	public LongTensor(LongArray data, Order order, int ...shape)
+			throws IllegalArgumentException, NullPointerException {
+		super(order, shape);
+		
+		if (data == null)
+			throw new NullPointerException("Cannot create a LongTensor from a null LongArray.");
+		if (data.size() != size)
+			throw new IllegalArgumentException("Cannot create a LongTensor whose shape does not match its data.");
+		
+		this.data = data;
+	}
+	
+	/**
+	 * Constructor that creates a LongTensor view of the specified LongArray with the specified geometry.
+	 * @param data The flat LongArray to share.
+	 * @param shape The size of each dimension.
+	 * @param strides The stride of each dimension.
+	 * @param offset The flat index of the first element.
+	 * @since JDK-21
+	 */
+	private LongTensor(LongArray data, int[] shape, int[] strides, int offset) {
+		super(shape, strides, offset);
+		this.data = data;
+	}
+	
+	/**
+	 * Applies the specified operator to every element of this LongTensor, replacing each element with the result.
+	 * @param operator The operator to apply.
+	 * @throws NullPointerException Thrown if operator is null.
+	 * @since JDK-21
+	 */
+	public void apply(LongUnaryOperator operator)
+			throws NullPointerException {
+		if (operator == null)
+			throw new NullPointerException("Cannot apply a null operator to a LongTensor.");
+		
+		data.writeLock.lock();
+		
+		try {
+			long[] arr = data.arr;
+			
+			runs((o, s, l) -> {
+				for (int i = 0, j = o; i < l; ++i, j += s)
+					arr[j] = operator.applyAsLong(arr[j]);
+			});
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns a new row-major LongTensor with the same shape and elements as this LongTensor, that does not share
+	 * its LongArray.
+	 * @return A contiguous copy of this.
+	 * @since JDK-21
+	 */
+	public LongTensor copy() {
+		return new LongTensor(new LongArray(toArray()), Order.ROW_MAJOR, shape);
+	}
+	
+	/**
+	 * Returns the flat LongArray backing this LongTensor, which is shared with all of its views.
+	 * @return The LongArray of this.
+	 * @since JDK-21
+	 */
+	public LongArray data() {
+		return data;
+	}
+	
+	/**
+	 * Sets every element of this LongTensor to the specified value.
+	 * @param value The value to set.
+	 * @since JDK-21
+	 */
+	public void fill(long value) {
+		data.writeLock.lock();
+		
+		try {
+			long[] arr = data.arr;
+			
+			runs((o, s, l) -> {
+				for (int i = 0, j = o; i < l; ++i, j += s)
+					arr[j] = value;
+			});
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Performs the specified action on every element of this LongTensor, in row-major order.
+	 * @param action The action to perform.
+	 * @throws NullPointerException Thrown if action is null.
+	 * @since JDK-21
+	 */
+	public void forEach(LongConsumer action)
+			throws NullPointerException {
+		if (action == null)
+			throw new NullPointerException("Cannot perform a null action on a LongTensor.");
+		
+		data.readLock.lock();
+		
+		try {
+			long[] arr = data.arr;
+			
+			runs((o, s, l) -> {
+				for (int i = 0, j = o; i < l; ++i, j += s)
+					action.accept(arr[j]);
+			});
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Visits the elements of this LongTensor as runs of its flat LongArray, in row-major order, while holding
+	 * the read lock of the LongArray. This lets a caller write its own inner
+	 * loop over the flat indices of {@link #data()}.
+	 * @param action The RunConsumer that receives each run.
+	 * @throws NullPointerException Thrown if action is null.
+	 * @since JDK-21
+	 */
+	public void forEachRun(RunConsumer action)
+			throws NullPointerException {
+		if (action == null)
+			throw new NullPointerException("Cannot perform a null action on a LongTensor.");
+		
+		data.readLock.lock();
+		
+		try {
+			runs(action);
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the long value at the current position of the specified IndexCursor.
+	 * @param cursor The IndexCursor at the value to return.
+	 * @return The value at cursor.
+	 * @throws IndexOutOfBoundsException Thrown if cursor does not have one dimension per dimension of this
+	 * LongTensor, or if an index value is out-of-bounds.
+	 * @throws NullPointerException Thrown if cursor is null.
+	 * @see #cursor()
+	 * @since JDK-21
+	 */
+	public long get(IndexCursor cursor)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(cursor);
+
+		data.readLock.lock();
+
+		try {
+			return data.arr[i];
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the long value at the specified Index.
+	 * @param index The Index of the value to return.
+	 * @return The value at index.
+	 * @throws IndexOutOfBoundsException Thrown if index does not have one value per dimension, or if a value is
+	 * out-of-bounds.
+	 * @throws NullPointerException Thrown if index is null.
+	 * @since JDK-21
+	 */
+	public long get(Index index)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(index);
+		
+		data.readLock.lock();
+		
+		try {
+			return data.arr[i];
+		}
+		finally {
+			data.readLock.unlock();
+		}
+	}
+	
+	@Override
+	public LongTensor permute(int ...axes)
+			throws IllegalArgumentException, NullPointerException {
+		return (LongTensor)super.permute(axes);
+	}
+	
+	@Override
+	public LongTensor select(int dim, int index)
+			throws IllegalArgumentException {
+		return (LongTensor)super.select(dim, index);
+	}
+	
+	/**
+	 * Sets the long value at the current position of the specified IndexCursor.
+	 * @param cursor The IndexCursor at the value to set.
+	 * @param value The value to set.
+	 * @throws IndexOutOfBoundsException Thrown if cursor does not have one dimension per dimension of this
+	 * LongTensor, or if an index value is out-of-bounds.
+	 * @throws NullPointerException Thrown if cursor is null.
+	 * @see #cursor()
+	 * @since JDK-21
+	 */
+	public void set(IndexCursor cursor, long value)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(cursor);
+
+		data.writeLock.lock();
+
+		try {
+			data.arr[i] = value;
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Sets the long value at the specified Index.
+	 * @param index The Index of the value to set.
+	 * @param value The value to set.
+	 * @throws IndexOutOfBoundsException Thrown if index does not have one value per dimension, or if a value is
+	 * out-of-bounds.
+	 * @throws NullPointerException Thrown if index is null.
+	 * @since JDK-21
+	 */
+	public void set(Index index, long value)
+			throws IndexOutOfBoundsException, NullPointerException {
+		int i = flatIndex(index);
+		
+		data.writeLock.lock();
+		
+		try {
+			data.arr[i] = value;
+		}
+		finally {
+			data.writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public LongTensor slice(int dim, int start, int end)
+			throws IllegalArgumentException {
+		return (LongTensor)super.slice(dim, start, end);
+	}
+	
+	/**
+	 * Returns the elements of this LongTensor as a new long array, in row-major order.
+	 * @return A long array containing the elements of this.
+	 * @since JDK-21
+	 */
+	public long[] toArray() {
+		long[] ret = new long[size];
+		
+		data.readLock.lock();
+		
+		try {
+			long[] arr = data.arr;
+			int[] n = new int[1];
+			
+			runs((o, s, l) -> {
+				if (s == 1)
+					System.arraycopy(arr, o, ret, n[0], l);
+				else
+					for (int i = 0, j = o; i < l; ++i, j += s)
+						ret[n[0] + i] = arr[j];
+				
+				n[0] += l;
+			});
+		}
+		finally {
+			data.readLock.unlock();
+		}
+		
+		return ret;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder(super.toString());
+		
+		for (long value : toArray())
+			ret.append(' ').append(value);
+		
+		return ret.toString();
+	}
+	
+	@Override
+	public LongTensor transpose() {
+		return (LongTensor)super.transpose();
+	}
+	
+	@Override
+	public LongTensor transpose(int dim1, int dim2)
+			throws IllegalArgumentException {
+		return (LongTensor)super.transpose(dim1, dim2);
+	}
+	
+	@Override
+	protected LongTensor view(int[] shape, int[] strides, int offset) {
+		return new LongTensor(data, shape, strides, offset);
+	}
+
+}
@@ -0,0 +1,202 @@
+package babs.mindforge.util.primitivearray;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * LongView class is a zero-copy view of the bytes of a {@link ByteArray} as long values. LongViews are created
+ * through {@link ByteArray#asLongView(ByteOrder)}. LongView extends ByteArrayView and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see ByteArrayView
+ * @see LongArray
+ * @since JDK-21
+ */
+public class LongView extends ByteArrayView {
+	
+	/**
+	 * VarHandle used to access big-endian long values in a byte array.
+	 */
+	private static final VarHandle BIG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	/**
+	 * VarHandle used to access little-endian long values in a byte array.
+	 */
+	private static final VarHandle LITTLE =
+			MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	
+	/**
+	 * Constructor that creates a LongView over the specified byte array.
+	 * @param arr The byte array backing the viewed ByteArray.
+	 * @param lock The read/write lock of the viewed ByteArray.
+	 * @param order The byte order of the long values.
+	 * @since JDK-21
+	 */
+	LongView(byte[] arr, ReentrantReadWriteLock lock, ByteOrder order) {
+		super(arr, lock, Long.BYTES, order);
+	}
+	
+	@Override
+	public Long get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getLong(index);
+	}
+	
+	/**
+	 * Returns the long value at the specified index without boxing.
+	 * @param index The index of the value to return.
+	 * @return The long value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public long getLong(int index)
+			throws ArrayIndexOutOfBoundsException {
+		checkIndex(index, "Cannot get value due to index out-of-bounds.");
+		
+		readLock.lock();
+		
+		try {
+			return read(index);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (o == null || !(o instanceof Long))
+			return -1;
+		
+		long v = ((Long)o).longValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < size; ++i) {
+				if (read(i) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (o == null || !(o instanceof Long))
+			return -1;
+		
+		long v = ((Long)o).longValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = size - 1; i >= 0; --i) {
+				if (read(i) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Reads the long value at the specified index. The caller must hold the read or write lock.
+	 * @param index The index of the value to read.
+	 * @return The long value at index.
+	 * @since JDK-21
+	 */
+	private long read(int index) {
+		return bigEndian ? (long)BIG.get(arr, index * Long.BYTES) : (long)LITTLE.get(arr, index * Long.BYTES);
+	}
+	
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set LongView value to a null value.");
+		
+		if (!(o instanceof Long))
+			throw new IllegalArgumentException("Cannot set LongView value to a non-Long object.");
+		
+		setLong(index, (Long)o);
+	}
+	
+	/**
+	 * Sets the long value at the specified index without boxing.
+	 * @param index The index to set.
+	 * @param value The long value to set at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setLong(int index, long value)
+			throws ArrayIndexOutOfBoundsException {
+		checkIndex(index, "Cannot set value due to index out-of-bounds.");
+		
+		writeLock.lock();
+		
+		try {
+			if (bigEndian)
+				BIG.set(arr, index * Long.BYTES, value);
+			else
+				LITTLE.set(arr, index * Long.BYTES, value);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public LongArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > size || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		long[] ret = new long[end - start];
+		
+		readLock.lock();
+		
+		try {
+			ByteBuffer.wrap(arr, start * Long.BYTES, ret.length * Long.BYTES).order(order()).asLongBuffer()
+					.get(ret);
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return new LongArray(ret);
+	}
+	
+	/**
+	 * Returns a copy of the long values in this LongView.
+	 * @return A long array containing the values of this.
+	 * @since JDK-21
+	 */
+	public long[] toArray() {
+		long[] ret = new long[size];
+		
+		readLock.lock();
+		
+		try {
+			ByteBuffer.wrap(arr, 0, size * Long.BYTES).order(order()).asLongBuffer().get(ret);
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret;
+	}
+
+}
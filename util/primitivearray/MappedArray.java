@@ -0,0 +1,428 @@
+package babs.mindforge.util.primitivearray;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * MappedArray class is the base class for PrimitiveArrays that are backed by a memory-mapped file rather than a
+ * primitive array on the heap. Reads and writes go straight to the mapping, so a file can be exposed as a
+ * PrimitiveArray without first being read into a byte array. Files larger than a single MappedByteBuffer can address
+ * are mapped as a series of regions. Changes made through a read/write MappedArray are written back to the file by
+ * {@link #force()} and when the MappedArray is closed. Once closed, a MappedArray can no longer be accessed.
+ * MappedArray implements PrimitiveArray and Closeable and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see PrimitiveArray
+ * @since JDK-21
+ */
+public abstract class MappedArray implements PrimitiveArray, Closeable {
+	
+	/**
+	 * The number of bits used to address a byte within a single mapped region.
+	 */
+	protected static final int REGION_SHIFT = 30;
+	/**
+	 * The maximum number of bytes in a single mapped region. This is a multiple of every primitive type size, so an
+	 * element never spans two regions.
+	 */
+	protected static final long REGION_SIZE = 1L << REGION_SHIFT;
+	/**
+	 * The mask used to find the byte offset of an element within its mapped region.
+	 */
+	protected static final long REGION_MASK = REGION_SIZE - 1;
+	
+	/**
+	 * A read/write lock used to ensure thread-safety.
+	 */
+	protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	/**
+	 * The read lock from the read/write lock.
+	 */
+	protected final Lock readLock = lock.readLock();
+	/**
+	 * The write lock from the read/write lock.
+	 */
+	protected final Lock writeLock = lock.writeLock();
+	
+	/**
+	 * The FileChannel of the mapped file.
+	 */
+	private FileChannel channel;
+	/**
+	 * The mapped regions of the file, in file order.
+	 */
+	protected MappedByteBuffer[] regions;
+	/**
+	 * The byte order used to read and write elements.
+	 */
+	protected final ByteOrder order;
+	/**
+	 * True if the file was mapped read-only.
+	 */
+	protected final boolean readOnly;
+	/**
+	 * The number of elements in the MappedArray.
+	 */
+	protected final int size;
+	
+	/**
+	 * Constructor that maps the specified file with the specified element size, map mode and byte order. If the map
+	 * mode is not read-only and size is non-negative, the file is created if needed and resized to hold exactly
+	 * size elements. Otherwise, the number of elements is determined by the size of the file.
+	 * @param path The path of the file to map.
+	 * @param elementBytes The size in bytes of a single element.
+	 * @param mode The map mode, either {@link MapMode#READ_ONLY} or {@link MapMode#READ_WRITE}.
+	 * @param order The byte order of the elements in the file.
+	 * @param size The number of elements, or -1 to use the size of the file.
+	 * @throws IllegalArgumentException Thrown if mode is not supported, if the file's size is not evenly divisible
+	 * by elementBytes, or if the file holds too many elements.
+	 * @throws IOException Thrown if the file cannot be opened or mapped.
+	 * @throws NullPointerException Thrown if path, mode or order is null.
+	 * @since JDK-21
+	 */
+	protected MappedArray(Path path, int elementBytes, MapMode mode, ByteOrder order, int size)
+			throws IllegalArgumentException, IOException, NullPointerException {
+		if (path == null || mode == null || order == null)
+			throw new NullPointerException("Cannot map a MappedArray from a null path, mode or byte order.");
+		
+		if (mode != MapMode.READ_ONLY && mode != MapMode.READ_WRITE)
+			throw new IllegalArgumentException("Cannot map a MappedArray with a private map mode.");
+		
+		this.order = order;
+		readOnly = mode == MapMode.READ_ONLY;
+		
+		if (readOnly)
+			channel = FileChannel.open(path, StandardOpenOption.READ);
+		else
+			channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+					StandardOpenOption.CREATE);
+		
+		try {
+			long bytes;
+			
+			if (!readOnly && size >= 0) {
+				bytes = (long)size * elementBytes;
+				
+				if (channel.size() > bytes)
+					channel.truncate(bytes);
+			}
+			else {
+				bytes = channel.size();
+			}
+			
+			if (bytes % elementBytes != 0)
+				throw new IllegalArgumentException("File size is incompatible with the element size.");
+			if (bytes / elementBytes > Integer.MAX_VALUE)
+				throw new IllegalArgumentException("File contains too many elements to map as a PrimitiveArray.");
+			
+			this.size = (int)(bytes / elementBytes);
+			regions = new MappedByteBuffer[(int)((bytes + REGION_MASK) >>> REGION_SHIFT)];
+			
+			for (int i = 0; i < regions.length; ++i) {
+				long position = (long)i << REGION_SHIFT;
+				
+				regions[i] = channel.map(mode, position, Math.min(REGION_SIZE, bytes - position));
+				regions[i].order(order);
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Returns the region containing the element at the specified index. The caller must hold the read or write lock.
+	 * @param index The element index.
+	 * @param shift The base 2 logarithm of the element size.
+	 * @return The region containing the element.
+	 * @throws IllegalStateException Thrown if this MappedArray is closed.
+	 * @since JDK-21
+	 */
+	protected MappedByteBuffer region(int index, int shift)
+			throws IllegalStateException {
+		if (regions == null)
+			throw new IllegalStateException("Cannot access a closed MappedArray.");
+		
+		return regions[(int)(((long)index << shift) >>> REGION_SHIFT)];
+	}
+	
+	/**
+	 * Returns the byte offset of the element at the specified index within its region.
+	 * @param index The element index.
+	 * @param shift The base 2 logarithm of the element size.
+	 * @return The byte offset of the element in its region.
+	 * @since JDK-21
+	 */
+	protected static int offset(int index, int shift) {
+		return (int)(((long)index << shift) & REGION_MASK);
+	}
+	
+	/**
+	 * Checks that the specified index is within the bounds of this MappedArray.
+	 * @param index The index to check.
+	 * @param message The exception message.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	protected void checkIndex(int index, String message)
+			throws ArrayIndexOutOfBoundsException {
+		if (index < 0 || index >= size)
+			throw new ArrayIndexOutOfBoundsException(message);
+	}
+	
+	/**
+	 * Checks that this MappedArray can be written to.
+	 * @throws UnsupportedOperationException Thrown if this MappedArray was mapped read-only.
+	 * @since JDK-21
+	 */
+	protected void checkWritable()
+			throws UnsupportedOperationException {
+		if (readOnly)
+			throw new UnsupportedOperationException("Cannot set a value of a read-only MappedArray.");
+	}
+	
+	/**
+	 * Writes any changes made to this MappedArray back to the file and closes the file. The mapping itself is
+	 * released once it is no longer reachable. Closing an already closed MappedArray has no effect.
+	 * @throws IOException Thrown if the file cannot be closed.
+	 * @since JDK-21
+	 */
+	@Override
+	public void close()
+			throws IOException {
+		writeLock.lock();
+		
+		try {
+			if (regions == null)
+				return;
+			
+			if (!readOnly) {
+				for (int i = 0; i < regions.length; ++i)
+					regions[i].force();
+			}
+			
+			regions = null;
+			channel.close();
+			channel = null;
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) != -1;
+	}
+	
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		if (c == null)
+			return false;
+		
+		Iterator<?> it = c.iterator();
+		
+		while (it.hasNext()) {
+			if (!contains(it.next()))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Writes any changes made to this MappedArray back to the file. This has no effect on a read-only MappedArray.
+	 * @throws IllegalStateException Thrown if this MappedArray is closed.
+	 * @since JDK-21
+	 */
+	public void force()
+			throws IllegalStateException {
+		readLock.lock();
+		
+		try {
+			if (regions == null)
+				throw new IllegalStateException("Cannot force a closed MappedArray.");
+			
+			if (!readOnly) {
+				for (int i = 0; i < regions.length; ++i)
+					regions[i].force();
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (o == null)
+			return -1;
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < size; ++i) {
+				if (o.equals(get(i)))
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Returns true if this MappedArray has been closed.
+	 * @return True if this is closed.
+	 * @since JDK-21
+	 */
+	public boolean isClosed() {
+		readLock.lock();
+		
+		try {
+			return regions == null;
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns true if this MappedArray was mapped read-only.
+	 * @return True if this is read-only.
+	 * @since JDK-21
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+	
+	/**
+	 * Returns an Iterator for this MappedArray. The Iterator reads each element from the mapping as it is returned,
+	 * rather than copying this MappedArray.
+	 * @return An Iterator for this.
+	 * @since JDK-21
+	 */
+	@Override
+	public Iterator<?> iterator() {
+		return new Iterator<Object>() {
+			
+			private int index = 0;
+			
+			@Override
+			public boolean hasNext() {
+				return index < size;
+			}
+			
+			@Override
+			public Object next() {
+				if (index >= size)
+					throw new NoSuchElementException();
+				
+				return get(index++);
+			}
+		
+		};
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (o == null)
+			return -1;
+		
+		readLock.lock();
+		
+		try {
+			for (int i = size - 1; i >= 0; --i) {
+				if (o.equals(get(i)))
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Returns the byte order used to read and write the elements of this MappedArray.
+	 * @return The byte order of this.
+	 * @since JDK-21
+	 */
+	public ByteOrder order() {
+		return order;
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T[] toArray(T[] a) {
+		Object[] copy = new Object[size];
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < size; ++i)
+				copy[i] = get(i);
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		if (a.length >= copy.length) {
+			for (int i = 0; i < copy.length; ++i)
+				a[i] = (T)copy[i];
+			
+			return a;
+		}
+		
+		T[] ret = (T[])Arrays.copyOf(copy, copy.length, a.getClass());
+		
+		return ret;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < size; ++i) {
+				if (i > 0)
+					ret.append(' ');
+				
+				ret.append(get(i));
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret.toString();
+	}
+
+}
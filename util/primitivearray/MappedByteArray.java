@@ -0,0 +1,239 @@
+package babs.mindforge.util.primitivearray;
+
+import java.io.IOException;
+
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+
+/**
+ * MappedByteArray class is a PrimitiveArray of byte values backed by a memory-mapped file. Values are read from and
+ * written to the mapping directly in the byte order specified when the file is mapped. MappedByteArray extends
+ * MappedArray and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see MappedArray
+ * @see ByteArray
+ * @since JDK-21
+ */
+public class MappedByteArray extends MappedArray {
+	
+	/**
+	 * The base 2 logarithm of {@link Byte#BYTES}.
+	 */
+	private static final int SHIFT = 0;
+	
+	/**
+	 * Constructor that maps the specified file as a MappedByteArray.
+	 * @param path The path of the file to map.
+	 * @param mode The map mode.
+	 * @param order The byte order of the file.
+	 * @param size The number of elements, or -1 to use the size of the file.
+	 * @throws IOException Thrown if the file cannot be opened or mapped.
+	 * @since JDK-21
+	 */
+	private MappedByteArray(Path path, MapMode mode, ByteOrder order, int size)
+			throws IOException {
+		super(path, Byte.BYTES, mode, order, size);
+	}
+	
+	/**
+	 * Creates or resizes the specified file to hold the specified number of byte values and maps it read/write as a
+	 * MappedByteArray.
+	 * @param path The path of the file to map.
+	 * @param size The number of byte values.
+	 * @param order The byte order of the file.
+	 * @return A MappedByteArray backed by the file.
+	 * @throws IOException Thrown if the file cannot be created or mapped.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @throws NullPointerException Thrown if path or order is null.
+	 * @since JDK-21
+	 */
+	public static MappedByteArray create(Path path, int size, ByteOrder order)
+			throws IOException, NegativeArraySizeException, NullPointerException {
+		if (size < 0)
+			throw new NegativeArraySizeException("Cannot create a MappedByteArray with a negative size.");
+		
+		return new MappedByteArray(path, MapMode.READ_WRITE, order, size);
+	}
+	
+	/**
+	 * Maps the specified file of byte values as a MappedByteArray. The size of the file must be evenly divisible by
+	 * {@link Byte#BYTES}.
+	 * @param path The path of the file to map.
+	 * @param mode The map mode, either {@link MapMode#READ_ONLY} or {@link MapMode#READ_WRITE}.
+	 * @param order The byte order of the file.
+	 * @return A MappedByteArray backed by the file.
+	 * @throws IllegalArgumentException Thrown if mode is not supported or if the file size is incompatible with byte
+	 * size.
+	 * @throws IOException Thrown if the file cannot be opened or mapped.
+	 * @throws NullPointerException Thrown if path, mode or order is null.
+	 * @since JDK-21
+	 */
+	public static MappedByteArray map(Path path, MapMode mode, ByteOrder order)
+			throws IllegalArgumentException, IOException, NullPointerException {
+		return new MappedByteArray(path, mode, order, -1);
+	}
+	
+	@Override
+	public Byte get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getByte(index);
+	}
+	
+	/**
+	 * Returns the byte value at the specified index without boxing.
+	 * @param index The index of the value to return.
+	 * @return The byte value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws IllegalStateException Thrown if this MappedByteArray is closed.
+	 * @since JDK-21
+	 */
+	public byte getByte(int index)
+			throws ArrayIndexOutOfBoundsException, IllegalStateException {
+		checkIndex(index, "Cannot get value due to index out-of-bounds.");
+		
+		readLock.lock();
+		
+		try {
+			return region(index, SHIFT).get(offset(index, SHIFT));
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (o == null || !(o instanceof Byte))
+			return -1;
+		
+		byte v = ((Byte)o).byteValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < size; ++i) {
+				if (region(i, SHIFT).get(offset(i, SHIFT)) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (o == null || !(o instanceof Byte))
+			return -1;
+		
+		byte v = ((Byte)o).byteValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = size - 1; i >= 0; --i) {
+				if (region(i, SHIFT).get(offset(i, SHIFT)) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set MappedByteArray value to a null value.");
+		
+		if (!(o instanceof Byte))
+			throw new IllegalArgumentException("Cannot set MappedByteArray value to a non-Byte object.");
+		
+		setByte(index, (Byte)o);
+	}
+	
+	/**
+	 * Sets the byte value at the specified index without boxing.
+	 * @param index The index to set.
+	 * @param value The byte value to set at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws IllegalStateException Thrown if this MappedByteArray is closed.
+	 * @throws UnsupportedOperationException Thrown if this MappedByteArray is read-only.
+	 * @since JDK-21
+	 */
+	public void setByte(int index, byte value)
+			throws ArrayIndexOutOfBoundsException, IllegalStateException, UnsupportedOperationException {
+		checkIndex(index, "Cannot set value due to index out-of-bounds.");
+		checkWritable();
+		
+		writeLock.lock();
+		
+		try {
+			region(index, SHIFT).put(offset(index, SHIFT), value);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public ByteArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > size || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		return new ByteArray(read(start, end - start));
+	}
+	
+	/**
+	 * Returns a copy of the byte values in this MappedByteArray.
+	 * @return A byte array containing the values of this.
+	 * @throws IllegalStateException Thrown if this MappedByteArray is closed.
+	 * @since JDK-21
+	 */
+	public byte[] toArray()
+			throws IllegalStateException {
+		return read(0, size);
+	}
+	
+	/**
+	 * Bulk reads the specified number of byte values starting at the specified index, one region at a time.
+	 * @param start The index to start at.
+	 * @param length The number of values to read.
+	 * @return The byte values read.
+	 * @since JDK-21
+	 */
+	private byte[] read(int start, int length) {
+		byte[] ret = new byte[length];
+		
+		readLock.lock();
+		
+		try {
+			int i = 0;
+			
+			while (i < length) {
+				MappedByteBuffer region = region(start + i, SHIFT);
+				int offset = offset(start + i, SHIFT);
+				int n = Math.min(length - i, (region.limit() - offset) >> SHIFT);
+				
+				region.slice(offset, n << SHIFT).get(ret, i, n);
+				i += n;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret;
+	}
+
+}
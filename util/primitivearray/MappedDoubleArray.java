@@ -0,0 +1,239 @@
+package babs.mindforge.util.primitivearray;
+
+import java.io.IOException;
+
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+
+/**
+ * MappedDoubleArray class is a PrimitiveArray of double values backed by a memory-mapped file. Values are read from 
+ * and written to the mapping directly in the byte order specified when the file is mapped. MappedDoubleArray 
+ * extends MappedArray and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see MappedArray
+ * @see DoubleArray
+ * @since JDK-21
+ */
+public class MappedDoubleArray extends MappedArray {
+	
+	/**
+	 * The base 2 logarithm of {@link Double#BYTES}.
+	 */
+	private static final int SHIFT = 3;
+	
+	/**
+	 * Constructor that maps the specified file as a MappedDoubleArray.
+	 * @param path The path of the file to map.
+	 * @param mode The map mode.
+	 * @param order The byte order of the file.
+	 * @param size The number of elements, or -1 to use the size of the file.
+	 * @throws IOException Thrown if the file cannot be opened or mapped.
+	 * @since JDK-21
+	 */
+	private MappedDoubleArray(Path path, MapMode mode, ByteOrder order, int size)
+			throws IOException {
+		super(path, Double.BYTES, mode, order, size);
+	}
+	
+	/**
+	 * Creates or resizes the specified file to hold the specified number of double values and maps it read/write as a
+	 * MappedDoubleArray.
+	 * @param path The path of the file to map.
+	 * @param size The number of double values.
+	 * @param order The byte order of the file.
+	 * @return A MappedDoubleArray backed by the file.
+	 * @throws IOException Thrown if the file cannot be created or mapped.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @throws NullPointerException Thrown if path or order is null.
+	 * @since JDK-21
+	 */
+	public static MappedDoubleArray create(Path path, int size, ByteOrder order)
+			throws IOException, NegativeArraySizeException, NullPointerException {
+		if (size < 0)
+			throw new NegativeArraySizeException("Cannot create a MappedDoubleArray with a negative size.");
+		
+		return new MappedDoubleArray(path, MapMode.READ_WRITE, order, size);
+	}
+	
+	/**
+	 * Maps the specified file of double values as a MappedDoubleArray. The size of the file must be evenly divisible
+	 * by {@link Double#BYTES}.
+	 * @param path The path of the file to map.
+	 * @param mode The map mode, either {@link MapMode#READ_ONLY} or {@link MapMode#READ_WRITE}.
+	 * @param order The byte order of the file.
+	 * @return A MappedDoubleArray backed by the file.
+	 * @throws IllegalArgumentException Thrown if mode is not supported or if the file size is incompatible with double
+	 * size.
+	 * @throws IOException Thrown if the file cannot be opened or mapped.
+	 * @throws NullPointerException Thrown if path, mode or order is null.
+	 * @since JDK-21
+	 */
+	public static MappedDoubleArray map(Path path, MapMode mode, ByteOrder order)
+			throws IllegalArgumentException, IOException, NullPointerException {
+		return new MappedDoubleArray(path, mode, order, -1);
+	}
+	
+	@Override
+	public Double get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getDouble(index);
+	}
+	
+	/**
+	 * Returns the double value at the specified index without boxing.
+	 * @param index The index of the value to return.
+	 * @return The double value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws IllegalStateException Thrown if this MappedDoubleArray is closed.
+	 * @since JDK-21
+	 */
+	public double getDouble(int index)
+			throws ArrayIndexOutOfBoundsException, IllegalStateException {
+		checkIndex(index, "Cannot get value due to index out-of-bounds.");
+		
+		readLock.lock();
+		
+		try {
+			return region(index, SHIFT).getDouble(offset(index, SHIFT));
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (o == null || !(o instanceof Double))
+			return -1;
+		
+		double v = ((Double)o).doubleValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < size; ++i) {
+				if (region(i, SHIFT).getDouble(offset(i, SHIFT)) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (o == null || !(o instanceof Double))
+			return -1;
+		
+		double v = ((Double)o).doubleValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = size - 1; i >= 0; --i) {
+				if (region(i, SHIFT).getDouble(offset(i, SHIFT)) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set MappedDoubleArray value to a null value.");
+		
+		if (!(o instanceof Double))
+			throw new IllegalArgumentException("Cannot set MappedDoubleArray value to a non-Double object.");
+		
+		setDouble(index, (Double)o);
+	}
+	
+	/**
+	 * Sets the double value at the specified index without boxing.
+	 * @param index The index to set.
+	 * @param value The double value to set at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws IllegalStateException Thrown if this MappedDoubleArray is closed.
+	 * @throws UnsupportedOperationException Thrown if this MappedDoubleArray is read-only.
+	 * @since JDK-21
+	 */
+	public void setDouble(int index, double value)
+			throws ArrayIndexOutOfBoundsException, IllegalStateException, UnsupportedOperationException {
+		checkIndex(index, "Cannot set value due to index out-of-bounds.");
+		checkWritable();
+		
+		writeLock.lock();
+		
+		try {
+			region(index, SHIFT).putDouble(offset(index, SHIFT), value);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public DoubleArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > size || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		return new DoubleArray(read(start, end - start));
+	}
+	
+	/**
+	 * Returns a copy of the double values in this MappedDoubleArray.
+	 * @return A double array containing the values of this.
+	 * @throws IllegalStateException Thrown if this MappedDoubleArray is closed.
+	 * @since JDK-21
+	 */
+	public double[] toArray()
+			throws IllegalStateException {
+		return read(0, size);
+	}
+	
+	/**
+	 * Bulk reads the specified number of double values starting at the specified index, one region at a time.
+	 * @param start The index to start at.
+	 * @param length The number of values to read.
+	 * @return The double values read.
+	 * @since JDK-21
+	 */
+	private double[] read(int start, int length) {
+		double[] ret = new double[length];
+		
+		readLock.lock();
+		
+		try {
+			int i = 0;
+			
+			while (i < length) {
+				MappedByteBuffer region = region(start + i, SHIFT);
+				int offset = offset(start + i, SHIFT);
+				int n = Math.min(length - i, (region.limit() - offset) >> SHIFT);
+				
+				region.slice(offset, n << SHIFT).order(order).asDoubleBuffer().get(ret, i, n);
+				i += n;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret;
+	}
+
+}
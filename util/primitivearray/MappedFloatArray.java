@@ -0,0 +1,239 @@
+package babs.mindforge.util.primitivearray;
+
+import java.io.IOException;
+
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+
+/**
+ * MappedFloatArray class is a PrimitiveArray of float values backed by a memory-mapped file. Values are read from and
+ * written to the mapping directly in the byte order specified when the file is mapped. MappedFloatArray extends
+ * MappedArray and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see MappedArray
+ * @see FloatArray
+ * @since JDK-21
+ */
+public class MappedFloatArray extends MappedArray {
+	
+	/**
+	 * The base 2 logarithm of {@link Float#BYTES}.
+	 */
+	private static final int SHIFT = 2;
+	
+	/**
+	 * Constructor that maps the specified file as a MappedFloatArray.
+	 * @param path The path of the file to map.
+	 * @param mode The map mode.
+	 * @param order The byte order of the file.
+	 * @param size The number of elements, or -1 to use the size of the file.
+	 * @throws IOException Thrown if the file cannot be opened or mapped.
+	 * @since JDK-21
+	 */
+	private MappedFloatArray(Path path, MapMode mode, ByteOrder order, int size)
+			throws IOException {
+		super(path, Float.BYTES, mode, order, size);
+	}
+	
+	/**
+	 * Creates or resizes the specified file to hold the specified number of float values and maps it read/write as a
+	 * MappedFloatArray.
+	 * @param path The path of the file to map.
+	 * @param size The number of float values.
+	 * @param order The byte order of the file.
+	 * @return A MappedFloatArray backed by the file.
+	 * @throws IOException Thrown if the file cannot be created or mapped.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @throws NullPointerException Thrown if path or order is null.
+	 * @since JDK-21
+	 */
+	public static MappedFloatArray create(Path path, int size, ByteOrder order)
+			throws IOException, NegativeArraySizeException, NullPointerException {
+		if (size < 0)
+			throw new NegativeArraySizeException("Cannot create a MappedFloatArray with a negative size.");
+		
+		return new MappedFloatArray(path, MapMode.READ_WRITE, order, size);
+	}
+	
+	/**
+	 * Maps the specified file of float values as a MappedFloatArray. The size of the file must be evenly divisible by
+	 * {@link Float#BYTES}.
+	 * @param path The path of the file to map.
+	 * @param mode The map mode, either {@link MapMode#READ_ONLY} or {@link MapMode#READ_WRITE}.
+	 * @param order The byte order of the file.
+	 * @return A MappedFloatArray backed by the file.
+	 * @throws IllegalArgumentException Thrown if mode is not supported or if the file size is incompatible with float
+	 * size.
+	 * @throws IOException Thrown if the file cannot be opened or mapped.
+	 * @throws NullPointerException Thrown if path, mode or order is null.
+	 * @since JDK-21
+	 */
+	public static MappedFloatArray map(Path path, MapMode mode, ByteOrder order)
+			throws IllegalArgumentException, IOException, NullPointerException {
+		return new MappedFloatArray(path, mode, order, -1);
+	}
+	
+	@Override
+	public Float get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getFloat(index);
+	}
+	
+	/**
+	 * Returns the float value at the specified index without boxing.
+	 * @param index The index of the value to return.
+	 * @return The float value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws IllegalStateException Thrown if this MappedFloatArray is closed.
+	 * @since JDK-21
+	 */
+	public float getFloat(int index)
+			throws ArrayIndexOutOfBoundsException, IllegalStateException {
+		checkIndex(index, "Cannot get value due to index out-of-bounds.");
+		
+		readLock.lock();
+		
+		try {
+			return region(index, SHIFT).getFloat(offset(index, SHIFT));
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (o == null || !(o instanceof Float))
+			return -1;
+		
+		float v = ((Float)o).floatValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < size; ++i) {
+				if (region(i, SHIFT).getFloat(offset(i, SHIFT)) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (o == null || !(o instanceof Float))
+			return -1;
+		
+		float v = ((Float)o).floatValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = size - 1; i >= 0; --i) {
+				if (region(i, SHIFT).getFloat(offset(i, SHIFT)) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set MappedFloatArray value to a null value.");
+		
+		if (!(o instanceof Float))
+			throw new IllegalArgumentException("Cannot set MappedFloatArray value to a non-Float object.");
+		
+		setFloat(index, (Float)o);
+	}
+	
+	/**
+	 * Sets the float value at the specified index without boxing.
+	 * @param index The index to set.
+	 * @param value The float value to set at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws IllegalStateException Thrown if this MappedFloatArray is closed.
+	 * @throws UnsupportedOperationException Thrown if this MappedFloatArray is read-only.
+	 * @since JDK-21
+	 */
+	public void setFloat(int index, float value)
+			throws ArrayIndexOutOfBoundsException, IllegalStateException, UnsupportedOperationException {
+		checkIndex(index, "Cannot set value due to index out-of-bounds.");
+		checkWritable();
+		
+		writeLock.lock();
+		
+		try {
+			region(index, SHIFT).putFloat(offset(index, SHIFT), value);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public FloatArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > size || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		return new FloatArray(read(start, end - start));
+	}
+	
+	/**
+	 * Returns a copy of the float values in this MappedFloatArray.
+	 * @return A float array containing the values of this.
+	 * @throws IllegalStateException Thrown if this MappedFloatArray is closed.
+	 * @since JDK-21
+	 */
+	public float[] toArray()
+			throws IllegalStateException {
+		return read(0, size);
+	}
+	
+	/**
+	 * Bulk reads the specified number of float values starting at the specified index, one region at a time.
+	 * @param start The index to start at.
+	 * @param length The number of values to read.
+	 * @return The float values read.
+	 * @since JDK-21
+	 */
+	private float[] read(int start, int length) {
+		float[] ret = new float[length];
+		
+		readLock.lock();
+		
+		try {
+			int i = 0;
+			
+			while (i < length) {
+				MappedByteBuffer region = region(start + i, SHIFT);
+				int offset = offset(start + i, SHIFT);
+				int n = Math.min(length - i, (region.limit() - offset) >> SHIFT);
+				
+				region.slice(offset, n << SHIFT).order(order).asFloatBuffer().get(ret, i, n);
+				i += n;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret;
+	}
+
+}
@@ -0,0 +1,239 @@
+package babs.mindforge.util.primitivearray;
+
+import java.io.IOException;
+
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+
+/**
+ * MappedLongArray class is a PrimitiveArray of long values backed by a memory-mapped file. Values are read from and
+ * written to the mapping directly in the byte order specified when the file is mapped. MappedLongArray extends
+ * MappedArray and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see MappedArray
+ * @see LongArray
+ * @since JDK-21
+ */
+public class MappedLongArray extends MappedArray {
+	
+	/**
+	 * The base 2 logarithm of {@link Long#BYTES}.
+	 */
+	private static final int SHIFT = 3;
+	
+	/**
+	 * Constructor that maps the specified file as a MappedLongArray.
+	 * @param path The path of the file to map.
+	 * @param mode The map mode.
+	 * @param order The byte order of the file.
+	 * @param size The number of elements, or -1 to use the size of the file.
+	 * @throws IOException Thrown if the file cannot be opened or mapped.
+	 * @since JDK-21
+	 */
+	private MappedLongArray(Path path, MapMode mode, ByteOrder order, int size)
+			throws IOException {
+		super(path, Long.BYTES, mode, order, size);
+	}
+	
+	/**
+	 * Creates or resizes the specified file to hold the specified number of long values and maps it read/write as a
+	 * MappedLongArray.
+	 * @param path The path of the file to map.
+	 * @param size The number of long values.
+	 * @param order The byte order of the file.
+	 * @return A MappedLongArray backed by the file.
+	 * @throws IOException Thrown if the file cannot be created or mapped.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @throws NullPointerException Thrown if path or order is null.
+	 * @since JDK-21
+	 */
+	public static MappedLongArray create(Path path, int size, ByteOrder order)
+			throws IOException, NegativeArraySizeException, NullPointerException {
+		if (size < 0)
+			throw new NegativeArraySizeException("Cannot create a MappedLongArray with a negative size.");
+		
+		return new MappedLongArray(path, MapMode.READ_WRITE, order, size);
+	}
+	
+	/**
+	 * Maps the specified file of long values as a MappedLongArray. The size of the file must be evenly divisible by
+	 * {@link Long#BYTES}.
+	 * @param path The path of the file to map.
+	 * @param mode The map mode, either {@link MapMode#READ_ONLY} or {@link MapMode#READ_WRITE}.
+	 * @param order The byte order of the file.
+	 * @return A MappedLongArray backed by the file.
+	 * @throws IllegalArgumentException Thrown if mode is not supported or if the file size is incompatible with long
+	 * size.
+	 * @throws IOException Thrown if the file cannot be opened or mapped.
+	 * @throws NullPointerException Thrown if path, mode or order is null.
+	 * @since JDK-21
+	 */
+	public static MappedLongArray map(Path path, MapMode mode, ByteOrder order)
+			throws IllegalArgumentException, IOException, NullPointerException {
+		return new MappedLongArray(path, mode, order, -1);
+	}
+	
+	@Override
+	public Long get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getLong(index);
+	}
+	
+	/**
+	 * Returns the long value at the specified index without boxing.
+	 * @param index The index of the value to return.
+	 * @return The long value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws IllegalStateException Thrown if this MappedLongArray is closed.
+	 * @since JDK-21
+	 */
+	public long getLong(int index)
+			throws ArrayIndexOutOfBoundsException, IllegalStateException {
+		checkIndex(index, "Cannot get value due to index out-of-bounds.");
+		
+		readLock.lock();
+		
+		try {
+			return region(index, SHIFT).getLong(offset(index, SHIFT));
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (o == null || !(o instanceof Long))
+			return -1;
+		
+		long v = ((Long)o).longValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < size; ++i) {
+				if (region(i, SHIFT).getLong(offset(i, SHIFT)) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (o == null || !(o instanceof Long))
+			return -1;
+		
+		long v = ((Long)o).longValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = size - 1; i >= 0; --i) {
+				if (region(i, SHIFT).getLong(offset(i, SHIFT)) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set MappedLongArray value to a null value.");
+		
+		if (!(o instanceof Long))
+			throw new IllegalArgumentException("Cannot set MappedLongArray value to a non-Long object.");
+		
+		setLong(index, (Long)o);
+	}
+	
+	/**
+	 * Sets the long value at the specified index without boxing.
+	 * @param index The index to set.
+	 * @param value The long value to set at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws IllegalStateException Thrown if this MappedLongArray is closed.
+	 * @throws UnsupportedOperationException Thrown if this MappedLongArray is read-only.
+	 * @since JDK-21
+	 */
+	public void setLong(int index, long value)
+			throws ArrayIndexOutOfBoundsException, IllegalStateException, UnsupportedOperationException {
+		checkIndex(index, "Cannot set value due to index out-of-bounds.");
+		checkWritable();
+		
+		writeLock.lock();
+		
+		try {
+			region(index, SHIFT).putLong(offset(index, SHIFT), value);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public LongArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > size || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		return new LongArray(read(start, end - start));
+	}
+	
+	/**
+	 * Returns a copy of the long values in this MappedLongArray.
+	 * @return A long array containing the values of this.
+	 * @throws IllegalStateException Thrown if this MappedLongArray is closed.
+	 * @since JDK-21
+	 */
+	public long[] toArray()
+			throws IllegalStateException {
+		return read(0, size);
+	}
+	
+	/**
+	 * Bulk reads the specified number of long values starting at the specified index, one region at a time.
+	 * @param start The index to start at.
+	 * @param length The number of values to read.
+	 * @return The long values read.
+	 * @since JDK-21
+	 */
+	private long[] read(int start, int length) {
+		long[] ret = new long[length];
+		
+		readLock.lock();
+		
+		try {
+			int i = 0;
+			
+			while (i < length) {
+				MappedByteBuffer region = region(start + i, SHIFT);
+				int offset = offset(start + i, SHIFT);
+				int n = Math.min(length - i, (region.limit() - offset) >> SHIFT);
+				
+				region.slice(offset, n << SHIFT).order(order).asLongBuffer().get(ret, i, n);
+				i += n;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret;
+	}
+
+}
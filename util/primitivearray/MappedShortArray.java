@@ -0,0 +1,239 @@
+package babs.mindforge.util.primitivearray;
+
+import java.io.IOException;
+
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+
+/**
+ * MappedShortArray class is a PrimitiveArray of short values backed by a memory-mapped file. Values are read from and
+ * written to the mapping directly in the byte order specified when the file is mapped. MappedShortArray extends
+ * MappedArray and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see MappedArray
+ * @see ShortArray
+ * @since JDK-21
+ */
+public class MappedShortArray extends MappedArray {
+	
+	/**
+	 * The base 2 logarithm of {@link Short#BYTES}.
+	 */
+	private static final int SHIFT = 1;
+	
+	/**
+	 * Constructor that maps the specified file as a MappedShortArray.
+	 * @param path The path of the file to map.
+	 * @param mode The map mode.
+	 * @param order The byte order of the file.
+	 * @param size The number of elements, or -1 to use the size of the file.
+	 * @throws IOException Thrown if the file cannot be opened or mapped.
+	 * @since JDK-21
+	 */
+	private MappedShortArray(Path path, MapMode mode, ByteOrder order, int size)
+			throws IOException {
+		super(path, Short.BYTES, mode, order, size);
+	}
+	
+	/**
+	 * Creates or resizes the specified file to hold the specified number of short values and maps it read/write as a
+	 * MappedShortArray.
+	 * @param path The path of the file to map.
+	 * @param size The number of short values.
+	 * @param order The byte order of the file.
+	 * @return A MappedShortArray backed by the file.
+	 * @throws IOException Thrown if the file cannot be created or mapped.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @throws NullPointerException Thrown if path or order is null.
+	 * @since JDK-21
+	 */
+	public static MappedShortArray create(Path path, int size, ByteOrder order)
+			throws IOException, NegativeArraySizeException, NullPointerException {
+		if (size < 0)
+			throw new NegativeArraySizeException("Cannot create a MappedShortArray with a negative size.");
+		
+		return new MappedShortArray(path, MapMode.READ_WRITE, order, size);
+	}
+	
+	/**
+	 * Maps the specified file of short values as a MappedShortArray. The size of the file must be evenly divisible by
+	 * {@link Short#BYTES}.
+	 * @param path The path of the file to map.
+	 * @param mode The map mode, either {@link MapMode#READ_ONLY} or {@link MapMode#READ_WRITE}.
+	 * @param order The byte order of the file.
+	 * @return A MappedShortArray backed by the file.
+	 * @throws IllegalArgumentException Thrown if mode is not supported or if the file size is incompatible with short
+	 * size.
+	 * @throws IOException Thrown if the file cannot be opened or mapped.
+	 * @throws NullPointerException Thrown if path, mode or order is null.
+	 * @since JDK-21
+	 */
+	public static MappedShortArray map(Path path, MapMode mode, ByteOrder order)
+			throws IllegalArgumentException, IOException, NullPointerException {
+		return new MappedShortArray(path, mode, order, -1);
+	}
+	
+	@Override
+	public Short get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getShort(index);
+	}
+	
+	/**
+	 * Returns the short value at the specified index without boxing.
+	 * @param index The index of the value to return.
+	 * @return The short value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws IllegalStateException Thrown if this MappedShortArray is closed.
+	 * @since JDK-21
+	 */
+	public short getShort(int index)
+			throws ArrayIndexOutOfBoundsException, IllegalStateException {
+		checkIndex(index, "Cannot get value due to index out-of-bounds.");
+		
+		readLock.lock();
+		
+		try {
+			return region(index, SHIFT).getShort(offset(index, SHIFT));
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (o == null || !(o instanceof Short))
+			return -1;
+		
+		short v = ((Short)o).shortValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < size; ++i) {
+				if (region(i, SHIFT).getShort(offset(i, SHIFT)) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (o == null || !(o instanceof Short))
+			return -1;
+		
+		short v = ((Short)o).shortValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = size - 1; i >= 0; --i) {
+				if (region(i, SHIFT).getShort(offset(i, SHIFT)) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set MappedShortArray value to a null value.");
+		
+		if (!(o instanceof Short))
+			throw new IllegalArgumentException("Cannot set MappedShortArray value to a non-Short object.");
+		
+		setShort(index, (Short)o);
+	}
+	
+	/**
+	 * Sets the short value at the specified index without boxing.
+	 * @param index The index to set.
+	 * @param value The short value to set at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws IllegalStateException Thrown if this MappedShortArray is closed.
+	 * @throws UnsupportedOperationException Thrown if this MappedShortArray is read-only.
+	 * @since JDK-21
+	 */
+	public void setShort(int index, short value)
+			throws ArrayIndexOutOfBoundsException, IllegalStateException, UnsupportedOperationException {
+		checkIndex(index, "Cannot set value due to index out-of-bounds.");
+		checkWritable();
+		
+		writeLock.lock();
+		
+		try {
+			region(index, SHIFT).putShort(offset(index, SHIFT), value);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public ShortArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > size || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		return new ShortArray(read(start, end - start));
+	}
+	
+	/**
+	 * Returns a copy of the short values in this MappedShortArray.
+	 * @return A short array containing the values of this.
+	 * @throws IllegalStateException Thrown if this MappedShortArray is closed.
+	 * @since JDK-21
+	 */
+	public short[] toArray()
+			throws IllegalStateException {
+		return read(0, size);
+	}
+	
+	/**
+	 * Bulk reads the specified number of short values starting at the specified index, one region at a time.
+	 * @param start The index to start at.
+	 * @param length The number of values to read.
+	 * @return The short values read.
+	 * @since JDK-21
+	 */
+	private short[] read(int start, int length) {
+		short[] ret = new short[length];
+		
+		readLock.lock();
+		
+		try {
+			int i = 0;
+			
+			while (i < length) {
+				MappedByteBuffer region = region(start + i, SHIFT);
+				int offset = offset(start + i, SHIFT);
+				int n = Math.min(length - i, (region.limit() - offset) >> SHIFT);
+				
+				region.slice(offset, n << SHIFT).order(order).asShortBuffer().get(ret, i, n);
+				i += n;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret;
+	}
+
+}
@@ -0,0 +1,513 @@
+package babs.mindforge.util.primitivearray;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+import java.util.zip.CRC32C;
+
+/**
+ * PrimitiveArrays class provides static settings and helper methods shared by the PrimitiveArray classes. The
+ * parallel threshold controls when the parallel operations of the numeric PrimitiveArrays, such as
+ * {@link IntegerArray#parallelSort()}, split their work across the common fork-join pool instead of running on the
+ * calling thread.
+ * <p>
+ * The hash64 and crc32c methods hash the contents of primitive arrays as little-endian bytes, reading them 8 bytes at
+ * a time, so the same values give the same hash whichever array type holds them. Floating-point values are hashed by
+ * their {@link Double#doubleToLongBits(double)} or {@link Float#floatToIntBits(float)} bits, so all NaNs hash alike.
+ * hash64 is the XXH64 algorithm with a seed of 0, which is fast enough to key caches and deduplicate large arrays, but
+ * is not a cryptographic hash.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see PrimitiveArray
+ * @since JDK-21
+ */
+public final class PrimitiveArrays {
+	
+	/**
+	 * The default minimum number of elements a PrimitiveArray must have for its parallel operations to run in
+	 * parallel.
+	 */
+	public static final int DEF_PARALLEL_THRESHOLD = 1 << 13;
+	
+	/**
+	 * The number of 8-byte lanes hashed at a time when an array is packed into lanes.
+	 */
+	private static final int BLOCK_SIZE = 1 << 10;
+	
+	/**
+	 * VarHandle used to read 8 little-endian bytes of a byte array as a long.
+	 */
+	private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class,
+			ByteOrder.LITTLE_ENDIAN);
+	
+	/**
+	 * XXH64 prime constants.
+	 */
+	private static final long P1 = 0x9E3779B185EBCA87L, P2 = 0xC2B2AE3D27D4EB4FL, P3 = 0x165667B19E3779F9L,
+			P4 = 0x85EBCA77C2B2AE63L, P5 = 0x27D4EB2F165667C5L;
+	
+	/**
+	 * The minimum number of elements a PrimitiveArray must have for its parallel operations to run in parallel.
+	 */
+	private static volatile int parallelThreshold = DEF_PARALLEL_THRESHOLD;
+	
+	/**
+	 * Lanes interface is used to pack a range of an array into 8-byte little-endian lanes.
+	 */
+	@FunctionalInterface
+	private interface Lanes {
+		
+		/**
+		 * Packs the specified number of lanes, starting at the specified lane, into the buffer.
+		 * @param start The index of the first lane to pack.
+		 * @param buffer The buffer to pack into.
+		 * @param count The number of lanes to pack.
+		 */
+		void pack(int start, long[] buffer, int count);
+	
+	}
+	
+	/**
+	 * PrimitiveArrays cannot be instantiated.
+	 */
+	private PrimitiveArrays() {}
+	
+	/**
+	 * Returns the CRC-32C checksum of the specified boolean array, with each value as one byte of 0 or 1.
+	 * @param array The array to checksum.
+	 * @return The CRC-32C of array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public static long crc32c(boolean[] array)
+			throws NullPointerException {
+		int lanes = array.length >>> 3;
+		
+		return crc32c(lanes, (start, buffer, count) -> {
+			for (int i = 0; i < count; ++i)
+				buffer[i] = packBooleans(array, (start + i) << 3, 8);
+		}, packBooleans(array, lanes << 3, array.length & 7), array.length & 7);
+	}
+	
+	/**
+	 * Returns the CRC-32C checksum of the specified byte array.
+	 * @param array The array to checksum.
+	 * @return The CRC-32C of array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public static long crc32c(byte[] array)
+			throws NullPointerException {
+		CRC32C crc = new CRC32C();
+		crc.update(array);
+		return crc.getValue();
+	}
+	
+	/**
+	 * Returns the CRC-32C checksum of the little-endian bytes of the specified double array.
+	 * @param array The array to checksum.
+	 * @return The CRC-32C of array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public static long crc32c(double[] array)
+			throws NullPointerException {
+		return crc32c(array.length, (start, buffer, count) -> {
+			for (int i = 0; i < count; ++i)
+				buffer[i] = Double.doubleToLongBits(array[start + i]);
+		}, 0L, 0);
+	}
+	
+	/**
+	 * Returns the CRC-32C checksum of the little-endian bytes of the specified float array.
+	 * @param array The array to checksum.
+	 * @return The CRC-32C of array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public static long crc32c(float[] array)
+			throws NullPointerException {
+		int lanes = array.length >>> 1;
+		long tail = (array.length & 1) == 0 ? 0L : Float.floatToIntBits(array[array.length - 1]) & 0xFFFFFFFFL;
+		
+		return crc32c(lanes, (start, buffer, count) -> {
+			for (int i = 0; i < count; ++i) {
+				int j = (start + i) << 1;
+				buffer[i] = (Float.floatToIntBits(array[j]) & 0xFFFFFFFFL)
+						| ((long)Float.floatToIntBits(array[j + 1]) << 32);
+			}
+		}, tail, (array.length & 1) << 2);
+	}
+	
+	/**
+	 * Returns the CRC-32C checksum of the little-endian bytes of the specified int array.
+	 * @param array The array to checksum.
+	 * @return The CRC-32C of array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public static long crc32c(int[] array)
+			throws NullPointerException {
+		int lanes = array.length >>> 1;
+		long tail = (array.length & 1) == 0 ? 0L : array[array.length - 1] & 0xFFFFFFFFL;
+		
+		return crc32c(lanes, (start, buffer, count) -> {
+			for (int i = 0; i < count; ++i) {
+				int j = (start + i) << 1;
+				buffer[i] = (array[j] & 0xFFFFFFFFL) | ((long)array[j + 1] << 32);
+			}
+		}, tail, (array.length & 1) << 2);
+	}
+	
+	/**
+	 * Returns the CRC-32C checksum of the little-endian bytes of the specified long array.
+	 * @param array The array to checksum.
+	 * @return The CRC-32C of array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public static long crc32c(long[] array)
+			throws NullPointerException {
+		return crc32c(array.length, (start, buffer, count) -> System.arraycopy(array, start, buffer, 0, count), 0L,
+				0);
+	}
+	
+	/**
+	 * Returns the CRC-32C checksum of the little-endian bytes of the specified short array.
+	 * @param array The array to checksum.
+	 * @return The CRC-32C of array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public static long crc32c(short[] array)
+			throws NullPointerException {
+		int lanes = array.length >>> 2;
+		
+		return crc32c(lanes, (start, buffer, count) -> {
+			for (int i = 0; i < count; ++i)
+				buffer[i] = packShorts(array, (start + i) << 2, 4);
+		}, packShorts(array, lanes << 2, array.length & 3), (array.length & 3) << 1);
+	}
+	
+	/**
+	 * Returns the 64-bit XXH64 hash of the specified boolean array, with each value as one byte of 0 or 1.
+	 * @param array The array to hash.
+	 * @return The hash of array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public static long hash64(boolean[] array)
+			throws NullPointerException {
+		int lanes = array.length >>> 3;
+		
+		return hash64(array.length, lanes, (start, buffer, count) -> {
+			for (int i = 0; i < count; ++i)
+				buffer[i] = packBooleans(array, (start + i) << 3, 8);
+		}, packBooleans(array, lanes << 3, array.length & 7), array.length & 7);
+	}
+	
+	/**
+	 * Returns the 64-bit XXH64 hash of the specified byte array.
+	 * @param array The array to hash.
+	 * @return The hash of array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public static long hash64(byte[] array)
+			throws NullPointerException {
+		int lanes = array.length >>> 3;
+		long tail = 0L;
+		
+		for (int i = array.length - 1; i >= lanes << 3; --i)
+			tail = (tail << 8) | (array[i] & 0xFFL);
+		
+		return hash64(array.length, lanes, (start, buffer, count) -> {
+			for (int i = 0; i < count; ++i)
+				buffer[i] = (long)LONG_LE.get(array, (start + i) << 3);
+		}, tail, array.length & 7);
+	}
+	
+	/**
+	 * Returns the 64-bit XXH64 hash of the little-endian bytes of the specified double array.
+	 * @param array The array to hash.
+	 * @return The hash of array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public static long hash64(double[] array)
+			throws NullPointerException {
+		return hash64((long)array.length * Double.BYTES, array.length, (start, buffer, count) -> {
+			for (int i = 0; i < count; ++i)
+				buffer[i] = Double.doubleToLongBits(array[start + i]);
+		}, 0L, 0);
+	}
+	
+	/**
+	 * Returns the 64-bit XXH64 hash of the little-endian bytes of the specified float array.
+	 * @param array The array to hash.
+	 * @return The hash of array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public static long hash64(float[] array)
+			throws NullPointerException {
+		long tail = (array.length & 1) == 0 ? 0L : Float.floatToIntBits(array[array.length - 1]) & 0xFFFFFFFFL;
+		
+		return hash64((long)array.length * Float.BYTES, array.length >>> 1, (start, buffer, count) -> {
+			for (int i = 0; i < count; ++i) {
+				int j = (start + i) << 1;
+				buffer[i] = (Float.floatToIntBits(array[j]) & 0xFFFFFFFFL)
+						| ((long)Float.floatToIntBits(array[j + 1]) << 32);
+			}
+		}, tail, (array.length & 1) << 2);
+	}
+	
+	/**
+	 * Returns the 64-bit XXH64 hash of the little-endian bytes of the specified int array.
+	 * @param array The array to hash.
+	 * @return The hash of array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public static long hash64(int[] array)
+			throws NullPointerException {
+		long tail = (array.length & 1) == 0 ? 0L : array[array.length - 1] & 0xFFFFFFFFL;
+		
+		return hash64((long)array.length * Integer.BYTES, array.length >>> 1, (start, buffer, count) -> {
+			for (int i = 0; i < count; ++i) {
+				int j = (start + i) << 1;
+				buffer[i] = (array[j] & 0xFFFFFFFFL) | ((long)array[j + 1] << 32);
+			}
+		}, tail, (array.length & 1) << 2);
+	}
+	
+	/**
+	 * Returns the 64-bit XXH64 hash of the little-endian bytes of the specified long array.
+	 * @param array The array to hash.
+	 * @return The hash of array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public static long hash64(long[] array)
+			throws NullPointerException {
+		return hash64((long)array.length * Long.BYTES, array.length,
+				(start, buffer, count) -> System.arraycopy(array, start, buffer, 0, count), 0L, 0);
+	}
+	
+	/**
+	 * Returns the 64-bit XXH64 hash of the little-endian bytes of the specified short array.
+	 * @param array The array to hash.
+	 * @return The hash of array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public static long hash64(short[] array)
+			throws NullPointerException {
+		int lanes = array.length >>> 2;
+		
+		return hash64((long)array.length * Short.BYTES, lanes, (start, buffer, count) -> {
+			for (int i = 0; i < count; ++i)
+				buffer[i] = packShorts(array, (start + i) << 2, 4);
+		}, packShorts(array, lanes << 2, array.length & 3), (array.length & 3) << 1);
+	}
+	
+	/**
+	 * Returns the minimum number of elements a PrimitiveArray must have for its parallel operations to run in
+	 * parallel. Smaller PrimitiveArrays run their parallel operations sequentially on the calling thread.
+	 * @return The parallel threshold.
+	 * @since JDK-21
+	 */
+	public static int parallelThreshold() {
+		return parallelThreshold;
+	}
+	
+	/**
+	 * Sets the minimum number of elements a PrimitiveArray must have for its parallel operations to run in parallel.
+	 * @param threshold The new parallel threshold.
+	 * @throws IllegalArgumentException Thrown if threshold is less than 1.
+	 * @since JDK-21
+	 */
+	public static void setParallelThreshold(int threshold)
+			throws IllegalArgumentException {
+		if (threshold < 1)
+			throw new IllegalArgumentException("Cannot set the parallel threshold to less than 1.");
+		
+		parallelThreshold = threshold;
+	}
+	
+	/**
+	 * Returns the CRC-32C checksum of the specified number of lanes followed by the low tailBytes bytes of tail. The
+	 * lanes are packed a block at a time and passed to the intrinsic CRC32C through a little-endian buffer.
+	 * @param lanes The number of whole lanes.
+	 * @param source Packs the lanes.
+	 * @param tail The trailing bytes that do not fill a lane.
+	 * @param tailBytes The number of trailing bytes, from 0 to 7.
+	 * @return The CRC-32C of the bytes.
+	 * @since JDK-21
+	 */
+	private static long crc32c(int lanes, Lanes source, long tail, int tailBytes) {
+		CRC32C crc = new CRC32C();
+		long[] buffer = new long[Math.min(BLOCK_SIZE, lanes)];
+		ByteBuffer bytes = ByteBuffer.allocate(buffer.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		LongBuffer view = bytes.asLongBuffer();
+		
+		for (int start = 0; start < lanes; start += BLOCK_SIZE) {
+			int count = Math.min(BLOCK_SIZE, lanes - start);
+			
+			source.pack(start, buffer, count);
+			view.clear();
+			view.put(buffer, 0, count);
+			bytes.clear().limit(count * Long.BYTES);
+			crc.update(bytes);
+		}
+		
+		for (int i = 0; i < tailBytes; ++i)
+			crc.update((int)(tail >>> (i << 3)));
+		
+		return crc.getValue();
+	}
+	
+	/**
+	 * Returns the XXH64 hash of the specified number of lanes followed by the low tailBytes bytes of tail. The lanes
+	 * are packed a block at a time, and each block is hashed 4 lanes at a time in 4 independent accumulators.
+	 * @param length The total number of bytes.
+	 * @param lanes The number of whole lanes.
+	 * @param source Packs the lanes.
+	 * @param tail The trailing bytes that do not fill a lane.
+	 * @param tailBytes The number of trailing bytes, from 0 to 7.
+	 * @return The hash of the bytes.
+	 * @since JDK-21
+	 */
+	private static long hash64(long length, int lanes, Lanes source, long tail, int tailBytes) {
+		long[] buffer = new long[Math.min(BLOCK_SIZE, lanes)];
+		long v1 = P1 + P2, v2 = P2, v3 = 0L, v4 = -P1;
+		long h;
+		int start = 0;
+		int count = 0;
+		
+		// Every block but the last is a whole number of 32-byte stripes, so the accumulators carry over between
+		// blocks.
+		while (true) {
+			count = Math.min(BLOCK_SIZE, lanes - start);
+			source.pack(start, buffer, count);
+			
+			int stripes = count & ~3;
+			
+			for (int i = 0; i < stripes; i += 4) {
+				v1 = round(v1, buffer[i]);
+				v2 = round(v2, buffer[i + 1]);
+				v3 = round(v3, buffer[i + 2]);
+				v4 = round(v4, buffer[i + 3]);
+			}
+			
+			if (start + count == lanes)
+				break;
+			
+			start += count;
+		}
+		
+		if (length >= 32) {
+			h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+			h = merge(h, v1);
+			h = merge(h, v2);
+			h = merge(h, v3);
+			h = merge(h, v4);
+		}
+		else
+			h = P5;
+		
+		h += length;
+		
+		for (int i = count & ~3; i < count; ++i) {
+			h ^= round(0L, buffer[i]);
+			h = Long.rotateLeft(h, 27) * P1 + P4;
+		}
+		
+		if (tailBytes >= 4) {
+			h ^= (tail & 0xFFFFFFFFL) * P1;
+			h = Long.rotateLeft(h, 23) * P2 + P3;
+			tail >>>= 32;
+			tailBytes -= 4;
+		}
+		
+		for (int i = 0; i < tailBytes; ++i) {
+			h ^= ((tail >>> (i << 3)) & 0xFFL) * P5;
+			h = Long.rotateLeft(h, 11) * P1;
+		}
+		
+		h ^= h >>> 33;
+		h *= P2;
+		h ^= h >>> 29;
+		h *= P3;
+		h ^= h >>> 32;
+		
+		return h;
+	}
+	
+	/**
+	 * Merges an XXH64 accumulator into the hash.
+	 * @param h The hash.
+	 * @param v The accumulator.
+	 * @return The merged hash.
+	 * @since JDK-21
+	 */
+	private static long merge(long h, long v) {
+		h ^= round(0L, v);
+		return h * P1 + P4;
+	}
+	
+	/**
+	 * Packs up to 8 values of a boolean array into the bytes of a little-endian long.
+	 * @param array The array to pack.
+	 * @param from The index of the first value.
+	 * @param count The number of values to pack.
+	 * @return The packed values.
+	 * @since JDK-21
+	 */
+	private static long packBooleans(boolean[] array, int from, int count) {
+		long ret = 0L;
+		
+		for (int i = 0; i < count; ++i) {
+			if (array[from + i])
+				ret |= 1L << (i << 3);
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Packs up to 4 values of a short array into a little-endian long.
+	 * @param array The array to pack.
+	 * @param from The index of the first value.
+	 * @param count The number of values to pack.
+	 * @return The packed values.
+	 * @since JDK-21
+	 */
+	private static long packShorts(short[] array, int from, int count) {
+		long ret = 0L;
+		
+		for (int i = 0; i < count; ++i)
+			ret |= (array[from + i] & 0xFFFFL) << (i << 4);
+		
+		return ret;
+	}
+	
+	/**
+	 * Mixes one lane into an XXH64 accumulator.
+	 * @param acc The accumulator.
+	 * @param lane The lane.
+	 * @return The new accumulator.
+	 * @since JDK-21
+	 */
+	private static long round(long acc, long lane) {
+		acc += lane * P2;
+		acc = Long.rotateLeft(acc, 31);
+		return acc * P1;
+	}
+
+}
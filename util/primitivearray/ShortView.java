@@ -0,0 +1,202 @@
+package babs.mindforge.util.primitivearray;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ShortView class is a zero-copy view of the bytes of a {@link ByteArray} as short values. ShortViews are created
+ * through {@link ByteArray#asShortView(ByteOrder)}. ShortView extends ByteArrayView and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see ByteArrayView
+ * @see ShortArray
+ * @since JDK-21
+ */
+public class ShortView extends ByteArrayView {
+	
+	/**
+	 * VarHandle used to access big-endian short values in a byte array.
+	 */
+	private static final VarHandle BIG = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+	/**
+	 * VarHandle used to access little-endian short values in a byte array.
+	 */
+	private static final VarHandle LITTLE =
+			MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+	
+	/**
+	 * Constructor that creates a ShortView over the specified byte array.
+	 * @param arr The byte array backing the viewed ByteArray.
+	 * @param lock The read/write lock of the viewed ByteArray.
+	 * @param order The byte order of the short values.
+	 * @since JDK-21
+	 */
+	ShortView(byte[] arr, ReentrantReadWriteLock lock, ByteOrder order) {
+		super(arr, lock, Short.BYTES, order);
+	}
+	
+	@Override
+	public Short get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getShort(index);
+	}
+	
+	/**
+	 * Returns the short value at the specified index without boxing.
+	 * @param index The index of the value to return.
+	 * @return The short value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public short getShort(int index)
+			throws ArrayIndexOutOfBoundsException {
+		checkIndex(index, "Cannot get value due to index out-of-bounds.");
+		
+		readLock.lock();
+		
+		try {
+			return read(index);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (o == null || !(o instanceof Short))
+			return -1;
+		
+		short v = ((Short)o).shortValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < size; ++i) {
+				if (read(i) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (o == null || !(o instanceof Short))
+			return -1;
+		
+		short v = ((Short)o).shortValue();
+		
+		readLock.lock();
+		
+		try {
+			for (int i = size - 1; i >= 0; --i) {
+				if (read(i) == v)
+					return i;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Reads the short value at the specified index. The caller must hold the read or write lock.
+	 * @param index The index of the value to read.
+	 * @return The short value at index.
+	 * @since JDK-21
+	 */
+	private short read(int index) {
+		return bigEndian ? (short)BIG.get(arr, index * Short.BYTES) : (short)LITTLE.get(arr, index * Short.BYTES);
+	}
+	
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set ShortView value to a null value.");
+		
+		if (!(o instanceof Short))
+			throw new IllegalArgumentException("Cannot set ShortView value to a non-Short object.");
+		
+		setShort(index, (Short)o);
+	}
+	
+	/**
+	 * Sets the short value at the specified index without boxing.
+	 * @param index The index to set.
+	 * @param value The short value to set at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setShort(int index, short value)
+			throws ArrayIndexOutOfBoundsException {
+		checkIndex(index, "Cannot set value due to index out-of-bounds.");
+		
+		writeLock.lock();
+		
+		try {
+			if (bigEndian)
+				BIG.set(arr, index * Short.BYTES, value);
+			else
+				LITTLE.set(arr, index * Short.BYTES, value);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public ShortArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > size || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		short[] ret = new short[end - start];
+		
+		readLock.lock();
+		
+		try {
+			ByteBuffer.wrap(arr, start * Short.BYTES, ret.length * Short.BYTES).order(order()).asShortBuffer()
+					.get(ret);
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return new ShortArray(ret);
+	}
+	
+	/**
+	 * Returns a copy of the short values in this ShortView.
+	 * @return A short array containing the values of this.
+	 * @since JDK-21
+	 */
+	public short[] toArray() {
+		short[] ret = new short[size];
+		
+		readLock.lock();
+		
+		try {
+			ByteBuffer.wrap(arr, 0, size * Short.BYTES).order(order()).asShortBuffer().get(ret);
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret;
+	}
+
+}
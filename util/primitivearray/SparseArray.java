@@ -0,0 +1,61 @@
+package babs.mindforge.util.primitivearray;
+
+/**
+ * SparseArray interface is used to represent a PrimitiveArray that only stores its non-zero elements, for data that is
+ * mostly zeros. Every element that is not stored is 0. A SparseArray stores its non-zero elements in one of two
+ * modes: as index and value arrays sorted by index, which is compact and fast to traverse in order, or as an
+ * open-addressing hash table keyed by index, which makes random writes constant time. The mode can be changed at any
+ * time, so data can be built in hash mode and then switched to sorted mode for fast arithmetic.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see PrimitiveArray
+ * @since JDK-21
+ */
+public interface SparseArray extends PrimitiveArray {
+	
+	/**
+	 * Mode enum represents how a SparseArray stores its non-zero elements.
+	 *
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @since JDK-21
+	 */
+	public enum Mode {
+		
+		/**
+		 * Non-zero elements are stored in index and value arrays sorted by index. Reads take O(log n) time and writes
+		 * that add or remove a non-zero element take O(n) time, where n is the number of non-zero elements.
+		 */
+		SORTED,
+		/**
+		 * Non-zero elements are stored in an open-addressing hash table keyed by index. Reads and writes take
+		 * expected O(1) time, and in-order traversal requires sorting the indices first.
+		 */
+		HASH
+	
+	}
+	
+	/**
+	 * Returns the mode this SparseArray stores its non-zero elements in.
+	 * @return The mode of this.
+	 * @since JDK-21
+	 */
+	public Mode mode();
+	
+	/**
+	 * Returns the number of non-zero elements stored in this SparseArray.
+	 * @return The number of non-zero elements in this.
+	 * @since JDK-21
+	 */
+	public int nonZeroCount();
+	
+	/**
+	 * Changes the mode this SparseArray stores its non-zero elements in.
+	 * @param mode The new mode.
+	 * @throws NullPointerException Thrown if mode is null.
+	 * @since JDK-21
+	 */
+	public void setMode(Mode mode) throws NullPointerException;
+
+}
@@ -0,0 +1,1110 @@
+package babs.mindforge.util.primitivearray;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SparseDoubleArray class is a SparseArray of double values that only stores its non-zero elements, so a mostly-zero
+ * array uses memory in proportion to its non-zero elements instead of its size. Zero values, including negative zero,
+ * are never stored, so setting an element to 0 removes it. SparseDoubleArray provides sparse-aware dot products and
+ * sums against both {@link DoubleArray} and SparseDoubleArray operands, which only visit the non-zero elements, and
+ * conversions to and from DoubleArray. SparseDoubleArray implements SparseArray and is thread-safe. Operations that
+ * involve a DoubleArray lock this SparseDoubleArray before the DoubleArray, and operations that involve two
+ * SparseDoubleArrays lock them in a consistent order, so they cannot deadlock.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see DoubleArray
+ * @see SparseArray
+ * @since JDK-21
+ */
+public class SparseDoubleArray implements SparseArray {
+	
+	/**
+	 * The smallest capacity of the arrays holding the non-zero elements.
+	 */
+	private static final int MIN_CAPACITY = 8;
+	/**
+	 * The index marking an empty slot of the hash table.
+	 */
+	private static final int EMPTY = -1;
+	
+	/**
+	 * The lock that operations between two SparseDoubleArrays with equal identity hash codes take first.
+	 */
+	private static final Lock TIE_LOCK = new ReentrantLock();
+	
+	/**
+	 * A read/write lock used to ensure thread-safety.
+	 */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	/**
+	 * The read lock from the read/write lock.
+	 */
+	private final Lock readLock = lock.readLock();
+	/**
+	 * The write lock from the read/write lock.
+	 */
+	private final Lock writeLock = lock.writeLock();
+	
+	/**
+	 * The size of the SparseDoubleArray, including its zero elements.
+	 */
+	private final int size;
+	/**
+	 * The mode the non-zero elements are stored in.
+	 */
+	private Mode mode;
+	/**
+	 * The indices of the non-zero elements. In sorted mode, the first count indices are in ascending order. In hash
+	 * mode, this is the hash table, with {@link #EMPTY} marking empty slots, and its length is a power of 2.
+	 */
+	private int[] indices;
+	/**
+	 * The values of the non-zero elements, at the same positions as their indices.
+	 */
+	private double[] values;
+	/**
+	 * The number of non-zero elements.
+	 */
+	private int count;
+	
+	/**
+	 * Constructor that creates a SparseDoubleArray with the specified size, all elements set to 0, in sorted mode.
+	 * @param size The size of this SparseDoubleArray.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @since JDK-21
+	 */
+	public SparseDoubleArray(int size)
+			throws NegativeArraySizeException {
+		this(size, Mode.SORTED);
+	}
+	
+	/**
+	 * Constructor that creates a SparseDoubleArray with the specified size, all elements set to 0, in the specified
+	 * mode.
+	 * @param size The size of this SparseDoubleArray.
+	 * @param mode The mode to store non-zero elements in.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @throws NullPointerException Thrown if mode is null.
+	 * @since JDK-21
+	 */
+	public SparseDoubleArray(int size, Mode mode)
+			throws NegativeArraySizeException, NullPointerException {
+		if (size < 0)
+			throw new NegativeArraySizeException("Cannot create a SparseDoubleArray with a negative size.");
+		if (mode == null)
+			throw new NullPointerException("Cannot create a SparseDoubleArray with a null mode.");
+		
+		this.size = size;
+		this.mode = mode;
+		indices = new int[MIN_CAPACITY];
+		values = new double[MIN_CAPACITY];
+		count = 0;
+		
+		if (mode == Mode.HASH)
+			Arrays.fill(indices, EMPTY);
+	}
+	
+	/**
+	 * Returns a new DoubleArray that is the sum of this SparseDoubleArray and the specified DoubleArray.
+	 * @param dense The DoubleArray to add.
+	 * @return A DoubleArray containing the sum.
+	 * @throws IllegalArgumentException Thrown if dense is not the same size as this SparseDoubleArray.
+	 * @throws NullPointerException Thrown if dense is null.
+	 * @since JDK-21
+	 */
+	public DoubleArray add(DoubleArray dense)
+			throws IllegalArgumentException, NullPointerException {
+		DoubleArray ret = new DoubleArray(checkOperand(dense).toArray());
+		addTo(ret, 1.0);
+		return ret;
+	}
+	
+	/**
+	 * Returns a new SparseDoubleArray that is the sum of this SparseDoubleArray and the specified SparseDoubleArray,
+	 * in the mode of this SparseDoubleArray. Only the non-zero elements of both are visited.
+	 * @param other The SparseDoubleArray to add.
+	 * @return A SparseDoubleArray containing the sum.
+	 * @throws IllegalArgumentException Thrown if other is not the same size as this SparseDoubleArray.
+	 * @throws NullPointerException Thrown if other is null.
+	 * @since JDK-21
+	 */
+	public SparseDoubleArray add(SparseDoubleArray other)
+			throws IllegalArgumentException, NullPointerException {
+		if (other == null)
+			throw new NullPointerException("Cannot add a null SparseDoubleArray.");
+		if (other.size != size)
+			throw new IllegalArgumentException("Cannot add SparseDoubleArrays of different sizes.");
+		
+		Entries a = entries(true);
+		Entries b = other.entries(true);
+		SparseDoubleArray ret = new SparseDoubleArray(size);
+		int[] idx = new int[Math.max(a.count + b.count, MIN_CAPACITY)];
+		double[] val = new double[idx.length];
+		int i = 0, j = 0, n = 0;
+		
+		// Merge the sorted non-zero elements, dropping any sums that cancel out to 0.
+		while (i < a.count || j < b.count) {
+			int k;
+			double v;
+			
+			if (j == b.count || (i < a.count && a.indices[i] < b.indices[j])) {
+				k = a.indices[i];
+				v = a.values[i++];
+			}
+			else if (i == a.count || b.indices[j] < a.indices[i]) {
+				k = b.indices[j];
+				v = b.values[j++];
+			}
+			else {
+				k = a.indices[i];
+				v = a.values[i++] + b.values[j++];
+			}
+			
+			if (v != 0.0) {
+				idx[n] = k;
+				val[n++] = v;
+			}
+		}
+		
+		ret.indices = idx;
+		ret.values = val;
+		ret.count = n;
+		
+		if (mode() == Mode.HASH)
+			ret.setMode(Mode.HASH);
+		
+		return ret;
+	}
+	
+	/**
+	 * Adds the non-zero elements of this SparseDoubleArray, multiplied by the specified scale, to the specified
+	 * DoubleArray in place. Only the non-zero elements of this SparseDoubleArray are visited.
+	 * @param target The DoubleArray to add to.
+	 * @param scale The value to multiply each element of this SparseDoubleArray by.
+	 * @throws IllegalArgumentException Thrown if target is not the same size as this SparseDoubleArray.
+	 * @throws NullPointerException Thrown if target is null.
+	 * @since JDK-21
+	 */
+	public void addTo(DoubleArray target, double scale)
+			throws IllegalArgumentException, NullPointerException {
+		checkOperand(target);
+		readLock.lock();
+		
+		try {
+			target.writeLock.lock();
+			
+			try {
+				double[] arr = target.arr;
+				
+				for (int i = 0; i < indices.length && (mode == Mode.HASH || i < count); ++i) {
+					if (indices[i] != EMPTY)
+						arr[indices[i]] += scale * values[i];
+				}
+			}
+			finally {
+				target.writeLock.unlock();
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public Object clone() {
+		SparseDoubleArray ret = new SparseDoubleArray(size);
+		
+		readLock.lock();
+		
+		try {
+			ret.mode = mode;
+			ret.indices = indices.clone();
+			ret.values = values.clone();
+			ret.count = count;
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret;
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof Double))
+			return false;
+		
+		readLock.lock();
+		
+		try {
+			if (o.equals(Double.valueOf(0.0)))
+				return count < size;
+			
+			for (int i = 0; i < indices.length && (mode == Mode.HASH || i < count); ++i) {
+				if (indices[i] != EMPTY && o.equals(Double.valueOf(values[i])))
+					return true;
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return false;
+	}
+	
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		if (c == null)
+			return false;
+		
+		Iterator<?> it = c.iterator();
+		
+		while (it.hasNext()) {
+			if (!contains(it.next()))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Returns the dot product of this SparseDoubleArray and the specified DoubleArray. Only the non-zero elements of
+	 * this SparseDoubleArray are visited.
+	 * @param dense The DoubleArray to multiply by.
+	 * @return The dot product.
+	 * @throws IllegalArgumentException Thrown if dense is not the same size as this SparseDoubleArray.
+	 * @throws NullPointerException Thrown if dense is null.
+	 * @since JDK-21
+	 */
+	public double dot(DoubleArray dense)
+			throws IllegalArgumentException, NullPointerException {
+		checkOperand(dense);
+		readLock.lock();
+		
+		try {
+			dense.readLock.lock();
+			
+			try {
+				double[] arr = dense.arr;
+				double ret = 0.0;
+				
+				if (mode == Mode.SORTED) {
+					for (int i = 0; i < count; ++i)
+						ret += values[i] * arr[indices[i]];
+				}
+				else {
+					for (int i = 0; i < indices.length; ++i) {
+						if (indices[i] != EMPTY)
+							ret += values[i] * arr[indices[i]];
+					}
+				}
+				
+				return ret;
+			}
+			finally {
+				dense.readLock.unlock();
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the dot product of this SparseDoubleArray and the specified SparseDoubleArray. When both are in sorted
+	 * mode, their non-zero elements are merged in a single pass. Otherwise, the non-zero elements of the one with
+	 * fewer non-zero elements are looked up in the other.
+	 * @param other The SparseDoubleArray to multiply by.
+	 * @return The dot product.
+	 * @throws IllegalArgumentException Thrown if other is not the same size as this SparseDoubleArray.
+	 * @throws NullPointerException Thrown if other is null.
+	 * @since JDK-21
+	 */
+	public double dot(SparseDoubleArray other)
+			throws IllegalArgumentException, NullPointerException {
+		if (other == null)
+			throw new NullPointerException("Cannot multiply by a null SparseDoubleArray.");
+		if (other.size != size)
+			throw new IllegalArgumentException("Cannot multiply SparseDoubleArrays of different sizes.");
+		
+		if (other == this) {
+			readLock.lock();
+			
+			try {
+				double ret = 0.0;
+				
+				for (int i = 0; i < indices.length && (mode == Mode.HASH || i < count); ++i) {
+					if (indices[i] != EMPTY)
+						ret += values[i] * values[i];
+				}
+				
+				return ret;
+			}
+			finally {
+				readLock.unlock();
+			}
+		}
+		
+		// Lock in a consistent order so that opposing operations between the same two SparseDoubleArrays cannot
+		// deadlock. SparseDoubleArrays with equal identity hash codes have no order, so they take TIE_LOCK first.
+		int thisHash = System.identityHashCode(this);
+		int otherHash = System.identityHashCode(other);
+		boolean thisFirst = thisHash <= otherHash;
+		boolean tie = thisHash == otherHash;
+		Lock first = thisFirst ? readLock : other.readLock;
+		Lock second = thisFirst ? other.readLock : readLock;
+		
+		if (tie)
+			TIE_LOCK.lock();
+		
+		try {
+			first.lock();
+			
+			try {
+				second.lock();
+				
+				try {
+					return dot(this, other);
+				}
+				finally {
+					second.unlock();
+				}
+			}
+			finally {
+				first.unlock();
+			}
+		}
+		finally {
+			if (tie)
+				TIE_LOCK.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the dot product of two different SparseDoubleArrays. The caller must hold the read locks of both.
+	 * @param a The first SparseDoubleArray.
+	 * @param b The second SparseDoubleArray.
+	 * @return The dot product.
+	 * @since JDK-21
+	 */
+	private static double dot(SparseDoubleArray a, SparseDoubleArray b) {
+		double ret = 0.0;
+		
+		if (a.mode == Mode.SORTED && b.mode == Mode.SORTED) {
+			int i = 0, j = 0;
+			
+			while (i < a.count && j < b.count) {
+				if (a.indices[i] < b.indices[j])
+					++i;
+				else if (a.indices[i] > b.indices[j])
+					++j;
+				else
+					ret += a.values[i++] * b.values[j++];
+			}
+			
+			return ret;
+		}
+		
+		if (a.count > b.count) {
+			SparseDoubleArray t = a;
+			a = b;
+			b = t;
+		}
+		
+		for (int i = 0; i < a.indices.length && (a.mode == Mode.HASH || i < a.count); ++i) {
+			if (a.indices[i] != EMPTY)
+				ret += a.values[i] * b.valueAt(a.indices[i]);
+		}
+		
+		return ret;
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (o == this)
+			return true;
+		
+		if (o instanceof SparseDoubleArray) {
+			SparseDoubleArray other = (SparseDoubleArray)o;
+			
+			if (other.size != size)
+				return false;
+			
+			Entries a = entries(true);
+			Entries b = other.entries(true);
+			
+			if (a.count != b.count)
+				return false;
+			
+			for (int i = 0; i < a.count; ++i) {
+				if (a.indices[i] != b.indices[i] || a.values[i] != b.values[i])
+					return false;
+			}
+			
+			return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Creates a SparseDoubleArray in sorted mode containing the non-zero elements of the specified double array.
+	 * @param array The double array to convert.
+	 * @return A SparseDoubleArray with the same elements as array.
+	 * @throws NullPointerException Thrown if array is null.
+	 * @since JDK-21
+	 */
+	public static SparseDoubleArray from(double[] array)
+			throws NullPointerException {
+		return from(array, Mode.SORTED);
+	}
+	
+	/**
+	 * Creates a SparseDoubleArray in the specified mode containing the non-zero elements of the specified double
+	 * array.
+	 * @param array The double array to convert.
+	 * @param mode The mode to store non-zero elements in.
+	 * @return A SparseDoubleArray with the same elements as array.
+	 * @throws NullPointerException Thrown if array or mode is null.
+	 * @since JDK-21
+	 */
+	public static SparseDoubleArray from(double[] array, Mode mode)
+			throws NullPointerException {
+		if (array == null)
+			throw new NullPointerException("Cannot convert a null double array into a SparseDoubleArray.");
+		
+		SparseDoubleArray ret = new SparseDoubleArray(array.length, mode);
+		int n = 0;
+		
+		for (int i = 0; i < array.length; ++i) {
+			if (array[i] != 0.0)
+				++n;
+		}
+		
+		int[] idx = new int[Math.max(n, MIN_CAPACITY)];
+		double[] val = new double[idx.length];
+		
+		for (int i = 0, j = 0; j < n; ++i) {
+			if (array[i] != 0.0) {
+				idx[j] = i;
+				val[j++] = array[i];
+			}
+		}
+		
+		ret.mode = Mode.SORTED;
+		ret.indices = idx;
+		ret.values = val;
+		ret.count = n;
+		ret.setMode(mode);
+		return ret;
+	}
+	
+	/**
+	 * Creates a SparseDoubleArray in sorted mode containing the non-zero elements of the specified DoubleArray.
+	 * @param dense The DoubleArray to convert.
+	 * @return A SparseDoubleArray with the same elements as dense.
+	 * @throws NullPointerException Thrown if dense is null.
+	 * @since JDK-21
+	 */
+	public static SparseDoubleArray from(DoubleArray dense)
+			throws NullPointerException {
+		return from(dense, Mode.SORTED);
+	}
+	
+	/**
+	 * Creates a SparseDoubleArray in the specified mode containing the non-zero elements of the specified
+	 * DoubleArray.
+	 * @param dense The DoubleArray to convert.
+	 * @param mode The mode to store non-zero elements in.
+	 * @return A SparseDoubleArray with the same elements as dense.
+	 * @throws NullPointerException Thrown if dense or mode is null.
+	 * @since JDK-21
+	 */
+	public static SparseDoubleArray from(DoubleArray dense, Mode mode)
+			throws NullPointerException {
+		if (dense == null)
+			throw new NullPointerException("Cannot convert a null DoubleArray into a SparseDoubleArray.");
+		
+		dense.readLock.lock();
+		
+		try {
+			return from(dense.arr, mode);
+		}
+		finally {
+			dense.readLock.unlock();
+		}
+	}
+	
+	@Override
+	public Double get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getDouble(index);
+	}
+	
+	/**
+	 * Returns the double value at the specified index.
+	 * @param index The index of the value to return.
+	 * @return The value at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public double getDouble(int index)
+			throws ArrayIndexOutOfBoundsException {
+		if (index < 0 || index >= size)
+			throw new ArrayIndexOutOfBoundsException("Cannot get value due to index out-of-bounds.");
+		
+		readLock.lock();
+		
+		try {
+			return valueAt(index);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public int hashCode() {
+		Entries e = entries(true);
+		int ret = size;
+		
+		for (int i = 0; i < e.count; ++i)
+			ret = 31 * (31 * ret + e.indices[i]) + Double.hashCode(e.values[i]);
+		
+		return ret;
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (!(o instanceof Double))
+			return -1;
+		
+		double value = ((Double)o).doubleValue();
+		Entries e = entries(true);
+		
+		if (value == 0.0) {
+			// The first zero is the first index missing from the sorted non-zero indices.
+			for (int i = 0; i < e.count; ++i) {
+				if (e.indices[i] != i)
+					return i;
+			}
+			
+			return (e.count < size) ? e.count : -1;
+		}
+		
+		for (int i = 0; i < e.count; ++i) {
+			if (e.values[i] == value)
+				return e.indices[i];
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public PrimitiveIterator.OfDouble iterator() {
+		Entries e = entries(true);
+		
+		return new PrimitiveIterator.OfDouble() {
+			
+			/**
+			 * The index of the next element.
+			 */
+			private int index = 0;
+			/**
+			 * The position of the next non-zero element in the snapshot.
+			 */
+			private int next = 0;
+			
+			@Override
+			public boolean hasNext() {
+				return index < size;
+			}
+			
+			@Override
+			public double nextDouble() {
+				if (index >= size)
+					throw new NoSuchElementException();
+				
+				int i = index++;
+				
+				if (next < e.count && e.indices[next] == i)
+					return e.values[next++];
+				
+				return 0.0;
+			}
+		
+		};
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (!(o instanceof Double))
+			return -1;
+		
+		double value = ((Double)o).doubleValue();
+		Entries e = entries(true);
+		
+		if (value == 0.0) {
+			// The last zero is the last index missing from the sorted non-zero indices.
+			for (int i = e.count - 1, j = size - 1; j >= 0; --i, --j) {
+				if (i < 0 || e.indices[i] != j)
+					return j;
+			}
+			
+			return -1;
+		}
+		
+		for (int i = e.count - 1; i >= 0; --i) {
+			if (e.values[i] == value)
+				return e.indices[i];
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public Mode mode() {
+		readLock.lock();
+		
+		try {
+			return mode;
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the indices of the non-zero elements of this SparseDoubleArray in ascending order.
+	 * @return An int array containing the indices of the non-zero elements of this.
+	 * @since JDK-21
+	 */
+	public int[] nonZeroIndices() {
+		Entries e = entries(true);
+		return Arrays.copyOf(e.indices, e.count);
+	}
+	
+	/**
+	 * Returns the values of the non-zero elements of this SparseDoubleArray in ascending order of their indices.
+	 * @return A double array containing the values of the non-zero elements of this.
+	 * @since JDK-21
+	 */
+	public double[] nonZeroValues() {
+		Entries e = entries(true);
+		return Arrays.copyOf(e.values, e.count);
+	}
+	
+	@Override
+	public int nonZeroCount() {
+		readLock.lock();
+		
+		try {
+			return count;
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set SparseDoubleArray value to a null value.");
+		
+		if (!(o instanceof Double))
+			throw new IllegalArgumentException("Cannot set SparseDoubleArray value to a non-Double object.");
+		
+		setDouble(index, (Double)o);
+	}
+	
+	/**
+	 * Sets the double value at the specified index. Setting a value to 0 removes it from the non-zero elements.
+	 * @param index The index to set.
+	 * @param value The value to set at index.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void setDouble(int index, double value)
+			throws ArrayIndexOutOfBoundsException {
+		if (index < 0 || index >= size)
+			throw new ArrayIndexOutOfBoundsException("Cannot set value due to index out-of-bounds.");
+		
+		writeLock.lock();
+		
+		try {
+			if (mode == Mode.SORTED)
+				putSorted(index, value);
+			else
+				putHash(index, value);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public void setMode(Mode mode)
+			throws NullPointerException {
+		if (mode == null)
+			throw new NullPointerException("Cannot set a SparseDoubleArray to a null mode.");
+		
+		writeLock.lock();
+		
+		try {
+			if (mode == this.mode)
+				return;
+			
+			Entries e = entries(false);
+			
+			if (mode == Mode.SORTED) {
+				indices = e.indices;
+				values = e.values;
+			}
+			else {
+				int capacity = MIN_CAPACITY;
+				
+				while (capacity < 2 * e.count)
+					capacity <<= 1;
+				
+				indices = new int[capacity];
+				values = new double[capacity];
+				Arrays.fill(indices, EMPTY);
+				count = 0;
+				
+				for (int i = 0; i < e.count; ++i)
+					putHash(e.indices[i], e.values[i]);
+			}
+			
+			this.mode = mode;
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	@Override
+	public SparseDoubleArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > size || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		Entries e = entries(true);
+		int from = Arrays.binarySearch(e.indices, 0, e.count, start);
+		int to = Arrays.binarySearch(e.indices, 0, e.count, end);
+		
+		from = (from < 0) ? -from - 1 : from;
+		to = (to < 0) ? -to - 1 : to;
+		
+		SparseDoubleArray ret = new SparseDoubleArray(end - start);
+		int n = to - from;
+		
+		ret.indices = new int[Math.max(n, MIN_CAPACITY)];
+		ret.values = Arrays.copyOfRange(e.values, from, from + ret.indices.length);
+		ret.count = n;
+		
+		for (int i = 0; i < n; ++i)
+			ret.indices[i] = e.indices[from + i] - start;
+		
+		ret.setMode(mode());
+		return ret;
+	}
+	
+	/**
+	 * Returns the elements of this SparseDoubleArray as a new double array, including its zero elements.
+	 * @return A double array containing the elements of this.
+	 * @since JDK-21
+	 */
+	public double[] toArray() {
+		double[] ret = new double[size];
+		
+		readLock.lock();
+		
+		try {
+			for (int i = 0; i < indices.length && (mode == Mode.HASH || i < count); ++i) {
+				if (indices[i] != EMPTY)
+					ret[indices[i]] = values[i];
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		
+		return ret;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T[] toArray(T[] a) {
+		double[] arr = toArray();
+		Double[] copy = new Double[arr.length];
+		
+		for (int i = 0; i < arr.length; ++i)
+			copy[i] = arr[i];
+		
+		if (a.length >= copy.length) {
+			for (int i = 0; i < copy.length; ++i)
+				a[i] = (T)copy[i];
+			
+			return a;
+		}
+		
+		T[] ret = (T[])copy;
+		
+		return ret;
+	}
+	
+	/**
+	 * Returns a new DoubleArray with the same elements as this SparseDoubleArray.
+	 * @return A DoubleArray containing the elements of this.
+	 * @since JDK-21
+	 */
+	public DoubleArray toDense() {
+		return new DoubleArray(toArray());
+	}
+	
+	@Override
+	public String toString() {
+		Entries e = entries(true);
+		StringBuilder ret = new StringBuilder().append('[').append(size).append(']');
+		
+		for (int i = 0; i < e.count; ++i)
+			ret.append(' ').append(e.indices[i]).append(':').append(e.values[i]);
+		
+		return ret.toString();
+	}
+	
+	/**
+	 * Checks that the specified DoubleArray can be used as an operand with this SparseDoubleArray.
+	 * @param dense The DoubleArray to check.
+	 * @return dense.
+	 * @throws IllegalArgumentException Thrown if dense is not the same size as this SparseDoubleArray.
+	 * @throws NullPointerException Thrown if dense is null.
+	 * @since JDK-21
+	 */
+	private DoubleArray checkOperand(DoubleArray dense)
+			throws IllegalArgumentException, NullPointerException {
+		if (dense == null)
+			throw new NullPointerException("Cannot operate on a SparseDoubleArray and a null DoubleArray.");
+		if (dense.size() != size)
+			throw new IllegalArgumentException("Cannot operate on a SparseDoubleArray and a DoubleArray of a "
+					+ "different size.");
+		
+		return dense;
+	}
+	
+	/**
+	 * Returns the non-zero elements of this SparseDoubleArray sorted by index. In sorted mode, the backing arrays are
+	 * returned as is, unless a copy is requested.
+	 * @param lock True to take the read lock and return arrays that are not shared with this SparseDoubleArray,
+	 * otherwise the caller must hold a lock.
+	 * @return The sorted non-zero elements.
+	 * @since JDK-21
+	 */
+	private Entries entries(boolean lock) {
+		if (lock)
+			readLock.lock();
+		
+		try {
+			if (mode == Mode.SORTED) {
+				if (!lock)
+					return new Entries(count, indices, values);
+				
+				return new Entries(count, indices.clone(), values.clone());
+			}
+			
+			int[] idx = new int[Math.max(count, MIN_CAPACITY)];
+			double[] val = new double[idx.length];
+			
+			for (int i = 0, j = 0; i < indices.length; ++i) {
+				if (indices[i] != EMPTY)
+					idx[j++] = indices[i];
+			}
+			
+			Arrays.sort(idx, 0, count);
+			
+			for (int i = 0; i < count; ++i)
+				val[i] = valueAt(idx[i]);
+			
+			return new Entries(count, idx, val);
+		}
+		finally {
+			if (lock)
+				readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the hash table slot an index starts probing from. Indices are mixed so that runs of consecutive indices
+	 * spread out over the table.
+	 * @param index The index to hash.
+	 * @return The home slot of index.
+	 * @since JDK-21
+	 */
+	private int home(int index) {
+		int h = index * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & (indices.length - 1);
+	}
+	
+	/**
+	 * Sets the value at the specified index in hash mode. The caller must hold the write lock.
+	 * @param index The index to set.
+	 * @param value The value to set at index.
+	 * @since JDK-21
+	 */
+	private void putHash(int index, double value) {
+		int mask = indices.length - 1;
+		int slot = home(index);
+		
+		while (indices[slot] != EMPTY && indices[slot] != index)
+			slot = (slot + 1) & mask;
+		
+		if (value != 0.0) {
+			if (indices[slot] == index) {
+				values[slot] = value;
+				return;
+			}
+			
+			if (2 * (count + 1) > indices.length) {
+				rehash(indices.length << 1);
+				putHash(index, value);
+				return;
+			}
+			
+			indices[slot] = index;
+			values[slot] = value;
+			++count;
+			return;
+		}
+		
+		if (indices[slot] == EMPTY)
+			return;
+		
+		// Shift later entries of the probe sequence back into the hole, so that lookups never stop early.
+		int hole = slot;
+		
+		for (int i = (hole + 1) & mask; indices[i] != EMPTY; i = (i + 1) & mask) {
+			int h = home(indices[i]);
+			
+			if ((i > hole) ? (h <= hole || h > i) : (h <= hole && h > i)) {
+				indices[hole] = indices[i];
+				values[hole] = values[i];
+				hole = i;
+			}
+		}
+		
+		indices[hole] = EMPTY;
+		values[hole] = 0.0;
+		--count;
+	}
+	
+	/**
+	 * Sets the value at the specified index in sorted mode. The caller must hold the write lock.
+	 * @param index The index to set.
+	 * @param value The value to set at index.
+	 * @since JDK-21
+	 */
+	private void putSorted(int index, double value) {
+		int i = Arrays.binarySearch(indices, 0, count, index);
+		
+		if (i >= 0) {
+			if (value != 0.0) {
+				values[i] = value;
+			}
+			else {
+				System.arraycopy(indices, i + 1, indices, i, count - i - 1);
+				System.arraycopy(values, i + 1, values, i, count - i - 1);
+				--count;
+			}
+			
+			return;
+		}
+		
+		if (value == 0.0)
+			return;
+		
+		i = -i - 1;
+		
+		if (count == indices.length) {
+			int capacity = Math.min(count + (count >> 1), size);
+			
+			indices = Arrays.copyOf(indices, capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+		
+		System.arraycopy(indices, i, indices, i + 1, count - i);
+		System.arraycopy(values, i, values, i + 1, count - i);
+		indices[i] = index;
+		values[i] = value;
+		++count;
+	}
+	
+	/**
+	 * Rebuilds the hash table with the specified capacity. The caller must hold the write lock.
+	 * @param capacity The new capacity, which must be a power of 2.
+	 * @since JDK-21
+	 */
+	private void rehash(int capacity) {
+		int[] oldIndices = indices;
+		double[] oldValues = values;
+		
+		indices = new int[capacity];
+		values = new double[capacity];
+		Arrays.fill(indices, EMPTY);
+		count = 0;
+		
+		for (int i = 0; i < oldIndices.length; ++i) {
+			if (oldIndices[i] != EMPTY)
+				putHash(oldIndices[i], oldValues[i]);
+		}
+	}
+	
+	/**
+	 * Returns the value at the specified index. The caller must hold a lock.
+	 * @param index The index of the value to return.
+	 * @return The value at index.
+	 * @since JDK-21
+	 */
+	private double valueAt(int index) {
+		if (mode == Mode.SORTED) {
+			int i = Arrays.binarySearch(indices, 0, count, index);
+			return (i >= 0) ? values[i] : 0.0;
+		}
+		
+		int mask = indices.length - 1;
+		
+		for (int slot = home(index); indices[slot] != EMPTY; slot = (slot + 1) & mask) {
+			if (indices[slot] == index)
+				return values[slot];
+		}
+		
+		return 0.0;
+	}
+	
+	/**
+	 * Entries record holds the non-zero elements of a SparseDoubleArray sorted by index.
+	
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @param count The number of non-zero elements.
+	 * @param indices The indices of the non-zero elements, in ascending order.
+	 * @param values The values of the non-zero elements.
+	 * @since JDK-21
+	 */
+	private record Entries(int count, int[] indices, double[] values) {}
+
+}
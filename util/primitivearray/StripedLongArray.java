@@ -0,0 +1,394 @@
+package babs.mindforge.util.primitivearray;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+import babs.mindforge.util.ArrayInto;
+
+/**
+ * StripedLongArray class is an array of long counters that spreads contended updates to the same counter over
+ * several cells, in the same way as {@link java.util.concurrent.atomic.LongAdder}. Each counter starts with a single
+ * base cell. When an update of the base cell fails because another thread updated it at the same time, the counter
+ * is given a set of stripe cells, and from then on each thread adds to the stripe cell chosen by its own probe
+ * value, moving to another stripe whenever it collides with a different thread. Every cell is padded to its own pair
+ * of cache lines, so threads updating different cells do not bounce cache lines between cores. Reading a counter sums
+ * its cells, so reads are slower than updates, and a read that happens during concurrent updates is not an atomic
+ * snapshot. StripedLongArray is intended for counters, histograms and similar write-heavy data that is read
+ * occasionally. StripedLongArray implements PrimitiveArray and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see AtomicLongArray
+ * @see LongArray
+ * @since JDK-21
+ */
+public class StripedLongArray implements PrimitiveArray {
+	
+	/**
+	 * The default number of stripe cells of a contended counter, which is the number of available processors rounded
+	 * up to a power of 2.
+	 */
+	public static final int DEF_STRIPES = Integer.highestOneBit(Math.max(1,
+			Runtime.getRuntime().availableProcessors() * 2 - 1));
+	
+	/**
+	 * The number of longs between the start of adjacent cells, so each cell sits alone in 128 bytes, which covers a
+	 * cache line and the line the hardware may prefetch next to it.
+	 */
+	private static final int PAD = 16;
+	/**
+	 * The VarHandle used to access the cells of a long array.
+	 */
+	private static final VarHandle AA = MethodHandles.arrayElementVarHandle(long[].class);
+	/**
+	 * The VarHandle used to publish the stripe cells of a counter.
+	 */
+	private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(long[][].class);
+	/**
+	 * The probe value of each thread, which selects the stripe cell the thread adds to.
+	 */
+	private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> {
+		int h = (int)(Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L >>> 32);
+		return new int[] {(h == 0) ? 1 : h};
+	});
+	
+	/**
+	 * The padded base cell of each counter.
+	 */
+	private final long[] base;
+	/**
+	 * The padded stripe cells of each counter, or null for a counter that has not been contended.
+	 */
+	private final long[][] cells;
+	/**
+	 * The number of stripe cells of a contended counter, which is a power of 2.
+	 */
+	private final int stripes;
+	
+	/**
+	 * Constructor that creates a StripedLongArray with the specified number of counters, all set to 0, and the
+	 * default number of stripes.
+	 * @param size The number of counters.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @throws OutOfMemoryError Thrown if the padded cells would be larger than the maximum array size.
+	 * @since JDK-21
+	 */
+	public StripedLongArray(int size)
+			throws NegativeArraySizeException {
+		this(size, DEF_STRIPES);
+	}
+	
+	/**
+	 * Constructor that creates a StripedLongArray with the specified number of counters, all set to 0, and the
+	 * specified number of stripes, rounded up to a power of 2.
+	 * @param size The number of counters.
+	 * @param stripes The number of stripe cells of a contended counter.
+	 * @throws IllegalArgumentException Thrown if stripes is less than 1 or greater than 2^16.
+	 * @throws NegativeArraySizeException Thrown if size is negative.
+	 * @throws OutOfMemoryError Thrown if the padded cells would be larger than the maximum array size.
+	 * @since JDK-21
+	 */
+	public StripedLongArray(int size, int stripes)
+			throws IllegalArgumentException, NegativeArraySizeException {
+		if (size < 0)
+			throw new NegativeArraySizeException("Cannot create a StripedLongArray with a negative size.");
+		if (stripes < 1 || stripes > 1 << 16)
+			throw new IllegalArgumentException("Cannot create a StripedLongArray with " + stripes + " stripes.");
+		if ((long)size * PAD > Integer.MAX_VALUE - 8)
+			throw new OutOfMemoryError("Cannot create a StripedLongArray larger than the maximum array size.");
+		
+		base = new long[size * PAD];
+		cells = new long[size][];
+		this.stripes = Integer.highestOneBit(stripes * 2 - 1);
+	}
+	
+	/**
+	 * Adds the specified value to the counter at the specified index.
+	 * @param index The index of the counter.
+	 * @param delta The value to add.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void add(int index, long delta)
+			throws ArrayIndexOutOfBoundsException {
+		long[] c = (long[])CELLS.getAcquire(cells, index);
+		
+		if (c == null) {
+			int b = index * PAD;
+			long v = (long)AA.getVolatile(base, b);
+			
+			if (AA.compareAndSet(base, b, v, v + delta))
+				return;
+			
+			c = stripe(index);
+		}
+		
+		int[] probe = PROBE.get();
+		int k = (probe[0] & (stripes - 1)) * PAD;
+		long v = (long)AA.getVolatile(c, k);
+		
+		if (!AA.compareAndSet(c, k, v, v + delta)) {
+			// Another thread shares this stripe, so move to a different one for the next update.
+			int h = probe[0];
+			
+			h ^= h << 13;
+			h ^= h >>> 17;
+			h ^= h << 5;
+			probe[0] = h;
+			AA.getAndAdd(c, k, delta);
+		}
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) != -1;
+	}
+	
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		if (c == null)
+			return false;
+		
+		Iterator<?> it = c.iterator();
+		
+		while (it.hasNext()) {
+			if (!contains(it.next()))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Subtracts 1 from the counter at the specified index.
+	 * @param index The index of the counter.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void decrement(int index)
+			throws ArrayIndexOutOfBoundsException {
+		add(index, -1L);
+	}
+	
+	@Override
+	public Long get(int index)
+			throws ArrayIndexOutOfBoundsException {
+		return getLong(index);
+	}
+	
+	/**
+	 * Returns the value of the counter at the specified index, which is the sum of its cells.
+	 * @param index The index of the counter.
+	 * @return The value of the counter.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public long getLong(int index)
+			throws ArrayIndexOutOfBoundsException {
+		long ret = (long)AA.getVolatile(base, index * PAD);
+		long[] c = (long[])CELLS.getAcquire(cells, index);
+		
+		if (c != null) {
+			for (int k = 0; k < c.length; k += PAD)
+				ret += (long)AA.getVolatile(c, k);
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Adds 1 to the counter at the specified index.
+	 * @param index The index of the counter.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void increment(int index)
+			throws ArrayIndexOutOfBoundsException {
+		add(index, 1L);
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (!(o instanceof Long))
+			return -1;
+		
+		long value = (Long)o;
+		
+		for (int i = 0; i < cells.length; ++i) {
+			if (getLong(i) == value)
+				return i;
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public Iterator<?> iterator() {
+		return ArrayInto.collection(toArray()).iterator();
+	}
+	
+	@Override
+	public int lastIndexOf(Object o) {
+		if (!(o instanceof Long))
+			return -1;
+		
+		long value = (Long)o;
+		
+		for (int i = cells.length - 1; i >= 0; --i) {
+			if (getLong(i) == value)
+				return i;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Resets the counter at the specified index to 0. This is only exact when no other thread is updating the counter
+	 * at the same time.
+	 * @param index The index of the counter.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public void reset(int index)
+			throws ArrayIndexOutOfBoundsException {
+		sumThenReset(index);
+	}
+	
+	/**
+	 * Sets the counter at the specified index to the value of the specified Long. The counter is reset and then the
+	 * value is added, so this is only exact when no other thread is updating the counter at the same time.
+	 * @param index The index of the counter.
+	 * @param o The Long to set the counter to.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @throws IllegalArgumentException Thrown if o is not a Long.
+	 * @throws NullPointerException Thrown if o is null.
+	 * @since JDK-21
+	 */
+	@Override
+	public void set(int index, Object o)
+			throws ArrayIndexOutOfBoundsException, IllegalArgumentException, NullPointerException {
+		if (o == null)
+			throw new NullPointerException("Cannot set StripedLongArray value to a null value.");
+		
+		if (!(o instanceof Long))
+			throw new IllegalArgumentException("Cannot set StripedLongArray value to a non-Long object.");
+		
+		reset(index);
+		add(index, (Long)o);
+	}
+	
+	@Override
+	public int size() {
+		return cells.length;
+	}
+	
+	/**
+	 * Returns the number of stripe cells a contended counter of this StripedLongArray is spread over.
+	 * @return The number of stripes of this.
+	 * @since JDK-21
+	 */
+	public int stripes() {
+		return stripes;
+	}
+	
+	@Override
+	public LongArray subArray(int start, int end)
+			throws IllegalArgumentException {
+		if (start < 0 || end > cells.length || start >= end)
+			throw new IllegalArgumentException("Cannot create a sub-array due to invalid indices.");
+		
+		long[] ret = new long[end - start];
+		
+		for (int i = start; i < end; ++i)
+			ret[i - start] = getLong(i);
+		
+		return new LongArray(ret);
+	}
+	
+	/**
+	 * Returns the value of the counter at the specified index and resets it to 0. Updates made by other threads while
+	 * the cells are being reset are either included in the returned sum or kept in the counter, but never lost.
+	 * @param index The index of the counter.
+	 * @return The value of the counter before it was reset.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public long sumThenReset(int index)
+			throws ArrayIndexOutOfBoundsException {
+		long ret = (long)AA.getAndSet(base, index * PAD, 0L);
+		long[] c = (long[])CELLS.getAcquire(cells, index);
+		
+		if (c != null) {
+			for (int k = 0; k < c.length; k += PAD)
+				ret += (long)AA.getAndSet(c, k, 0L);
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Returns the values of the counters of this StripedLongArray as a new long array.
+	 * @return A long array containing the value of each counter of this.
+	 * @since JDK-21
+	 */
+	public long[] toArray() {
+		long[] ret = new long[cells.length];
+		
+		for (int i = 0; i < ret.length; ++i)
+			ret[i] = getLong(i);
+		
+		return ret;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T[] toArray(T[] a) {
+		long[] values = toArray();
+		Long[] copy = new Long[values.length];
+		
+		for (int i = 0; i < values.length; ++i)
+			copy[i] = values[i];
+		
+		if (a.length >= copy.length) {
+			for (int i = 0; i < copy.length; ++i)
+				a[i] = (T)copy[i];
+			
+			return a;
+		}
+		
+		T[] ret = (T[])copy;
+		
+		return ret;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder();
+		
+		for (int i = 0; i < cells.length; ++i) {
+			if (i > 0)
+				ret.append(' ');
+			
+			ret.append(getLong(i));
+		}
+		
+		return ret.toString();
+	}
+	
+	/**
+	 * Returns the stripe cells of the counter at the specified index, creating them if the counter has none.
+	 * @param index The index of the counter.
+	 * @return The stripe cells of the counter.
+	 * @since JDK-21
+	 */
+	private long[] stripe(int index) {
+		long[] c = new long[stripes * PAD];
+		long[] witness = (long[])CELLS.compareAndExchangeRelease(cells, index, (long[])null, c);
+		
+		return (witness == null) ? c : witness;
+	}
+
+}
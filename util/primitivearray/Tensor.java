@@ -0,0 +1,503 @@
+package babs.mindforge.util.primitivearray;
+
+import java.util.Arrays;
+
+import babs.mindforge.util.Index;
+import babs.mindforge.util.IndexCursor;
+
+/**
+ * Tensor class is the base class for N-dimensional dense arrays that are stored in a flat PrimitiveArray. The element
+ * at an {@link Index} is found by multiplying each index value by the stride of its dimension and adding the results
+ * to the offset of the Tensor. A new Tensor is laid out in either row-major or column-major order. Slices and
+ * transpositions only change the shape, strides and offset, so they are views that share the flat PrimitiveArray of
+ * the Tensor they are created from, and share its lock. Bulk operations visit the elements as contiguous runs of the
+ * flat PrimitiveArray, merging dimensions wherever the layout allows, so their inner loops run over flat memory.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see Index
+ * @see PrimitiveArray
+ * @since JDK-21
+ */
+public abstract class Tensor {
+	
+	/**
+	 * Order enum represents the order in which the elements of a new Tensor are laid out in its flat PrimitiveArray.
+	
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @since JDK-21
+	 */
+	public enum Order {
+		
+		/**
+		 * The last dimension is contiguous, as in a nested Java array.
+		 */
+		ROW_MAJOR,
+		/**
+		 * The first dimension is contiguous.
+		 */
+		COLUMN_MAJOR
+	
+	}
+	
+	/**
+	 * RunConsumer interface is used to receive the runs of a Tensor's flat PrimitiveArray, where each run is a series
+	 * of evenly spaced elements.
+	
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @since JDK-21
+	 */
+	@FunctionalInterface
+	public interface RunConsumer {
+		
+		/**
+		 * Accepts a run of elements of a Tensor's flat PrimitiveArray.
+		 * @param offset The flat index of the first element of the run.
+		 * @param stride The distance between the flat indices of consecutive elements in the run. This is 1 when the
+		 * run is contiguous.
+		 * @param length The number of elements in the run.
+		 * @since JDK-21
+		 */
+		public void accept(int offset, int stride, int length);
+	
+	}
+	
+	/**
+	 * The size of each dimension.
+	 */
+	protected final int[] shape;
+	/**
+	 * The distance in the flat PrimitiveArray between consecutive elements of each dimension.
+	 */
+	protected final int[] strides;
+	/**
+	 * The flat index of the first element.
+	 */
+	protected final int offset;
+	/**
+	 * The number of elements.
+	 */
+	protected final int size;
+	/**
+	 * The Key of the IndexCursors created by this Tensor, which is never handed out.
+	 */
+	private final IndexCursor.Key cursorKey = new IndexCursor.Key();
+	
+	/**
+	 * Constructor that creates a Tensor with the specified shape, laid out in the specified order starting at flat
+	 * index 0.
+	 * @param order The layout order.
+	 * @param shape The size of each dimension.
+	 * @throws IllegalArgumentException Thrown if a dimension is negative or if the Tensor would have more than
+	 * {@link Index#MAX} elements.
+	 * @throws NullPointerException Thrown if order or shape is null.
+	 * @since JDK-21
+	 */
+	protected Tensor(Order order, int[] shape)
+			throws IllegalArgumentException, NullPointerException {
+		if (order == null || shape == null)
+			throw new NullPointerException("Cannot create a Tensor with a null order or shape.");
+		
+		this.shape = shape.clone();
+		strides = new int[shape.length];
+		offset = 0;
+		
+		long n = 1;
+		
+		for (int i = 0; i < shape.length; ++i) {
+			int dim = (order == Order.ROW_MAJOR) ? shape.length - 1 - i : i;
+			
+			if (shape[dim] < 0)
+				throw new IllegalArgumentException("Cannot create a Tensor with a negative dimension.");
+			
+			strides[dim] = (int)n;
+			n *= shape[dim];
+			
+			if (n > Index.MAX)
+				throw new IllegalArgumentException("Cannot create a Tensor with more than Index.MAX elements.");
+		}
+		
+		size = (int)n;
+	}
+	
+	/**
+	 * Constructor that creates a Tensor view with the specified geometry. The arrays are used as is.
+	 * @param shape The size of each dimension.
+	 * @param strides The stride of each dimension.
+	 * @param offset The flat index of the first element.
+	 * @since JDK-21
+	 */
+	protected Tensor(int[] shape, int[] strides, int offset) {
+		this.shape = shape;
+		this.strides = strides;
+		this.offset = offset;
+		
+		int n = 1;
+		
+		for (int i = 0; i < shape.length; ++i)
+			n *= shape[i];
+		
+		size = n;
+	}
+	
+	/**
+	 * Checks that the specified dimension is a dimension of this Tensor.
+	 * @param dim The dimension to check.
+	 * @throws IllegalArgumentException Thrown if dim is out-of-bounds.
+	 * @since JDK-21
+	 */
+	protected void checkDimension(int dim)
+			throws IllegalArgumentException {
+		if (dim < 0 || dim >= shape.length)
+			throw new IllegalArgumentException("Tensor dimension " + dim + " is out-of-bounds.");
+	}
+	
+	/**
+	 * Returns a new IndexCursor at the first element of this Tensor, with the shape, strides and offset of this
+	 * Tensor, so {@link IndexCursor#offset()} is the flat index of the element at the current position. The
+	 * IndexCursor can be moved in place and passed to the get and set methods of a Tensor without allocating an
+	 * {@link Index} per element, and while this Tensor has elements it uses the flat offset without recomputing it.
+	 * @return An IndexCursor over this.
+	 * @since JDK-21
+	 */
+	public IndexCursor cursor() {
+		return new IndexCursor(shape, strides, offset, cursorKey);
+	}
+
+	/**
+	 * Returns the flat index of the element at the specified Index.
+	 * @param index The Index of the element.
+	 * @return The flat index of the element.
+	 * @throws IndexOutOfBoundsException Thrown if index does not have one value per dimension, or if a value is
+	 * out-of-bounds.
+	 * @throws NullPointerException Thrown if index is null.
+	 * @since JDK-21
+	 */
+	protected int flatIndex(Index index)
+			throws IndexOutOfBoundsException, NullPointerException {
+		if (index == null)
+			throw new NullPointerException("Cannot access a Tensor element with a null Index.");
+		
+		int[] value = index.value();
+		
+		if (value.length != shape.length)
+			throw new IndexOutOfBoundsException("Index rank does not match Tensor rank.");
+		
+		int ret = offset;
+		
+		for (int i = 0; i < value.length; ++i) {
+			if (value[i] < 0 || value[i] >= shape[i])
+				throw new IndexOutOfBoundsException("Index value at " + i + " out-of-bounds.");
+			
+			ret += value[i] * strides[i];
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Returns the flat index of the element at the current position of the specified IndexCursor. An IndexCursor
+	 * created by {@link #cursor()} of this Tensor carries a Key that only this Tensor holds, so it has the layout of
+	 * this Tensor, and its position is in-bounds whenever this Tensor has elements. Its flat offset is then returned
+	 * as is. For any other IndexCursor, or if this Tensor is empty, the index values are checked against the shape of
+	 * this Tensor and only they are used.
+	 * @param cursor The IndexCursor at the element.
+	 * @return The flat index of the element.
+	 * @throws IndexOutOfBoundsException Thrown if cursor does not have one dimension per dimension of this Tensor, or
+	 * if an index value is out-of-bounds.
+	 * @throws NullPointerException Thrown if cursor is null.
+	 * @since JDK-21
+	 */
+	protected int flatIndex(IndexCursor cursor)
+			throws IndexOutOfBoundsException, NullPointerException {
+		if (cursor == null)
+			throw new NullPointerException("Cannot access a Tensor element with a null IndexCursor.");
+		
+		if (size > 0 && cursor.hasKey(cursorKey))
+			return cursor.offset();
+		
+		if (cursor.rank() != shape.length)
+			throw new IndexOutOfBoundsException("IndexCursor rank does not match Tensor rank.");
+
+		int ret = offset;
+
+		for (int i = 0; i < shape.length; ++i) {
+			int value = cursor.get(i);
+
+			if (value < 0 || value >= shape[i])
+				throw new IndexOutOfBoundsException("IndexCursor value at " + i + " out-of-bounds.");
+
+			ret += value * strides[i];
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Returns true if the elements of this Tensor, taken in row-major order of its dimensions, occupy consecutive
+	 * indices of its flat PrimitiveArray.
+	 * @return True if this is contiguous.
+	 * @since JDK-21
+	 */
+	public boolean isContiguous() {
+		int[] run = new int[2];
+		
+		runs((o, s, l) -> {
+			run[0]++;
+			run[1] = s;
+		});
+		
+		return run[0] <= 1 && (size <= 1 || run[1] == 1);
+	}
+	
+	/**
+	 * Returns a Tensor view of this Tensor with its dimensions reordered so that dimension i of the view is
+	 * dimension axes[i] of this Tensor.
+	 * @param axes The dimensions of this Tensor in their new order.
+	 * @return A permuted view of this.
+	 * @throws IllegalArgumentException Thrown if axes is not a permutation of the dimensions of this Tensor.
+	 * @throws NullPointerException Thrown if axes is null.
+	 * @since JDK-21
+	 */
+	public Tensor permute(int ...axes)
+			throws IllegalArgumentException, NullPointerException {
+		if (axes == null)
+			throw new NullPointerException("Cannot permute a Tensor with null axes.");
+		if (axes.length != shape.length)
+			throw new IllegalArgumentException("Cannot permute a Tensor with the wrong number of axes.");
+		
+		boolean[] seen = new boolean[shape.length];
+		int[] s = new int[shape.length];
+		int[] st = new int[shape.length];
+		
+		for (int i = 0; i < axes.length; ++i) {
+			checkDimension(axes[i]);
+			
+			if (seen[axes[i]])
+				throw new IllegalArgumentException("Cannot permute a Tensor with repeated axes.");
+			
+			seen[axes[i]] = true;
+			s[i] = shape[axes[i]];
+			st[i] = strides[axes[i]];
+		}
+		
+		return view(s, st, offset);
+	}
+	
+	/**
+	 * Returns the number of dimensions of this Tensor.
+	 * @return The rank of this.
+	 * @since JDK-21
+	 */
+	public int rank() {
+		return shape.length;
+	}
+	
+	/**
+	 * Visits the elements of this Tensor as runs of its flat PrimitiveArray, in row-major order of this Tensor's
+	 * dimensions. Adjacent dimensions are merged into a single run wherever their strides allow, so a contiguous
+	 * Tensor is visited as a single run. The caller must hold the lock of the flat PrimitiveArray.
+	 * @param action The RunConsumer that receives each run.
+	 * @since JDK-21
+	 */
+	protected void runs(RunConsumer action) {
+		if (size == 0)
+			return;
+		
+		// Drop dimensions of size 1 and merge each dimension into the next one when they step through memory evenly.
+		int[] s = new int[shape.length + 1];
+		int[] st = new int[shape.length + 1];
+		int n = 0;
+		
+		for (int i = 0; i < shape.length; ++i) {
+			if (shape[i] == 1)
+				continue;
+			
+			if (n > 0 && st[n - 1] == shape[i] * strides[i]) {
+				s[n - 1] *= shape[i];
+				st[n - 1] = strides[i];
+			}
+			else {
+				s[n] = shape[i];
+				st[n] = strides[i];
+				++n;
+			}
+		}
+		
+		if (n == 0) {
+			action.accept(offset, 1, 1);
+			return;
+		}
+		
+		int length = s[n - 1];
+		int stride = st[n - 1];
+		int[] counter = new int[n - 1];
+		int start = offset;
+		
+		while (true) {
+			action.accept(start, stride, length);
+			
+			int d = n - 2;
+			
+			while (d >= 0 && ++counter[d] == s[d]) {
+				start -= (s[d] - 1) * st[d];
+				counter[d] = 0;
+				--d;
+			}
+			
+			if (d < 0)
+				return;
+			
+			start += st[d];
+		}
+	}
+	
+	/**
+	 * Returns a copy of the shape of this Tensor.
+	 * @return The size of each dimension of this.
+	 * @since JDK-21
+	 */
+	public int[] shape() {
+		return shape.clone();
+	}
+	
+	/**
+	 * Returns the size of the specified dimension of this Tensor.
+	 * @param dim The dimension.
+	 * @return The size of dim.
+	 * @throws IllegalArgumentException Thrown if dim is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public int shape(int dim)
+			throws IllegalArgumentException {
+		checkDimension(dim);
+		return shape[dim];
+	}
+	
+	/**
+	 * Returns the number of elements in this Tensor.
+	 * @return The size of this.
+	 * @since JDK-21
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Returns a Tensor view of this Tensor restricted to the range [start, end) of the specified dimension.
+	 * @param dim The dimension to slice.
+	 * @param start The index to start at (inclusive).
+	 * @param end The index to stop at (exclusive).
+	 * @return A sliced view of this.
+	 * @throws IllegalArgumentException Thrown if dim is out-of-bounds, or if start or end are out-of-bounds or start
+	 * is greater than end.
+	 * @since JDK-21
+	 */
+	public Tensor slice(int dim, int start, int end)
+			throws IllegalArgumentException {
+		checkDimension(dim);
+		
+		if (start < 0 || end > shape[dim] || start > end)
+			throw new IllegalArgumentException("Cannot slice a Tensor due to invalid indices.");
+		
+		int[] s = shape.clone();
+		s[dim] = end - start;
+		
+		return view(s, strides.clone(), (end > start) ? offset + start * strides[dim] : offset);
+	}
+	
+	/**
+	 * Returns a Tensor view of this Tensor with the specified dimension fixed at the specified index, which removes
+	 * that dimension.
+	 * @param dim The dimension to fix.
+	 * @param index The index to fix the dimension at.
+	 * @return A view of this with one less dimension.
+	 * @throws IllegalArgumentException Thrown if dim or index is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public Tensor select(int dim, int index)
+			throws IllegalArgumentException {
+		checkDimension(dim);
+		
+		if (index < 0 || index >= shape[dim])
+			throw new IllegalArgumentException("Cannot select a Tensor index that is out-of-bounds.");
+		
+		int[] s = new int[shape.length - 1];
+		int[] st = new int[shape.length - 1];
+		
+		for (int i = 0, j = 0; i < shape.length; ++i) {
+			if (i != dim) {
+				s[j] = shape[i];
+				st[j++] = strides[i];
+			}
+		}
+		
+		return view(s, st, offset + index * strides[dim]);
+	}
+	
+	/**
+	 * Returns a copy of the strides of this Tensor.
+	 * @return The stride of each dimension of this.
+	 * @since JDK-21
+	 */
+	public int[] strides() {
+		return strides.clone();
+	}
+	
+	@Override
+	public String toString() {
+		return Arrays.toString(shape);
+	}
+	
+	/**
+	 * Returns a Tensor view of this Tensor with the order of its dimensions reversed. For a matrix, this is its
+	 * transpose.
+	 * @return A transposed view of this.
+	 * @since JDK-21
+	 */
+	public Tensor transpose() {
+		int[] axes = new int[shape.length];
+		
+		for (int i = 0; i < axes.length; ++i)
+			axes[i] = axes.length - 1 - i;
+		
+		return permute(axes);
+	}
+	
+	/**
+	 * Returns a Tensor view of this Tensor with the two specified dimensions swapped.
+	 * @param dim1 The first dimension.
+	 * @param dim2 The second dimension.
+	 * @return A transposed view of this.
+	 * @throws IllegalArgumentException Thrown if dim1 or dim2 is out-of-bounds.
+	 * @since JDK-21
+	 */
+	public Tensor transpose(int dim1, int dim2)
+			throws IllegalArgumentException {
+		checkDimension(dim1);
+		checkDimension(dim2);
+		
+		int[] axes = new int[shape.length];
+		
+		for (int i = 0; i < axes.length; ++i)
+			axes[i] = i;
+		
+		axes[dim1] = dim2;
+		axes[dim2] = dim1;
+		
+		return permute(axes);
+	}
+	
+	/**
+	 * Creates a Tensor of the same type as this Tensor, sharing its flat PrimitiveArray, with the specified geometry.
+	 * @param shape The size of each dimension.
+	 * @param strides The stride of each dimension.
+	 * @param offset The flat index of the first element.
+	 * @return A Tensor view sharing the flat PrimitiveArray of this.
+	 * @since JDK-21
+	 */
+	protected abstract Tensor view(int[] shape, int[] strides, int offset);
+
+}
@@ -0,0 +1,523 @@
+package babs.mindforge.util.set;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * ConcurrentUniqueSet class is a set of unique, non-null values built for many threads adding and looking up elements
+ * at once. The elements are spread by hash code over a number of segments, each a hash table guarded by its own
+ * StampedLock, so threads only contend when they touch the same segment. Lookups read optimistically without locking
+ * and only take a segment's read lock if a write to that segment ran at the same time, so they never block each other
+ * or write to shared memory. The size is kept in a LongAdder and is approximate while other threads modify the set.
+ * Unlike {@link UniqueSet}, a ConcurrentUniqueSet does not keep its elements in the order they were added. Iterators
+ * are weakly consistent: they walk the segments in place without copying them, never throw
+ * ConcurrentModificationException, return each element that was in the set when they were created and not removed
+ * since exactly once, and may or may not reflect later changes. ConcurrentUniqueSet implements Set and is thread-safe.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @param <E> The element type.
+ * @see Set
+ * @see UniqueSet
+ * @since JDK-21
+ */
+public class ConcurrentUniqueSet<E> implements Set<E> {
+	
+	/**
+	 * The default number of segments for each available processor.
+	 */
+	public static final int SEGMENTS_PER_PROCESSOR = 4;
+	/**
+	 * The largest number of segments a ConcurrentUniqueSet may have.
+	 */
+	public static final int MAX_SEGMENTS = 1 << 16;
+	
+	/**
+	 * Segment class is one hash table of a ConcurrentUniqueSet together with the lock that guards it.
+	 *
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @param <E> The element type.
+	 * @since JDK-21
+	 */
+	private static final class Segment<E> {
+		
+		/**
+		 * The lock guarding the segment.
+		 */
+		final StampedLock lock = new StampedLock();
+		/**
+		 * The hash table holding the elements of the segment.
+		 */
+		final HashStore<E> store;
+		
+		/**
+		 * Constructor that creates an empty segment with room for the specified number of elements.
+		 * @param capacity The number of elements to allocate room for.
+		 * @since JDK-21
+		 */
+		Segment(int capacity) {
+			store = new HashStore<E>(capacity, null);
+		}
+	
+	}
+	
+	/**
+	 * The segments of the ConcurrentUniqueSet.
+	 */
+	private final Segment<E>[] segments;
+	/**
+	 * The number of bits to shift a spread hash code right by to find its segment.
+	 */
+	private final int shift;
+	/**
+	 * The number of elements in the ConcurrentUniqueSet.
+	 */
+	private final LongAdder count = new LongAdder();
+	
+	/**
+	 * Default constructor that creates an empty ConcurrentUniqueSet with {@link #SEGMENTS_PER_PROCESSOR} segments for
+	 * each available processor.
+	 * @since JDK-21
+	 */
+	public ConcurrentUniqueSet() {
+		this(0, Runtime.getRuntime().availableProcessors() * SEGMENTS_PER_PROCESSOR);
+	}
+	
+	/**
+	 * Constructor that creates an empty ConcurrentUniqueSet with room for the specified number of elements and at
+	 * least the specified number of segments. The number of segments is rounded up to a power of two.
+	 * @param capacity The number of elements to allocate room for.
+	 * @param concurrencyLevel The number of threads expected to modify the set at once.
+	 * @throws IllegalArgumentException Thrown if capacity is negative or concurrencyLevel is less than 1.
+	 * @since JDK-21
+	 */
+	@SuppressWarnings("unchecked")
+	public ConcurrentUniqueSet(int capacity, int concurrencyLevel)
+			throws IllegalArgumentException {
+		if (capacity < 0)
+			throw new IllegalArgumentException("Cannot create a ConcurrentUniqueSet with a negative capacity.");
+		if (concurrencyLevel < 1)
+			throw new IllegalArgumentException("Cannot create a ConcurrentUniqueSet with a concurrency level "
+					+ "below 1.");
+		
+		int n = concurrencyLevel >= MAX_SEGMENTS ? MAX_SEGMENTS : Integer.highestOneBit((concurrencyLevel << 1) - 1);
+		int perSegment = (capacity + n - 1) / n;
+		
+		segments = (Segment<E>[])new Segment<?>[n];
+		shift = 32 - Integer.numberOfTrailingZeros(n);
+		
+		for (int i = 0; i < n; ++i)
+			segments[i] = new Segment<E>(perSegment);
+	}
+	
+	/**
+	 * Constructor that initializes this ConcurrentUniqueSet to the unique contents of the specified Collection.
+	 * @param c The Collection to store into this ConcurrentUniqueSet.
+	 * @since JDK-21
+	 */
+	public ConcurrentUniqueSet(Collection<? extends E> c) {
+		this(c.size(), Runtime.getRuntime().availableProcessors() * SEGMENTS_PER_PROCESSOR);
+		this.addAll(c);
+	}
+	
+	/**
+	 * Adds the specified element to this ConcurrentUniqueSet, if this ConcurrentUniqueSet does not already contain the
+	 * specified element. This returns false is the specified element is null or is already in this
+	 * ConcurrentUniqueSet. Only the segment of the element is locked.
+	 * @param e The element to add.
+	 * @return True if e is added, otherwise false.
+	 * @since JDK-21
+	 */
+	@Override
+	public boolean add(E e) {
+		if (e == null)
+			return false;
+		
+		Segment<E> s = segmentFor(e);
+		long stamp = s.lock.writeLock();
+		
+		try {
+			if (!s.store.add(e))
+				return false;
+		}
+		finally {
+			s.lock.unlockWrite(stamp);
+		}
+		
+		count.increment();
+		
+		return true;
+	}
+	
+	/**
+	 * Adds the specified Collection of elements to this ConcurrentUniqueSet, if this ConcurrentUniqueSet does not
+	 * already contain the specified elements. This returns false is the specified Collection is null or is already in
+	 * this ConcurrentUniqueSet. The elements are added one at a time, so other threads may see some of them before
+	 * the rest.
+	 * @param c The Collection to add.
+	 * @return True if this ConcurrentUniqueSet is changed after this method call.
+	 * @since JDK-21
+	 */
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		if (c == null)
+			return false;
+		
+		boolean ret = false;
+		
+		for (E e : c)
+			ret |= add(e);
+		
+		return ret;
+	}
+	
+	@Override
+	public void clear() {
+		for (Segment<E> s : segments) {
+			long stamp = s.lock.writeLock();
+			
+			try {
+				count.add(-s.store.size());
+				s.store.clear();
+			}
+			finally {
+				s.lock.unlockWrite(stamp);
+			}
+		}
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		if (o == null)
+			return false;
+		
+		Segment<E> s = segmentFor(o);
+		long stamp = s.lock.tryOptimisticRead();
+		
+		if (stamp != 0L) {
+			try {
+				boolean ret = s.store.contains(o);
+				
+				if (s.lock.validate(stamp))
+					return ret;
+			}
+			catch (RuntimeException ex) {
+				// A write during the optimistic read can leave the segment briefly inconsistent, so retry locked.
+			}
+		}
+		
+		stamp = s.lock.readLock();
+		
+		try {
+			return s.store.contains(o);
+		}
+		finally {
+			s.lock.unlockRead(stamp);
+		}
+	}
+	
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for (Object o : c) {
+			if (!contains(o))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (o == this)
+			return true;
+		
+		if (o instanceof Set<?>) {
+			Set<?> other = (Set<?>)o;
+			
+			return other.size() == this.size() && this.containsAll(other);
+		}
+		
+		return false;
+	}
+	
+	@Override
+	public int hashCode() {
+		int ret = 0;
+		
+		for (E e : this)
+			ret += e.hashCode();
+		
+		return ret;
+	}
+	
+	@Override
+	public boolean isEmpty() {
+		return count.sum() <= 0L;
+	}
+	
+	/**
+	 * Returns a weakly consistent iterator over the elements of this ConcurrentUniqueSet. The iterator reads each
+	 * segment in place, without copying it, and removes elements through this ConcurrentUniqueSet.
+	 * @return An iterator over the elements of this.
+	 * @since JDK-21
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+			
+			private int segment = 0;
+			private Object[] entries = null;
+			private int slot = 0;
+			private E next = advance();
+			private E last = null;
+			
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+			
+			@Override
+			public E next() {
+				if (next == null)
+					throw new NoSuchElementException("Cannot iterate past the end of a ConcurrentUniqueSet.");
+				
+				last = next;
+				next = advance();
+				return last;
+			}
+			
+			@Override
+			public void remove() {
+				if (last == null)
+					throw new IllegalStateException("Cannot remove an element before calling next.");
+				
+				ConcurrentUniqueSet.this.remove(last);
+				last = null;
+			}
+			
+			/**
+			 * Returns the next element after the current position, moving on to the next segment when the current
+			 * one is used up, or null if there are no more elements.
+			 * @return The next element, or null.
+			 * @since JDK-21
+			 */
+			private E advance() {
+				while (segment < segments.length) {
+					Segment<E> s = segments[segment];
+					
+					if (entries == null) {
+						entries = readEntries(s);
+						slot = 0;
+					}
+					
+					while (slot < entries.length) {
+						E e = readEntry(s, entries, slot++);
+						
+						if (e != null)
+							return e;
+					}
+					
+					entries = null;
+					++segment;
+				}
+				
+				return null;
+			}
+		
+		};
+	}
+	
+	@Override
+	public boolean remove(Object o) {
+		if (o == null)
+			return false;
+		
+		Segment<E> s = segmentFor(o);
+		long stamp = s.lock.writeLock();
+		
+		try {
+			if (!s.store.remove(o))
+				return false;
+		}
+		finally {
+			s.lock.unlockWrite(stamp);
+		}
+		
+		count.decrement();
+		
+		return true;
+	}
+	
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		boolean ret = false;
+		
+		for (Object o : c)
+			ret |= remove(o);
+		
+		return ret;
+	}
+	
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		boolean ret = false;
+		
+		for (Segment<E> s : segments) {
+			long stamp = s.lock.writeLock();
+			
+			try {
+				Iterator<E> it = s.store.iterator();
+				
+				while (it.hasNext()) {
+					if (!c.contains(it.next())) {
+						it.remove();
+						count.decrement();
+						ret = true;
+					}
+				}
+			}
+			finally {
+				s.lock.unlockWrite(stamp);
+			}
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Returns the number of segments of this ConcurrentUniqueSet.
+	 * @return The number of segments of this.
+	 * @since JDK-21
+	 */
+	public int segments() {
+		return segments.length;
+	}
+	
+	/**
+	 * Returns the number of elements in this ConcurrentUniqueSet. The count is exact when no other thread is modifying
+	 * this ConcurrentUniqueSet, and otherwise approximate.
+	 * @return The size of this.
+	 * @since JDK-21
+	 */
+	@Override
+	public int size() {
+		long ret = count.sum();
+		
+		return ret <= 0L ? 0 : (ret >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)ret);
+	}
+	
+	@Override
+	public Object[] toArray() {
+		ArrayList<E> ret = new ArrayList<E>(size());
+		
+		for (E e : this)
+			ret.add(e);
+		
+		return ret.toArray();
+	}
+	
+	@Override
+	public <T> T[] toArray(T[] a) {
+		ArrayList<E> ret = new ArrayList<E>(size());
+		
+		for (E e : this)
+			ret.add(e);
+		
+		return ret.toArray(a);
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder("{ ");
+		Iterator<E> it = iterator();
+		
+		while (it.hasNext()) {
+			ret.append(it.next().toString());
+			
+			if (it.hasNext())
+				ret.append(", ");
+		}
+		
+		ret.append(" }");
+		
+		return ret.toString();
+	}
+	
+	/**
+	 * Returns the element in the specified slot of the specified entries of the specified segment, or null if the slot
+	 * is empty. The entries may have been replaced in the segment since they were read, in which case they no longer
+	 * change.
+	 * @param s The segment the entries belong to.
+	 * @param entries The entries of s.
+	 * @param slot The slot to read.
+	 * @return The element in slot, or null.
+	 * @since JDK-21
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E> E readEntry(Segment<E> s, Object[] entries, int slot) {
+		long stamp = s.lock.tryOptimisticRead();
+		Object ret = entries[slot];
+		
+		if (stamp != 0L && s.lock.validate(stamp))
+			return (E)ret;
+		
+		stamp = s.lock.readLock();
+		
+		try {
+			return (E)entries[slot];
+		}
+		finally {
+			s.lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Returns the current entries array of the specified segment.
+	 * @param s The segment to read.
+	 * @return The entries of s.
+	 * @since JDK-21
+	 */
+	private static Object[] readEntries(Segment<?> s) {
+		long stamp = s.lock.tryOptimisticRead();
+		Object[] ret = s.store.entries();
+		
+		if (stamp != 0L && s.lock.validate(stamp))
+			return ret;
+		
+		stamp = s.lock.readLock();
+		
+		try {
+			return s.store.entries();
+		}
+		finally {
+			s.lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Returns the segment the specified element belongs to. The hash code is mixed and its high bits pick the
+	 * segment, so that the segment does not depend on the low bits each segment's hash table uses.
+	 * @param o The element.
+	 * @return The segment of o.
+	 * @since JDK-21
+	 */
+	private Segment<E> segmentFor(Object o) {
+		int h = o.hashCode();
+		
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		h *= 0xC2B2AE35;
+		h ^= h >>> 16;
+		
+		return segments[shift == 32 ? 0 : h >>> shift];
+	}
+
+}
@@ -0,0 +1,98 @@
+package babs.mindforge.util.set;
+
+/**
+ * EvictionPolicy class is the base class for the bookkeeping behind a {@link LimitedSet} that evicts elements to make
+ * room for new ones. The LimitedSet tells its EvictionPolicy about every element it adds, finds or removes, and asks
+ * it which element to evict whenever it holds more elements than its maximum capacity. Every operation of an
+ * EvictionPolicy takes constant time. EvictionPolicies are created by
+ * {@link #create(LimitedSet.Eviction, int)} and are not thread-safe; the owning LimitedSet guards them with its write
+ * lock.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @param <E> The element type.
+ * @see LimitedSet
+ * @since JDK-21
+ */
+abstract class EvictionPolicy<E> {
+	
+	/**
+	 * Records that the specified element was added to the LimitedSet.
+	 * @param e The added element.
+	 * @since JDK-21
+	 */
+	abstract void add(E e);
+	
+	/**
+	 * Sets the maximum capacity of the LimitedSet, which some policies use to size their regions.
+	 * @param maxCapacity The new maximum capacity.
+	 * @since JDK-21
+	 */
+	void capacity(int maxCapacity) {}
+	
+	/**
+	 * Forgets all elements.
+	 * @since JDK-21
+	 */
+	abstract void clear();
+	
+	/**
+	 * Creates an EvictionPolicy of the specified kind for a LimitedSet with the specified maximum capacity.
+	 * @param <E> The element type.
+	 * @param eviction The kind of policy to create.
+	 * @param maxCapacity The maximum capacity of the LimitedSet.
+	 * @return A new EvictionPolicy, or null for {@link LimitedSet.Eviction#REJECT}, which evicts
+	 * nothing, and {@link LimitedSet.Eviction#LOWEST_WEIGHT}, whose WeightedSets evict their elements themselves.
+	 * @throws NullPointerException Thrown if eviction is null.
+	 * @since JDK-21
+	 */
+	static <E> EvictionPolicy<E> create(LimitedSet.Eviction eviction, int maxCapacity)
+			throws NullPointerException {
+		if (eviction == null)
+			throw new NullPointerException("Cannot create an EvictionPolicy with a null eviction.");
+		
+		switch (eviction) {
+			case FIFO:
+				return new QueuePolicy<E>(false);
+			case LRU:
+				return new QueuePolicy<E>(true);
+			case LFU:
+				return new LfuPolicy<E>();
+			case TINY_LFU:
+				return new TinyLfuPolicy<E>(maxCapacity);
+			default:
+				return null;
+		}
+	}
+	
+	/**
+	 * Chooses an element to evict and forgets it. The LimitedSet then removes the returned element, which may be the
+	 * element it added last.
+	 * @return The element to evict, or null if there are no elements.
+	 * @since JDK-21
+	 */
+	abstract E evict();
+	
+	/**
+	 * Records that the specified element of the LimitedSet was found.
+	 * @param e The element that was found.
+	 * @since JDK-21
+	 */
+	abstract void hit(E e);
+	
+	/**
+	 * Records that the specified element was removed from the LimitedSet by something other than eviction.
+	 * @param o The removed element.
+	 * @since JDK-21
+	 */
+	abstract void remove(Object o);
+	
+	/**
+	 * Returns true if this EvictionPolicy needs to hear about every element that is found, so that the LimitedSet must
+	 * take its write lock for lookups.
+	 * @return True if this tracks accesses, otherwise false.
+	 * @since JDK-21
+	 */
+	abstract boolean tracksAccess();
+
+}
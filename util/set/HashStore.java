@@ -0,0 +1,336 @@
+package babs.mindforge.util.set;
+
+import java.util.Arrays;
+
+import java.util.function.Function;
+
+/**
+ * HashStore class is a SetStore backed by an open-addressing hash table with linear probing. The elements are kept in
+ * insertion order in a dense entries array, and the hash table maps each key to its slot in that array, so adding,
+ * finding and removing an element take constant time on average. A removed element leaves an empty slot that is
+ * reclaimed when the entries array next fills and is compacted, and the table is kept at most half full. Removals from
+ * the table shift later entries back instead of leaving tombstones, so lookups never slow down as elements come and
+ * go.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @param <E> The element type.
+ * @see SetStore
+ * @since JDK-21
+ */
+final class HashStore<E> extends SetStore<E> {
+	
+	/**
+	 * The smallest number of entries a HashStore allocates room for.
+	 */
+	private static final int MIN_CAPACITY = 4;
+	
+	/**
+	 * The elements, in insertion order, with null in the slots of removed elements.
+	 */
+	private Object[] entries;
+	/**
+	 * The spread hash code of the key of the element in each slot.
+	 */
+	private int[] hashes;
+	/**
+	 * The hash table, holding one more than the slot of an element, or 0 if empty.
+	 */
+	private int[] table;
+	/**
+	 * The bit mask that maps a hash code to a position in the hash table.
+	 */
+	private int mask;
+	/**
+	 * The number of slots in use, including empty ones.
+	 */
+	private int end;
+	/**
+	 * The number of elements.
+	 */
+	private int size;
+	
+	/**
+	 * Constructor that creates an empty HashStore with room for the specified number of elements.
+	 * @param capacity The number of elements to allocate room for.
+	 * @param key The key function, or null to compare elements by themselves.
+	 * @since JDK-21
+	 */
+	HashStore(int capacity, Function<Object, ?> key) {
+		super(key);
+		allocate(Math.max(capacity, MIN_CAPACITY));
+	}
+	
+	@Override
+	public boolean add(E e) {
+		Object k = keyOf(e);
+		int h = spread(k.hashCode());
+		
+		if (find(k, h) != -1)
+			return false;
+		
+		if (end == entries.length)
+			rebuild(size >= (end >> 1) ? entries.length << 1 : entries.length);
+		
+		entries[end] = e;
+		hashes[end] = h;
+		insert(h, end);
+		++end;
+		++size;
+		++version;
+		
+		return true;
+	}
+	
+	@Override
+	public UniqueSet.Backend backend() {
+		return UniqueSet.Backend.HASH;
+	}
+	
+	@Override
+	public void clear() {
+		Arrays.fill(entries, 0, end, null);
+		Arrays.fill(table, 0);
+		end = 0;
+		size = 0;
+		++version;
+	}
+	
+	@Override
+	public SetStore<E> copy() {
+		HashStore<E> ret = new HashStore<E>(size, key);
+		
+		for (int i = 0; i < end; ++i) {
+			if (entries[i] != null) {
+				ret.entries[ret.end] = entries[i];
+				ret.hashes[ret.end] = hashes[i];
+				ret.insert(hashes[i], ret.end++);
+			}
+		}
+		
+		ret.size = size;
+		
+		return ret;
+	}
+	
+	@Override
+	public void ensureCapacity(int capacity) {
+		if (capacity > entries.length)
+			rebuild(capacity);
+	}
+	
+	/**
+	 * Returns the entries array of this HashStore, which holds the elements in insertion order with null in empty
+	 * slots. The array is replaced rather than reused whenever the HashStore is rebuilt, so a reader that holds on to
+	 * it keeps seeing every element that was neither removed nor moved by a rebuild.
+	 * @return The entries of this.
+	 * @since JDK-21
+	 */
+	Object[] entries() {
+		return entries;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public E get(int slot)
+			throws IndexOutOfBoundsException {
+		if (slot < 0 || slot >= end)
+			throw new IndexOutOfBoundsException("Cannot get an element due to slot out-of-bounds.");
+		
+		return (E)entries[slot];
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (o == null)
+			return -1;
+		
+		Object k = keyOf(o);
+		int p = find(k, spread(k.hashCode()));
+		
+		return p == -1 ? -1 : table[p] - 1;
+	}
+	
+	@Override
+	public boolean remove(Object o) {
+		if (o == null)
+			return false;
+		
+		Object k = keyOf(o);
+		int p = find(k, spread(k.hashCode()));
+		
+		if (p == -1)
+			return false;
+		
+		int slot = table[p] - 1;
+		
+		delete(p);
+		release(slot);
+		
+		return true;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public E removeAt(int slot)
+			throws IndexOutOfBoundsException {
+		if (slot < 0 || slot >= end)
+			throw new IndexOutOfBoundsException("Cannot remove an element due to slot out-of-bounds.");
+		
+		E ret = (E)entries[slot];
+		
+		if (ret == null)
+			return null;
+		
+		int p = hashes[slot] & mask;
+		
+		while (table[p] != slot + 1)
+			p = (p + 1) & mask;
+		
+		delete(p);
+		release(slot);
+		
+		return ret;
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	@Override
+	public int slots() {
+		return end;
+	}
+	
+	/**
+	 * Allocates empty entries and a hash table with room for the specified number of elements.
+	 * @param capacity The number of elements to allocate room for.
+	 * @since JDK-21
+	 */
+	private void allocate(int capacity) {
+		entries = new Object[capacity];
+		hashes = new int[capacity];
+		table = new int[Integer.highestOneBit(capacity) << 2];
+		mask = table.length - 1;
+	}
+	
+	/**
+	 * Removes the entry at the specified position of the hash table, shifting back any later entries of the same
+	 * probe sequence so that no lookup passes over an empty position before reaching its key.
+	 * @param p The position to clear.
+	 * @since JDK-21
+	 */
+	private void delete(int p) {
+		int q = p;
+		
+		while (true) {
+			q = (q + 1) & mask;
+			
+			int s = table[q] - 1;
+			
+			if (s < 0)
+				break;
+			
+			// The entry at q can fill the hole at p only if its home position is not between p and q.
+			if (((q - (hashes[s] & mask)) & mask) >= ((q - p) & mask)) {
+				table[p] = table[q];
+				p = q;
+			}
+		}
+		
+		table[p] = 0;
+	}
+	
+	/**
+	 * Returns the position in the hash table of the specified key, or -1 if it is not in the table. The table always
+	 * has an empty position, but the probe still stops after visiting every position once, so that an optimistic read
+	 * racing a rebuild cannot loop forever.
+	 * @param k The key to find.
+	 * @param h The spread hash code of k.
+	 * @return The position of k, or -1.
+	 * @since JDK-21
+	 */
+	private int find(Object k, int h) {
+		int[] table = this.table;
+		int mask = table.length - 1;
+		
+		for (int n = 0, p = h & mask; n < table.length; ++n, p = (p + 1) & mask) {
+			int s = table[p] - 1;
+			
+			if (s < 0)
+				return -1;
+			
+			if (hashes[s] == h && k.equals(keyOf(entries[s])))
+				return p;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Puts the specified slot in the first empty position of the probe sequence of the specified hash code.
+	 * @param h The spread hash code of the element in slot.
+	 * @param slot The slot to insert.
+	 * @since JDK-21
+	 */
+	private void insert(int h, int slot) {
+		int p = h & mask;
+		
+		while (table[p] != 0)
+			p = (p + 1) & mask;
+		
+		table[p] = slot + 1;
+	}
+	
+	/**
+	 * Moves the elements into new entries with room for the specified number of elements, closing up the empty slots,
+	 * and rebuilds the hash table.
+	 * @param capacity The number of elements to allocate room for.
+	 * @since JDK-21
+	 */
+	private void rebuild(int capacity) {
+		Object[] oldEntries = entries;
+		int[] oldHashes = hashes;
+		int oldEnd = end;
+		
+		allocate(Math.max(capacity, MIN_CAPACITY));
+		end = 0;
+		
+		for (int i = 0; i < oldEnd; ++i) {
+			if (oldEntries[i] != null) {
+				entries[end] = oldEntries[i];
+				hashes[end] = oldHashes[i];
+				insert(oldHashes[i], end++);
+			}
+		}
+	}
+	
+	/**
+	 * Empties the specified slot after its element has been removed from the hash table. Empty slots at the end are
+	 * dropped, but no element is moved, so the slots of the remaining elements stay valid while a caller removes
+	 * elements in a loop. The empty slots are closed up when the entries next fill.
+	 * @param slot The slot to empty.
+	 * @since JDK-21
+	 */
+	private void release(int slot) {
+		entries[slot] = null;
+		--size;
+		++version;
+		
+		while (end > 0 && entries[end - 1] == null)
+			--end;
+	}
+	
+	/**
+	 * Spreads the bits of the specified hash code so that keys with similar hash codes land far apart in the table.
+	 * @param h The hash code to spread.
+	 * @return The spread hash code.
+	 * @since JDK-21
+	 */
+	private static int spread(int h) {
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+}
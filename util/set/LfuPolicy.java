@@ -0,0 +1,177 @@
+package babs.mindforge.util.set;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * LfuPolicy class is an EvictionPolicy that evicts the least frequently used element, and of those the one that
+ * reached its use count first. Elements with the same use count share a bucket, and the buckets form a list in
+ * increasing order of use count, so a hit moves an element to the next bucket and the element to evict is at the head
+ * of the first bucket. Every operation takes constant time.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @param <E> The element type.
+ * @see EvictionPolicy
+ * @since JDK-21
+ */
+final class LfuPolicy<E> extends EvictionPolicy<E> {
+	
+	/**
+	 * Bucket class holds the elements that have been used the same number of times, in the order they reached that
+	 * number.
+	 *
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @param <E> The element type.
+	 * @since JDK-21
+	 */
+	private static final class Bucket<E> {
+		
+		/**
+		 * The number of times the elements of the bucket have been used.
+		 */
+		final long count;
+		/**
+		 * The elements of the bucket.
+		 */
+		final LinkedHashMap<Object, E> elements = new LinkedHashMap<Object, E>();
+		/**
+		 * The bucket with the next lower count, or null.
+		 */
+		Bucket<E> prev;
+		/**
+		 * The bucket with the next higher count, or null.
+		 */
+		Bucket<E> next;
+		
+		/**
+		 * Constructor that creates an empty bucket for the specified count.
+		 * @param count The use count of the bucket.
+		 * @since JDK-21
+		 */
+		Bucket(long count) {
+			this.count = count;
+		}
+	
+	}
+	
+	/**
+	 * The bucket of each element.
+	 */
+	private final HashMap<Object, Bucket<E>> buckets = new HashMap<Object, Bucket<E>>();
+	/**
+	 * The bucket with the lowest count, or null if there are no elements.
+	 */
+	private Bucket<E> head;
+	
+	@Override
+	void add(E e) {
+		Bucket<E> b = head;
+		
+		if (b == null || b.count != 1L)
+			b = link(new Bucket<E>(1L), null);
+		
+		b.elements.put(e, e);
+		buckets.put(e, b);
+	}
+	
+	@Override
+	void clear() {
+		buckets.clear();
+		head = null;
+	}
+	
+	@Override
+	E evict() {
+		if (head == null)
+			return null;
+		
+		Iterator<E> it = head.elements.values().iterator();
+		E ret = it.next();
+		
+		it.remove();
+		buckets.remove(ret);
+		
+		if (head.elements.isEmpty())
+			unlink(head);
+		
+		return ret;
+	}
+	
+	@Override
+	void hit(E e) {
+		Bucket<E> b = buckets.get(e);
+		
+		if (b == null)
+			return;
+		
+		Bucket<E> n = b.next;
+		
+		if (n == null || n.count != b.count + 1L)
+			n = link(new Bucket<E>(b.count + 1L), b);
+		
+		b.elements.remove(e);
+		n.elements.put(e, e);
+		buckets.put(e, n);
+		
+		if (b.elements.isEmpty())
+			unlink(b);
+	}
+	
+	@Override
+	void remove(Object o) {
+		Bucket<E> b = buckets.remove(o);
+		
+		if (b != null) {
+			b.elements.remove(o);
+			
+			if (b.elements.isEmpty())
+				unlink(b);
+		}
+	}
+	
+	@Override
+	boolean tracksAccess() {
+		return true;
+	}
+	
+	/**
+	 * Links the specified bucket into the list after the specified bucket, or at the head if that is null.
+	 * @param b The bucket to link.
+	 * @param prev The bucket to link b after, or null.
+	 * @return b.
+	 * @since JDK-21
+	 */
+	private Bucket<E> link(Bucket<E> b, Bucket<E> prev) {
+		b.prev = prev;
+		b.next = prev == null ? head : prev.next;
+		
+		if (b.next != null)
+			b.next.prev = b;
+		
+		if (prev == null)
+			head = b;
+		else
+			prev.next = b;
+		
+		return b;
+	}
+	
+	/**
+	 * Unlinks the specified empty bucket from the list.
+	 * @param b The bucket to unlink.
+	 * @since JDK-21
+	 */
+	private void unlink(Bucket<E> b) {
+		if (b.prev == null)
+			head = b.next;
+		else
+			b.prev.next = b.next;
+		
+		if (b.next != null)
+			b.next.prev = b.prev;
+	}
+
+}
@@ -1,25 +1,67 @@
 package babs.mindforge.util.set;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.Vector;
+
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * LimitedSet class represents a {@link UniqueSet} with a maximum element capacity. The default maximum capacity is 
- * 10, but this can be changed through the {@link #LimitedSet(int)} constructor. If the LimitedSet reaches its 
- * maximum capacity, no more elements can be added until other elements are removed. All other rules regarding 
- * UniqueSets apply to LimitedSets. LimitedSet extends UniqueSet and is thread-safe.
+ * 10, but this can be changed through the {@link #LimitedSet(int)} constructor. What happens when an element is added
+ * to a full LimitedSet is chosen by its {@link Eviction}. By default the element is rejected, so no more elements can
+ * be added until other elements are removed. Otherwise the LimitedSet acts as a bounded working set and evicts an
+ * element chosen by its eviction policy to make room, in constant time. A LimitedSet counts its hits, which are
+ * lookups and adds of elements it contains, its misses and its evictions. All other rules regarding UniqueSets apply
+ * to LimitedSets. LimitedSet extends UniqueSet and is thread-safe.
  * 
  * @author Monroe Gordon
  * @version 0.0.0
  * @param <E> The element type.
  * @see UniqueSet
- * @see Vector
  * @since JDK-21
  */
 public class LimitedSet<E> extends UniqueSet<E> {
 	
+	/**
+	 * Eviction enum represents what a LimitedSet does when an element is added while it is full.
+	
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @since JDK-21
+	 */
+	public enum Eviction {
+		
+		/**
+		 * Reject the new element. Shrinking the maximum capacity removes the most recently added elements.
+		 */
+		REJECT,
+		/**
+		 * Evict the element that was added first.
+		 */
+		FIFO,
+		/**
+		 * Evict the least recently used element. Lookups take the write lock to record the use.
+		 */
+		LRU,
+		/**
+		 * Evict the least frequently used element, and of those the one that reached its use count first. Lookups
+		 * take the write lock to record the use.
+		 */
+		LFU,
+		/**
+		 * Window TinyLFU: new elements enter a small LRU window, and an element leaving the window is only kept if a
+		 * frequency sketch says it is used more often than the element it would replace. This keeps frequently used
+		 * elements in the face of scans. Lookups take the write lock to record the use.
+		 */
+		TINY_LFU,
+		/**
+		 * Evict the element with the lowest weight. This is the eviction of every {@link WeightedSet}, which weighs
+		 * its own elements, so a LimitedSet cannot be created with it.
+		 */
+		LOWEST_WEIGHT
+	
+	}
+	
 	/**
 	 * The default maximum capacity of a LimitedSet.
 	 */
@@ -29,6 +71,26 @@ public class LimitedSet<E> extends UniqueSet<E> {
 	 * The maximum capacity of elements in the LimitedSet.
 	 */
 	protected int maxCapacity;
+	/**
+	 * The eviction of the LimitedSet.
+	 */
+	protected final Eviction eviction;
+	/**
+	 * The eviction policy of the LimitedSet, or null if it rejects new elements when full.
+	 */
+	private final EvictionPolicy<E> policy;
+	/**
+	 * The number of lookups and adds that found their element.
+	 */
+	private final LongAdder hits = new LongAdder();
+	/**
+	 * The number of lookups and adds that did not find their element.
+	 */
+	private final LongAdder misses = new LongAdder();
+	/**
+	 * The number of evicted elements.
+	 */
+	private final LongAdder evictions = new LongAdder();
 	
 	/**
 	 * Default constructor that creates an empty LimitedSet with a maximum capacity equal to the default capacity of 
@@ -36,8 +98,7 @@ public class LimitedSet<E> extends UniqueSet<E> {
 	 * @since JDK-21
 	 */
 	public LimitedSet() {
-		set = new ArrayList<E>(DEF_MAX_CAPACITY);
-		maxCapacity = DEF_MAX_CAPACITY;
+		this(DEF_MAX_CAPACITY);
 	}
 	
 	/**
@@ -47,11 +108,64 @@ public class LimitedSet<E> extends UniqueSet<E> {
 	 * @since JDK-21
 	 */
 	public LimitedSet(int maxCapacity) {
-		if (maxCapacity < 0)
-			throw new IllegalArgumentException("Cannot create a LimitedSet with a negative maximum capacity.");
+		this(maxCapacity, Backend.HASH);
+	}
+	
+	/**
+	 * Constructor that creates an empty LimitedSet with the specified maximum capacity and eviction.
+	 * @param maxCapacity The maximum capacity of this.
+	 * @param eviction What to do when an element is added while this is full.
+	 * @throws IllegalArgumentException Thrown if maxCapacity is negative or eviction is LOWEST_WEIGHT.
+	 * @throws NullPointerException Thrown if eviction is null.
+	 * @since JDK-21
+	 */
+	public LimitedSet(int maxCapacity, Eviction eviction)
+			throws IllegalArgumentException, NullPointerException {
+		this(maxCapacity, Backend.HASH, Concurrency.READ_WRITE, eviction);
+	}
+	
+	/**
+	 * Constructor that creates an empty LimitedSet with the specified maximum capacity and backend.
+	 * @param maxCapacity The maximum capacity of this.
+	 * @param backend The backend to store elements in.
+	 * @throws IllegalArgumentException Thrown if maxCapacity is negative.
+	 * @throws NullPointerException Thrown if backend is null.
+	 * @since JDK-21
+	 */
+	public LimitedSet(int maxCapacity, Backend backend)
+			throws IllegalArgumentException, NullPointerException {
+		this(maxCapacity, backend, Concurrency.READ_WRITE);
+	}
 		
-		set = new ArrayList<E>(maxCapacity);
-		this.maxCapacity = maxCapacity;
+	/**
+	 * Constructor that creates an empty LimitedSet with the specified maximum capacity, backend and concurrency mode.
+	 * @param maxCapacity The maximum capacity of this.
+	 * @param backend The backend to store elements in.
+	 * @param concurrency How to guard the elements against concurrent access.
+	 * @throws IllegalArgumentException Thrown if maxCapacity is negative.
+	 * @throws NullPointerException Thrown if backend or concurrency is null.
+	 * @since JDK-21
+	 */
+	public LimitedSet(int maxCapacity, Backend backend, Concurrency concurrency)
+			throws IllegalArgumentException, NullPointerException {
+		this(maxCapacity, backend, concurrency, Eviction.REJECT);
+	}
+	
+	/**
+	 * Constructor that creates an empty LimitedSet with the specified maximum capacity, backend, concurrency mode and
+	 * eviction.
+	 * @param maxCapacity The maximum capacity of this.
+	 * @param backend The backend to store elements in.
+	 * @param concurrency How to guard the elements against concurrent access.
+	 * @param eviction What to do when an element is added while this is full.
+	 * @throws IllegalArgumentException Thrown if maxCapacity is negative or eviction is LOWEST_WEIGHT.
+	 * @throws NullPointerException Thrown if backend, concurrency or eviction is null.
+	 * @since JDK-21
+	 */
+	public LimitedSet(int maxCapacity, Backend backend, Concurrency concurrency, Eviction eviction)
+			throws IllegalArgumentException, NullPointerException {
+		this(SetStore.create(backend, checkMaxCapacity(maxCapacity), null), maxCapacity, concurrency,
+				checkEviction(eviction));
 	}
 	
 	/**
@@ -62,15 +176,47 @@ public class LimitedSet<E> extends UniqueSet<E> {
 	 * @since JDK-21
 	 */
 	public LimitedSet(Collection<? extends E> c) {
-		maxCapacity = (c.size() > DEF_MAX_CAPACITY) ? c.size() : DEF_MAX_CAPACITY;
-		set = new ArrayList<E>(maxCapacity);
+		this((c.size() > DEF_MAX_CAPACITY) ? c.size() : DEF_MAX_CAPACITY);
 		this.addAll(c);
 	}
 	
 	/**
-	 * Adds the specified element to this LimitedSet, if it is not already contained in this LimitedSet, and if this 
-	 * LimitedSet has not reached its maximum capacity. This returns false if the specified element is null or if 
-	 * this LimitedSet already contains the specified element or if this LimitedSet is full.
+	 * Constructor that creates a LimitedSet backed by the specified SetStore with the specified maximum capacity and
+	 * concurrency mode. This is used by subclasses that create their own SetStore.
+	 * @param set The SetStore to back this LimitedSet.
+	 * @param maxCapacity The maximum capacity of this.
+	 * @param concurrency How to guard the elements against concurrent access.
+	 * @throws NullPointerException Thrown if set or concurrency is null.
+	 * @since JDK-21
+	 */
+	protected LimitedSet(SetStore<E> set, int maxCapacity, Concurrency concurrency)
+			throws NullPointerException {
+		this(set, maxCapacity, concurrency, Eviction.REJECT);
+	}
+	
+	/**
+	 * Constructor that creates a LimitedSet backed by the specified SetStore with the specified maximum capacity,
+	 * concurrency mode and eviction. This is used by subclasses that create their own SetStore.
+	 * @param set The SetStore to back this LimitedSet.
+	 * @param maxCapacity The maximum capacity of this.
+	 * @param concurrency How to guard the elements against concurrent access.
+	 * @param eviction What to do when an element is added while this is full.
+	 * @throws NullPointerException Thrown if set, concurrency or eviction is null.
+	 * @since JDK-21
+	 */
+	protected LimitedSet(SetStore<E> set, int maxCapacity, Concurrency concurrency, Eviction eviction)
+			throws NullPointerException {
+		super(set, concurrency);
+		this.maxCapacity = maxCapacity;
+		this.eviction = eviction;
+		this.policy = EvictionPolicy.create(eviction, maxCapacity);
+	}
+	
+	/**
+	 * Adds the specified element to this LimitedSet, if it is not already contained in this LimitedSet. If this
+	 * LimitedSet is full, the element is rejected, or with an eviction other than {@link Eviction#REJECT}, an element
+	 * chosen by the eviction policy is evicted to make room. This returns false if the specified element is null or if
+	 * this LimitedSet already contains the specified element or if the specified element was not kept.
 	 * @param e The element to add.
 	 * @return True if e is added, false otherwise.
 	 * @since JDK-21
@@ -83,12 +229,7 @@ public class LimitedSet<E> extends UniqueSet<E> {
 		writeLock.lock();
 		
 		try {
-			if (!this.contains(e) && set.size() < maxCapacity) {
-				return set.add(e);
-			}
-			else {
-				return false;
-			}
+			return insert(e);
 		}
 		finally {
 			writeLock.unlock();
@@ -97,8 +238,8 @@ public class LimitedSet<E> extends UniqueSet<E> {
 	
 	/**
 	 * Adds the specified Collection of elements to this LimitedSet, if they are not already contained in this 
-	 * LimitedSet, and if this LimitedSet has not reached its maximum capacity. This returns false if not all 
-	 * elements in the specified Collection could be added or if the specified Collection is null.
+	 * LimitedSet, as {@link #add(Object)} does. This returns false if not all elements in the specified Collection
+	 * could be added or if the specified Collection is null.
 	 * @param c The Collection to add.
 	 * @return True if all of c is added, false otherwise.
 	 * @since JDK-21
@@ -118,8 +259,8 @@ public class LimitedSet<E> extends UniqueSet<E> {
 				E e = it.next();
 				boolean r = false;
 				
-				if (!this.contains(e) && set.size() < maxCapacity) {
-					r = set.add(e);
+				if (e != null) {
+					r = insert(e);
 				}
 				
 				ret &= r;
@@ -132,6 +273,124 @@ public class LimitedSet<E> extends UniqueSet<E> {
 		return ret;
 	}
 	
+	/**
+	 * Returns the specified eviction if a LimitedSet can be created with it.
+	 * @param eviction The eviction to check.
+	 * @return eviction.
+	 * @throws IllegalArgumentException Thrown if eviction is LOWEST_WEIGHT.
+	 * @throws NullPointerException Thrown if eviction is null.
+	 * @since JDK-21
+	 */
+	private static Eviction checkEviction(Eviction eviction)
+			throws IllegalArgumentException, NullPointerException {
+		if (eviction == null)
+			throw new NullPointerException("Cannot create a LimitedSet with a null eviction.");
+		
+		if (eviction == Eviction.LOWEST_WEIGHT)
+			throw new IllegalArgumentException("Cannot create a LimitedSet that evicts the lowest weight.");
+		
+		return eviction;
+	}
+	
+	/**
+	 * Returns the specified maximum capacity if it is valid.
+	 * @param maxCapacity The maximum capacity to check.
+	 * @return maxCapacity.
+	 * @throws IllegalArgumentException Thrown if maxCapacity is negative.
+	 * @since JDK-21
+	 */
+	static int checkMaxCapacity(int maxCapacity)
+			throws IllegalArgumentException {
+		if (maxCapacity < 0)
+			throw new IllegalArgumentException("Cannot give a LimitedSet a negative maximum capacity.");
+		
+		return maxCapacity;
+	}
+	
+	@Override
+	public void clear() {
+		writeLock.lock();
+		
+		try {
+			set.clear();
+			
+			if (policy != null)
+				policy.clear();
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns true if this LimitedSet contains the specified element, and counts the lookup as a hit or a miss. If the
+	 * eviction policy of this LimitedSet tracks uses, the lookup takes the write lock to record the use.
+	 * @param o The element to find.
+	 * @return True if this contains o.
+	 * @since JDK-21
+	 */
+	@Override
+	public boolean contains(Object o) {
+		if (o == null)
+			return false;
+		
+		boolean ret;
+		
+		if (policy != null && policy.tracksAccess()) {
+			writeLock.lock();
+			
+			try {
+				int i = set.indexOf(o);
+				
+				ret = i != -1;
+				
+				if (ret)
+					policy.hit(set.get(i));
+			}
+			finally {
+				writeLock.unlock();
+			}
+		}
+		else {
+			ret = super.contains(o);
+		}
+		
+		if (ret)
+			hits.increment();
+		else
+			misses.increment();
+		
+		return ret;
+	}
+	
+	/**
+	 * Returns the eviction of this LimitedSet.
+	 * @return The eviction of this.
+	 * @since JDK-21
+	 */
+	public Eviction eviction() {
+		return eviction;
+	}
+	
+	/**
+	 * Returns the number of elements this LimitedSet has evicted to make room for new elements or to fit a smaller
+	 * maximum capacity.
+	 * @return The number of evictions of this.
+	 * @since JDK-21
+	 */
+	public long evictions() {
+		return evictions.sum();
+	}
+	
+	/**
+	 * Returns the number of lookups and adds of this LimitedSet that found their element.
+	 * @return The number of hits of this.
+	 * @since JDK-21
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+	
 	/**
 	 * Returns the maximum element capacity of this LimitedSet.
 	 * @return The maximum capacity of this.
@@ -148,21 +407,137 @@ public class LimitedSet<E> extends UniqueSet<E> {
 		}
 	}
 	
+	/**
+	 * Returns the number of lookups and adds of this LimitedSet that did not find their element.
+	 * @return The number of misses of this.
+	 * @since JDK-21
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+	
+	/**
+	 * Records an eviction made by a subclass that evicts elements itself.
+	 * @since JDK-21
+	 */
+	void recordEviction() {
+		evictions.increment();
+	}
+	
+	/**
+	 * Records a hit of a subclass that finds and adds elements itself.
+	 * @since JDK-21
+	 */
+	void recordHit() {
+		hits.increment();
+	}
+	
+	/**
+	 * Records a miss of a subclass that finds and adds elements itself.
+	 * @since JDK-21
+	 */
+	void recordMiss() {
+		misses.increment();
+	}
+	
+	@Override
+	public boolean remove(Object o) {
+		if (policy == null)
+			return super.remove(o);
+		
+		writeLock.lock();
+		
+		try {
+			if (!set.remove(o))
+				return false;
+			
+			policy.remove(o);
+			
+			return true;
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		if (policy == null)
+			return super.removeAll(c);
+		
+		boolean ret = false;
+		
+		writeLock.lock();
+		
+		try {
+			for (Object o : c) {
+				if (set.remove(o)) {
+					policy.remove(o);
+					ret = true;
+				}
+			}
+		}
+		finally {
+			writeLock.unlock();
+		}
+		
+		return ret;
+	}
+	
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		if (policy == null)
+			return super.retainAll(c);
+		
+		boolean ret = false;
+		
+		writeLock.lock();
+		
+		try {
+			Iterator<E> it = set.iterator();
+			
+			while (it.hasNext()) {
+				E e = it.next();
+				
+				if (!c.contains(e)) {
+					it.remove();
+					policy.remove(e);
+					ret = true;
+				}
+			}
+		}
+		finally {
+			writeLock.unlock();
+		}
+		
+		return ret;
+	}
+	
 	/**
 	 * This sets the maximum element capacity of this LimitedSet to the specified value. If there are more elements 
-	 * than the new maximum element capacity allows for, the last elements added to this LimitedSet that exceed the
-	 * maximum element capacity are removed.
+	 * than the new maximum element capacity allows for, the eviction policy of this LimitedSet chooses the elements to
+	 * evict, or with {@link Eviction#REJECT}, the last elements added to this LimitedSet that exceed the maximum
+	 * element capacity are removed.
 	 * @param maxCapacity The new maximum element capacity.
+	 * @throws IllegalArgumentException Thrown if maxCapacity is negative.
 	 * @since JDK-21
 	 */
-	public void setMaxCapacity(int maxCapacity) {
+	public void setMaxCapacity(int maxCapacity)
+			throws IllegalArgumentException {
+		checkMaxCapacity(maxCapacity);
+		
 		writeLock.lock();
 		
 		try {
 			if (this.maxCapacity != maxCapacity) {
 				this.maxCapacity = maxCapacity;
 				
-				while (this.size() > maxCapacity) {
+				if (policy != null) {
+					policy.capacity(maxCapacity);
+					evictExcess();
+				}
+				
+				while (set.size() > maxCapacity) {
 					set.removeLast();
 				}
 				
@@ -174,4 +549,47 @@ public class LimitedSet<E> extends UniqueSet<E> {
 		}
 	}
 	
+	/**
+	 * Evicts the elements chosen by the eviction policy until this LimitedSet fits its maximum capacity. The write
+	 * lock must be held.
+	 * @since JDK-21
+	 */
+	private void evictExcess() {
+		while (set.size() > maxCapacity) {
+			set.remove(policy.evict());
+			evictions.increment();
+		}
+	}
+	
+	/**
+	 * Adds the specified element as {@link #add(Object)} does, counting it as a hit if it is already contained and as
+	 * a miss otherwise. The write lock must be held.
+	 * @param e The element to add. This must not be null.
+	 * @return True if e is added, false otherwise.
+	 * @since JDK-21
+	 */
+	private boolean insert(E e) {
+		int i = set.indexOf(e);
+		
+		if (i != -1) {
+			hits.increment();
+			
+			if (policy != null)
+				policy.hit(set.get(i));
+			
+			return false;
+		}
+		
+		misses.increment();
+		
+		if (policy == null)
+			return set.size() < maxCapacity && set.add(e);
+		
+		set.add(e);
+		policy.add(e);
+		evictExcess();
+		
+		return set.contains(e);
+	}
+
 }
@@ -0,0 +1,149 @@
+package babs.mindforge.util.set;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import java.util.function.Function;
+
+/**
+ * ListStore class is a SetStore backed by an ArrayList. Finding an element is a linear search, but there is no hash
+ * table to maintain, so a ListStore is smaller and faster than a {@link HashStore} for sets of a few elements. Slots
+ * are list indices, so removing an element shifts the later elements down and never leaves an empty slot.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @param <E> The element type.
+ * @see SetStore
+ * @since JDK-21
+ */
+final class ListStore<E> extends SetStore<E> {
+	
+	/**
+	 * The ArrayList backing the ListStore.
+	 */
+	private final ArrayList<E> list;
+	
+	/**
+	 * Constructor that creates an empty ListStore with room for the specified number of elements.
+	 * @param capacity The number of elements to allocate room for.
+	 * @param key The key function, or null to compare elements by themselves.
+	 * @since JDK-21
+	 */
+	ListStore(int capacity, Function<Object, ?> key) {
+		super(key);
+		list = new ArrayList<E>(capacity);
+	}
+	
+	@Override
+	public boolean add(E e) {
+		if (indexOf(e) != -1)
+			return false;
+		
+		++version;
+		return list.add(e);
+	}
+	
+	@Override
+	public UniqueSet.Backend backend() {
+		return UniqueSet.Backend.LIST;
+	}
+	
+	@Override
+	public void clear() {
+		list.clear();
+		++version;
+	}
+	
+	@Override
+	public SetStore<E> copy() {
+		ListStore<E> ret = new ListStore<E>(list.size(), key);
+		ret.list.addAll(list);
+		return ret;
+	}
+	
+	@Override
+	public void ensureCapacity(int capacity) {
+		list.ensureCapacity(capacity);
+	}
+	
+	@Override
+	public E get(int slot)
+			throws IndexOutOfBoundsException {
+		return list.get(slot);
+	}
+	
+	@Override
+	public int indexOf(Object o) {
+		if (o == null)
+			return -1;
+		
+		if (key == null)
+			return list.indexOf(o);
+		
+		Object k = key.apply(o);
+		
+		for (int i = 0; i < list.size(); ++i) {
+			if (k.equals(key.apply(list.get(i))))
+				return i;
+		}
+		
+		return -1;
+	}
+	
+	@Override
+	public Iterator<E> iterator() {
+		Iterator<E> it = list.iterator();
+		
+		return new Iterator<E>() {
+			
+			@Override
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+			
+			@Override
+			public E next() {
+				return it.next();
+			}
+			
+			@Override
+			public void remove() {
+				it.remove();
+				++version;
+			}
+		
+		};
+	}
+	
+	@Override
+	public boolean remove(Object o) {
+		int i = indexOf(o);
+		
+		if (i == -1)
+			return false;
+		
+		list.remove(i);
+		++version;
+		
+		return true;
+	}
+	
+	@Override
+	public E removeAt(int slot)
+			throws IndexOutOfBoundsException {
+		E ret = list.remove(slot);
+		++version;
+		return ret;
+	}
+	
+	@Override
+	public int size() {
+		return list.size();
+	}
+	
+	@Override
+	public int slots() {
+		return list.size();
+	}
+
+}
@@ -0,0 +1,53 @@
+package babs.mindforge.util.set;
+
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * NoLock class is a Lock that does nothing, used as both the read lock and the write lock of a UniqueSet created with
+ * {@link UniqueSet.Concurrency#NONE}, so that single-threaded sets run the same code without paying for locking.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @see UniqueSet
+ * @since JDK-21
+ */
+final class NoLock implements Lock {
+	
+	/**
+	 * The shared NoLock instance.
+	 */
+	static final NoLock INSTANCE = new NoLock();
+	
+	/**
+	 * NoLock is only used through its shared instance.
+	 */
+	private NoLock() {}
+	
+	@Override
+	public void lock() {}
+	
+	@Override
+	public void lockInterruptibly() {}
+	
+	@Override
+	public Condition newCondition() {
+		throw new UnsupportedOperationException("Cannot create a Condition for a NoLock.");
+	}
+	
+	@Override
+	public boolean tryLock() {
+		return true;
+	}
+	
+	@Override
+	public boolean tryLock(long time, TimeUnit unit) {
+		return true;
+	}
+	
+	@Override
+	public void unlock() {}
+
+}
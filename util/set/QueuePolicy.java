@@ -0,0 +1,77 @@
+package babs.mindforge.util.set;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * QueuePolicy class is an EvictionPolicy that keeps the elements in a queue and evicts the element at its head. In
+ * insertion order the QueuePolicy is first-in, first-out, evicting the oldest element. In access order every hit moves
+ * an element to the tail, so the QueuePolicy evicts the least recently used element. The queue is a LinkedHashMap, so
+ * every operation takes constant time.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @param <E> The element type.
+ * @see EvictionPolicy
+ * @since JDK-21
+ */
+final class QueuePolicy<E> extends EvictionPolicy<E> {
+	
+	/**
+	 * The elements, from the next to be evicted to the last.
+	 */
+	private final LinkedHashMap<Object, E> queue;
+	/**
+	 * True if hits move elements to the tail of the queue.
+	 */
+	private final boolean accessOrder;
+	
+	/**
+	 * Constructor that creates an empty QueuePolicy.
+	 * @param accessOrder True to evict the least recently used element, or false to evict the oldest element.
+	 * @since JDK-21
+	 */
+	QueuePolicy(boolean accessOrder) {
+		this.accessOrder = accessOrder;
+		queue = new LinkedHashMap<Object, E>(16, 0.75f, accessOrder);
+	}
+	
+	@Override
+	void add(E e) {
+		queue.put(e, e);
+	}
+	
+	@Override
+	void clear() {
+		queue.clear();
+	}
+	
+	@Override
+	E evict() {
+		Iterator<E> it = queue.values().iterator();
+		
+		if (!it.hasNext())
+			return null;
+		
+		E ret = it.next();
+		it.remove();
+		return ret;
+	}
+	
+	@Override
+	void hit(E e) {
+		if (accessOrder)
+			queue.get(e);
+	}
+	
+	@Override
+	void remove(Object o) {
+		queue.remove(o);
+	}
+	
+	@Override
+	boolean tracksAccess() {
+		return accessOrder;
+	}
+
+}
@@ -0,0 +1,293 @@
+package babs.mindforge.util.set;
+
+import java.lang.reflect.Array;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import java.util.function.Function;
+
+/**
+ * SetStore class is the base class for the storage behind a {@link UniqueSet}. A SetStore holds unique, non-null
+ * elements in insertion order, in numbered slots. Removing an element may leave an empty slot behind, so slots run
+ * from 0 up to {@link #slots()} and {@link #get(int)} returns null for an empty slot. Elements are compared by a key,
+ * which is the element itself unless the SetStore was created with a key function, so that a set can look up its
+ * elements by a part of them, as a {@link WeightedSet} looks up its WeightedKeys by their keys. SetStores are created
+ * by {@link #create(UniqueSet.Backend, int, Function)} and are not thread-safe; the owning UniqueSet guards them.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @param <E> The element type.
+ * @see UniqueSet
+ * @since JDK-21
+ */
+public abstract class SetStore<E> implements Iterable<E> {
+	
+	/**
+	 * The function that maps an element, or an object being looked up, to the key it is compared by, or null if
+	 * elements are compared by themselves.
+	 */
+	protected final Function<Object, ?> key;
+	/**
+	 * The number of times elements have been added to or removed from the SetStore.
+	 */
+	protected int version;
+	
+	/**
+	 * Constructor that creates a SetStore that compares elements by the specified key function.
+	 * @param key The key function, or null to compare elements by themselves.
+	 * @since JDK-21
+	 */
+	SetStore(Function<Object, ?> key) {
+		this.key = key;
+	}
+	
+	/**
+	 * Adds the specified element to the end of this SetStore, if this SetStore does not already contain an element
+	 * with the same key.
+	 * @param e The element to add. This must not be null.
+	 * @return True if e is added, otherwise false.
+	 * @since JDK-21
+	 */
+	public abstract boolean add(E e);
+	
+	/**
+	 * Returns the backend this SetStore implements.
+	 * @return The backend of this.
+	 * @since JDK-21
+	 */
+	public abstract UniqueSet.Backend backend();
+	
+	/**
+	 * Removes all elements from this SetStore.
+	 * @since JDK-21
+	 */
+	public abstract void clear();
+	
+	/**
+	 * Returns true if this SetStore contains an element with the same key as the specified object.
+	 * @param o The element or key to find.
+	 * @return True if this contains o, otherwise false.
+	 * @since JDK-21
+	 */
+	public boolean contains(Object o) {
+		return indexOf(o) != -1;
+	}
+	
+	/**
+	 * Returns a new SetStore with the same backend, key function and elements as this SetStore. The elements
+	 * themselves are not copied.
+	 * @return A copy of this.
+	 * @since JDK-21
+	 */
+	public abstract SetStore<E> copy();
+	
+	/**
+	 * Creates an empty SetStore with the specified backend, initial capacity and key function.
+	 * @param <E> The element type.
+	 * @param backend The backend to use.
+	 * @param capacity The number of elements to allocate room for.
+	 * @param key The key function, or null to compare elements by themselves.
+	 * @return A new SetStore.
+	 * @throws IllegalArgumentException Thrown if capacity is negative.
+	 * @throws NullPointerException Thrown if backend is null.
+	 * @since JDK-21
+	 */
+	public static <E> SetStore<E> create(UniqueSet.Backend backend, int capacity, Function<Object, ?> key)
+			throws IllegalArgumentException, NullPointerException {
+		if (backend == null)
+			throw new NullPointerException("Cannot create a SetStore with a null backend.");
+		if (capacity < 0)
+			throw new IllegalArgumentException("Cannot create a SetStore with a negative capacity.");
+		
+		if (backend == UniqueSet.Backend.LIST)
+			return new ListStore<E>(capacity, key);
+		
+		return new HashStore<E>(capacity, key);
+	}
+	
+	/**
+	 * Makes sure this SetStore can hold the specified number of elements without growing.
+	 * @param capacity The number of elements to make room for.
+	 * @since JDK-21
+	 */
+	public abstract void ensureCapacity(int capacity);
+	
+	/**
+	 * Returns the element in the specified slot, or null if the slot is empty.
+	 * @param slot The slot of the element to return.
+	 * @return The element in slot, or null.
+	 * @throws IndexOutOfBoundsException Thrown if slot is not less than {@link #slots()}.
+	 * @since JDK-21
+	 */
+	public abstract E get(int slot)
+			throws IndexOutOfBoundsException;
+	
+	/**
+	 * Returns the slot of the element with the same key as the specified object, or -1 if there is none.
+	 * @param o The element or key to find.
+	 * @return The slot of o, or -1.
+	 * @since JDK-21
+	 */
+	public abstract int indexOf(Object o);
+	
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+			
+			private int next = skip(0);
+			private int last = -1;
+			
+			@Override
+			public boolean hasNext() {
+				return next < slots();
+			}
+			
+			@Override
+			public E next() {
+				if (next >= slots())
+					throw new NoSuchElementException("Cannot iterate past the end of a SetStore.");
+				
+				last = next;
+				next = skip(next + 1);
+				return get(last);
+			}
+			
+			@Override
+			public void remove() {
+				if (last == -1)
+					throw new IllegalStateException("Cannot remove an element before calling next.");
+				
+				removeAt(last);
+				last = -1;
+			}
+		
+		};
+	}
+	
+	/**
+	 * Removes the element with the same key as the specified object from this SetStore.
+	 * @param o The element or key to remove.
+	 * @return True if an element was removed, otherwise false.
+	 * @since JDK-21
+	 */
+	public abstract boolean remove(Object o);
+	
+	/**
+	 * Removes the element in the specified slot from this SetStore. Removing an element never moves the elements in
+	 * earlier slots, but may drop empty slots from the end. To remove elements while looping over them, use the
+	 * remove method of the iterator of this SetStore.
+	 * @param slot The slot of the element to remove.
+	 * @return The removed element, or null if the slot was empty.
+	 * @throws IndexOutOfBoundsException Thrown if slot is not less than {@link #slots()}.
+	 * @since JDK-21
+	 */
+	public abstract E removeAt(int slot)
+			throws IndexOutOfBoundsException;
+	
+	/**
+	 * Removes the most recently added element from this SetStore.
+	 * @return The removed element, or null if this is empty.
+	 * @since JDK-21
+	 */
+	public E removeLast() {
+		return slots() == 0 ? null : removeAt(slots() - 1);
+	}
+	
+	/**
+	 * Returns the number of elements in this SetStore.
+	 * @return The size of this.
+	 * @since JDK-21
+	 */
+	public abstract int size();
+	
+	/**
+	 * Returns the number of slots in this SetStore, which is one past the slot of the most recently added element.
+	 * @return The number of slots of this.
+	 * @since JDK-21
+	 */
+	public abstract int slots();
+	
+	/**
+	 * Returns the number of times elements have been added to or removed from this SetStore. Two equal versions of the
+	 * same SetStore mean it holds the same elements in the same order.
+	 * @return The version of this.
+	 * @since JDK-21
+	 */
+	public int version() {
+		return version;
+	}
+	
+	/**
+	 * Returns the elements of this SetStore in insertion order in a new array.
+	 * @return An array containing the elements of this.
+	 * @since JDK-21
+	 */
+	public Object[] toArray() {
+		Object[] ret = new Object[size()];
+		int n = 0;
+		
+		for (int i = 0; i < slots(); ++i) {
+			E e = get(i);
+			
+			if (e != null)
+				ret[n++] = e;
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Returns the elements of this SetStore in insertion order in the specified array, if it is large enough, or
+	 * otherwise in a new array of the same type.
+	 * @param <T> The component type of the array.
+	 * @param a The array to store the elements in.
+	 * @return An array containing the elements of this.
+	 * @since JDK-21
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T[] toArray(T[] a) {
+		int size = size();
+		T[] ret = a.length >= size ? a : (T[])Array.newInstance(a.getClass().getComponentType(), size);
+		int n = 0;
+		
+		for (int i = 0; i < slots(); ++i) {
+			E e = get(i);
+			
+			if (e != null)
+				ret[n++] = (T)e;
+		}
+		
+		if (ret.length > size)
+			ret[size] = null;
+		
+		return ret;
+	}
+	
+	/**
+	 * Returns the key of the specified element or object being looked up.
+	 * @param o The element or object.
+	 * @return The key of o.
+	 * @since JDK-21
+	 */
+	protected final Object keyOf(Object o) {
+		return key == null ? o : key.apply(o);
+	}
+	
+	/**
+	 * Returns the first slot at or after the specified slot that holds an element, or {@link #slots()} if there is
+	 * none.
+	 * @param slot The slot to start at.
+	 * @return The next occupied slot.
+	 * @since JDK-21
+	 */
+	int skip(int slot) {
+		int slots = slots();
+		
+		while (slot < slots && get(slot) == null)
+			++slot;
+		
+		return slot;
+	}
+
+}
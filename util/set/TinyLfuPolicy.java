@@ -0,0 +1,289 @@
+package babs.mindforge.util.set;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * TinyLfuPolicy class is an EvictionPolicy that implements Window TinyLFU. New elements enter a small window that
+ * evicts its least recently used element, which makes up one percent of the capacity. An element leaving the window
+ * competes with the least recently used element of the probation region of the main space, and whichever was used less
+ * often, according to a frequency sketch, is evicted. An element found while on probation is promoted to the protected
+ * region, which takes up eighty percent of the main space and demotes its least recently used element back to
+ * probation when it overflows. The frequency sketch is a count-min sketch of small saturating counters that are halved
+ * periodically, so that old popularity fades. This admits new elements quickly, keeps frequently used elements in the
+ * face of scans, and takes constant time for every operation.
+ * 
+ * @author Monroe Gordon
+ * @version 0.0.0
+ * @param <E> The element type.
+ * @see EvictionPolicy
+ * @since JDK-21
+ */
+final class TinyLfuPolicy<E> extends EvictionPolicy<E> {
+	
+	/**
+	 * FrequencySketch class is a count-min sketch that estimates how often each element has been used, in a fixed
+	 * amount of memory. Each element has a counter in each of four rows, and its estimate is the smallest of them.
+	 * Counters stop at 15, and all counters are halved once the number of increments reaches ten times the width of a
+	 * row.
+	 *
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @since JDK-21
+	 */
+	private static final class FrequencySketch {
+		
+		/**
+		 * The number of rows.
+		 */
+		private static final int DEPTH = 4;
+		/**
+		 * The largest value of a counter.
+		 */
+		private static final int MAX_COUNT = 15;
+		/**
+		 * The odd multipliers that give each row its own hash function.
+		 */
+		private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+		
+		/**
+		 * The counters, one row after another.
+		 */
+		private final byte[] counts;
+		/**
+		 * The number of bits of a row index.
+		 */
+		private final int bits;
+		/**
+		 * The number of increments after which the counters are halved.
+		 */
+		private final int sampleSize;
+		/**
+		 * The number of increments since the counters were last halved.
+		 */
+		private int additions;
+		
+		/**
+		 * Constructor that creates an empty FrequencySketch for the specified number of elements.
+		 * @param capacity The number of elements to track.
+		 * @since JDK-21
+		 */
+		FrequencySketch(int capacity) {
+			int width = Integer.highestOneBit(Math.max(capacity, 8) - 1) << 1;
+			
+			bits = Integer.numberOfTrailingZeros(width);
+			counts = new byte[DEPTH * width];
+			sampleSize = 10 * width;
+		}
+		
+		/**
+		 * Returns the estimated number of times the specified element has been used.
+		 * @param o The element.
+		 * @return The estimated frequency of o.
+		 * @since JDK-21
+		 */
+		int frequency(Object o) {
+			int h = o.hashCode();
+			int ret = MAX_COUNT;
+			
+			for (int i = 0; i < DEPTH; ++i)
+				ret = Math.min(ret, counts[index(h, i)]);
+			
+			return ret;
+		}
+		
+		/**
+		 * Records a use of the specified element.
+		 * @param o The element.
+		 * @since JDK-21
+		 */
+		void increment(Object o) {
+			int h = o.hashCode();
+			boolean added = false;
+			
+			for (int i = 0; i < DEPTH; ++i) {
+				int j = index(h, i);
+				
+				if (counts[j] < MAX_COUNT) {
+					++counts[j];
+					added = true;
+				}
+			}
+			
+			if (added && ++additions >= sampleSize) {
+				for (int j = 0; j < counts.length; ++j)
+					counts[j] >>= 1;
+				
+				additions >>= 1;
+			}
+		}
+		
+		/**
+		 * Returns the number of elements this FrequencySketch was sized for.
+		 * @return The width of a row.
+		 * @since JDK-21
+		 */
+		int width() {
+			return 1 << bits;
+		}
+		
+		/**
+		 * Returns the position of the counter of the specified hash code in the specified row.
+		 * @param h The hash code of an element.
+		 * @param row The row.
+		 * @return The position of the counter.
+		 * @since JDK-21
+		 */
+		private int index(int h, int row) {
+			return (row << bits) + ((h * SEEDS[row]) >>> (32 - bits));
+		}
+	
+	}
+	
+	/**
+	 * The window that new elements enter, in access order.
+	 */
+	private final LinkedHashMap<Object, E> window = new LinkedHashMap<Object, E>(16, 0.75f, true);
+	/**
+	 * The main space elements that have not been found since they left the window, in access order.
+	 */
+	private final LinkedHashMap<Object, E> probation = new LinkedHashMap<Object, E>(16, 0.75f, true);
+	/**
+	 * The main space elements that have been found since they left the window, in access order.
+	 */
+	private final LinkedHashMap<Object, E> protect = new LinkedHashMap<Object, E>(16, 0.75f, true);
+	/**
+	 * The frequency sketch.
+	 */
+	private FrequencySketch sketch;
+	/**
+	 * The maximum number of elements in the window.
+	 */
+	private int windowMax;
+	/**
+	 * The maximum number of elements in the main space.
+	 */
+	private int mainMax;
+	/**
+	 * The maximum number of elements in the protected region.
+	 */
+	private int protectMax;
+	
+	/**
+	 * Constructor that creates an empty TinyLfuPolicy for a LimitedSet with the specified maximum capacity.
+	 * @param maxCapacity The maximum capacity of the LimitedSet.
+	 * @since JDK-21
+	 */
+	TinyLfuPolicy(int maxCapacity) {
+		sketch = new FrequencySketch(maxCapacity);
+		capacity(maxCapacity);
+	}
+	
+	@Override
+	void add(E e) {
+		sketch.increment(e);
+		window.put(e, e);
+		
+		// Move elements on to probation while the main space has room, so that a set below its capacity never evicts.
+		while (window.size() > windowMax && probation.size() + protect.size() < mainMax) {
+			E c = removeEldest(window);
+			probation.put(c, c);
+		}
+	}
+	
+	@Override
+	void capacity(int maxCapacity) {
+		windowMax = maxCapacity == 0 ? 0 : Math.max(1, maxCapacity / 100);
+		mainMax = maxCapacity - windowMax;
+		protectMax = mainMax / 5 * 4;
+		
+		if (maxCapacity > sketch.width())
+			sketch = new FrequencySketch(maxCapacity);
+	}
+	
+	@Override
+	void clear() {
+		window.clear();
+		probation.clear();
+		protect.clear();
+	}
+	
+	@Override
+	E evict() {
+		if (!window.isEmpty() && (window.size() > windowMax || probation.size() + protect.size() == 0)) {
+			E candidate = window.values().iterator().next();
+			
+			if (probation.isEmpty() && !protect.isEmpty()) {
+				E d = removeEldest(protect);
+				probation.put(d, d);
+			}
+			
+			window.remove(candidate);
+			
+			if (probation.isEmpty())
+				return candidate;
+			
+			E victim = probation.values().iterator().next();
+			
+			// Admit the candidate into the main space only if it is used more often than the element it would replace.
+			if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+				probation.remove(victim);
+				probation.put(candidate, candidate);
+				return victim;
+			}
+			
+			return candidate;
+		}
+		
+		if (!probation.isEmpty())
+			return removeEldest(probation);
+		
+		if (!protect.isEmpty())
+			return removeEldest(protect);
+		
+		return null;
+	}
+	
+	@Override
+	void hit(E e) {
+		sketch.increment(e);
+		
+		if (window.get(e) != null || protect.get(e) != null)
+			return;
+		
+		if (probation.remove(e) != null) {
+			protect.put(e, e);
+			
+			while (protect.size() > protectMax) {
+				E d = removeEldest(protect);
+				probation.put(d, d);
+			}
+		}
+	}
+	
+	@Override
+	void remove(Object o) {
+		if (window.remove(o) == null && probation.remove(o) == null)
+			protect.remove(o);
+	}
+	
+	@Override
+	boolean tracksAccess() {
+		return true;
+	}
+	
+	/**
+	 * Removes and returns the least recently used element of the specified region.
+	 * @param region The region to remove from. This must not be empty.
+	 * @return The removed element.
+	 * @since JDK-21
+	 */
+	private static <E> E removeEldest(LinkedHashMap<Object, E> region) {
+		Iterator<E> it = region.values().iterator();
+		E ret = it.next();
+		
+		it.remove();
+		return ret;
+	}
+
+}
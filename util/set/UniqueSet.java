@@ -1,50 +1,177 @@
 package babs.mindforge.util.set;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+import java.util.function.Consumer;
 
 /**
  * UniqueSet class is a set of unique values, meaning no duplicate or null values can be contained within a UniqueSet. 
- * A UniqueSet does not store elements in any particular order. Elements in a UniqueSet can be iterated over by 
- * retrieving an iterator via the {@link #iterator()} method. UniqueSet implements Set and is thread-safe.
+ * A UniqueSet keeps its elements in the order they were added. Elements in a UniqueSet can be iterated over by
+ * retrieving an iterator via the {@link #iterator()} method. By default a UniqueSet is backed by a hash table, so
+ * adding, finding and removing an element take constant time on average. Small sets can instead be backed by a list,
+ * which uses less memory but searches linearly. How a UniqueSet guards its elements is chosen by its
+ * {@link Concurrency}: with a read/write lock by default, with no locking at all for sets used by a single thread, or
+ * with a StampedLock whose lookups read optimistically without locking. Iterators walk an immutable snapshot of the
+ * elements that is shared by every iterator until the UniqueSet next changes, so iterating does not copy the elements
+ * each time. UniqueSet implements Set and is thread-safe unless created with {@link Concurrency#NONE}.
  * 
  * @author Monroe Gordon
  * @version 0.0.0
  * @param <E> The element type.
  * @see Set
+ * @see SetStore
  * @since JDK-21
  */
 public class UniqueSet<E> implements Set<E> {
 	
 	/**
-	 * A read/write lock used to ensure thread-safety.
+	 * Backend enum represents the storage behind a UniqueSet.
+	
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @since JDK-21
+	 */
+	public enum Backend {
+		
+		/**
+		 * An open-addressing hash table over a dense array of the elements in insertion order. Adding, finding and
+		 * removing an element take constant time on average.
+		 */
+		HASH,
+		/**
+		 * An ArrayList searched linearly. This is smaller and faster than HASH for sets of a few elements.
+		 */
+		LIST
+	
+	}
+	
+	/**
+	 * Snapshot class is an immutable copy of the elements of a SetStore at one version, shared by the iterators of a
+	 * UniqueSet until the SetStore changes.
+	 *
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @since JDK-21
+	 */
+	private static final class Snapshot {
+		
+		/**
+		 * The SetStore the snapshot was taken of.
+		 */
+		final SetStore<?> store;
+		/**
+		 * The version of the SetStore when the snapshot was taken.
+		 */
+		final int version;
+		/**
+		 * The elements of the SetStore in insertion order.
+		 */
+		final Object[] elements;
+		
+		/**
+		 * Constructor that creates a snapshot of the specified SetStore.
+		 * @param store The SetStore to take a snapshot of.
+		 * @since JDK-21
+		 */
+		Snapshot(SetStore<?> store) {
+			this.store = store;
+			this.version = store.version();
+			this.elements = store.toArray();
+		}
+	
+	}
+	
+	/**
+	 * Concurrency enum represents how a UniqueSet guards its elements against concurrent access.
+	
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @since JDK-21
+	 */
+	public enum Concurrency {
+		
+		/**
+		 * No locking. This is the fastest mode, but the UniqueSet must only be used by one thread at a time.
+		 */
+		NONE,
+		/**
+		 * A ReentrantReadWriteLock, so readers run in parallel and writers run alone.
+		 */
+		READ_WRITE,
+		/**
+		 * A StampedLock. Lookups and size queries first read without locking and only take the read lock if a write
+		 * happened while they ran, so reads never block each other or write to shared memory. Writers run alone.
+		 */
+		CONCURRENT
+	
+	}
+	
+	/**
+	 * The concurrency mode of the UniqueSet.
 	 */
-	protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	protected final Concurrency concurrency;
 	/**
-	 * The read lock from the read/write lock.
+	 * The read lock guarding the UniqueSet. Read locks are not reentrant in {@link Concurrency#CONCURRENT} mode, so
+	 * a thread holding the write lock must not take the read lock.
 	 */
-	protected final Lock readLock = lock.readLock();
+	protected final Lock readLock;
 	/**
-	 * The write lock from the read/write lock.
+	 * The write lock guarding the UniqueSet.
 	 */
-	protected final Lock writeLock = lock.writeLock();
+	protected final Lock writeLock;
+	/**
+	 * The StampedLock used for optimistic reads in {@link Concurrency#CONCURRENT} mode, otherwise null.
+	 */
+	private final StampedLock stampedLock;
 	
 	/**
-	 * The Vector backing the UniqueSet.
+	 * The SetStore backing the UniqueSet.
+	 */
+	protected SetStore<E> set;
+	/**
+	 * The latest snapshot of the elements, or null if none has been taken.
 	 */
-	protected ArrayList<E> set;
+	private volatile Snapshot snapshot;
 	
 	/**
-	 * Default constructor that creates an empty UniqueSet.
+	 * Default constructor that creates an empty UniqueSet backed by a hash table.
 	 * @since JDK-21
 	 */
 	public UniqueSet() {
-		set = new ArrayList<E>();
+		this(SetStore.create(Backend.HASH, 0, null), Concurrency.READ_WRITE);
+	}
+	
+	/**
+	 * Constructor that creates an empty UniqueSet with the specified backend.
+	 * @param backend The backend to store elements in.
+	 * @throws NullPointerException Thrown if backend is null.
+	 * @since JDK-21
+	 */
+	public UniqueSet(Backend backend)
+			throws NullPointerException {
+		this(SetStore.create(backend, 0, null), Concurrency.READ_WRITE);
+	}
+	
+	/**
+	 * Constructor that creates an empty UniqueSet with the specified backend and concurrency mode.
+	 * @param backend The backend to store elements in.
+	 * @param concurrency How to guard the elements against concurrent access.
+	 * @throws NullPointerException Thrown if backend or concurrency is null.
+	 * @since JDK-21
+	 */
+	public UniqueSet(Backend backend, Concurrency concurrency)
+			throws NullPointerException {
+		this(SetStore.create(backend, 0, null), concurrency);
 	}
 	
 	/**
@@ -53,9 +180,47 @@ public class UniqueSet<E> implements Set<E> {
 	 * @since JDK-21
 	 */
 	public UniqueSet(Collection<? extends E> c) {
-		set = new ArrayList<E>();
+		this(SetStore.create(Backend.HASH, c.size(), null), Concurrency.READ_WRITE);
 		this.addAll(c);
 	}
+	
+	/**
+	 * Constructor that creates a UniqueSet backed by the specified SetStore with the specified concurrency mode. This
+	 * is used by subclasses that create their own SetStore.
+	 * @param set The SetStore to back this UniqueSet.
+	 * @param concurrency How to guard the elements against concurrent access.
+	 * @throws NullPointerException Thrown if set or concurrency is null.
+	 * @since JDK-21
+	 */
+	protected UniqueSet(SetStore<E> set, Concurrency concurrency)
+			throws NullPointerException {
+		if (set == null)
+			throw new NullPointerException("Cannot create a UniqueSet with a null SetStore.");
+		if (concurrency == null)
+			throw new NullPointerException("Cannot create a UniqueSet with a null concurrency mode.");
+		
+		this.set = set;
+		this.concurrency = concurrency;
+		
+		switch (concurrency) {
+			case NONE:
+				stampedLock = null;
+				readLock = NoLock.INSTANCE;
+				writeLock = NoLock.INSTANCE;
+				break;
+			case CONCURRENT:
+				stampedLock = new StampedLock();
+				readLock = stampedLock.asReadLock();
+				writeLock = stampedLock.asWriteLock();
+				break;
+			default:
+				ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+				stampedLock = null;
+				readLock = lock.readLock();
+				writeLock = lock.writeLock();
+				break;
+		}
+	}
 
 	/**
 	 * Adds the specified element to this UniqueSet, if this UniqueSet does not already contain the specified element. 
@@ -65,19 +230,14 @@ public class UniqueSet<E> implements Set<E> {
 	 * @since JDK-21	 
 	 */
 	@Override
-	public synchronized boolean add(E e) {
+	public boolean add(E e) {
 		if (e == null)
 			return false;
 		
 		writeLock.lock();
 		
 		try {
-			if (!this.contains(e)) {
-				return set.add(e);
-			}
-			else {
-				return false;
-			}
+			return set.add(e);
 		}
 		finally {
 			writeLock.unlock();
@@ -92,7 +252,7 @@ public class UniqueSet<E> implements Set<E> {
 	 * @since JDK-21	 
 	 */
 	@Override
-	public synchronized boolean addAll(Collection<? extends E> c) {
+	public boolean addAll(Collection<? extends E> c) {
 		if (c == null)
 			return false;
 		
@@ -102,15 +262,13 @@ public class UniqueSet<E> implements Set<E> {
 		writeLock.lock();
 		
 		try {
+			set.ensureCapacity(set.size() + c.size());
+			
 			while (it.hasNext()) {
 				E e = it.next();
-				boolean r = false;
-				
-				if (!this.contains(e)) {
-					r = set.add(e);
-				}
 				
-				ret &= r;
+				if (e != null)
+					ret |= set.add(e);
 			}
 		}
 		finally {
@@ -120,8 +278,17 @@ public class UniqueSet<E> implements Set<E> {
 		return ret;
 	}
 	
+	/**
+	 * Returns the backend this UniqueSet stores its elements in.
+	 * @return The backend of this.
+	 * @since JDK-21
+	 */
+	public Backend backend() {
+		return set.backend();
+	}
+	
 	@Override
-	public synchronized void clear() {
+	public void clear() {
 		writeLock.lock();
 		
 		try {
@@ -134,11 +301,41 @@ public class UniqueSet<E> implements Set<E> {
 	
 	@Override
 	public Object clone() {
-		return new UniqueSet<E>(set);
+		readLock.lock();
+		
+		try {
+			return new UniqueSet<E>(set.copy(), concurrency);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+		
+	/**
+	 * Returns the concurrency mode of this UniqueSet.
+	 * @return The concurrency mode of this.
+	 * @since JDK-21
+	 */
+	public Concurrency concurrency() {
+		return concurrency;
 	}
 	
 	@Override
 	public boolean contains(Object o) {
+		if (stampedLock != null) {
+			long stamp = stampedLock.tryOptimisticRead();
+			
+			try {
+				boolean ret = set.contains(o);
+				
+				if (stampedLock.validate(stamp))
+					return ret;
+			}
+			catch (RuntimeException ex) {
+				// A write during the optimistic read can leave the SetStore briefly inconsistent, so retry locked.
+			}
+		}
+		
 		readLock.lock();
 		
 		try {
@@ -151,26 +348,66 @@ public class UniqueSet<E> implements Set<E> {
 	
 	@Override
 	public boolean containsAll(Collection<?> c) {
-		return set.containsAll(c);
+		readLock.lock();
+		
+		try {
+			for (Object o : c) {
+				if (!set.contains(o))
+					return false;
+			}
+			
+			return true;
+		}
+		finally {
+			readLock.unlock();
+		}
 	}
 	
+	/**
+	 * Returns true if the specified Object is a Set with the same elements as this UniqueSet, as the Set contract
+	 * requires, so a UniqueSet can equal any other kind of Set and the comparison is symmetric.
+	 * @param o The Object to compare to.
+	 * @return True if o equals this, otherwise false.
+	 * @since JDK-21
+	 */
 	@Override
 	public boolean equals(Object o) {
-		if (o == null)
-			return false;
+		if (o == this)
+			return true;
 		
-		if (o instanceof UniqueSet<?>)
-			return ((UniqueSet<?>)o).size() == this.size() && ((UniqueSet<?>)o).containsAll(set);
+		if (o instanceof Set<?>) {
+			Set<?> other = (Set<?>)o;
+			Object[] elements = snapshot();
+			
+			return other.size() == elements.length && other.containsAll(Arrays.asList(elements));
+		}
 		
 		return false;
 	}
 	
+	/**
+	 * Performs the specified action on each element of this UniqueSet in insertion order. The elements are visited in
+	 * place under a single acquisition of the read lock, without copying them, so the action must not modify this
+	 * UniqueSet. To modify this UniqueSet while looping over it, use {@link #iterator()}.
+	 * @param action The action to perform on each element.
+	 * @throws NullPointerException Thrown if action is null.
+	 * @since JDK-21
+	 */
 	@Override
-	public int hashCode() {
+	public void forEach(Consumer<? super E> action)
+			throws NullPointerException {
+		if (action == null)
+			throw new NullPointerException("Cannot perform a null action on the elements of a UniqueSet.");
+		
 		readLock.lock();
 		
 		try {
-			return set.hashCode();
+			for (int i = 0; i < set.slots(); ++i) {
+				E e = set.get(i);
+				
+				if (e != null)
+					action.accept(e);
+			}
 		}
 		finally {
 			readLock.unlock();
@@ -178,25 +415,77 @@ public class UniqueSet<E> implements Set<E> {
 	}
 	
 	@Override
-	public boolean isEmpty() {
+	public int hashCode() {
+		int ret = 0;
+		
 		readLock.lock();
 		
 		try {
-			return set.isEmpty();
+			for (int i = 0; i < set.slots(); ++i) {
+				E e = set.get(i);
+				
+				if (e != null)
+					ret += e.hashCode();
+			}
 		}
 		finally {
 			readLock.unlock();
 		}
+		
+		return ret;
+	}
+	
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
 	}
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Returns an iterator over the elements of this UniqueSet in insertion order. The iterator walks a snapshot of the
+	 * elements that is shared with every other iterator until this UniqueSet next changes, so it does not copy the
+	 * elements unless this UniqueSet changed since the last snapshot, and it never sees later changes. Removing an
+	 * element through the iterator removes it from this UniqueSet.
+	 * @return An iterator over the elements of this.
+	 * @since JDK-21
+	 */
 	@Override
 	public Iterator<E> iterator() {
-		return ((ArrayList<E>)set.clone()).iterator();
+		Object[] elements = snapshot();
+		
+		return new Iterator<E>() {
+			
+			private int next = 0;
+			private Object last = null;
+			
+			@Override
+			public boolean hasNext() {
+				return next < elements.length;
+			}
+			
+			@SuppressWarnings("unchecked")
+			@Override
+			public E next() {
+				if (next >= elements.length)
+					throw new NoSuchElementException("Cannot iterate past the end of a UniqueSet.");
+				
+				last = elements[next++];
+				return (E)last;
+			}
+			
+			@Override
+			public void remove() {
+				if (last == null)
+					throw new IllegalStateException("Cannot remove an element before calling next.");
+				
+				UniqueSet.this.remove(last);
+				last = null;
+			}
+		
+		};
 	}
 
 	@Override
-	public synchronized boolean remove(Object o) {
+	public boolean remove(Object o) {
 		writeLock.lock();
 		
 		try {
@@ -208,31 +497,57 @@ public class UniqueSet<E> implements Set<E> {
 	}
 	
 	@Override
-	public synchronized boolean removeAll(Collection<?> c) {
+	public boolean removeAll(Collection<?> c) {
+		boolean ret = false;
+		
 		writeLock.lock();
 		
 		try {
-			return set.removeAll(c);
+			for (Object o : c)
+				ret |= set.remove(o);
 		}
 		finally {
 			writeLock.unlock();
 		}
+		
+		return ret;
 	}
 	
 	@Override
-	public synchronized boolean retainAll(Collection<?> c) {
+	public boolean retainAll(Collection<?> c) {
+		boolean ret = false;
+		
 		writeLock.lock();
 		
 		try {
-			return set.retainAll(c);
+			Iterator<E> it = set.iterator();
+			
+			while (it.hasNext()) {
+				E e = it.next();
+				
+				if (!c.contains(e)) {
+					it.remove();
+					ret = true;
+				}
+			}
 		}
 		finally {
 			writeLock.unlock();
 		}
+		
+		return ret;
 	}
 	
 	@Override
 	public int size() {
+		if (stampedLock != null) {
+			long stamp = stampedLock.tryOptimisticRead();
+			int ret = set.size();
+			
+			if (stampedLock.validate(stamp))
+				return ret;
+		}
+		
 		readLock.lock();
 		
 		try {
@@ -243,6 +558,18 @@ public class UniqueSet<E> implements Set<E> {
 		}
 	}
 	
+	/**
+	 * Returns a spliterator over the elements of this UniqueSet in insertion order. Like {@link #iterator()}, the
+	 * spliterator walks the shared snapshot of the elements and never sees later changes.
+	 * @return A spliterator over the elements of this.
+	 * @since JDK-21
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return Spliterators.spliterator(snapshot(), Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.ORDERED
+				| Spliterator.IMMUTABLE);
+	}
+	
 	@Override
 	public Object[] toArray() {
 		readLock.lock();
@@ -269,25 +596,61 @@ public class UniqueSet<E> implements Set<E> {
 	
 	@Override
 	public String toString() {
-		String ret = "{ ";
+		StringBuilder ret = new StringBuilder("{ ");
 		
 		readLock.lock();
 		
 		try {
-			for (int i = 0; i < set.size(); ++i) {
-				if (i < set.size() - 1)
-					ret += set.get(i).toString() + ", ";
-				else
-					ret += set.get(i).toString();
+			Iterator<E> it = set.iterator();
+			
+			while (it.hasNext()) {
+				ret.append(it.next().toString());
+				
+				if (it.hasNext())
+					ret.append(", ");
 			}
 			
-			ret += " }";
+			ret.append(" }");
 		}
 		finally {
 			readLock.unlock();
 		}
 		
-		return ret;
+		return ret.toString();
+	}
+
+	/**
+	 * Returns the elements of this UniqueSet in insertion order as of the latest snapshot, taking a new snapshot first
+	 * if this UniqueSet changed since the last one. The returned array is shared and must not be modified.
+	 * @return The elements of this.
+	 * @since JDK-21
+	 */
+	private Object[] snapshot() {
+		if (stampedLock != null) {
+			long stamp = stampedLock.tryOptimisticRead();
+			Snapshot s = snapshot;
+			SetStore<E> store = set;
+			int version = store.version();
+			
+			if (stampedLock.validate(stamp) && s != null && s.store == store && s.version == version)
+				return s.elements;
+		}
+		
+		readLock.lock();
+		
+		try {
+			Snapshot s = snapshot;
+			
+			if (s == null || s.store != set || s.version != set.version()) {
+				s = new Snapshot(set);
+				snapshot = s;
+			}
+			
+			return s.elements;
+		}
+		finally {
+			readLock.unlock();
+		}
 	}
 
 }
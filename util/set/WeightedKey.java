@@ -1,15 +1,24 @@
 package babs.mindforge.util.set;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 import java.util.Map.Entry;
 
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * WeightedKey class represents a key value that has a weight value associated with it. The weight value in a 
- * WeightedKey has an {@link #update()} method and a {@link #normalize(Float)} method that are used by WeightedSets 
- * to update and normalize the weight based on the other weights in the WeightedSet. WeightedKey implements Entry and 
- * is thread-safe.
+ * WeightedKey has an {@link #update()} method and a {@link #normalize(Float)} method that update and normalize the
+ * weight while the WeightedKey is in no WeightedSet. While a WeightedKey is in a WeightedSet only that WeightedSet
+ * changes its weight, so that it stays in order there, and the public methods that change the weight throw an
+ * IllegalStateException. While a WeightedKey is in a WeightedSet it stores a raw weight, and its weight value is the
+ * raw weight divided by a divisor shared by the whole WeightedSet, so the WeightedSet can normalize every weight at
+ * once by changing the divisor. The key is final and the weight is a primitive float held in a single long together
+ * with the generation of the divisor it belongs to, which is updated by compare-and-set, so a WeightedKey needs no
+ * lock, reading it never blocks, and updating it allocates nothing. In a {@link WeightedSet.Weighting#SPACE_SAVING}
+ * WeightedSet the weight value is instead the count of the bucket the WeightedKey is in, and {@link #error()} bounds
+ * how much that count may overstate. WeightedKey implements Entry and is thread-safe.
  * 
  * @author Monroe Gordon
  * @version 0.0.0
@@ -20,26 +29,229 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 public class WeightedKey<E> implements Entry<E, Float> {
 	
 	/**
-	 * A read/write lock used to ensure thread-safety.
+	 * Bucket class holds the WeightedKeys of a SPACE_SAVING WeightedSet that have the same count, in the order they
+	 * reached it. The buckets of a WeightedSet form a list in increasing order of count, so incrementing a count moves
+	 * a WeightedKey to the next bucket in constant time.
+	
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @param <E> The key type.
+	 * @see WeightedSet
+	 * @since JDK-21
 	 */
-	protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	static final class Bucket<E> {
+		
+		/**
+		 * The count of the WeightedKeys in the bucket.
+		 */
+		final long count;
+		/**
+		 * The WeightedKey that reached the count first, or null.
+		 */
+		Counted<E> first;
+		/**
+		 * The WeightedKey that reached the count last, or null.
+		 */
+		Counted<E> last;
+		/**
+		 * The bucket with the next lower count, or null.
+		 */
+		Bucket<E> prev;
+		/**
+		 * The bucket with the next higher count, or null.
+		 */
+		Bucket<E> next;
+		
+		/**
+		 * Constructor that creates an empty bucket for the specified count.
+		 * @param count The count of the bucket.
+		 * @since JDK-21
+		 */
+		Bucket(long count) {
+			this.count = count;
+		}
+	
+	}
+	
 	/**
-	 * The read lock from the read/write lock.
+	 * Counted class is the WeightedKey that a SPACE_SAVING WeightedSet holds for each of its keys, linked into the
+	 * bucket of its count. Only SPACE_SAVING WeightedSets create Counted WeightedKeys, so the WeightedKeys of other
+	 * WeightedSets do not carry the bucket links or the error.
+	
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @param <E> The key type.
+	 * @see WeightedSet
+	 * @since JDK-21
 	 */
-	protected final Lock readLock = lock.readLock();
+	static final class Counted<E> extends WeightedKey<E> {
+		
+		/**
+		 * The bucket of the SPACE_SAVING WeightedSet that holds the WeightedKey, or null. While this is set the weight
+		 * value is the count of the bucket.
+		 */
+		volatile Bucket<E> bucket;
+		/**
+		 * The WeightedKey before this in its bucket, or null. This is guarded by the write lock of the WeightedSet.
+		 */
+		Counted<E> prev;
+		/**
+		 * The WeightedKey after this in its bucket, or null. This is guarded by the write lock of the WeightedSet.
+		 */
+		Counted<E> next;
+		/**
+		 * The count of the WeightedKey this replaced in the SPACE_SAVING WeightedSet.
+		 */
+		volatile long error;
+		
+		/**
+		 * Constructor that creates a Counted WeightedKey with the specified key, in no bucket.
+		 * @param key The key value.
+		 * @since JDK-21
+		 */
+		Counted(E key) {
+			super(key);
+		}
+		
+		@Override
+		public long error() {
+			return error;
+		}
+		
+		@Override
+		boolean counted() {
+			return bucket != null;
+		}
+		
+		@Override
+		float weight() {
+			Bucket<E> b = bucket;
+			
+			return b != null ? b.count : super.weight();
+		}
+	
+	}
+	
+	/**
+	 * Scale class holds the divisor that the raw weights of the WeightedKeys in a WeightedSet are divided by. A
+	 * WeightedSet replaces its Scale instead of resetting it when it rescales the raw weights, and links the old Scale
+	 * to the new one, so a WeightedKey can always find the Scale its raw weight belongs to. A Scale with a half-life
+	 * ignores its divisor field and instead doubles its divisor every half-life after its landmark time, which decays
+	 * every weight value at once without touching a WeightedKey.
+	
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @see WeightedSet
+	 * @since JDK-21
+	 */
+	static final class Scale {
+		
+		/**
+		 * The source of the generations of Scales.
+		 */
+		private static final AtomicInteger GENERATIONS = new AtomicInteger();
+		/**
+		 * The most half-lives a decaying divisor counts, so that the divisor stays a finite float.
+		 */
+		private static final double MAX_HALF_LIVES = 127.0;
+		
+		/**
+		 * The generation of the Scale, which is unique and never 0.
+		 */
+		final int generation;
+		/**
+		 * The half-life of the weight values in nanoseconds, or 0 if they do not decay.
+		 */
+		final long halfLife;
+		/**
+		 * The time in nanoseconds at which the divisor of a decaying Scale is 1.
+		 */
+		final long landmark;
+		/**
+		 * The divisor of the raw weights, unless they decay.
+		 */
+		volatile float divisor = 1.0f;
+		/**
+		 * The Scale that replaced this Scale, or null.
+		 */
+		volatile Scale next;
+		
+		/**
+		 * Constructor that creates a Scale with a divisor of 1 and a new generation.
+		 * @since JDK-21
+		 */
+		Scale() {
+			this(0L);
+		}
+		
+		/**
+		 * Constructor that creates a Scale with the specified half-life, a divisor of 1 and a new generation. A
+		 * decaying Scale takes the current time as its landmark.
+		 * @param halfLife The half-life of the weight values in nanoseconds, or 0 if they do not decay.
+		 * @since JDK-21
+		 */
+		Scale(long halfLife) {
+			int g;
+			
+			do {
+				g = GENERATIONS.incrementAndGet();
+			} while (g == 0);
+			
+			generation = g;
+			this.halfLife = halfLife;
+			landmark = halfLife == 0L ? 0L : System.nanoTime();
+		}
+		
+		/**
+		 * Returns the divisor of the raw weights, which for a decaying Scale is 2 raised to the number of half-lives
+		 * since the landmark time, counting at most {@link #MAX_HALF_LIVES}. Each call reads the clock, so a caller
+		 * that needs one divisor for a whole operation keeps the value it read.
+		 * @return The current divisor.
+		 * @since JDK-21
+		 */
+		float divisor() {
+			if (halfLife == 0L)
+				return divisor;
+			
+			return (float)Math.pow(2.0, Math.min((double)(System.nanoTime() - landmark) / halfLife, MAX_HALF_LIVES));
+		}
+	
+	}
+	
 	/**
-	 * The write lock from the read/write lock.
+	 * VarHandle used to read and compare-and-set the state of a WeightedKey.
 	 */
-	protected final Lock writeLock = lock.writeLock();
+	private static final VarHandle STATE;
+	
+	static {
+		try {
+			STATE = MethodHandles.lookup().findVarHandle(WeightedKey.class, "state", long.class);
+		}
+		catch (ReflectiveOperationException ex) {
+			throw new ExceptionInInitializerError(ex);
+		}
+	}
 	
 	/**
 	 * The key value.
 	 */
-	private E key;
+	private final E key;
+	/**
+	 * The value associated with the key, which represents the weight of the key, as float bits in the low 32 bits,
+	 * and the generation of the Scale it belongs to in the high 32 bits, or 0 if it is the weight value itself. This
+	 * is the raw weight while the WeightedKey is in a WeightedSet.
+	 */
+	private volatile long state;
 	/**
-	 * The value associated with the key. This value represents the weight of the key.
+	 * The Scale of the WeightedSet that holds the WeightedKey, or null if no WeightedSet holds it. This is written
+	 * after the state, so a reader that sees a Scale sees a state of that generation or a later one.
 	 */
-	private Float value;
+	private volatile Scale scale;
+	/**
+	 * The position of the WeightedKey in the heap of the WeightedSet that holds it, or -1 if no WeightedSet holds it.
+	 * This is guarded by the write lock of that WeightedSet.
+	 */
+	int index = -1;
 	
 	/**
 	 * Constructor that initializes this WeightedKey with the specified key and a weight value of 1.
@@ -51,7 +263,7 @@ public class WeightedKey<E> implements Entry<E, Float> {
 			throw new NullPointerException("Cannot create a WeightedKey with a null key.");
 		
 		this.key = key;
-		value = 1.0f;
+		state = pack(0, 1.0f);
 	}
 	
 	/**
@@ -66,110 +278,220 @@ public class WeightedKey<E> implements Entry<E, Float> {
 			return false;
 		
 		if (o instanceof WeightedKey<?>)
-			return ((WeightedKey<?>)o).getKey().equals(key) && ((WeightedKey<?>)o).getValue().equals(value);
+			return ((WeightedKey<?>)o).getKey().equals(key) && ((WeightedKey<?>)o).getValue().equals(getValue());
 		
 		return false;
 	}
+	
+	/**
+	 * Returns the error of the weight value of this WeightedKey in the SPACE_SAVING WeightedSet that holds it or held
+	 * it last, which is the count of the WeightedKey it replaced there. The number of times the key was added since it
+	 * entered that WeightedSet is at least the weight value minus the error, and at most the weight value. Only the
+	 * WeightedKeys that a SPACE_SAVING WeightedSet holds, such as those returned by its {@link WeightedSet#topK(int)},
+	 * have an error.
+	 * @return The error of this, or 0 if it replaced nothing or was never held by a SPACE_SAVING WeightedSet.
+	 * @since JDK-21
+	 */
+	public long error() {
+		return 0L;
+	}
 
 	@Override
 	public E getKey() {
-		readLock.lock();
-		
-		try {
-			return key;
-		}
-		finally {
-			readLock.unlock();
-		}
+		return key;
 	}
 
 	@Override
 	public Float getValue() {
-		readLock.lock();
-		
-		try {
-			return value;
-		}
-		finally {
-			readLock.unlock();
-		}
+		return weight();
 	}
 	
 	@Override
 	public int hashCode() {
-		readLock.lock();
-		
-		try {
-			return key.hashCode() + (((Float)value).hashCode() << 1);
-		}
-		finally {
-			readLock.unlock();
-		}
+		return key.hashCode() + (Float.hashCode(weight()) << 1);
 	}
 	
 	/**
 	 * Normalizes the weight value by dividing it by the specified max weight value. If the max weight value is 0, 
 	 * the weight value remains unchanged.
 	 * @param max The max weight value. This is the greatest weight value among this WeightedKey and others it is 
-	 * grouped with, typically in a WeightedSet.
+	 * grouped with.
 	 * @return The normalized weight value.
+	 * @throws IllegalStateException Thrown if this WeightedKey is in a WeightedSet.
 	 * @see WeightedSet
 	 * @since JDK-21
 	 */
-	public Float normalize(Float max) {
-		writeLock.lock();
+	public Float normalize(Float max)
+			throws IllegalStateException {
+		long s;
 		
-		try {
-			if (max > 0.0f)
-				value /= max;
+		do {
+			s = detachedState();
+		} while (max > 0.0f && !STATE.compareAndSet(this, s, pack(0, raw(s) / max)));
 			
-			return value;
-		}
-		finally {
-			writeLock.unlock();
-		}
+		return weight();
 	}
 
+	/**
+	 * Sets the weight value of this WeightedKey to the specified value.
+	 * @param value The new weight value.
+	 * @return The previous weight value.
+	 * @throws IllegalStateException Thrown if this WeightedKey is in a WeightedSet.
+	 * @since JDK-21
+	 */
 	@Override
-	public Float setValue(Float value) {
-		writeLock.lock();
+	public Float setValue(Float value)
+			throws IllegalStateException {
+		long s;
 		
-		try {
-			Float ret = value;
-			this.value = value;
-			return ret;
-		}
-		finally {
-			writeLock.unlock();
-		}
+		do {
+			s = detachedState();
+		} while (!STATE.compareAndSet(this, s, pack(0, value)));
+				
+		return raw(s);
 	}
 	
 	@Override
 	public String toString() {
-		readLock.lock();
-		
-		try {
-			return String.format("(%s, %f)", key.toString(), value);
-		}
-		finally {
-			readLock.unlock();
-		}
+		return String.format("(%s, %f)", key.toString(), weight());
 	}
 	
 	/**
-	 * Updates the weight value by incrementing it by 1.
+	 * Updates the weight value by incrementing it by 1. A WeightedSet increments the weight of a WeightedKey it holds
+	 * itself when its key is added again.
 	 * @return The updated weight value.
+	 * @throws IllegalStateException Thrown if this WeightedKey is in a WeightedSet.
 	 * @since JDK-21
 	 */
-	public Float update() {
-		writeLock.lock();
+	public Float update()
+			throws IllegalStateException {
+		long s;
+		float raw;
 		
-		try {
-			value += 1.0f;
-			return value;
-		}
-		finally {
-			writeLock.unlock();
+		do {
+			s = detachedState();
+			raw = raw(s) + 1.0f;
+		} while (!STATE.compareAndSet(this, s, pack(0, raw)));
+				
+		return raw;
+	}
+
+	/**
+	 * Attaches this WeightedKey to the specified Scale with the specified raw weight, or detaches it with the
+	 * specified weight value if the Scale is null. Only the WeightedSet that holds this, or is about to, calls this,
+	 * with its write lock held.
+	 * @param scale The Scale of the WeightedSet that holds this, or null.
+	 * @param raw The raw weight.
+	 * @since JDK-21
+	 */
+	void attach(Scale scale, float raw) {
+		state = pack(scale == null ? 0 : scale.generation, raw);
+		this.scale = scale;
+	}
+	
+	/**
+	 * Returns true if this WeightedKey is in the bucket of a SPACE_SAVING WeightedSet, which makes its weight value
+	 * the count of the bucket.
+	 * @return True if this is counted, otherwise false.
+	 * @since JDK-21
+	 */
+	boolean counted() {
+		return false;
+	}
+	
+	/**
+	 * Returns the raw weight of this WeightedKey, which is its weight value if no WeightedSet holds it.
+	 * @return The raw weight of this.
+	 * @since JDK-21
+	 */
+	float raw() {
+		return raw(state);
+	}
+	
+	/**
+	 * Returns the state of this WeightedKey, whose raw weight is its weight value since no WeightedSet holds it.
+	 * @return The state of this.
+	 * @throws IllegalStateException Thrown if a WeightedSet holds this WeightedKey.
+	 * @since JDK-21
+	 */
+	private long detachedState()
+			throws IllegalStateException {
+		long s = state;
+		
+		if (generation(s) != 0 || counted())
+			throw new IllegalStateException("Cannot change the weight of a WeightedKey in a WeightedSet.");
+		
+		return s;
+	}
+		
+	/**
+	 * Returns the Scale of the specified generation, starting at the specified Scale and following the Scales that
+	 * replaced it.
+	 * @param sc The Scale to start at, or null.
+	 * @param generation The generation to find.
+	 * @return The Scale of generation, or null if it is not sc or a later Scale.
+	 * @since JDK-21
+	 */
+	private static Scale find(Scale sc, int generation) {
+		while (sc != null && sc.generation != generation)
+			sc = sc.next;
+		
+		return sc;
+	}
+	
+	/**
+	 * Returns the generation of the Scale the specified state belongs to, or 0 if it belongs to none.
+	 * @param state A state.
+	 * @return The generation of state.
+	 * @since JDK-21
+	 */
+	private static int generation(long state) {
+		return (int)(state >>> 32);
+	}
+	
+	/**
+	 * Returns the state with the specified generation and raw weight.
+	 * @param generation The generation of the Scale, or 0.
+	 * @param raw The raw weight.
+	 * @return The state.
+	 * @since JDK-21
+	 */
+	private static long pack(int generation, float raw) {
+		return ((long)generation << 32) | (Float.floatToRawIntBits(raw) & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Returns the raw weight of the specified state.
+	 * @param state A state.
+	 * @return The raw weight of state.
+	 * @since JDK-21
+	 */
+	private static float raw(long state) {
+		return Float.intBitsToFloat((int)state);
+	}
+	
+	/**
+	 * Returns the weight value of this WeightedKey without locking. The Scale is read before the state, so the Scale
+	 * of the state is the Scale read or one that replaced it, unless this WeightedKey moved between WeightedSets
+	 * in between, in which case the read is retried.
+	 * @return The weight value of this.
+	 * @since JDK-21
+	 */
+	float weight() {
+		while (true) {
+			Scale sc = scale;
+			long s = state;
+			int g = generation(s);
+			
+			if (g == 0)
+				return raw(s);
+			
+			Scale t = find(sc, g);
+			
+			if (t != null)
+				return raw(s) / t.divisor();
+			
+			Thread.onSpinWait();
 		}
 	}
 
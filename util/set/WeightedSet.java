@@ -1,19 +1,40 @@
 package babs.mindforge.util.set;
 
+import java.time.Duration;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * WeightedSet class represents a set of WeightedKeys, which are key values with a weight value associated with them. 
  * Unlike normal sets, when checking if a WeightedSet contains an item, the item can just be the key value alone. The
  * associated weight value does not have to be included, since the weight value will change often. When an element is 
- * added to a WeightedSet, if the set already contains the element, the weight value for that element is incremented 
- * and then all weights in the set are normalized based on the maximum weight value in the set. WeightedSets have a 
- * default maximum capacity of 1000. This can be changed with the {@link #WeightedSet(int)} constructor. If an 
- * element is added that will cause the WeightedSet to exceed its maximum capacity, then the element with the lowest 
- * weight value will be removed to allow the new element to be added. WeightedSet extends LimitedSet and is 
- * thread-safe.
+ * added to a WeightedSet, if the set already contains the element, the weight value for that element is incremented
+ * and then all weights in the set are normalized based on the maximum weight value in the set. Normalization is lazy:
+ * each WeightedKey keeps a raw weight, and its weight value is the raw weight divided by the largest raw weight in the
+ * set, so normalizing only changes that shared divisor, and the raw weights are only rescaled once they grow too large
+ * for a float. WeightedSets have a default maximum capacity of 1000. This can be changed with the
+ * {@link #WeightedSet(int)} constructor. If an element is added that will cause the WeightedSet to exceed its maximum
+ * capacity, then the element with the lowest weight value will be removed to allow the new element to be added. A
+ * WeightedSet created with a half-life, such as by {@link #WeightedSet(int, Duration)}, does not normalize its weights
+ * but decays them instead: each increment of 1 halves every half-life, so keys that stop being added lose their weight
+ * and are evicted first. Decay is forward decay: raw weights are stored relative to a landmark time and the shared
+ * divisor grows with time, so decay costs nothing per WeightedKey, and the landmark is moved forward only when the
+ * divisor grows too large for a float. Because every raw weight shares the same divisor, ordering by raw weight is
+ * ordering by decayed weight. Keys are unique within a WeightedSet and are found through the hash table of the
+ * WeightedSet, so finding a key takes constant time on average. The WeightedKeys are also kept in an indexed min-heap
+ * ordered by weight, so the element with the lowest weight is found in constant time and updating or evicting an
+ * element takes logarithmic time. A WeightedKey belongs to at most one WeightedSet, and adding a WeightedKey that is
+ * already in another WeightedSet adds a copy of it. The WeightedKeys of a WeightedSet can be read through its iterator
+ * and {@link #topK(int)}, but while a WeightedKey is in a WeightedSet its weight only changes through the WeightedSet,
+ * which keeps it in order, and changing it directly throws an IllegalStateException. A {@link Weighting#SPACE_SAVING}
+ * WeightedSet counts its keys instead, to find the most frequent keys of a stream with a bounded error, and
+ * {@link #topK(int)} returns the WeightedKeys with the greatest weights in any WeightedSet. WeightedSet extends
+ * LimitedSet with the {@link LimitedSet.Eviction#LOWEST_WEIGHT} eviction, counting its hits, misses and evictions like
+ * any LimitedSet, and is thread-safe.
  * 
  * @author Monroe Gordon
  * @version 0.0.0
@@ -24,13 +45,89 @@ import java.util.Iterator;
  */
 public class WeightedSet<E> extends LimitedSet<WeightedKey<E>> {
 	
+	/**
+	 * Weighting enum represents how a WeightedSet weighs its keys.
+	
+	 * @author Monroe Gordon
+	 * @version 0.0.0
+	 * @since JDK-21
+	 */
+	public enum Weighting {
+		
+		/**
+		 * Each add increments the weight of a key by 1, and then every weight is divided by the greatest weight, so
+		 * the weights are at most 1.
+		 */
+		NORMALIZED,
+		/**
+		 * Each add increments the weight of a key by 1, and every weight halves once per half-life. A DECAYED
+		 * WeightedSet is created with a half-life, such as by {@link WeightedSet#WeightedSet(int, Duration)}.
+		 */
+		DECAYED,
+		/**
+		 * The Space-Saving algorithm: the weight of a key is the number of times it was added, and a key added while
+		 * the WeightedSet is full replaces the key with the lowest count, taking that count plus 1 as its own and the
+		 * replaced count as its {@link WeightedKey#error()}. Any key added more often than the number of adds divided
+		 * by the maximum capacity is guaranteed to be in the WeightedSet. The WeightedKeys are kept in buckets of
+		 * equal count, so each add takes constant time.
+		 */
+		SPACE_SAVING
+	
+	}
+	
+	/**
+	 * The raw weight above which the raw weights are rescaled so that they cannot overflow.
+	 */
+	private static final float RESCALE_LIMIT = 0x1p100f;
+	/**
+	 * The divisor of decaying weights above which the landmark time is moved forward so that the raw weights cannot
+	 * overflow.
+	 */
+	private static final float DECAY_LIMIT = 0x1p64f;
+	
+	/**
+	 * The WeightedKeys in a min-heap ordered by weight. Each WeightedKey knows its position in the heap.
+	 */
+	private WeightedKey<E>[] heap;
+	/**
+	 * The number of WeightedKeys in the heap.
+	 */
+	private int heapSize;
+	/**
+	 * The Scale shared by the WeightedKeys, whose divisor turns their raw weights into weight values.
+	 */
+	private WeightedKey.Scale scale;
+	/**
+	 * The largest raw weight, or 0 if every raw weight is smaller, unless maxStale is set.
+	 */
+	private float maxRaw;
+	/**
+	 * True if the WeightedKey with the largest raw weight was removed since maxRaw was computed.
+	 */
+	private boolean maxStale;
+	/**
+	 * The half-life of the weight values in nanoseconds, or 0 if they are normalized instead of decayed.
+	 */
+	private final long halfLife;
+	/**
+	 * The bucket with the lowest count in a SPACE_SAVING WeightedSet, or null.
+	 */
+	private WeightedKey.Bucket<E> head;
+	/**
+	 * The bucket with the highest count in a SPACE_SAVING WeightedSet, or null.
+	 */
+	private WeightedKey.Bucket<E> tail;
+	/**
+	 * How this WeightedSet weighs its keys.
+	 */
+	protected final Weighting weighting;
+	
 	/**
 	 * Default constructor that creates an empty WeightedSet with the default maximum capacity.
 	 * @since JDK-21
 	 */
 	public WeightedSet() {
-		maxCapacity = DEF_MAX_CAPACITY;
-		set = new ArrayList<WeightedKey<E>>(DEF_MAX_CAPACITY);
+		this(DEF_MAX_CAPACITY, Concurrency.READ_WRITE);
 	}
 	
 	/**
@@ -39,11 +136,99 @@ public class WeightedSet<E> extends LimitedSet<WeightedKey<E>> {
 	 * @since JDK-21
 	 */
 	public WeightedSet(int maxCapacity) {
-		if (maxCapacity < 0)
-			throw new IllegalArgumentException("Cannot create a LimitedSet with a negative maximum capacity.");
+		this(maxCapacity, Concurrency.READ_WRITE);
+	}
 		
-		this.maxCapacity = maxCapacity;
-		set = new ArrayList<WeightedKey<E>>(maxCapacity);
+	/**
+	 * Constructor that creates an empty WeightedSet with the specified maximum capacity and concurrency mode.
+	 * @param maxCapacity The maximum capacity of this.
+	 * @param concurrency How to guard the elements against concurrent access.
+	 * @throws IllegalArgumentException Thrown if maxCapacity is negative.
+	 * @throws NullPointerException Thrown if concurrency is null.
+	 * @since JDK-21
+	 */
+	public WeightedSet(int maxCapacity, Concurrency concurrency)
+			throws IllegalArgumentException, NullPointerException {
+		this(maxCapacity, concurrency, Weighting.NORMALIZED, 0L);
+	}
+	
+	/**
+	 * Constructor that creates an empty WeightedSet with the specified maximum capacity and weighting.
+	 * @param maxCapacity The maximum capacity of this.
+	 * @param weighting How to weigh the keys.
+	 * @throws IllegalArgumentException Thrown if maxCapacity is negative or weighting is DECAYED.
+	 * @throws NullPointerException Thrown if weighting is null.
+	 * @since JDK-21
+	 */
+	public WeightedSet(int maxCapacity, Weighting weighting)
+			throws IllegalArgumentException, NullPointerException {
+		this(maxCapacity, Concurrency.READ_WRITE, weighting);
+	}
+	
+	/**
+	 * Constructor that creates an empty WeightedSet with the specified maximum capacity, concurrency mode and
+	 * weighting. A DECAYED WeightedSet needs a half-life, so it is created by
+	 * {@link #WeightedSet(int, Concurrency, Duration)} instead.
+	 * @param maxCapacity The maximum capacity of this.
+	 * @param concurrency How to guard the elements against concurrent access.
+	 * @param weighting How to weigh the keys.
+	 * @throws IllegalArgumentException Thrown if maxCapacity is negative or weighting is DECAYED.
+	 * @throws NullPointerException Thrown if concurrency or weighting is null.
+	 * @since JDK-21
+	 */
+	public WeightedSet(int maxCapacity, Concurrency concurrency, Weighting weighting)
+			throws IllegalArgumentException, NullPointerException {
+		this(maxCapacity, concurrency, checkWeighting(weighting), 0L);
+	}
+	
+	/**
+	 * Constructor that creates an empty WeightedSet with the specified maximum capacity whose weights decay with the
+	 * specified half-life instead of being normalized.
+	 * @param maxCapacity The maximum capacity of this.
+	 * @param halfLife The time it takes a weight value to halve.
+	 * @throws IllegalArgumentException Thrown if maxCapacity is negative or halfLife is not positive.
+	 * @throws NullPointerException Thrown if halfLife is null.
+	 * @since JDK-21
+	 */
+	public WeightedSet(int maxCapacity, Duration halfLife)
+			throws IllegalArgumentException, NullPointerException {
+		this(maxCapacity, Concurrency.READ_WRITE, halfLife);
+	}
+	
+	/**
+	 * Constructor that creates an empty WeightedSet with the specified maximum capacity and concurrency mode whose
+	 * weights decay with the specified half-life instead of being normalized.
+	 * @param maxCapacity The maximum capacity of this.
+	 * @param concurrency How to guard the elements against concurrent access.
+	 * @param halfLife The time it takes a weight value to halve.
+	 * @throws IllegalArgumentException Thrown if maxCapacity is negative or halfLife is not positive.
+	 * @throws NullPointerException Thrown if concurrency or halfLife is null.
+	 * @since JDK-21
+	 */
+	public WeightedSet(int maxCapacity, Concurrency concurrency, Duration halfLife)
+			throws IllegalArgumentException, NullPointerException {
+		this(maxCapacity, concurrency, Weighting.DECAYED, checkHalfLife(halfLife));
+	}
+	
+	/**
+	 * Constructor that creates an empty WeightedSet with the specified maximum capacity, concurrency mode, weighting
+	 * and half-life in nanoseconds.
+	 * @param maxCapacity The maximum capacity of this.
+	 * @param concurrency How to guard the elements against concurrent access.
+	 * @param weighting How to weigh the keys.
+	 * @param halfLife The half-life of the weight values in nanoseconds, or 0 unless weighting is DECAYED.
+	 * @throws IllegalArgumentException Thrown if maxCapacity is negative.
+	 * @throws NullPointerException Thrown if concurrency is null.
+	 * @since JDK-21
+	 */
+	private WeightedSet(int maxCapacity, Concurrency concurrency, Weighting weighting, long halfLife)
+			throws IllegalArgumentException, NullPointerException {
+		super(SetStore.create(Backend.HASH, checkMaxCapacity(maxCapacity), WeightedSet::keyOf), maxCapacity,
+				concurrency, Eviction.LOWEST_WEIGHT);
+		this.weighting = weighting;
+		this.halfLife = halfLife;
+		scale = new WeightedKey.Scale(halfLife);
+		heap = newHeap(Math.min(maxCapacity, 16));
 	}
 	
 	/**
@@ -54,28 +239,16 @@ public class WeightedSet<E> extends LimitedSet<WeightedKey<E>> {
 	 * @since JDK-21
 	 */
 	public WeightedSet(Collection<? extends E> c) {
-		maxCapacity = (c.size() > DEF_MAX_CAPACITY) ? c.size() : DEF_MAX_CAPACITY;
-		set = new ArrayList<WeightedKey<E>>(maxCapacity);
+		this((c.size() > DEF_MAX_CAPACITY) ? c.size() : DEF_MAX_CAPACITY, Concurrency.READ_WRITE);
 		this.addAllKeys(c);
 	}
 	
 	/**
-	 * Constructor that initializes this WeightedSet to the contents of the specified WeightedSet.
-	 * @param c The WeightedSet to store into this WeightedSet.
-	 * @since JDK-21
-	 */
-	@SuppressWarnings("unchecked")
-	private WeightedSet(WeightedSet<E> set) {
-		this.maxCapacity = set.maxCapacity;
-		this.set = (ArrayList<WeightedKey<E>>)set.set.clone();
-	}
-	
-	/**
-	 * Adds the specified WeightedKey to this WeightedSet, if it does not already contain the specified WeightedKey. 
-	 * If this contains the specified WeightedKey, the weight of that WeightedKey is incremented and then all weight 
-	 * values for each element in this WeightedSet are normalized based on the maximum weight value in this 
-	 * WeightedSet. If adding the specified element will exceed this WeightedSet's maximum capacity, then the element 
-	 * with the lowest weight value will be removed to allow the specified element to be added. This returns false if 
+	 * Adds the specified WeightedKey to this WeightedSet, if it does not already contain the key of the specified
+	 * WeightedKey. If this contains the key, the weight of the contained WeightedKey is incremented and then all
+	 * weight values for each element in this WeightedSet are normalized based on the maximum weight value in this
+	 * WeightedSet. If adding the specified element will exceed this WeightedSet's maximum capacity, then the element
+	 * with the lowest weight value will be removed to allow the specified element to be added. This returns false if
 	 * the specified WeightedKey is null.
 	 * @param e The WeightedKey to add.
 	 * @return This returns false if e is null, otherwise true.
@@ -89,24 +262,12 @@ public class WeightedSet<E> extends LimitedSet<WeightedKey<E>> {
 		writeLock.lock();
 		
 		try {
-			for (int i = 0; i < set.size(); ++i) {
-				if (set.get(i).equals(e)) {
-					set.get(i).update();
+			int i = set.indexOf(e);
 					
-					float max = this.max();
-					
-					for (int j = 0; j < set.size(); ++j)
-						set.get(j).normalize(max);
-					
-					return true;
-				}
-			}
-			
-			if (this.size() == maxCapacity) {
-				set.remove(this.minIndex());
-			}
-				
-			set.add(e);
+			if (i != -1)
+				hit(i);
+			else
+				insert(e);
 		}
 		finally {
 			writeLock.unlock();
@@ -132,24 +293,12 @@ public class WeightedSet<E> extends LimitedSet<WeightedKey<E>> {
 		writeLock.lock();
 		
 		try {
-			for (int i = 0; i < set.size(); ++i) {
-				if (set.get(i).getKey().equals(e)) {
-					set.get(i).update();
+			int i = set.indexOf(e);
 					
-					float max = this.max();
-					
-					for (int j = 0; j < set.size(); ++j)
-						set.get(j).normalize(max);
-					
-					return true;
-				}
-			}
-			
-			if (this.size() == maxCapacity) {
-				set.remove(this.minIndex());
-			}
-				
-			set.add(new WeightedKey<E>(e));
+			if (i != -1)
+				hit(i);
+			else
+				insert(newKey(e));
 		}
 		finally {
 			writeLock.unlock();
@@ -181,26 +330,16 @@ public class WeightedSet<E> extends LimitedSet<WeightedKey<E>> {
 		try {
 			while (it.hasNext()) {
 				WeightedKey<E> e = it.next();
-				boolean r = false;
 				
-				for (int i = 0; i < set.size() && r == false; ++i) {
-					if (set.get(i).equals(e)) {
-						set.get(i).update();
+				if (e == null)
+					continue;
 						
-						float max = this.max();
+				int i = set.indexOf(e);
 						
-						for (int j = 0; j < set.size(); ++j)
-							set.get(j).normalize(max);
-						
-						r = true;
-					}
-				}
-				
-				if (this.size() == maxCapacity) {
-					set.remove(this.minIndex());
-				}
-					
-				set.add(e);
+				if (i != -1)
+					hit(i);
+				else
+					insert(e);
 			}
 		}
 		finally {
@@ -232,26 +371,16 @@ public class WeightedSet<E> extends LimitedSet<WeightedKey<E>> {
 		try {
 			while (it.hasNext()) {
 				E e = it.next();
-				boolean r = false;
 				
-				for (int i = 0; i < set.size() && r == false; ++i) {
-					if (set.get(i).getKey().equals(e)) {
-						set.get(i).update();
+				if (e == null)
+					continue;
 						
-						float max = this.max();
+				int i = set.indexOf(e);
 						
-						for (int j = 0; j < set.size(); ++j)
-							set.get(j).normalize(max);
-						
-						r = true;
-					}
-				}
-				
-				if (this.size() == maxCapacity) {
-					set.remove(this.minIndex());
-				}
-					
-				set.add(new WeightedKey<E>(e));
+				if (i != -1)
+					hit(i);
+				else
+					insert(newKey(e));
 			}
 		}
 		finally {
@@ -261,9 +390,115 @@ public class WeightedSet<E> extends LimitedSet<WeightedKey<E>> {
 		return true;
 	}
 	
+	@Override
+	public void clear() {
+		writeLock.lock();
+		
+		try {
+			for (int i = 0; i < heapSize; ++i) {
+				heap[i].attach(null, heap[i].getValue());
+				heap[i].index = -1;
+			}
+			
+			while (head != null)
+				uncount(head.first);
+			
+			Arrays.fill(heap, 0, heapSize, null);
+			heapSize = 0;
+			scale = new WeightedKey.Scale(halfLife);
+			maxRaw = 0.0f;
+			maxStale = false;
+			set.clear();
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns a copy of this WeightedSet with the same maximum capacity, concurrency mode, weighting and half-life,
+	 * holding copies of the WeightedKeys of this WeightedSet.
+	 * @return A copy of this.
+	 * @since JDK-21
+	 */
 	@Override
 	public WeightedSet<E> clone() {
-		return new WeightedSet<E>(this);
+		readLock.lock();
+		
+		try {
+			WeightedSet<E> ret = new WeightedSet<E>(maxCapacity, concurrency, weighting, halfLife);
+			
+			if (weighting == Weighting.SPACE_SAVING) {
+				for (WeightedKey.Bucket<E> b = head; b != null; b = b.next) {
+					WeightedKey.Bucket<E> copy = ret.bucketAfter(ret.tail, b.count);
+					
+					for (WeightedKey.Counted<E> k = b.first; k != null; k = k.next) {
+						WeightedKey.Counted<E> c = new WeightedKey.Counted<E>(k.getKey());
+						
+						c.error = k.error;
+						ret.set.add(c);
+						ret.append(c, copy);
+					}
+				}
+				
+				return ret;
+			}
+			
+			for (int i = 0; i < set.slots(); ++i) {
+				WeightedKey<E> k = set.get(i);
+				
+				if (k != null)
+					ret.link(copyOf(k));
+			}
+			
+			return ret;
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the specified half-life in nanoseconds if it is valid.
+	 * @param halfLife The half-life to check.
+	 * @return The nanoseconds in halfLife, or Long.MAX_VALUE if there are more.
+	 * @throws IllegalArgumentException Thrown if halfLife is not positive.
+	 * @throws NullPointerException Thrown if halfLife is null.
+	 * @since JDK-21
+	 */
+	private static long checkHalfLife(Duration halfLife)
+			throws IllegalArgumentException, NullPointerException {
+		if (halfLife == null)
+			throw new NullPointerException("Cannot create a WeightedSet with a null half-life.");
+		
+		if (halfLife.isNegative() || halfLife.isZero())
+			throw new IllegalArgumentException("Cannot create a WeightedSet with a half-life that is not positive.");
+		
+		try {
+			return Math.max(halfLife.toNanos(), 1L);
+		}
+		catch (ArithmeticException ex) {
+			return Long.MAX_VALUE;
+		}
+	}
+	
+	/**
+	 * Returns the specified weighting if it is valid without a half-life.
+	 * @param weighting The weighting to check.
+	 * @return weighting.
+	 * @throws IllegalArgumentException Thrown if weighting is DECAYED.
+	 * @throws NullPointerException Thrown if weighting is null.
+	 * @since JDK-21
+	 */
+	private static Weighting checkWeighting(Weighting weighting)
+			throws IllegalArgumentException, NullPointerException {
+		if (weighting == null)
+			throw new NullPointerException("Cannot create a WeightedSet with a null weighting.");
+		
+		if (weighting == Weighting.DECAYED)
+			throw new IllegalArgumentException("Cannot create a DECAYED WeightedSet without a half-life.");
+		
+		return weighting;
 	}
 	
 	/**
@@ -276,16 +511,11 @@ public class WeightedSet<E> extends LimitedSet<WeightedKey<E>> {
 		readLock.lock();
 		
 		try {
-			for (int i = 0; i < set.size(); ++i) {
-				if (set.get(i).getKey().equals(e))
-					return true;
-			}
+			return set.contains(e);
 		}
 		finally {
 			readLock.unlock();
 		}
-		
-		return false;
 	}
 	
 	/**
@@ -310,82 +540,237 @@ public class WeightedSet<E> extends LimitedSet<WeightedKey<E>> {
 		if (o == null)
 			return false;
 		
-		if (o instanceof WeightedSet<?>)
-			return ((WeightedSet<?>)o).size() == this.size() && ((WeightedSet<?>)o).set.containsAll(set);
+		if (o instanceof WeightedSet<?>) {
+			WeightedSet<?> other = (WeightedSet<?>)o;
+			Object[] keys = this.toArray();
+			
+			if (other.size() != keys.length)
+				return false;
+			
+			other.readLock.lock();
+			
+			try {
+				for (Object k : keys) {
+					int i = other.set.indexOf(k);
+					
+					if (i == -1 || !other.set.get(i).equals(k))
+						return false;
+				}
+			}
+			finally {
+				other.readLock.unlock();
+			}
+			
+			return true;
+		}
 		
 		return false;
 	}
 	
+	/**
+	 * Returns the half-life of the weight values of this WeightedSet.
+	 * @return The half-life of this, or null if its weights are normalized instead of decayed.
+	 * @since JDK-21
+	 */
+	public Duration halfLife() {
+		return halfLife == 0L ? null : Duration.ofNanos(halfLife);
+	}
+	
+	/**
+	 * Increments the weight of the WeightedKey in the specified slot and then normalizes all weights based on the
+	 * maximum weight value in this WeightedSet, by making the largest raw weight the divisor. If the weights decay
+	 * they are not normalized, and if they are counted the WeightedKey moves to the next bucket instead. The write
+	 * lock must be held.
+	 * @param slot The slot of the WeightedKey that was hit.
+	 * @since JDK-21
+	 */
+	private void hit(int slot) {
+		WeightedKey<E> hit = set.get(slot);
+		
+		recordHit();
+		
+		if (weighting == Weighting.SPACE_SAVING) {
+			WeightedKey.Counted<E> c = (WeightedKey.Counted<E>)hit;
+			WeightedKey.Bucket<E> b = c.bucket;
+			WeightedKey.Bucket<E> n = bucketAfter(b, b.count + 1L);
+			
+			detach(c);
+			append(c, n);
+			return;
+		}
+		
+		float divisor = rebase();
+		
+		hit.attach(scale, hit.raw() + divisor);
+		siftDown(hit.index);
+		
+		float raw = hit.raw();
+		
+		if (!maxStale && raw > maxRaw)
+			maxRaw = raw;
+		
+		if (halfLife != 0L)
+			return;
+			
+		float max = maxRaw();
+		
+		if (max > 0.0f) {
+			scale.divisor = max;
+			
+			if (max > RESCALE_LIMIT)
+				rescale(max);
+		}
+	}
+	
+	/**
+	 * Adds the specified WeightedKey, whose key is not in this WeightedSet, removing the element with the lowest
+	 * weight value first if this WeightedSet is full. In a SPACE_SAVING WeightedSet the added WeightedKey takes over
+	 * the count of the removed one, and the WeightedSet holds a Counted WeightedKey for it. The write lock must be
+	 * held.
+	 * @param e The WeightedKey to add.
+	 * @since JDK-21
+	 */
+	private void insert(WeightedKey<E> e) {
+		long error = 0L;
+		
+		recordMiss();
+		
+		if (set.size() >= maxCapacity) {
+			if (maxCapacity == 0)
+				return;
+			
+			if (weighting == Weighting.SPACE_SAVING)
+				error = head.count;
+			
+			unlink(lowest());
+			recordEviction();
+		}
+		
+		if (weighting != Weighting.SPACE_SAVING) {
+			link((e.index == -1 && !e.counted()) ? e : copyOf(e));
+			return;
+		}
+		
+		WeightedKey.Counted<E> k;
+		
+		if (e instanceof WeightedKey.Counted<E> c && !c.counted())
+			k = c;
+		else
+			k = new WeightedKey.Counted<E>(e.getKey());
+		
+		// The lowest count is now error or higher, so the bucket for error + 1 is at or right after the head.
+		k.error = error;
+		set.add(k);
+		append(k, bucketAfter(head != null && head.count == error ? head : null, error + 1L));
+	}
+	
+	/**
+	 * Finds and returns the largest raw weight, or 0 if every raw weight is smaller. A lock must be held.
+	 * @return The largest raw weight in this.
+	 * @since JDK-21
+	 */
+	private float findMaxRaw() {
+		float max = 0.0f;
+		
+		for (int i = 0; i < heapSize; ++i)
+			max = Math.max(max, heap[i].raw());
+		
+		return max;
+	}
+	
+	/**
+	 * Returns the key that the specified WeightedKey or key is looked up by in the SetStore of a WeightedSet.
+	 * @param o A WeightedKey or a key.
+	 * @return The key of o.
+	 * @since JDK-21
+	 */
+	private static Object keyOf(Object o) {
+		return (o instanceof WeightedKey<?>) ? ((WeightedKey<?>)o).getKey() : o;
+	}
+	
 	/**
 	 * Finds and returns the maximum weight value in this WeightedSet.
 	 * @return The maximum weight value in this.
 	 * @since JDK-21
 	 */
 	public float max() {
-		float max = 0.0f;
-		
 		readLock.lock();
 		
 		try {
-			for (int i = 0; i < set.size(); ++i) {
-				if (set.get(i).getValue() > max)
-					max = set.get(i).getValue();
-			}
+			if (weighting == Weighting.SPACE_SAVING)
+				return tail == null ? 0.0f : tail.count;
+			
+			return (maxStale ? findMaxRaw() : maxRaw) / scale.divisor();
 		}
 		finally {
 			readLock.unlock();
 		}
+	}
+	
+	/**
+	 * Returns the largest raw weight, or 0 if every raw weight is smaller, first finding it again if the WeightedKey
+	 * that had it was removed. The write lock must be held.
+	 * @return The largest raw weight in this.
+	 * @since JDK-21
+	 */
+	private float maxRaw() {
+		if (maxStale) {
+			maxRaw = findMaxRaw();
+			maxStale = false;
+		}
 		
-		return max;
+		return maxRaw;
 	}
 	
 	/**
-	 * Finds and returns the minimum weight value in this WeightedSet.
+	 * Finds and returns the minimum weight value in this WeightedSet, which is at most 1 unless the weights decay.
 	 * @return The minimum weight value in this.
 	 * @since JDK-21
 	 */
 	public float min() {
-		float min = 1.0f;
-		
 		readLock.lock();
 		
 		try {
-			for (int i = 0; i < set.size(); ++i) {
-				if (set.get(i).getValue() <= min)
-					min = set.get(i).getValue();
-			}
+			if (weighting == Weighting.SPACE_SAVING)
+				return head == null ? 1.0f : head.count;
+			
+			if (heapSize == 0)
+				return 1.0f;
+			
+			return halfLife == 0L ? Math.min(1.0f, heap[0].getValue()) : heap[0].getValue();
 		}
 		finally {
 			readLock.unlock();
 		}
-		
-		return min;
 	}
 	
-	/**
-	 * Finds and returns the index of the element with the minimum weight value.
-	 * @return The index of the minimum weight value.
-	 * @since JDK-21
-	 */
-	private int minIndex() {
-		float min = 1.0f;
-		int index = 0;
+	@Override
+	public boolean remove(Object o) {
+		writeLock.lock();
 		
-		readLock.lock();
+		try {
+			return removeEntry(o);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+		
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		boolean ret = false;
+		
+		writeLock.lock();
 		
 		try {
-			for (int i = 0; i < set.size(); ++i) {
-				if (set.get(i).getValue() <= min) {
-					min = set.get(i).getValue();
-					index = i;
-				}
-			}
+			for (Object o : c)
+				ret |= removeEntry(o);
 		}
 		finally {
-			readLock.unlock();
+			writeLock.unlock();
 		}
 		
-		return index;
+		return ret;
 	}
 	
 	/**
@@ -398,18 +783,11 @@ public class WeightedSet<E> extends LimitedSet<WeightedKey<E>> {
 		writeLock.lock();
 		
 		try {
-			for (int i = 0; i < set.size(); ++i) {
-				if (set.get(i).getKey().equals(e)) {
-					set.remove(i);
-					return true;
-				}
-			}
+			return removeEntry(e);
 		}
 		finally {
 			writeLock.unlock();
 		}
-		
-		return false;
 	}
 	
 	/**
@@ -425,15 +803,38 @@ public class WeightedSet<E> extends LimitedSet<WeightedKey<E>> {
 		writeLock.lock();
 		
 		try {
+			while (it.hasNext())
+				ret |= removeEntry(it.next());
+		}
+		finally {
+			writeLock.unlock();
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Removes any WeightedKeys that do not have their key value in the specified Collection of keys, thereby 
+	 * retaining only the WeightedKeys whose key value is contained in the specified Collection.
+	 * @param c The Collection of keys to retain.
+	 * @return True if this WeightedSet is changed after this method call.
+	 * @since JDK-21
+	 */
+	public boolean retainAllKeys(Collection<E> c) {
+		boolean ret = false;
+		
+		writeLock.lock();
+		
+		try {
+			Iterator<WeightedKey<E>> it = set.iterator();
+			
 			while (it.hasNext()) {
-				E e = it.next();
-				boolean r = false;
+				WeightedKey<E> k = it.next();
 				
-				for (int i = 0; i < set.size() && r == false; ++i) {
-					if (set.get(i).getKey().equals(e)) {
-						set.remove(i);
-						r = true;
-					}
+				if (!c.contains(k.getKey())) {
+					it.remove();
+					unheap(k);
+					ret = true;
 				}
 			}
 		}
@@ -445,42 +846,434 @@ public class WeightedSet<E> extends LimitedSet<WeightedKey<E>> {
 	}
 	
 	@Override
-	public boolean removeAll(Collection<?> c) {
+	public boolean retainAll(Collection<?> c) {
+		boolean ret = false;
+		
 		writeLock.lock();
 		
 		try {
-			return set.removeAll(c);
+			Iterator<WeightedKey<E>> it = set.iterator();
+			
+			while (it.hasNext()) {
+				WeightedKey<E> k = it.next();
+				
+				if (!c.contains(k)) {
+					it.remove();
+					unheap(k);
+					ret = true;
+				}
+			}
 		}
 		finally {
 			writeLock.unlock();
 		}
+		
+		return ret;
 	}
 	
 	/**
-	 * Removes any WeightedKeys that do not have their key value in the specified Collection of keys, thereby 
-	 * retaining only the WeightedKeys whose key value is contained in the specified Collection.
-	 * @param c The Collection of keys to retain.
-	 * @return True if this WeightedSet is changed after this method call.
+	 * This sets the maximum element capacity of this WeightedSet to the specified value. If there are more elements
+	 * than the new maximum element capacity allows for, the elements with the lowest weight values are removed.
+	 * @param maxCapacity The new maximum element capacity.
+	 * @throws IllegalArgumentException Thrown if maxCapacity is negative.
 	 * @since JDK-21
 	 */
-	public boolean retainAllKeys(Collection<E> c) {
-		boolean ret = false;
+	@Override
+	public void setMaxCapacity(int maxCapacity)
+			throws IllegalArgumentException {
+		checkMaxCapacity(maxCapacity);
 		
 		writeLock.lock();
 		
 		try {
-			for (int i = set.size() - 1; i >= 0; --i) {
-				if (!c.contains(set.get(i).getKey())) {
-					set.remove(i);
-					ret = true;
-				}
+			this.maxCapacity = maxCapacity;
+			
+			while (set.size() > maxCapacity) {
+				unlink(lowest());
+				recordEviction();
 			}
 		}
 		finally {
 			writeLock.unlock();
 		}
+	}
+	
+	/**
+	 * Returns the WeightedKeys with the specified number of greatest weight values in this WeightedSet, from the
+	 * greatest down. In a SPACE_SAVING WeightedSet the WeightedKeys with equal counts are in the order they reached
+	 * their count, and a returned WeightedKey whose weight value minus its error is at least the weight value of the
+	 * next WeightedKey is guaranteed to be among that many most frequent keys.
+	 * @param k The number of WeightedKeys to return.
+	 * @return A List of the min(k, size()) heaviest WeightedKeys in this.
+	 * @throws IllegalArgumentException Thrown if k is negative.
+	 * @since JDK-21
+	 */
+	public List<WeightedKey<E>> topK(int k)
+			throws IllegalArgumentException {
+		if (k < 0)
+			throw new IllegalArgumentException("Cannot find a negative number of WeightedKeys.");
+		
+		readLock.lock();
+		
+		try {
+			ArrayList<WeightedKey<E>> ret = new ArrayList<WeightedKey<E>>(Math.min(k, set.size()));
+			
+			if (weighting == Weighting.SPACE_SAVING) {
+				for (WeightedKey.Bucket<E> b = tail; b != null && ret.size() < k; b = b.prev) {
+					for (WeightedKey.Counted<E> e = b.first; e != null && ret.size() < k; e = e.next)
+						ret.add(e);
+				}
+				
+				return ret;
+			}
+			
+			WeightedKey<E>[] keys = Arrays.copyOf(heap, heapSize);
+			
+			Arrays.sort(keys, (a, b) -> Float.compare(b.raw(), a.raw()));
+			
+			for (int i = 0; i < keys.length && i < k; ++i)
+				ret.add(keys[i]);
+			
+			return ret;
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the weighting of this WeightedSet.
+	 * @return The weighting of this.
+	 * @since JDK-21
+	 */
+	public Weighting weighting() {
+		return weighting;
+	}
+	
+	/**
+	 * Appends the specified WeightedKey, which is in no bucket, to the specified bucket of this SPACE_SAVING
+	 * WeightedSet. The write lock must be held.
+	 * @param k The WeightedKey to append.
+	 * @param b The bucket to append k to.
+	 * @since JDK-21
+	 */
+	private void append(WeightedKey.Counted<E> k, WeightedKey.Bucket<E> b) {
+		k.prev = b.last;
+		k.next = null;
+		
+		if (b.last == null)
+			b.first = k;
+		else
+			b.last.next = k;
+		
+		b.last = k;
+		k.bucket = b;
+	}
+	
+	/**
+	 * Returns the bucket with the specified count right after the specified bucket, or at the head if that is null,
+	 * linking a new bucket there if there is none. The write lock must be held.
+	 * @param prev The bucket the returned bucket follows, or null.
+	 * @param count The count of the returned bucket, which is more than the count of prev and at most the count of
+	 * the bucket after prev.
+	 * @return The bucket with count.
+	 * @since JDK-21
+	 */
+	private WeightedKey.Bucket<E> bucketAfter(WeightedKey.Bucket<E> prev, long count) {
+		WeightedKey.Bucket<E> n = prev == null ? head : prev.next;
+		
+		if (n != null && n.count == count)
+			return n;
+		
+		WeightedKey.Bucket<E> b = new WeightedKey.Bucket<E>(count);
+		
+		b.prev = prev;
+		b.next = n;
 		
+		if (n == null)
+			tail = b;
+		else
+			n.prev = b;
+		
+		if (prev == null)
+			head = b;
+		else
+			prev.next = b;
+		
+		return b;
+	}
+	
+	/**
+	 * Returns a new WeightedKey with the same key and weight as the specified WeightedKey.
+	 * @param k The WeightedKey to copy.
+	 * @return A copy of k.
+	 * @since JDK-21
+	 */
+	private static <E> WeightedKey<E> copyOf(WeightedKey<E> k) {
+		WeightedKey<E> ret = new WeightedKey<E>(k.getKey());
+		
+		ret.setValue(k.getValue());
 		return ret;
 	}
 	
+	/**
+	 * Takes the specified WeightedKey out of the list of its bucket, unlinking the bucket if that leaves it empty. The
+	 * bucket of the WeightedKey is left set until it is appended elsewhere or uncounted. The write lock must be held.
+	 * @param k The WeightedKey to take out.
+	 * @since JDK-21
+	 */
+	private void detach(WeightedKey.Counted<E> k) {
+		WeightedKey.Bucket<E> b = k.bucket;
+		
+		if (k.prev == null)
+			b.first = k.next;
+		else
+			k.prev.next = k.next;
+		
+		if (k.next == null)
+			b.last = k.prev;
+		else
+			k.next.prev = k.prev;
+		
+		k.prev = null;
+		k.next = null;
+		
+		if (b.first != null)
+			return;
+		
+		if (b.prev == null)
+			head = b.next;
+		else
+			b.prev.next = b.next;
+		
+		if (b.next == null)
+			tail = b.prev;
+		else
+			b.next.prev = b.prev;
+	}
+	
+	/**
+	 * Adds the specified WeightedKey, whose key is not in this WeightedSet and which is in no heap, to the SetStore
+	 * and the heap. The write lock must be held.
+	 * @param k The WeightedKey to add.
+	 * @since JDK-21
+	 */
+	private void link(WeightedKey<E> k) {
+		if (heapSize == heap.length)
+			heap = Arrays.copyOf(heap, Math.max(heap.length << 1, 1));
+		
+		float raw = k.getValue() * rebase();
+		
+		k.attach(scale, raw);
+		
+		if (raw > maxRaw)
+			maxRaw = raw;
+		
+		set.add(k);
+		heap[heapSize] = k;
+		k.index = heapSize++;
+		siftUp(k.index);
+	}
+	
+	/**
+	 * Creates an empty heap array with the specified length.
+	 * @param length The length of the heap array.
+	 * @return A new heap array.
+	 * @since JDK-21
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E> WeightedKey<E>[] newHeap(int length) {
+		return (WeightedKey<E>[])new WeightedKey<?>[length];
+	}
+	
+	/**
+	 * Creates a WeightedKey for the specified key, which is a Counted WeightedKey in a SPACE_SAVING WeightedSet.
+	 * @param key The key value.
+	 * @return A new WeightedKey with key.
+	 * @since JDK-21
+	 */
+	private WeightedKey<E> newKey(E key) {
+		return weighting == Weighting.SPACE_SAVING ? new WeightedKey.Counted<E>(key) : new WeightedKey<E>(key);
+	}
+	
+	/**
+	 * Returns the WeightedKey with the lowest weight value, which is the next to be evicted. This WeightedSet must not
+	 * be empty, and a lock must be held.
+	 * @return The lightest WeightedKey in this.
+	 * @since JDK-21
+	 */
+	private WeightedKey<E> lowest() {
+		return weighting == Weighting.SPACE_SAVING ? head.first : heap[0];
+	}
+	
+	/**
+	 * Puts the specified WeightedKey at the specified heap position and records the position in it.
+	 * @param k The WeightedKey to put.
+	 * @param i The heap position to put k at.
+	 * @since JDK-21
+	 */
+	private void place(WeightedKey<E> k, int i) {
+		heap[i] = k;
+		k.index = i;
+	}
+	
+	/**
+	 * Moves the landmark time of decaying weights to now if their divisor has grown too large, and returns the divisor
+	 * of the raw weights after that. The divisor of decaying weights grows with time, so an operation reads it once
+	 * here and uses the returned divisor throughout, instead of reading a larger one after it was checked. The write
+	 * lock must be held.
+	 * @return The divisor of the raw weights.
+	 * @since JDK-21
+	 */
+	private float rebase() {
+		float divisor = scale.divisor();
+		
+		if (halfLife == 0L || divisor <= DECAY_LIMIT)
+			return divisor;
+		
+		rescale(divisor);
+		
+		return 1.0f;
+	}
+	
+	/**
+	 * Removes the WeightedKey with the same key as the specified WeightedKey or key from the SetStore and the heap.
+	 * The write lock must be held.
+	 * @param o The WeightedKey or key to remove.
+	 * @return True if a WeightedKey was removed, otherwise false.
+	 * @since JDK-21
+	 */
+	private boolean removeEntry(Object o) {
+		int i = set.indexOf(o);
+		
+		if (i == -1)
+			return false;
+		
+		unheap(set.removeAt(i));
+		
+		return true;
+	}
+	
+	/**
+	 * Divides every raw weight by the specified divisor of the current Scale and starts a new Scale with a divisor of
+	 * 1, which leaves every weight value unchanged. For decaying weights the new Scale has the current time as its
+	 * landmark. This keeps the raw weights from overflowing. The write lock must be held.
+	 * @param divisor The divisor of the current Scale.
+	 * @since JDK-21
+	 */
+	private void rescale(float divisor) {
+		WeightedKey.Scale next = new WeightedKey.Scale(halfLife);
+		
+		// Link the old Scale first, so that a reader holding it can find the Scale of a WeightedKey already moved.
+		scale.next = next;
+		
+		for (int i = 0; i < heapSize; ++i)
+			heap[i].attach(next, heap[i].raw() / divisor);
+		
+		maxRaw /= divisor;
+		scale = next;
+	}
+	
+	/**
+	 * Moves the WeightedKey at the specified heap position down until neither of its children weighs less.
+	 * @param i The heap position to sift down from.
+	 * @since JDK-21
+	 */
+	private void siftDown(int i) {
+		WeightedKey<E> k = heap[i];
+		float w = k.raw();
+		int half = heapSize >>> 1;
+		
+		while (i < half) {
+			int c = (i << 1) + 1;
+			
+			if (c + 1 < heapSize && heap[c + 1].raw() < heap[c].raw())
+				++c;
+			
+			if (w <= heap[c].raw())
+				break;
+			
+			place(heap[c], i);
+			i = c;
+		}
+		
+		place(k, i);
+	}
+	
+	/**
+	 * Moves the WeightedKey at the specified heap position up until its parent does not weigh more.
+	 * @param i The heap position to sift up from.
+	 * @since JDK-21
+	 */
+	private void siftUp(int i) {
+		WeightedKey<E> k = heap[i];
+		float w = k.raw();
+		
+		while (i > 0) {
+			int p = (i - 1) >>> 1;
+			
+			if (heap[p].raw() <= w)
+				break;
+			
+			place(heap[p], i);
+			i = p;
+		}
+		
+		place(k, i);
+	}
+	
+	/**
+	 * Removes the specified WeightedKey of this SPACE_SAVING WeightedSet from its bucket, leaving its count as its
+	 * weight value. The write lock must be held.
+	 * @param k The WeightedKey to remove.
+	 * @since JDK-21
+	 */
+	private void uncount(WeightedKey.Counted<E> k) {
+		detach(k);
+		k.attach(null, k.bucket.count);
+		k.bucket = null;
+	}
+	
+	/**
+	 * Removes the specified WeightedKey, which has already been removed from the SetStore, from the heap, or from its
+	 * bucket in a SPACE_SAVING WeightedSet. The write lock must be held.
+	 * @param k The WeightedKey to remove.
+	 * @since JDK-21
+	 */
+	private void unheap(WeightedKey<E> k) {
+		if (weighting == Weighting.SPACE_SAVING) {
+			uncount((WeightedKey.Counted<E>)k);
+			return;
+		}
+		
+		int i = k.index;
+		WeightedKey<E> last = heap[--heapSize];
+		
+		heap[heapSize] = null;
+		k.index = -1;
+		
+		if (k.raw() >= maxRaw)
+			maxStale = true;
+		
+		k.attach(null, k.getValue());
+		
+		if (i != heapSize) {
+			place(last, i);
+			siftDown(i);
+			
+			if (last.index == i)
+				siftUp(i);
+		}
+	}
+	
+	/**
+	 * Removes the specified WeightedKey from the SetStore and the heap, or its bucket. The write lock must be held.
+	 * @param k The WeightedKey to remove.
+	 * @since JDK-21
+	 */
+	private void unlink(WeightedKey<E> k) {
+		set.remove(k);
+		unheap(k);
+	}
+
 }